@@ -20,6 +20,8 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.LinkedHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import libcore.util.IntIntMap;
+import libcore.util.IntObjectMap;
 
 /**
  * How do the various hash maps compare?
@@ -64,4 +66,67 @@ public class HashedCollectionsBenchmark {
             map.get("hello");
         }
     }
+
+    // Maps from int keys, like file descriptors. These are dense and above the Integer cache,
+    // like the descriptors of a busy process.
+    private static final int INT_KEY_COUNT = 1024;
+    private static final int INT_KEY_BASE = 1024;
+
+    public int timeHashMapGet_IntKeys(int reps) {
+        HashMap<Integer, Integer> map = new HashMap<Integer, Integer>();
+        for (int i = 0; i < INT_KEY_COUNT; ++i) {
+            map.put(INT_KEY_BASE + i, i);
+        }
+        int sum = 0;
+        for (int i = 0; i < reps; ++i) {
+            sum += map.get(INT_KEY_BASE + (i & (INT_KEY_COUNT - 1)));
+        }
+        return sum;
+    }
+    public int timeIntIntMapGet(int reps) {
+        IntIntMap map = new IntIntMap();
+        for (int i = 0; i < INT_KEY_COUNT; ++i) {
+            map.put(INT_KEY_BASE + i, i);
+        }
+        int sum = 0;
+        for (int i = 0; i < reps; ++i) {
+            sum += map.get(INT_KEY_BASE + (i & (INT_KEY_COUNT - 1)), 0);
+        }
+        return sum;
+    }
+    public int timeIntObjectMapGet(int reps) {
+        IntObjectMap<String> map = new IntObjectMap<String>();
+        for (int i = 0; i < INT_KEY_COUNT; ++i) {
+            map.put(INT_KEY_BASE + i, "world");
+        }
+        int count = 0;
+        for (int i = 0; i < reps; ++i) {
+            if (map.get(INT_KEY_BASE + (i & (INT_KEY_COUNT - 1))) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    public void timeHashMapPutRemove_IntKeys(int reps) {
+        HashMap<Integer, Integer> map = new HashMap<Integer, Integer>();
+        for (int i = 0; i < INT_KEY_COUNT; ++i) {
+            map.put(INT_KEY_BASE + i, i);
+        }
+        for (int i = 0; i < reps; ++i) {
+            int key = INT_KEY_BASE + (i & (INT_KEY_COUNT - 1));
+            map.remove(key);
+            map.put(key, i);
+        }
+    }
+    public void timeIntIntMapPutRemove(int reps) {
+        IntIntMap map = new IntIntMap();
+        for (int i = 0; i < INT_KEY_COUNT; ++i) {
+            map.put(INT_KEY_BASE + i, i);
+        }
+        for (int i = 0; i < reps; ++i) {
+            int key = INT_KEY_BASE + (i & (INT_KEY_COUNT - 1));
+            map.remove(key);
+            map.put(key, i);
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Sorts large primitive arrays with {@link Arrays#sort} and {@link Arrays#parallelSort}.
+ */
+public class ArraysSortBenchmark {
+    public enum Shape {
+        RANDOM, SORTED, NEARLY_SORTED
+    }
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int arrayLength;
+
+    @Param
+    private Shape shape;
+
+    private int[] ints;
+    private long[] longs;
+    private float[] floats;
+    private double[] doubles;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        Random random = new Random(0);
+        ints = new int[arrayLength];
+        longs = new long[arrayLength];
+        floats = new float[arrayLength];
+        doubles = new double[arrayLength];
+        for (int i = 0; i < arrayLength; ++i) {
+            ints[i] = shape == Shape.RANDOM ? random.nextInt() : i;
+            longs[i] = shape == Shape.RANDOM ? random.nextLong() : i;
+            floats[i] = shape == Shape.RANDOM ? (float) random.nextGaussian() : i;
+            doubles[i] = shape == Shape.RANDOM ? random.nextGaussian() : i;
+        }
+        if (shape == Shape.NEARLY_SORTED) {
+            // Move one element in a hundred.
+            for (int i = 0; i < arrayLength / 100; ++i) {
+                int index = random.nextInt(arrayLength);
+                ints[index] = random.nextInt();
+                longs[index] = random.nextLong();
+                floats[index] = (float) random.nextGaussian();
+                doubles[index] = random.nextGaussian();
+            }
+        }
+    }
+
+    public void timeSortInt(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            Arrays.sort(ints.clone());
+        }
+    }
+
+    public void timeParallelSortInt(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            Arrays.parallelSort(ints.clone());
+        }
+    }
+
+    public void timeSortLong(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            Arrays.sort(longs.clone());
+        }
+    }
+
+    public void timeParallelSortLong(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            Arrays.parallelSort(longs.clone());
+        }
+    }
+
+    public void timeSortFloat(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            Arrays.sort(floats.clone());
+        }
+    }
+
+    public void timeParallelSortFloat(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            Arrays.parallelSort(floats.clone());
+        }
+    }
+
+    public void timeSortDouble(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            Arrays.sort(doubles.clone());
+        }
+    }
+
+    public void timeParallelSortDouble(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            Arrays.parallelSort(doubles.clone());
+        }
+    }
+}
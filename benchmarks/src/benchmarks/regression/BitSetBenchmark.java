@@ -19,6 +19,8 @@ package benchmarks.regression;
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Param;
 import java.util.BitSet;
+import java.util.Random;
+import libcore.util.RoaringBitmap;
 
 public class BitSetBenchmark {
     @Param({ "1000", "10000" })
@@ -26,9 +28,48 @@ public class BitSetBenchmark {
 
     private BitSet bs;
 
+    // Two sets of size values each, spread over a large range, and two sets of size values in
+    // clusters of 64 consecutive values, as BitSets and as RoaringBitmaps.
+    private BitSet sparseBitSet1;
+    private BitSet sparseBitSet2;
+    private BitSet clusteredBitSet1;
+    private BitSet clusteredBitSet2;
+    private RoaringBitmap sparseBitmap1;
+    private RoaringBitmap sparseBitmap2;
+    private RoaringBitmap clusteredBitmap1;
+    private RoaringBitmap clusteredBitmap2;
+
     @BeforeExperiment
     protected void setUp() throws Exception {
         bs = new BitSet(size);
+
+        Random random = new Random(0);
+        sparseBitSet1 = new BitSet();
+        sparseBitSet2 = new BitSet();
+        clusteredBitSet1 = new BitSet();
+        clusteredBitSet2 = new BitSet();
+        sparseBitmap1 = new RoaringBitmap();
+        sparseBitmap2 = new RoaringBitmap();
+        clusteredBitmap1 = new RoaringBitmap();
+        clusteredBitmap2 = new RoaringBitmap();
+        for (int i = 0; i < size; ++i) {
+            int value1 = random.nextInt(1 << 26);
+            int value2 = random.nextInt(1 << 26);
+            sparseBitSet1.set(value1);
+            sparseBitSet2.set(value2);
+            sparseBitmap1.add(value1);
+            sparseBitmap2.add(value2);
+        }
+        for (int i = 0; i < size; i += 64) {
+            int from1 = random.nextInt(1 << 20) * 64;
+            int from2 = random.nextInt(1 << 20) * 64;
+            clusteredBitSet1.set(from1, from1 + 64);
+            clusteredBitSet2.set(from2, from2 + 64);
+            clusteredBitmap1.add(from1, from1 + 64);
+            clusteredBitmap2.add(from2, from2 + 64);
+        }
+        clusteredBitmap1.runOptimize();
+        clusteredBitmap2.runOptimize();
     }
 
     public void timeIsEmptyTrue(int reps) {
@@ -73,4 +114,70 @@ public class BitSetBenchmark {
             bs.set(i % size, false);
         }
     }
+
+    public void timeAndSparseBitSet(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            BitSet result = (BitSet) sparseBitSet1.clone();
+            result.and(sparseBitSet2);
+        }
+    }
+
+    public void timeAndSparseRoaringBitmap(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            RoaringBitmap result = new RoaringBitmap();
+            result.or(sparseBitmap1);
+            result.and(sparseBitmap2);
+        }
+    }
+
+    public void timeOrClusteredBitSet(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            BitSet result = (BitSet) clusteredBitSet1.clone();
+            result.or(clusteredBitSet2);
+        }
+    }
+
+    public void timeOrClusteredRoaringBitmap(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            RoaringBitmap result = new RoaringBitmap();
+            result.or(clusteredBitmap1);
+            result.or(clusteredBitmap2);
+        }
+    }
+
+    public int timeCardinalitySparseBitSet(int reps) {
+        int dummy = 0;
+        for (int i = 0; i < reps; ++i) {
+            dummy += sparseBitSet1.cardinality();
+        }
+        return dummy;
+    }
+
+    public long timeCardinalitySparseRoaringBitmap(int reps) {
+        long dummy = 0;
+        for (int i = 0; i < reps; ++i) {
+            dummy += sparseBitmap1.cardinality();
+        }
+        return dummy;
+    }
+
+    public int timeGetSparseBitSet(int reps) {
+        int dummy = 0;
+        for (int i = 0; i < reps; ++i) {
+            if (sparseBitSet1.get((i * 0x9e3779b9) & ((1 << 26) - 1))) {
+                dummy++;
+            }
+        }
+        return dummy;
+    }
+
+    public int timeContainsSparseRoaringBitmap(int reps) {
+        int dummy = 0;
+        for (int i = 0; i < reps; ++i) {
+            if (sparseBitmap1.contains((i * 0x9e3779b9) & ((1 << 26) - 1))) {
+                dummy++;
+            }
+        }
+        return dummy;
+    }
 }
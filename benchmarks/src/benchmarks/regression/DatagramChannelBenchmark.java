@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Measures datagrams per second over loopback, moving one datagram per system call versus a
+ * batch per system call. Each rep sends and then receives {@code batchSize} datagrams.
+ */
+public class DatagramChannelBenchmark {
+    @Param({"1", "8", "32"}) private int batchSize;
+    @Param({"64", "1024"}) private int datagramSize;
+    @Param({"true", "false"}) private boolean direct;
+
+    private DatagramChannel sender;
+    private DatagramChannel receiver;
+    private ByteBuffer[] srcs;
+    private ByteBuffer[] dsts;
+    private SocketAddress[] targets;
+    private SocketAddress[] senders;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        receiver = DatagramChannel.open();
+        receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        // Make sure a whole batch fits in the receive queue.
+        receiver.socket().setReceiveBufferSize(256 * 1024);
+        sender = DatagramChannel.open();
+        srcs = new ByteBuffer[batchSize];
+        dsts = new ByteBuffer[batchSize];
+        targets = new SocketAddress[batchSize];
+        senders = new SocketAddress[batchSize];
+        for (int i = 0; i < batchSize; ++i) {
+            srcs[i] = direct ? ByteBuffer.allocateDirect(datagramSize)
+                    : ByteBuffer.allocate(datagramSize);
+            dsts[i] = direct ? ByteBuffer.allocateDirect(datagramSize)
+                    : ByteBuffer.allocate(datagramSize);
+            targets[i] = receiver.getLocalAddress();
+        }
+    }
+
+    public void timePerDatagram(int reps) throws Exception {
+        for (int rep = 0; rep < reps; ++rep) {
+            for (int i = 0; i < batchSize; ++i) {
+                srcs[i].clear();
+                sender.send(srcs[i], targets[i]);
+            }
+            for (int i = 0; i < batchSize; ++i) {
+                dsts[i].clear();
+                receiver.receive(dsts[i]);
+            }
+        }
+    }
+
+    public void timeBatched(int reps) throws Exception {
+        for (int rep = 0; rep < reps; ++rep) {
+            for (int i = 0; i < batchSize; ++i) {
+                srcs[i].clear();
+            }
+            sender.send(srcs, targets);
+            // A blocking batch receive may return before the whole batch has arrived.
+            int received = 0;
+            while (received < batchSize) {
+                for (int i = 0; i < batchSize; ++i) {
+                    dsts[i].clear();
+                }
+                received += receiver.receive(dsts, senders);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Measures sustained write throughput of a log-style writer that grows a file by many small
+ * appends, with and without reserving the file's space up front. Each rep writes a fresh
+ * {@code fileSize}-byte file and syncs it.
+ */
+public class FileAppendBenchmark {
+    @Param({"4096", "65536"}) private int appendSize;
+    @Param({"8388608"}) private int fileSize;
+    @Param({"true", "false"}) private boolean preallocate;
+
+    private File file;
+    private ByteBuffer buffer;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        file = File.createTempFile("FileAppendBenchmark", null);
+        file.deleteOnExit();
+        buffer = ByteBuffer.allocateDirect(appendSize);
+    }
+
+    public void timeAppend(int reps) throws Exception {
+        for (int rep = 0; rep < reps; ++rep) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(0);
+                FileChannel channel = raf.getChannel();
+                if (preallocate) {
+                    channel.preallocate(0, fileSize);
+                }
+                for (int written = 0; written < fileSize; written += appendSize) {
+                    buffer.clear();
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Calls {@link File#getCanonicalPath} from several threads at once, on a set of paths that
+ * either fits in the canonical path cache or doesn't.
+ */
+public class FileCanonicalPathBenchmark {
+    @Param({"1", "4", "8"}) private int threadCount;
+    @Param({"16", "1000"}) private int pathCount;
+
+    private File[] files;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        File dir = new File("/data/local/tmp", getClass().getSimpleName());
+        dir.mkdirs();
+        files = new File[pathCount];
+        for (int i = 0; i < pathCount; i++) {
+            files[i] = new File(dir, "file" + i);
+            files[i].createNewFile();
+        }
+    }
+
+    public void timeGetCanonicalPath(final int reps) throws Exception {
+        Thread[] threads = new Thread[threadCount];
+        final IOException[] failure = new IOException[1];
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t * 31;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int rep = 0; rep < reps; ++rep) {
+                        files[(rep + offset) % files.length].getCanonicalPath();
+                    }
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+}
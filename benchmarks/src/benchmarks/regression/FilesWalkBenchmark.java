@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+/**
+ * Walks a generated tree of directories with {@link Files#walk} and {@link Files#find}, both
+ * sequentially and in parallel.
+ */
+public class FilesWalkBenchmark {
+    private static final int FILES_PER_DIRECTORY = 100;
+    private static final int DIRECTORIES_PER_DIRECTORY = 10;
+
+    @Param({"10000", "1000000"}) private int fileCount;
+
+    private Path root;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        // Generating a million files takes minutes, so the tree outlives the experiment and
+        // is reused by the next one with the same size.
+        root = Paths.get("/data/local/tmp", getClass().getSimpleName() + "-" + fileCount);
+        Path done = root.resolve("done");
+        if (!Files.exists(done)) {
+            Files.createDirectories(root);
+            createTree(root, fileCount);
+            Files.createFile(done);
+        }
+    }
+
+    /**
+     * Creates {@code fileCount} empty files under {@code dir}, in leaf directories of
+     * {@link #FILES_PER_DIRECTORY} files and {@link #DIRECTORIES_PER_DIRECTORY} subdirectories
+     * per directory above them.
+     */
+    private static void createTree(Path dir, int fileCount) throws IOException {
+        if (fileCount <= FILES_PER_DIRECTORY) {
+            for (int i = 0; i < fileCount; i++) {
+                Files.createFile(dir.resolve("file" + i));
+            }
+            return;
+        }
+        int perSubdirectory = (fileCount + DIRECTORIES_PER_DIRECTORY - 1)
+                / DIRECTORIES_PER_DIRECTORY;
+        for (int i = 0; fileCount > 0; i++) {
+            Path subdirectory = Files.createDirectory(dir.resolve("dir" + i));
+            createTree(subdirectory, Math.min(perSubdirectory, fileCount));
+            fileCount -= perSubdirectory;
+        }
+    }
+
+    public long timeWalk(int reps) throws Exception {
+        long count = 0;
+        for (int rep = 0; rep < reps; ++rep) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                count += paths.count();
+            }
+        }
+        return count;
+    }
+
+    public long timeWalkParallel(int reps) throws Exception {
+        long count = 0;
+        for (int rep = 0; rep < reps; ++rep) {
+            try (Stream<Path> paths = Files.walk(root).parallel()) {
+                count += paths.count();
+            }
+        }
+        return count;
+    }
+
+    public long timeFind(int reps) throws Exception {
+        long count = 0;
+        for (int rep = 0; rep < reps; ++rep) {
+            try (Stream<Path> paths = Files.find(root, Integer.MAX_VALUE,
+                    (path, attrs) -> attrs.isRegularFile() && attrs.size() == 0)) {
+                count += paths.count();
+            }
+        }
+        return count;
+    }
+
+    public long timeFindParallel(int reps) throws Exception {
+        long count = 0;
+        for (int rep = 0; rep < reps; ++rep) {
+            try (Stream<Path> paths = Files.find(root, Integer.MAX_VALUE,
+                    (path, attrs) -> attrs.isRegularFile() && attrs.size() == 0).parallel()) {
+                count += paths.count();
+            }
+        }
+        return count;
+    }
+}
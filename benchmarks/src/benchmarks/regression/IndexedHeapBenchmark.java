@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import libcore.util.IndexedHeap;
+import libcore.util.IndexedLongHeap;
+
+/**
+ * Uses {@link PriorityQueue}, {@link IndexedHeap} and {@link IndexedLongHeap} like a scheduler:
+ * the same tasks with random deadlines are in each queue, and the benchmarks move them to new
+ * deadlines.
+ */
+public class IndexedHeapBenchmark {
+    @Param({"100", "10000", "1000000"}) private int queueSize;
+
+    private Random random = new Random(189279387L);
+    private long[] newDeadlines;
+    private PriorityQueue<Task> taskQueue;
+    private Task[] tasks;
+    private IndexedHeap<Task> taskHeap;
+    private List<IndexedHeap.Handle<Task>> taskHandles;
+    private IndexedLongHeap deadlineHeap;
+
+    private static final class Task implements Comparable<Task> {
+        final int id;
+        final long deadline;
+
+        Task(int id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
+
+        @Override public int compareTo(Task other) {
+            return Long.compare(deadline, other.deadline);
+        }
+    }
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        newDeadlines = new long[1024];
+        tasks = new Task[queueSize];
+        taskQueue = new PriorityQueue<Task>(queueSize);
+        taskHeap = new IndexedHeap<Task>();
+        taskHandles = new ArrayList<IndexedHeap.Handle<Task>>(queueSize);
+        deadlineHeap = new IndexedLongHeap(queueSize);
+        for (int i = 0; i < queueSize; i++) {
+            long deadline = random.nextInt(Integer.MAX_VALUE);
+            tasks[i] = new Task(i, deadline);
+            taskQueue.add(tasks[i]);
+            taskHandles.add(taskHeap.add(tasks[i]));
+            deadlineHeap.set(i, deadline);
+        }
+        for (int i = 0; i < newDeadlines.length; i++) {
+            newDeadlines[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Moves a task to a new deadline by removing it and adding it again, which is what
+     * PriorityQueue allows.
+     */
+    public int timeReprioritizePriorityQueue(int reps) {
+        int dummy = 0;
+        for (int i = 0; i < reps; i++) {
+            int id = (int) ((i * 0x9e3779b9L) % queueSize);
+            taskQueue.remove(tasks[id]);
+            tasks[id] = new Task(id, newDeadlines[i & (newDeadlines.length - 1)]);
+            taskQueue.add(tasks[id]);
+            dummy += taskQueue.peek().id;
+        }
+        return dummy;
+    }
+
+    public int timeReprioritizeIndexedHeap(int reps) {
+        int dummy = 0;
+        for (int i = 0; i < reps; i++) {
+            int id = (int) ((i * 0x9e3779b9L) % queueSize);
+            taskHeap.update(taskHandles.get(id),
+                    new Task(id, newDeadlines[i & (newDeadlines.length - 1)]));
+            dummy += taskHeap.peek().id;
+        }
+        return dummy;
+    }
+
+    public int timeReprioritizeIndexedLongHeap(int reps) {
+        int dummy = 0;
+        for (int i = 0; i < reps; i++) {
+            int id = (int) ((i * 0x9e3779b9L) % queueSize);
+            deadlineHeap.set(id, newDeadlines[i & (newDeadlines.length - 1)]);
+            dummy += deadlineHeap.peek();
+        }
+        return dummy;
+    }
+
+    /** Takes the next task and schedules it again, like a repeating timer. */
+    public int timePollAndRescheduleIndexedLongHeap(int reps) {
+        int dummy = 0;
+        for (int i = 0; i < reps; i++) {
+            long deadline = deadlineHeap.peekPriority();
+            int id = deadlineHeap.poll();
+            deadlineHeap.set(id, deadline + newDeadlines[i & (newDeadlines.length - 1)]);
+            dummy += id;
+        }
+        return dummy;
+    }
+
+    public int timePollAndReschedulePriorityQueue(int reps) {
+        int dummy = 0;
+        for (int i = 0; i < reps; i++) {
+            Task task = taskQueue.poll();
+            Task next = new Task(task.id,
+                    task.deadline + newDeadlines[i & (newDeadlines.length - 1)]);
+            tasks[task.id] = next;
+            taskQueue.add(next);
+            dummy += task.id;
+        }
+        return dummy;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sorts large lists with {@link Collections#sort} and {@link Collections#parallelSort}.
+ */
+public class ListSortBenchmark {
+    @Param({"10000", "100000", "1000000", "4000000"})
+    private int listLength;
+
+    private List<Integer> input;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        Random random = new Random(0);
+        input = new ArrayList<>(listLength);
+        for (int i = 0; i < listLength; ++i) {
+            input.add(random.nextInt());
+        }
+    }
+
+    public void timeSort(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            List<Integer> list = new ArrayList<>(input);
+            Collections.sort(list, CollectionsBenchmark.REVERSE);
+        }
+    }
+
+    public void timeParallelSort(int nreps) throws Exception {
+        for (int i = 0; i < nreps; ++i) {
+            List<Integer> list = new ArrayList<>(input);
+            Collections.parallelSort(list, CollectionsBenchmark.REVERSE);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import libcore.util.BasicLruCache;
+import libcore.util.ConcurrentLruCache;
+
+/**
+ * Reads a {@link BasicLruCache} and a {@link ConcurrentLruCache} from several threads at once,
+ * mostly hitting, like the address and time zone caches.
+ */
+public class LruCacheBenchmark {
+    @Param({"1", "4", "8"}) private int threadCount;
+
+    private static final int MAX_SIZE = 16;
+    // Every eighth read is of one of many cold keys, which mostly misses. The other reads are of
+    // a few hot keys, which stay cached.
+    private static final int HOT_KEY_COUNT = MAX_SIZE / 2;
+    private static final int COLD_KEY_COUNT = MAX_SIZE * 4;
+
+    private String[] keys;
+    private BasicLruCache<String, String> basicCache;
+    private ConcurrentLruCache<String, String> concurrentCache;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        keys = new String[HOT_KEY_COUNT + COLD_KEY_COUNT];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key" + i;
+        }
+        basicCache = new BasicLruCache<String, String>(MAX_SIZE) {
+            @Override protected String create(String key) {
+                return key;
+            }
+        };
+        concurrentCache = new ConcurrentLruCache<String, String>(MAX_SIZE) {
+            @Override protected String create(String key) {
+                return key;
+            }
+        };
+    }
+
+    public void timeBasicLruCacheGet(final int reps) throws Exception {
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t * 7;
+            threads[t] = new Thread(() -> {
+                for (int rep = 0; rep < reps; ++rep) {
+                    basicCache.get(keyFor(rep + offset));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    public void timeConcurrentLruCacheGet(final int reps) throws Exception {
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int offset = t * 7;
+            threads[t] = new Thread(() -> {
+                for (int rep = 0; rep < reps; ++rep) {
+                    concurrentCache.get(keyFor(rep + offset));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private String keyFor(int i) {
+        if ((i & 7) == 0) {
+            return keys[HOT_KEY_COUNT + (i >>> 3) % COLD_KEY_COUNT];
+        }
+        return keys[i % HOT_KEY_COUNT];
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs parallel streams over collections in a pool of {@code parallelism}
+ * threads, to measure how they scale with the number of cores compared to
+ * {@link #timeSequential}. A parallel stream runs its tasks in the pool of
+ * the thread that starts it.
+ */
+public class ParallelStreamBenchmark {
+    public enum Source {
+        ARRAY_LIST {
+            @Override Collection<Integer> create(List<Integer> elements) {
+                return new ArrayList<>(elements);
+            }
+        },
+        LINKED_LIST {
+            @Override Collection<Integer> create(List<Integer> elements) {
+                return new LinkedList<>(elements);
+            }
+        },
+        HASH_SET {
+            @Override Collection<Integer> create(List<Integer> elements) {
+                return new HashSet<>(elements);
+            }
+        },
+        LINKED_HASH_SET {
+            @Override Collection<Integer> create(List<Integer> elements) {
+                return new LinkedHashSet<>(elements);
+            }
+        },
+        LINKED_HASH_MAP_VALUES {
+            @Override Collection<Integer> create(List<Integer> elements) {
+                Map<Integer, Integer> map = new LinkedHashMap<>();
+                for (Integer e : elements) {
+                    map.put(e, e);
+                }
+                return map.values();
+            }
+        },
+        TREE_SET {
+            @Override Collection<Integer> create(List<Integer> elements) {
+                return new TreeSet<>(elements);
+            }
+        },
+        /** The middle half of a tree set. */
+        TREE_SUBSET {
+            @Override Collection<Integer> create(List<Integer> elements) {
+                TreeSet<Integer> set = new TreeSet<>(elements);
+                return set.subSet(Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2);
+            }
+        },
+        TREE_MAP_VALUES {
+            @Override Collection<Integer> create(List<Integer> elements) {
+                Map<Integer, Integer> map = new TreeMap<>();
+                for (Integer e : elements) {
+                    map.put(e, e);
+                }
+                return map.values();
+            }
+        };
+
+        abstract Collection<Integer> create(List<Integer> elements);
+    }
+
+    @Param
+    private Source source;
+
+    @Param({"10000", "1000000"})
+    private int size;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    /** The number of rounds of hashing per element; more work per element scales better. */
+    @Param({"1", "64"})
+    private int work;
+
+    private Collection<Integer> collection;
+    private ForkJoinPool pool;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        Random random = new Random(0);
+        List<Integer> elements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            elements.add(random.nextInt());
+        }
+        collection = source.create(elements);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @AfterExperiment
+    protected void tearDown() {
+        pool.shutdown();
+    }
+
+    private long hash(int value) {
+        long h = value;
+        for (int i = 0; i < work; i++) {
+            h = (h ^ (h >>> 29)) * 0xbf58476d1ce4e5b9L;
+        }
+        return h;
+    }
+
+    public long timeSequential(int reps) {
+        long result = 0;
+        for (int i = 0; i < reps; i++) {
+            result += collection.stream().mapToLong(this::hash).sum();
+        }
+        return result;
+    }
+
+    public long timeParallel(int reps) throws Exception {
+        long result = 0;
+        for (int i = 0; i < reps; i++) {
+            result += pool.submit(
+                    () -> collection.parallelStream().mapToLong(this::hash).sum()).get();
+        }
+        return result;
+    }
+
+    public long timeParallelToArray(int reps) throws Exception {
+        long result = 0;
+        for (int i = 0; i < reps; i++) {
+            result += pool.submit(
+                    () -> collection.parallelStream().mapToLong(this::hash).toArray()).get()
+                    .length;
+        }
+        return result;
+    }
+}
@@ -289,6 +289,13 @@ public final class Os {
    */
   public static StructStat lstat(String path) throws ErrnoException { return Libcore.os.lstat(path); }
 
+  /**
+   * See <a href="http://man7.org/linux/man-pages/man2/madvise.2.html">madvise(2)</a>.
+   *
+   * @hide
+   */
+  public static void madvise(long address, long byteCount, int advice) throws ErrnoException { Libcore.os.madvise(address, byteCount, advice); }
+
   /**
    * See <a href="http://man7.org/linux/man-pages/man2/mincore.2.html">mincore(2)</a>.
    */
@@ -350,6 +357,13 @@ public final class Os {
    */
   public static int poll(StructPollfd[] fds, int timeoutMs) throws ErrnoException { return Libcore.os.poll(fds, timeoutMs); }
 
+  /**
+   * See <a href="http://man7.org/linux/man-pages/man2/posix_fadvise.2.html">posix_fadvise(2)</a>.
+   *
+   * @hide
+   */
+  public static void posix_fadvise(FileDescriptor fd, long offset, long length, int advice) throws ErrnoException { Libcore.os.posix_fadvise(fd, offset, length, advice); }
+
   /**
    * See <a href="http://man7.org/linux/man-pages/man3/posix_fallocate.3.html">posix_fallocate(3)</a>.
    */
@@ -244,6 +244,8 @@ public final class OsConstants {
     public static final int EXDEV = placeholder();
     public static final int EXIT_FAILURE = placeholder();
     public static final int EXIT_SUCCESS = placeholder();
+    /** @hide */ public static final int FALLOC_FL_KEEP_SIZE = placeholder();
+    /** @hide */ public static final int FALLOC_FL_PUNCH_HOLE = placeholder();
     public static final int FD_CLOEXEC = placeholder();
     public static final int FIONREAD = placeholder();
     public static final int F_DUPFD = placeholder();
@@ -320,6 +322,13 @@ public final class OsConstants {
     /** @hide */ public static final int IP_RECVTOS = placeholder();
     public static final int IP_TOS = placeholder();
     public static final int IP_TTL = placeholder();
+    /** @hide */ public static final int MADV_DONTNEED = placeholder();
+    /** @hide */ public static final int MADV_HUGEPAGE = placeholder();
+    /** @hide */ public static final int MADV_NORMAL = placeholder();
+    /** @hide */ public static final int MADV_RANDOM = placeholder();
+    /** @hide */ public static final int MADV_SEQUENTIAL = placeholder();
+    /** @hide */ public static final int MADV_WILLNEED = placeholder();
+    /** @hide */ public static final int MAP_ANONYMOUS = placeholder();
     public static final int MAP_FIXED = placeholder();
     /** @hide */ public static final int MAP_POPULATE = placeholder();
     public static final int MAP_PRIVATE = placeholder();
@@ -339,6 +348,7 @@ public final class OsConstants {
     public static final int MSG_PEEK = placeholder();
     public static final int MSG_TRUNC = placeholder();
     public static final int MSG_WAITALL = placeholder();
+    /** @hide */ public static final int MSG_WAITFORONE = placeholder();
     public static final int MS_ASYNC = placeholder();
     public static final int MS_INVALIDATE = placeholder();
     public static final int MS_SYNC = placeholder();
@@ -372,6 +382,12 @@ public final class OsConstants {
     public static final int POLLRDNORM = placeholder();
     public static final int POLLWRBAND = placeholder();
     public static final int POLLWRNORM = placeholder();
+    /** @hide */ public static final int POSIX_FADV_DONTNEED = placeholder();
+    /** @hide */ public static final int POSIX_FADV_NOREUSE = placeholder();
+    /** @hide */ public static final int POSIX_FADV_NORMAL = placeholder();
+    /** @hide */ public static final int POSIX_FADV_RANDOM = placeholder();
+    /** @hide */ public static final int POSIX_FADV_SEQUENTIAL = placeholder();
+    /** @hide */ public static final int POSIX_FADV_WILLNEED = placeholder();
     public static final int PR_GET_DUMPABLE = placeholder();
     public static final int PR_SET_DUMPABLE = placeholder();
     public static final int PR_SET_NO_NEW_PRIVS = placeholder();
@@ -466,6 +482,9 @@ public final class OsConstants {
     public static final int SO_SNDLOWAT = placeholder();
     public static final int SO_SNDTIMEO = placeholder();
     public static final int SO_TYPE = placeholder();
+    /** @hide */ public static final int SPLICE_F_MORE = placeholder();
+    /** @hide */ public static final int SPLICE_F_MOVE = placeholder();
+    /** @hide */ public static final int SPLICE_F_NONBLOCK = placeholder();
     public static final int STDERR_FILENO = placeholder();
     public static final int STDIN_FILENO = placeholder();
     public static final int STDOUT_FILENO = placeholder();
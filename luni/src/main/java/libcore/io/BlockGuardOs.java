@@ -32,10 +32,13 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
+import libcore.io.IoStats.Kind;
+import libcore.io.IoStats.Op;
 import static android.system.OsConstants.*;
 
 /**
- * Informs BlockGuard of any activity it should be aware of.
+ * Informs BlockGuard of any activity it should be aware of, and records the latency of blocking
+ * calls in {@link IoStats} when that is enabled.
  */
 public class BlockGuardOs extends ForwardingOs {
     public BlockGuardOs(Os os) {
@@ -61,7 +64,13 @@ public class BlockGuardOs extends ForwardingOs {
 
     @Override public FileDescriptor accept(FileDescriptor fd, SocketAddress peerAddress) throws ErrnoException, SocketException {
         BlockGuard.getThreadPolicy().onNetwork();
-        final FileDescriptor acceptFd = os.accept(fd, peerAddress);
+        final long startNanos = IoStats.begin();
+        final FileDescriptor acceptFd;
+        try {
+            acceptFd = os.accept(fd, peerAddress);
+        } finally {
+            IoStats.end(Op.ACCEPT, Kind.NETWORK, startNanos, -1);
+        }
         if (isInetSocket(acceptFd)) {
             tagSocket(acceptFd);
         }
@@ -121,15 +130,51 @@ public class BlockGuardOs extends ForwardingOs {
         return linger.isOn() && linger.l_linger > 0;
     }
 
+    /**
+     * Returns the total length of the first {@code messageCount} messages passed to recvmmsg or
+     * sendmmsg, or -1 if the call failed.
+     */
+    private static long sumByteCounts(int[] byteCounts, int messageCount) {
+        if (messageCount < 0) {
+            return -1;
+        }
+        long sum = 0;
+        for (int i = 0; i < messageCount; ++i) {
+            sum += byteCounts[i];
+        }
+        return sum;
+    }
+
     @Override public void connect(FileDescriptor fd, InetAddress address, int port) throws ErrnoException, SocketException {
         BlockGuard.getThreadPolicy().onNetwork();
-        os.connect(fd, address, port);
+        final long startNanos = IoStats.begin();
+        try {
+            os.connect(fd, address, port);
+        } finally {
+            IoStats.end(Op.CONNECT, Kind.NETWORK, startNanos, -1);
+        }
     }
 
     @Override public void connect(FileDescriptor fd, SocketAddress address) throws ErrnoException,
             SocketException {
         BlockGuard.getThreadPolicy().onNetwork();
-        os.connect(fd, address);
+        final long startNanos = IoStats.begin();
+        try {
+            os.connect(fd, address);
+        } finally {
+            IoStats.end(Op.CONNECT, Kind.NETWORK, startNanos, -1);
+        }
+    }
+
+    @Override public long copy_file_range(FileDescriptor fdIn, MutableLong inOffset, FileDescriptor fdOut, MutableLong outOffset, long byteCount, int flags) throws ErrnoException {
+        BlockGuard.getThreadPolicy().onReadFromDisk();
+        BlockGuard.getThreadPolicy().onWriteToDisk();
+        return os.copy_file_range(fdIn, inOffset, fdOut, outOffset, byteCount, flags);
+    }
+
+    @Override public void fallocate(FileDescriptor fd, int mode, long offset, long length) throws ErrnoException {
+        BlockGuard.getThreadPolicy().onWriteToDisk();
+        os.fallocate(fd, mode, offset, length);
     }
 
     @Override public void fchmod(FileDescriptor fd, int mode) throws ErrnoException {
@@ -146,7 +191,12 @@ public class BlockGuardOs extends ForwardingOs {
 
     @Override public void fdatasync(FileDescriptor fd) throws ErrnoException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
-        os.fdatasync(fd);
+        final long startNanos = IoStats.begin();
+        try {
+            os.fdatasync(fd);
+        } finally {
+            IoStats.end(Op.SYNC, Kind.DISK, startNanos, -1);
+        }
     }
 
     @Override public StructStat fstat(FileDescriptor fd) throws ErrnoException {
@@ -161,7 +211,12 @@ public class BlockGuardOs extends ForwardingOs {
 
     @Override public void fsync(FileDescriptor fd) throws ErrnoException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
-        os.fsync(fd);
+        final long startNanos = IoStats.begin();
+        try {
+            os.fsync(fd);
+        } finally {
+            IoStats.end(Op.SYNC, Kind.DISK, startNanos, -1);
+        }
     }
 
     @Override public void ftruncate(FileDescriptor fd, long length) throws ErrnoException {
@@ -204,7 +259,12 @@ public class BlockGuardOs extends ForwardingOs {
         if ((mode & O_ACCMODE) != O_RDONLY) {
             BlockGuard.getThreadPolicy().onWriteToDisk();
         }
-        return os.open(path, flags, mode);
+        final long startNanos = IoStats.begin();
+        try {
+            return os.open(path, flags, mode);
+        } finally {
+            IoStats.end(Op.OPEN, Kind.DISK, startNanos, -1);
+        }
     }
 
     @Override public int poll(StructPollfd[] fds, int timeoutMs) throws ErrnoException {
@@ -213,7 +273,12 @@ public class BlockGuardOs extends ForwardingOs {
         if (timeoutMs != 0) {
             BlockGuard.getThreadPolicy().onNetwork();
         }
-        return os.poll(fds, timeoutMs);
+        final long startNanos = (timeoutMs != 0) ? IoStats.begin() : 0;
+        try {
+            return os.poll(fds, timeoutMs);
+        } finally {
+            IoStats.end(Op.POLL, Kind.NETWORK, startNanos, -1);
+        }
     }
 
     @Override public void posix_fallocate(FileDescriptor fd, long offset, long length) throws ErrnoException {
@@ -223,32 +288,74 @@ public class BlockGuardOs extends ForwardingOs {
 
     @Override public int pread(FileDescriptor fd, ByteBuffer buffer, long offset) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onReadFromDisk();
-        return os.pread(fd, buffer, offset);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.pread(fd, buffer, offset);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.READ, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int pread(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, long offset) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onReadFromDisk();
-        return os.pread(fd, bytes, byteOffset, byteCount, offset);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.pread(fd, bytes, byteOffset, byteCount, offset);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.READ, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int pwrite(FileDescriptor fd, ByteBuffer buffer, long offset) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
-        return os.pwrite(fd, buffer, offset);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.pwrite(fd, buffer, offset);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.WRITE, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int pwrite(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, long offset) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
-        return os.pwrite(fd, bytes, byteOffset, byteCount, offset);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.pwrite(fd, bytes, byteOffset, byteCount, offset);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.WRITE, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int read(FileDescriptor fd, ByteBuffer buffer) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onReadFromDisk();
-        return os.read(fd, buffer);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.read(fd, buffer);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.READ, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int read(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onReadFromDisk();
-        return os.read(fd, bytes, byteOffset, byteCount);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.read(fd, bytes, byteOffset, byteCount);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.READ, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public String readlink(String path) throws ErrnoException {
@@ -263,17 +370,50 @@ public class BlockGuardOs extends ForwardingOs {
 
     @Override public int readv(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onReadFromDisk();
-        return os.readv(fd, buffers, offsets, byteCounts);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.readv(fd, buffers, offsets, byteCounts);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.READ, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int recvfrom(FileDescriptor fd, ByteBuffer buffer, int flags, InetSocketAddress srcAddress) throws ErrnoException, SocketException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return os.recvfrom(fd, buffer, flags, srcAddress);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.recvfrom(fd, buffer, flags, srcAddress);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.READ, Kind.NETWORK, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int recvfrom(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, InetSocketAddress srcAddress) throws ErrnoException, SocketException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return os.recvfrom(fd, bytes, byteOffset, byteCount, flags, srcAddress);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.recvfrom(fd, bytes, byteOffset, byteCount, flags, srcAddress);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.READ, Kind.NETWORK, startNanos, bytesTransferred);
+        }
+    }
+
+    @Override public int recvmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, int flags, InetSocketAddress[] srcAddresses) throws ErrnoException, SocketException {
+        BlockGuard.getThreadPolicy().onNetwork();
+        final long startNanos = IoStats.begin();
+        int messageCount = -1;
+        try {
+            messageCount = os.recvmmsg(fd, buffers, offsets, byteCounts, flags, srcAddresses);
+            return messageCount;
+        } finally {
+            IoStats.end(Op.READ, Kind.NETWORK, startNanos, sumByteCounts(byteCounts, messageCount));
+        }
     }
 
     @Override public void remove(String path) throws ErrnoException {
@@ -286,6 +426,18 @@ public class BlockGuardOs extends ForwardingOs {
         os.rename(oldPath, newPath);
     }
 
+    @Override public int sendmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, int flags, InetSocketAddress[] destAddresses) throws ErrnoException, SocketException {
+        BlockGuard.getThreadPolicy().onNetwork();
+        final long startNanos = IoStats.begin();
+        int messageCount = -1;
+        try {
+            messageCount = os.sendmmsg(fd, buffers, offsets, byteCounts, flags, destAddresses);
+            return messageCount;
+        } finally {
+            IoStats.end(Op.WRITE, Kind.NETWORK, startNanos, sumByteCounts(byteCounts, messageCount));
+        }
+    }
+
     @Override public long sendfile(FileDescriptor outFd, FileDescriptor inFd, MutableLong inOffset, long byteCount) throws ErrnoException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
         return os.sendfile(outFd, inFd, inOffset, byteCount);
@@ -293,7 +445,14 @@ public class BlockGuardOs extends ForwardingOs {
 
     @Override public int sendto(FileDescriptor fd, ByteBuffer buffer, int flags, InetAddress inetAddress, int port) throws ErrnoException, SocketException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return os.sendto(fd, buffer, flags, inetAddress, port);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.sendto(fd, buffer, flags, inetAddress, port);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.WRITE, Kind.NETWORK, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int sendto(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, InetAddress inetAddress, int port) throws ErrnoException, SocketException {
@@ -301,7 +460,14 @@ public class BlockGuardOs extends ForwardingOs {
         if (inetAddress != null) {
             BlockGuard.getThreadPolicy().onNetwork();
         }
-        return os.sendto(fd, bytes, byteOffset, byteCount, flags, inetAddress, port);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.sendto(fd, bytes, byteOffset, byteCount, flags, inetAddress, port);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.WRITE, Kind.NETWORK, startNanos, bytesTransferred);
+        }
     }
 
     @Override public FileDescriptor socket(int domain, int type, int protocol) throws ErrnoException {
@@ -320,6 +486,12 @@ public class BlockGuardOs extends ForwardingOs {
         }
     }
 
+    @Override public long splice(FileDescriptor fdIn, MutableLong inOffset, FileDescriptor fdOut, MutableLong outOffset, long byteCount, int flags) throws ErrnoException {
+        // Either end may be a socket or a file, so we can't be more specific than this.
+        BlockGuard.getThreadPolicy().onWriteToDisk();
+        return os.splice(fdIn, inOffset, fdOut, outOffset, byteCount, flags);
+    }
+
     @Override public StructStat stat(String path) throws ErrnoException {
         BlockGuard.getThreadPolicy().onReadFromDisk();
         return os.stat(path);
@@ -337,17 +509,38 @@ public class BlockGuardOs extends ForwardingOs {
 
     @Override public int write(FileDescriptor fd, ByteBuffer buffer) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
-        return os.write(fd, buffer);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.write(fd, buffer);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.WRITE, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int write(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
-        return os.write(fd, bytes, byteOffset, byteCount);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.write(fd, bytes, byteOffset, byteCount);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.WRITE, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public int writev(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
-        return os.writev(fd, buffers, offsets, byteCounts);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.writev(fd, buffers, offsets, byteCounts);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.WRITE, fd, startNanos, bytesTransferred);
+        }
     }
 
     @Override public void execv(String filename, String[] argv) throws ErrnoException {
@@ -387,7 +580,14 @@ public class BlockGuardOs extends ForwardingOs {
     @Override public int sendto(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount,
             int flags, SocketAddress address) throws ErrnoException, SocketException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return os.sendto(fd, bytes, byteOffset, byteCount, flags, address);
+        final long startNanos = IoStats.begin();
+        int bytesTransferred = -1;
+        try {
+            bytesTransferred = os.sendto(fd, bytes, byteOffset, byteCount, flags, address);
+            return bytesTransferred;
+        } finally {
+            IoStats.end(Op.WRITE, Kind.NETWORK, startNanos, bytesTransferred);
+        }
     }
 
     @Override public void unlink(String pathname) throws ErrnoException {
@@ -27,17 +27,17 @@ public abstract class BufferIterator {
      * Seeks to the absolute position {@code offset}, measured in bytes from the start of the
      * buffer.
      */
-    public abstract void seek(int offset);
+    public abstract void seek(long offset);
 
     /**
      * Skips forwards or backwards {@code byteCount} bytes from the current position.
      */
-    public abstract void skip(int byteCount);
+    public abstract void skip(long byteCount);
 
     /**
      * Returns the current position of the iterator within the buffer.
      */
-    public abstract int pos();
+    public abstract long pos();
 
     /**
      * Copies {@code byteCount} bytes from the current position into {@code dst}, starting at
@@ -69,10 +69,34 @@ public abstract class BufferIterator {
      */
     public abstract void readIntArray(int[] dst, int dstOffset, int intCount);
 
+    /**
+     * Returns the 64-bit long at the current position, and advances the current position eight
+     * bytes.
+     *
+     * @throws IndexOutOfBoundsException if the read would be outside of the buffer
+     */
+    public abstract long readLong();
+
+    /**
+     * Copies {@code longCount} 64-bit longs from the current position into {@code dst}, starting
+     * at {@code dstOffset}, and advances the current position {@code 8 * longCount} bytes.
+     *
+     * @throws IndexOutOfBoundsException if the read / write would be outside of the buffer / array
+     */
+    public abstract void readLongArray(long[] dst, int dstOffset, int longCount);
+
     /**
      * Returns the 16-bit short at the current position, and advances the current position two bytes.
      *
      * @throws IndexOutOfBoundsException if the read would be outside of the buffer
      */
     public abstract short readShort();
+
+    /**
+     * Copies {@code shortCount} 16-bit shorts from the current position into {@code dst}, starting
+     * at {@code dstOffset}, and advances the current position {@code 2 * shortCount} bytes.
+     *
+     * @throws IndexOutOfBoundsException if the read / write would be outside of the buffer / array
+     */
+    public abstract void readShortArray(short[] dst, int dstOffset, int shortCount);
 }
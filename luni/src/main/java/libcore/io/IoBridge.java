@@ -20,7 +20,6 @@ import android.system.ErrnoException;
 import android.system.StructGroupReq;
 import android.system.StructGroupSourceReq;
 import android.system.StructLinger;
-import android.system.StructPollfd;
 import android.system.StructTimeval;
 import android.util.MutableInt;
 import java.io.FileDescriptor;
@@ -241,10 +240,7 @@ public final class IoBridge {
     public static boolean isConnected(FileDescriptor fd, InetAddress inetAddress, int port, int timeoutMs, int remainingTimeoutMs) throws IOException {
         ErrnoException cause;
         try {
-            StructPollfd[] pollFds = new StructPollfd[] { new StructPollfd() };
-            pollFds[0].fd = fd;
-            pollFds[0].events = (short) POLLOUT;
-            int rc = Libcore.os.poll(pollFds, remainingTimeoutMs);
+            int rc = ReadinessWaiter.get().await(fd, POLLOUT, remainingTimeoutMs);
             if (rc == 0) {
                 return false; // Timeout.
             }
@@ -667,19 +663,15 @@ public final class IoBridge {
 
     /**
      * Wait for some event on a file descriptor, blocks until the event happened or timeout period
-     * passed. See poll(2) and @link{android.system.Os.Poll}.
+     * passed. See poll(2) and {@link ReadinessWaiter}.
      *
      * @throws SocketException if poll(2) fails.
      * @throws SocketTimeoutException if the event has not happened before timeout period has passed.
      */
     public static void poll(FileDescriptor fd, int events, int timeout)
             throws SocketException, SocketTimeoutException {
-        StructPollfd[] pollFds = new StructPollfd[]{ new StructPollfd() };
-        pollFds[0].fd = fd;
-        pollFds[0].events = (short) events;
-
         try {
-            int ret = android.system.Os.poll(pollFds, timeout);
+            int ret = ReadinessWaiter.get().await(fd, events, timeout);
             if (ret == 0) {
                 throw new SocketTimeoutException("Poll timed out");
             }
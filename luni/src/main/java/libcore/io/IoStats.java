@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import java.io.FileDescriptor;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and byte counts for the blocking system calls that {@link BlockGuardOs}
+ * intercepts, and for the socket streams and channels that make their calls natively, broken
+ * down by {@link Op} and {@link Kind}.
+ *
+ * <p>Recording is off until {@link #setEnabled} is called. While it is on, each call costs two
+ * {@link System#nanoTime} calls and a few {@link LongAdder} increments, which stripe under
+ * contention, so it is cheap enough to leave on in production. {@link #snapshot} returns the
+ * totals so far. Calls are recorded whether they succeed or fail.
+ *
+ * @hide
+ */
+public final class IoStats {
+    /** The system calls that are recorded. */
+    public enum Op {
+        /** read, pread, readv, recvfrom and recvmmsg. */
+        READ,
+        /** write, pwrite, writev, sendto and sendmmsg. */
+        WRITE,
+        /** fsync and fdatasync. */
+        SYNC,
+        /** open. */
+        OPEN,
+        /** connect. */
+        CONNECT,
+        /** accept. */
+        ACCEPT,
+        /** poll with a non-zero timeout. */
+        POLL
+    }
+
+    /**
+     * What kind of file descriptor a call used: calls on sockets count as network I/O, and
+     * calls on anything else as disk I/O.
+     */
+    public enum Kind {
+        DISK,
+        NETWORK
+    }
+
+    /**
+     * The number of buckets in each histogram. Bucket 0 counts calls that took less than one
+     * microsecond, bucket {@code i} calls that took at least 2<sup>i-1</sup> and less than
+     * 2<sup>i</sup> microseconds, and the last bucket also counts all slower calls.
+     */
+    public static final int BUCKET_COUNT = 26;
+
+    private static final int OP_COUNT = Op.values().length;
+    private static final int KIND_COUNT = Kind.values().length;
+
+    private static final Stats[] STATS = new Stats[OP_COUNT * KIND_COUNT];
+    static {
+        for (int i = 0; i < STATS.length; ++i) {
+            STATS[i] = new Stats();
+        }
+    }
+
+    private static volatile boolean enabled;
+
+    private IoStats() {
+    }
+
+    /**
+     * Turns recording on or off. Turning it off keeps the totals so far.
+     */
+    public static void setEnabled(boolean enabled) {
+        IoStats.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a copy of the totals recorded so far. Calls that complete while the snapshot is
+     * being taken may be partly included.
+     */
+    public static Snapshot snapshot() {
+        return new Snapshot();
+    }
+
+    /**
+     * Clears the totals recorded so far. Calls that complete while the totals are being cleared
+     * may be partly included afterwards.
+     */
+    public static void reset() {
+        for (Stats stats : STATS) {
+            stats.reset();
+        }
+    }
+
+    /**
+     * Returns the start time to pass to {@link #end}, or 0 if recording is off.
+     */
+    public static long begin() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a call that started at {@code startNanos}, as returned by {@link #begin}, and
+     * transferred {@code byteCount} bytes. A negative {@code byteCount} means the call failed or
+     * doesn't transfer data.
+     */
+    public static void end(Op op, Kind kind, long startNanos, long byteCount) {
+        if (startNanos == 0) {
+            return;
+        }
+        STATS[index(op, kind)].record(System.nanoTime() - startNanos, byteCount);
+    }
+
+    /**
+     * Like {@link #end(Op, Kind, long, long)}, for a call on {@code fd} whose kind depends on
+     * whether it is a socket. The answer is cached in {@code fd}, so only the first call on
+     * each descriptor pays for the check.
+     */
+    public static void end(Op op, FileDescriptor fd, long startNanos, long byteCount) {
+        if (startNanos == 0) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Kind kind = fd.isSocketCached$() ? Kind.NETWORK : Kind.DISK;
+        STATS[index(op, kind)].record(elapsedNanos, byteCount);
+    }
+
+    private static int index(Op op, Kind kind) {
+        return op.ordinal() * KIND_COUNT + kind.ordinal();
+    }
+
+    static int bucketFor(long elapsedNanos) {
+        long micros = elapsedNanos / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    private static final class Stats {
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder byteCount = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+        Stats() {
+            for (int i = 0; i < buckets.length; ++i) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long elapsedNanos, long bytes) {
+            buckets[bucketFor(elapsedNanos)].increment();
+            totalNanos.add(elapsedNanos);
+            if (bytes > 0) {
+                byteCount.add(bytes);
+            }
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            totalNanos.reset();
+            byteCount.reset();
+        }
+    }
+
+    /**
+     * The totals recorded up to a point in time. See {@link IoStats#snapshot}.
+     */
+    public static final class Snapshot {
+        private final long[][] histograms = new long[STATS.length][BUCKET_COUNT];
+        private final long[] counts = new long[STATS.length];
+        private final long[] totalNanos = new long[STATS.length];
+        private final long[] byteCounts = new long[STATS.length];
+
+        private Snapshot() {
+            for (int i = 0; i < STATS.length; ++i) {
+                Stats stats = STATS[i];
+                for (int bucket = 0; bucket < BUCKET_COUNT; ++bucket) {
+                    histograms[i][bucket] = stats.buckets[bucket].sum();
+                    counts[i] += histograms[i][bucket];
+                }
+                totalNanos[i] = stats.totalNanos.sum();
+                byteCounts[i] = stats.byteCount.sum();
+            }
+        }
+
+        /** Returns the number of calls. */
+        public long getCount(Op op, Kind kind) {
+            return counts[index(op, kind)];
+        }
+
+        /** Returns the total time spent in calls, in nanoseconds. */
+        public long getTotalNanos(Op op, Kind kind) {
+            return totalNanos[index(op, kind)];
+        }
+
+        /** Returns the number of bytes transferred by successful calls. */
+        public long getByteCount(Op op, Kind kind) {
+            return byteCounts[index(op, kind)];
+        }
+
+        /** Returns the latency histogram; see {@link IoStats#BUCKET_COUNT}. */
+        public long[] getHistogram(Op op, Kind kind) {
+            return histograms[index(op, kind)].clone();
+        }
+
+        /**
+         * Returns one line for each op and kind that has been called, in the form
+         * {@code "READ DISK count=2 bytes=8192 totalNanos=51000 histogram=[0, 0, ...]"}.
+         */
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (Op op : Op.values()) {
+                for (Kind kind : Kind.values()) {
+                    int i = index(op, kind);
+                    if (counts[i] == 0) {
+                        continue;
+                    }
+                    sb.append(op).append(' ').append(kind)
+                            .append(" count=").append(counts[i])
+                            .append(" bytes=").append(byteCounts[i])
+                            .append(" totalNanos=").append(totalNanos[i])
+                            .append(" histogram=").append(Arrays.toString(histograms[i]))
+                            .append('\n');
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -20,20 +20,34 @@ import dalvik.system.BlockGuard;
 
 /**
  * Used to detect unbuffered I/O.
+ *
+ * <p>Besides reporting unbuffered I/O to the {@link BlockGuard} policy, streams can ask
+ * {@link #isUnbuffered} whether the I/O tracked since the last {@link #reset} looks like a run
+ * of small sequential calls, and if so switch to reading ahead of the caller.
  * @hide
  */
 public final class IoTracker {
+    /**
+     * The size of the buffer that streams should use once they start reading ahead of a caller
+     * that makes small sequential reads.
+     */
+    public static final int READ_AHEAD_BUFFER_SIZE = 8192;
+
     private int opCount;
-    private int totalByteCount;
+    private long totalByteCount;
     private boolean isOpen = true;
+    private boolean isUnbuffered;
     private Mode mode = Mode.READ;
 
     public void trackIo(int byteCount) {
         ++opCount;
         totalByteCount += byteCount;
-        if (isOpen && opCount > 10 && totalByteCount < 10*512) {
-            BlockGuard.getThreadPolicy().onUnbufferedIO();
-            isOpen = false;
+        if (opCount > 10 && totalByteCount < 10*512) {
+            isUnbuffered = true;
+            if (isOpen) {
+                BlockGuard.getThreadPolicy().onUnbufferedIO();
+                isOpen = false;
+            }
         }
     }
 
@@ -45,6 +59,14 @@ public final class IoTracker {
         trackIo(byteCount);
     }
 
+    /**
+     * Returns true if the calls tracked since the last {@link #reset} were many small ones in a
+     * row, in the mode last passed to {@link #trackIo(int, Mode)}.
+     */
+    public boolean isUnbuffered() {
+        return isUnbuffered;
+    }
+
     /**
      * Resets the state of the IoTracker, except {@link #isOpen} as it is not required to notify
      * again and again about the same stream.
@@ -54,6 +76,7 @@ public final class IoTracker {
     public void reset() {
         opCount = 0;
         totalByteCount = 0;
+        isUnbuffered = false;
     }
 
     public enum Mode {
@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import android.system.ErrnoException;
+import java.io.FileDescriptor;
+import sun.misc.Unsafe;
+import static android.system.OsConstants.*;
+
+/**
+ * A hash map from {@code long} to {@code long} stored outside the Java heap, in an anonymous
+ * mapping or in a memory-mapped file. A file written with {@link #create} can be mapped back
+ * with {@link #mmapRO}, which reads nothing but the header, so the cost of opening an index
+ * doesn't grow with the number of entries.
+ *
+ * <p>The table has a fixed capacity chosen when it is created, uses open addressing with linear
+ * probing, and entries can't be removed. {@link #put} must not be called by more than one
+ * thread at once, but {@link #get} and {@link #containsKey} take no locks and may run
+ * concurrently with a put: they see either the state before or after it. Replacing the value of
+ * an existing key is only atomic on devices with atomic 64-bit stores.
+ *
+ * <p>The file holds the table in native byte order, behind a 64-byte header, and is only meant
+ * to be read back on the device that wrote it. Like {@link MemoryMappedFile}, this class does
+ * not use finalization; you must call {@link #close} yourself, and only once no other thread is
+ * using the map.
+ */
+public final class MappedLongLongMap implements AutoCloseable {
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+
+    private static final int MAGIC = 0x4c4c4d31; // "LLM1"
+    private static final int VERSION = 1;
+
+    // Header layout. The rest of the header is reserved, and keeps the slots cache line aligned.
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SLOT_COUNT_OFFSET = 8;
+    private static final int SIZE_OFFSET = 16;
+    private static final int HAS_ZERO_KEY_OFFSET = 24;
+    private static final int ZERO_VALUE_OFFSET = 32;
+
+    // Each slot is a key followed by its value.
+    private static final int SLOT_SIZE = 16;
+    private static final int VALUE_OFFSET = 8;
+
+    /** Marks a free slot. The key 0 is stored in the header instead. */
+    private static final long FREE = 0;
+
+    private static final long MAX_SLOT_COUNT = 1L << 58;
+
+    private final long address;
+    private final long byteCount;
+    private final long mask;
+    private final long maxSize;
+    private final boolean writable;
+    // Volatile because the lock-free readers check it too.
+    private volatile boolean closed;
+
+    private MappedLongLongMap(long address, long byteCount, long slotCount, boolean writable) {
+        this.address = address;
+        this.byteCount = byteCount;
+        this.mask = slotCount - 1;
+        // Keep the load factor at 3/4, so that probe sequences stay short.
+        this.maxSize = slotCount / 4 * 3;
+        this.writable = writable;
+    }
+
+    /**
+     * Returns a new empty map with room for {@code capacity} entries, in anonymous memory that
+     * is unmapped by {@link #close}.
+     */
+    public static MappedLongLongMap allocate(long capacity) throws ErrnoException {
+        long slotCount = slotCountFor(capacity);
+        long byteCount = byteCountFor(slotCount);
+        long address = Libcore.os.mmap(0L, byteCount, PROT_READ | PROT_WRITE,
+                MAP_PRIVATE | MAP_ANONYMOUS, new FileDescriptor(), 0);
+        return initialize(address, byteCount, slotCount);
+    }
+
+    /**
+     * Creates or truncates the file at {@code path} and returns a new empty map with room for
+     * {@code capacity} entries, stored in that file. Call {@link #sync} to make sure the
+     * entries are on disk.
+     */
+    public static MappedLongLongMap create(String path, long capacity) throws ErrnoException {
+        long slotCount = slotCountFor(capacity);
+        long byteCount = byteCountFor(slotCount);
+        FileDescriptor fd = Libcore.os.open(path, O_RDWR | O_CREAT | O_TRUNC, 0600);
+        try {
+            // The file is sparse until entries are put into it.
+            Libcore.os.ftruncate(fd, byteCount);
+            long address = Libcore.os.mmap(0L, byteCount, PROT_READ | PROT_WRITE, MAP_SHARED,
+                    fd, 0);
+            return initialize(address, byteCount, slotCount);
+        } finally {
+            Libcore.os.close(fd);
+        }
+    }
+
+    /**
+     * Maps the map in the file at {@code path}, which was written by {@link #create},
+     * read-only.
+     *
+     * Only the header is checked. If the slots of the file were corrupted so that none is
+     * free, looking up a missing key throws {@link IllegalStateException} rather than probing
+     * forever.
+     *
+     * @throws IllegalArgumentException if the file doesn't hold a map of this format.
+     */
+    public static MappedLongLongMap mmapRO(String path) throws ErrnoException {
+        FileDescriptor fd = Libcore.os.open(path, O_RDONLY, 0);
+        try {
+            long byteCount = Libcore.os.fstat(fd).st_size;
+            if (byteCount < HEADER_SIZE) {
+                throw new IllegalArgumentException("File too small: " + byteCount);
+            }
+            long address = Libcore.os.mmap(0L, byteCount, PROT_READ, MAP_SHARED, fd, 0);
+            int magic = unsafe.getInt(address + MAGIC_OFFSET);
+            int version = unsafe.getInt(address + VERSION_OFFSET);
+            long slotCount = unsafe.getLong(address + SLOT_COUNT_OFFSET);
+            long size = unsafe.getLong(address + SIZE_OFFSET);
+            // put never fills more than maxSize slots, and the key 0 is kept in the header.
+            if (magic != MAGIC || version != VERSION || slotCount <= 0
+                    || slotCount > MAX_SLOT_COUNT || (slotCount & (slotCount - 1)) != 0
+                    || byteCountFor(slotCount) != byteCount
+                    || size < 0 || size > slotCount / 4 * 3 + 1) {
+                Libcore.os.munmap(address, byteCount);
+                throw new IllegalArgumentException("Not a map file: magic=" + magic
+                        + ", version=" + version + ", slotCount=" + slotCount
+                        + ", size=" + size + ", byteCount=" + byteCount);
+            }
+            return new MappedLongLongMap(address, byteCount, slotCount, false);
+        } finally {
+            Libcore.os.close(fd);
+        }
+    }
+
+    private static long slotCountFor(long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity < 0: " + capacity);
+        }
+        if (capacity > MAX_SLOT_COUNT / 4 * 3) {
+            throw new IllegalArgumentException("capacity too large: " + capacity);
+        }
+        long slotCount = 8;
+        while (slotCount / 4 * 3 < capacity) {
+            slotCount <<= 1;
+        }
+        return slotCount;
+    }
+
+    private static long byteCountFor(long slotCount) {
+        return HEADER_SIZE + slotCount * SLOT_SIZE;
+    }
+
+    private static MappedLongLongMap initialize(long address, long byteCount, long slotCount) {
+        // New mappings are zeroed, so all slots are already free.
+        unsafe.putInt(address + VERSION_OFFSET, VERSION);
+        unsafe.putLong(address + SLOT_COUNT_OFFSET, slotCount);
+        unsafe.storeFence();
+        unsafe.putInt(address + MAGIC_OFFSET, MAGIC);
+        return new MappedLongLongMap(address, byteCount, slotCount, true);
+    }
+
+    /**
+     * Returns the number of entries.
+     */
+    public long size() {
+        checkNotClosed();
+        return unsafe.getLong(address + SIZE_OFFSET);
+    }
+
+    /**
+     * Returns the number of entries this map has room for.
+     */
+    public long capacity() {
+        checkNotClosed();
+        return maxSize;
+    }
+
+    public boolean isReadOnly() {
+        return !writable;
+    }
+
+    public boolean containsKey(long key) {
+        checkNotClosed();
+        if (key == FREE) {
+            return unsafe.getLong(address + HAS_ZERO_KEY_OFFSET) != 0;
+        }
+        return unsafe.getLong(slotOf(key)) != FREE;
+    }
+
+    /**
+     * Returns the value for {@code key}, or {@code valueIfKeyNotFound} if there is none.
+     */
+    public long get(long key, long valueIfKeyNotFound) {
+        checkNotClosed();
+        if (key == FREE) {
+            if (unsafe.getLong(address + HAS_ZERO_KEY_OFFSET) == 0) {
+                return valueIfKeyNotFound;
+            }
+            unsafe.loadFence();
+            return unsafe.getLong(address + ZERO_VALUE_OFFSET);
+        }
+        long slot = slotOf(key);
+        if (unsafe.getLong(slot) == FREE) {
+            return valueIfKeyNotFound;
+        }
+        // Pairs with the fence in put, so the value is at least as new as the key.
+        unsafe.loadFence();
+        return unsafe.getLong(slot + VALUE_OFFSET);
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, replacing any previous value.
+     *
+     * @throws IllegalStateException if the map is read-only, or is full and doesn't have
+     *     {@code key}.
+     */
+    public void put(long key, long value) {
+        checkNotClosed();
+        if (!writable) {
+            throw new IllegalStateException("MappedLongLongMap is read-only");
+        }
+        long sizeAddress = address + SIZE_OFFSET;
+        if (key == FREE) {
+            unsafe.putLong(address + ZERO_VALUE_OFFSET, value);
+            if (unsafe.getLong(address + HAS_ZERO_KEY_OFFSET) == 0) {
+                unsafe.storeFence();
+                unsafe.putLong(address + HAS_ZERO_KEY_OFFSET, 1);
+                unsafe.putLong(sizeAddress, unsafe.getLong(sizeAddress) + 1);
+            }
+            return;
+        }
+        long slot = slotOf(key);
+        if (unsafe.getLong(slot) != FREE) {
+            unsafe.putLong(slot + VALUE_OFFSET, value);
+            return;
+        }
+        long size = unsafe.getLong(sizeAddress);
+        if (size >= maxSize) {
+            throw new IllegalStateException("MappedLongLongMap is full: " + size);
+        }
+        // Publish the value before the key, so that a reader that finds the key finds the value.
+        unsafe.putLong(slot + VALUE_OFFSET, value);
+        unsafe.storeFence();
+        unsafe.putLong(slot, key);
+        unsafe.putLong(sizeAddress, size + 1);
+    }
+
+    /**
+     * Flushes the entries of a map created by {@link #create} to its file using msync(2).
+     */
+    public void sync() throws ErrnoException {
+        checkNotClosed();
+        Libcore.os.msync(address, byteCount, MS_SYNC);
+    }
+
+    /**
+     * Unmaps this map using munmap(2). This is a no-op if close has already been called.
+     */
+    @Override
+    public void close() throws ErrnoException {
+        if (!closed) {
+            closed = true;
+            Libcore.os.munmap(address, byteCount);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the address of the slot holding {@code key}, or of the free slot where it would be
+     * inserted.
+     */
+    private long slotOf(long key) {
+        long index = hash(key) & mask;
+        // The table always has a free slot unless the file was corrupted.
+        for (long probes = 0; probes <= mask; probes++) {
+            long slot = address + HEADER_SIZE + index * SLOT_SIZE;
+            long slotKey = unsafe.getLong(slot);
+            if (slotKey == key || slotKey == FREE) {
+                return slot;
+            }
+            index = (index + 1) & mask;
+        }
+        throw new IllegalStateException("MappedLongLongMap is corrupt: no free slot");
+    }
+
+    private static long hash(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 32);
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("MappedLongLongMap is closed");
+        }
+    }
+}
@@ -31,20 +31,35 @@ import static android.system.OsConstants.*;
  * A memory-mapped file. Use {@link #mmapRO} to map a file, {@link #close} to unmap a file,
  * and either {@link #bigEndianIterator} or {@link #littleEndianIterator} to get a seekable
  * {@link BufferIterator} over the mapped data. This class is not thread safe.
+ *
+ * <p>Files are addressed with 64-bit offsets. {@link #mmapRO(String, long)} maps a file as a
+ * series of fixed-size segments instead of one contiguous region, for files too large to find
+ * a single gap in the address space for.
  */
 public final class MemoryMappedFile implements AutoCloseable {
     private boolean closed;
     private final long address;
-    private final int size;
+    private final long size;
+    // The start address of each segment, or null if the file is mapped contiguously at address.
+    private final long[] segmentAddresses;
+    private final int segmentShift;
 
     /** Public for layoutlib only. */
     public MemoryMappedFile(long address, long size) {
-        this.address = address;
-        // For simplicity when bounds checking, only sizes up to Integer.MAX_VALUE are supported.
-        if (size < 0 || size > Integer.MAX_VALUE) {
+        if (size < 0) {
             throw new IllegalArgumentException("Unsupported file size=" + size);
         }
-        this.size = (int) size;
+        this.address = address;
+        this.size = size;
+        this.segmentAddresses = null;
+        this.segmentShift = 0;
+    }
+
+    private MemoryMappedFile(long[] segmentAddresses, int segmentShift, long size) {
+        this.address = segmentAddresses[0];
+        this.size = size;
+        this.segmentAddresses = segmentAddresses;
+        this.segmentShift = segmentShift;
     }
 
     /**
@@ -61,6 +76,49 @@ public final class MemoryMappedFile implements AutoCloseable {
         }
     }
 
+    /**
+     * Use this to mmap the whole file read-only as separate segments of {@code segmentSize}
+     * bytes (the last segment may be shorter). {@code segmentSize} must be a power of two and a
+     * multiple of the page size. Reads that span two segments are slower than other reads, but
+     * otherwise behave the same.
+     */
+    public static MemoryMappedFile mmapRO(String path, long segmentSize) throws ErrnoException {
+        if (segmentSize <= 0 || (segmentSize & (segmentSize - 1)) != 0
+                || segmentSize % Libcore.os.sysconf(_SC_PAGESIZE) != 0) {
+            throw new IllegalArgumentException("Invalid segment size=" + segmentSize);
+        }
+        final int segmentShift = Long.numberOfTrailingZeros(segmentSize);
+        FileDescriptor fd = Libcore.os.open(path, O_RDONLY, 0);
+        try {
+            long size = Libcore.os.fstat(fd).st_size;
+            // An empty file still gets one (empty) segment, so that mmap reports EINVAL just as
+            // it does for a contiguous mapping.
+            long segmentCount = (size == 0) ? 1 : ((size - 1) >>> segmentShift) + 1;
+            if (segmentCount > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many segments for file size=" + size);
+            }
+            long[] segmentAddresses = new long[(int) segmentCount];
+            int mapped = 0;
+            try {
+                for (; mapped < segmentAddresses.length; ++mapped) {
+                    long offset = (long) mapped << segmentShift;
+                    segmentAddresses[mapped] = Libcore.os.mmap(0L,
+                            Math.min(segmentSize, size - offset), PROT_READ, MAP_SHARED, fd,
+                            offset);
+                }
+            } catch (ErrnoException errnoException) {
+                try {
+                    munmapSegments(segmentAddresses, mapped, segmentShift, size);
+                } catch (ErrnoException ignored) {
+                }
+                throw errnoException;
+            }
+            return new MemoryMappedFile(segmentAddresses, segmentShift, size);
+        } finally {
+            Libcore.os.close(fd);
+        }
+    }
+
     /**
      * Unmaps this memory-mapped file using munmap(2). This is a no-op if close has already been
      * called. Note that this class does <i>not</i> use finalization; you must call {@code close}
@@ -72,7 +130,66 @@ public final class MemoryMappedFile implements AutoCloseable {
     public void close() throws ErrnoException {
         if (!closed) {
             closed = true;
-            Libcore.os.munmap(address, size);
+            if (segmentAddresses == null) {
+                Libcore.os.munmap(address, size);
+            } else {
+                munmapSegments(segmentAddresses, segmentAddresses.length, segmentShift, size);
+            }
+        }
+    }
+
+    /**
+     * Unmaps the first {@code count} segments, throwing the first failure only after trying them
+     * all.
+     */
+    private static void munmapSegments(long[] segmentAddresses, int count, int segmentShift,
+            long size) throws ErrnoException {
+        ErrnoException failure = null;
+        for (int i = 0; i < count; ++i) {
+            try {
+                Libcore.os.munmap(segmentAddresses[i], segmentSize(i, segmentShift, size));
+            } catch (ErrnoException errnoException) {
+                if (failure == null) {
+                    failure = errnoException;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static long segmentSize(int index, int segmentShift, long size) {
+        long offset = (long) index << segmentShift;
+        return Math.min(1L << segmentShift, size - offset);
+    }
+
+    /**
+     * Tells the kernel how the mapped data will be accessed using madvise(2). {@code advice} is
+     * one of the {@code MADV_} constants, for example {@code MADV_RANDOM} for index files that are
+     * probed at arbitrary offsets, or {@code MADV_SEQUENTIAL} for data that will be read once from
+     * start to end.
+     *
+     * <p>Only advice that never changes the mapped data is accepted: {@code MADV_NORMAL},
+     * {@code MADV_RANDOM}, {@code MADV_SEQUENTIAL}, {@code MADV_WILLNEED} and
+     * {@code MADV_DONTNEED}. The mapping is read-only and shared, so {@code MADV_DONTNEED}
+     * only drops pages that are read from the file again when they are next accessed.
+     *
+     * @throws IllegalArgumentException if {@code advice} is not one of those
+     */
+    public void advise(int advice) throws ErrnoException {
+        checkNotClosed();
+        if (advice != MADV_NORMAL && advice != MADV_RANDOM && advice != MADV_SEQUENTIAL
+                && advice != MADV_WILLNEED && advice != MADV_DONTNEED) {
+            throw new IllegalArgumentException("Unsupported advice: " + advice);
+        }
+        if (segmentAddresses == null) {
+            Libcore.os.madvise(address, size, advice);
+        } else {
+            for (int i = 0; i < segmentAddresses.length; ++i) {
+                Libcore.os.madvise(
+                        segmentAddresses[i], segmentSize(i, segmentShift, size), advice);
+            }
         }
     }
 
@@ -84,16 +201,21 @@ public final class MemoryMappedFile implements AutoCloseable {
      * Returns a new iterator that treats the mapped data as big-endian.
      */
     public BufferIterator bigEndianIterator() {
-        return new NioBufferIterator(
-                this, address, size, ByteOrder.nativeOrder() != ByteOrder.BIG_ENDIAN);
+        return newIterator(ByteOrder.BIG_ENDIAN);
     }
 
     /**
      * Returns a new iterator that treats the mapped data as little-endian.
      */
     public BufferIterator littleEndianIterator() {
-        return new NioBufferIterator(
-                this, this.address, this.size, ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN);
+        return newIterator(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private BufferIterator newIterator(ByteOrder order) {
+        if (segmentAddresses == null) {
+            return new NioBufferIterator(this, address, size, ByteOrder.nativeOrder() != order);
+        }
+        return new SegmentedBufferIterator(this, segmentAddresses, segmentShift, size, order);
     }
 
     /** Throws {@link IllegalStateException} if the file is closed. */
@@ -106,7 +228,7 @@ public final class MemoryMappedFile implements AutoCloseable {
     /**
      * Returns the size in bytes of the memory-mapped region.
      */
-    public int size() {
+    public long size() {
         checkNotClosed();
         return size;
     }
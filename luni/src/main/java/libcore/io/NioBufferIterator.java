@@ -26,12 +26,12 @@ public final class NioBufferIterator extends BufferIterator {
 
     private final MemoryMappedFile file;
     private final long address;
-    private final int length;
+    private final long length;
     private final boolean swap;
 
-    private int position;
+    private long position;
 
-    NioBufferIterator(MemoryMappedFile file, long address, int length, boolean swap) {
+    NioBufferIterator(MemoryMappedFile file, long address, long length, boolean swap) {
         file.checkNotClosed();
 
         this.file = file;
@@ -50,16 +50,16 @@ public final class NioBufferIterator extends BufferIterator {
         this.swap = swap;
     }
 
-    public void seek(int offset) {
+    public void seek(long offset) {
         position = offset;
     }
 
-    public void skip(int byteCount) {
+    public void skip(long byteCount) {
         position += byteCount;
     }
 
     @Override
-    public int pos() {
+    public long pos() {
         return position;
     }
 
@@ -90,12 +90,29 @@ public final class NioBufferIterator extends BufferIterator {
     public void readIntArray(int[] dst, int dstOffset, int intCount) {
         checkDstBounds(dstOffset, dst.length, intCount);
         file.checkNotClosed();
-        final int byteCount = SizeOf.INT * intCount;
+        final long byteCount = SizeOf.INT * (long) intCount;
         checkReadBounds(position, length, byteCount);
         Memory.peekIntArray(address + position, dst, dstOffset, intCount, swap);
         position += byteCount;
     }
 
+    public long readLong() {
+        file.checkNotClosed();
+        checkReadBounds(position, length, SizeOf.LONG);
+        long result = Memory.peekLong(address + position, swap);
+        position += SizeOf.LONG;
+        return result;
+    }
+
+    public void readLongArray(long[] dst, int dstOffset, int longCount) {
+        checkDstBounds(dstOffset, dst.length, longCount);
+        file.checkNotClosed();
+        final long byteCount = SizeOf.LONG * (long) longCount;
+        checkReadBounds(position, length, byteCount);
+        Memory.peekLongArray(address + position, dst, dstOffset, longCount, swap);
+        position += byteCount;
+    }
+
     public short readShort() {
         file.checkNotClosed();
         checkReadBounds(position, length, SizeOf.SHORT);
@@ -104,21 +121,30 @@ public final class NioBufferIterator extends BufferIterator {
         return result;
     }
 
-    private static void checkReadBounds(int position, int length, int byteCount) {
+    public void readShortArray(short[] dst, int dstOffset, int shortCount) {
+        checkDstBounds(dstOffset, dst.length, shortCount);
+        file.checkNotClosed();
+        final long byteCount = SizeOf.SHORT * (long) shortCount;
+        checkReadBounds(position, length, byteCount);
+        Memory.peekShortArray(address + position, dst, dstOffset, shortCount, swap);
+        position += byteCount;
+    }
+
+    static void checkReadBounds(long position, long length, long byteCount) {
         if (position < 0 || byteCount < 0) {
             throw new IndexOutOfBoundsException(
                     "Invalid read args: position=" + position + ", byteCount=" + byteCount);
         }
-        // Use of int here relies on length being an int <= Integer.MAX_VALUE.
-        final int finalReadPos = position + byteCount;
-        if (finalReadPos < 0 || finalReadPos > length) {
+        // Compare against the bytes remaining rather than computing position + byteCount, which
+        // could overflow.
+        if (position > length || byteCount > length - position) {
             throw new IndexOutOfBoundsException(
                     "Read outside range: position=" + position + ", byteCount=" + byteCount
                             + ", length=" + length);
         }
     }
 
-    private static void checkDstBounds(int dstOffset, int dstLength, int count) {
+    static void checkDstBounds(int dstOffset, int dstLength, int count) {
         if (dstOffset < 0 || count < 0) {
             throw new IndexOutOfBoundsException(
                     "Invalid dst args: offset=" + dstLength + ", count=" + count);
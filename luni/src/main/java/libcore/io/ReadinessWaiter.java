@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import android.system.ErrnoException;
+import android.system.StructPollfd;
+import java.io.FileDescriptor;
+import java.net.SocketException;
+
+/**
+ * Waits for a single file descriptor to become ready with {@code poll(2)}, reusing a
+ * {@link StructPollfd} that belongs to the calling thread. Unlike calling {@link Os#poll}
+ * directly, a wait allocates nothing, so blocking socket calls with timeouts can use it on every
+ * call.
+ *
+ * <p>A waiter holds no file descriptors of its own, so threads that stop waiting leave nothing
+ * to release.
+ *
+ * <p>Instances are not thread-safe; use {@link #get} to find the calling thread's instance.
+ *
+ * @hide
+ */
+public final class ReadinessWaiter {
+    private static final ThreadLocal<ReadinessWaiter> WAITERS =
+            ThreadLocal.withInitial(ReadinessWaiter::new);
+
+    // The argument to poll, reused across waits.
+    private final StructPollfd[] pollFds = new StructPollfd[] { new StructPollfd() };
+
+    private ReadinessWaiter() {
+    }
+
+    /**
+     * Returns the calling thread's instance, creating it on first use.
+     */
+    public static ReadinessWaiter get() {
+        return WAITERS.get();
+    }
+
+    /**
+     * Waits until {@code fd} is ready for any of {@code pollEvents}, which uses the same bits as
+     * {@link StructPollfd#events}. A negative {@code timeoutMs} waits forever.
+     *
+     * @return the events that are ready, as {@code POLL*} bits, or 0 on timeout.
+     * @throws SocketException if another thread closes {@code fd} during the wait.
+     */
+    public int await(FileDescriptor fd, int pollEvents, int timeoutMs)
+            throws ErrnoException, SocketException {
+        if (!fd.valid()) {
+            // poll(2) ignores negative fds, and would just wait for the timeout.
+            throw new SocketException("Socket closed");
+        }
+        StructPollfd pollFd = pollFds[0];
+        pollFd.fd = fd;
+        pollFd.events = (short) pollEvents;
+        pollFd.revents = 0;
+        try {
+            int rc = Libcore.os.poll(pollFds, timeoutMs);
+            // IoBridge.closeAndSignalBlockedThreads invalidates fd before waking this thread,
+            // and poll then reports the closed number as POLLNVAL.
+            if (!fd.valid()) {
+                throw new SocketException("Socket closed");
+            }
+            return rc > 0 ? pollFd.revents : 0;
+        } finally {
+            // Don't keep the fd reachable from the thread after the wait.
+            pollFd.fd = null;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import java.nio.ByteOrder;
+
+import static libcore.io.NioBufferIterator.checkDstBounds;
+import static libcore.io.NioBufferIterator.checkReadBounds;
+
+/**
+ * Iterates over big- or little-endian bytes of a file that is mapped as a series of equally-sized
+ * segments. See {@link MemoryMappedFile#mmapRO(String, long)}.
+ *
+ * <p>Reads that fall within one segment go straight to native memory as in
+ * {@link NioBufferIterator}. The rare values that span two segments are first copied a piece at
+ * a time into a scratch array.
+ */
+final class SegmentedBufferIterator extends BufferIterator {
+
+    private final MemoryMappedFile file;
+    private final long[] segmentAddresses;
+    private final int segmentShift;
+    private final long segmentMask;
+    private final long length;
+    private final ByteOrder order;
+    private final boolean swap;
+
+    // Holds a value that spans two segments.
+    private final byte[] scratch = new byte[SizeOf.LONG];
+
+    private long position;
+
+    SegmentedBufferIterator(MemoryMappedFile file, long[] segmentAddresses, int segmentShift,
+            long length, ByteOrder order) {
+        file.checkNotClosed();
+
+        this.file = file;
+        this.segmentAddresses = segmentAddresses;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+        this.length = length;
+        this.order = order;
+        this.swap = ByteOrder.nativeOrder() != order;
+    }
+
+    public void seek(long offset) {
+        position = offset;
+    }
+
+    public void skip(long byteCount) {
+        position += byteCount;
+    }
+
+    @Override
+    public long pos() {
+        return position;
+    }
+
+    public void readByteArray(byte[] dst, int dstOffset, int byteCount) {
+        checkDstBounds(dstOffset, dst.length, byteCount);
+        file.checkNotClosed();
+        checkReadBounds(position, length, byteCount);
+        copyBytes(position, dst, dstOffset, byteCount);
+        position += byteCount;
+    }
+
+    public byte readByte() {
+        file.checkNotClosed();
+        checkReadBounds(position, length, 1);
+        byte result = Memory.peekByte(address(position));
+        ++position;
+        return result;
+    }
+
+    public int readInt() {
+        file.checkNotClosed();
+        checkReadBounds(position, length, SizeOf.INT);
+        int result = peekInt(position);
+        position += SizeOf.INT;
+        return result;
+    }
+
+    public void readIntArray(int[] dst, int dstOffset, int intCount) {
+        checkDstBounds(dstOffset, dst.length, intCount);
+        file.checkNotClosed();
+        checkReadBounds(position, length, SizeOf.INT * (long) intCount);
+        while (intCount > 0) {
+            int count = (int) Math.min(intCount, remainingInSegment(position) / SizeOf.INT);
+            if (count > 0) {
+                Memory.peekIntArray(address(position), dst, dstOffset, count, swap);
+            } else {
+                count = 1;
+                dst[dstOffset] = peekInt(position);
+            }
+            position += SizeOf.INT * (long) count;
+            dstOffset += count;
+            intCount -= count;
+        }
+    }
+
+    public long readLong() {
+        file.checkNotClosed();
+        checkReadBounds(position, length, SizeOf.LONG);
+        long result = peekLong(position);
+        position += SizeOf.LONG;
+        return result;
+    }
+
+    public void readLongArray(long[] dst, int dstOffset, int longCount) {
+        checkDstBounds(dstOffset, dst.length, longCount);
+        file.checkNotClosed();
+        checkReadBounds(position, length, SizeOf.LONG * (long) longCount);
+        while (longCount > 0) {
+            int count = (int) Math.min(longCount, remainingInSegment(position) / SizeOf.LONG);
+            if (count > 0) {
+                Memory.peekLongArray(address(position), dst, dstOffset, count, swap);
+            } else {
+                count = 1;
+                dst[dstOffset] = peekLong(position);
+            }
+            position += SizeOf.LONG * (long) count;
+            dstOffset += count;
+            longCount -= count;
+        }
+    }
+
+    public short readShort() {
+        file.checkNotClosed();
+        checkReadBounds(position, length, SizeOf.SHORT);
+        short result = peekShort(position);
+        position += SizeOf.SHORT;
+        return result;
+    }
+
+    public void readShortArray(short[] dst, int dstOffset, int shortCount) {
+        checkDstBounds(dstOffset, dst.length, shortCount);
+        file.checkNotClosed();
+        checkReadBounds(position, length, SizeOf.SHORT * (long) shortCount);
+        while (shortCount > 0) {
+            int count = (int) Math.min(shortCount, remainingInSegment(position) / SizeOf.SHORT);
+            if (count > 0) {
+                Memory.peekShortArray(address(position), dst, dstOffset, count, swap);
+            } else {
+                count = 1;
+                dst[dstOffset] = peekShort(position);
+            }
+            position += SizeOf.SHORT * (long) count;
+            dstOffset += count;
+            shortCount -= count;
+        }
+    }
+
+    private int peekInt(long position) {
+        if (remainingInSegment(position) >= SizeOf.INT) {
+            return Memory.peekInt(address(position), swap);
+        }
+        copyBytes(position, scratch, 0, SizeOf.INT);
+        return Memory.peekInt(scratch, 0, order);
+    }
+
+    private long peekLong(long position) {
+        if (remainingInSegment(position) >= SizeOf.LONG) {
+            return Memory.peekLong(address(position), swap);
+        }
+        copyBytes(position, scratch, 0, SizeOf.LONG);
+        return Memory.peekLong(scratch, 0, order);
+    }
+
+    private short peekShort(long position) {
+        if (remainingInSegment(position) >= SizeOf.SHORT) {
+            return Memory.peekShort(address(position), swap);
+        }
+        copyBytes(position, scratch, 0, SizeOf.SHORT);
+        return Memory.peekShort(scratch, 0, order);
+    }
+
+    /** Copies bytes that may span any number of segments. */
+    private void copyBytes(long position, byte[] dst, int dstOffset, int byteCount) {
+        while (byteCount > 0) {
+            int count = (int) Math.min(byteCount, remainingInSegment(position));
+            Memory.peekByteArray(address(position), dst, dstOffset, count);
+            position += count;
+            dstOffset += count;
+            byteCount -= count;
+        }
+    }
+
+    private long address(long position) {
+        return segmentAddresses[(int) (position >>> segmentShift)] + (position & segmentMask);
+    }
+
+    private long remainingInSegment(long position) {
+        return segmentMask + 1 - (position & segmentMask);
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A least-recently-used cache with the same contract as {@link BasicLruCache}, for caches that
+ * are read by many threads at once.
+ *
+ * <p>Entries are kept in a {@link ConcurrentHashMap}, so {@link #get} doesn't take a lock when
+ * the key is cached. Instead of moving the entry to the head of the queue right away, a hit is
+ * recorded in a small per-thread-stripe buffer, and the buffered hits are replayed onto the queue
+ * by whichever thread next takes the lock, which it only tries to do when a buffer fills up. The
+ * buffers drop hits rather than block when they are full, so under heavy load the eviction order
+ * is approximately, rather than exactly, least-recently-used. Puts and evictions take the lock.
+ */
+public class ConcurrentLruCache<K, V> {
+    /** The number of read buffers. A power of two. */
+    private static final int READ_BUFFER_COUNT = 4;
+    /** The number of hits each read buffer holds. A power of two. */
+    private static final int READ_BUFFER_SIZE = 16;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final int maxSize;
+
+    // The sentinel of the doubly-linked queue, whose next node is the least recently used.
+    // The queue is guarded by evictionLock.
+    private final Node<K, V> head;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final AtomicReferenceArray<Node<K, V>> readBuffers;
+    private final AtomicLong[] readCounts;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    public ConcurrentLruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<K, Node<K, V>>();
+        this.head = new Node<K, V>(null, null);
+        head.prev = head;
+        head.next = head;
+        this.readBuffers = new AtomicReferenceArray<Node<K, V>>(
+                READ_BUFFER_COUNT * READ_BUFFER_SIZE);
+        this.readCounts = new AtomicLong[READ_BUFFER_COUNT];
+        for (int i = 0; i < READ_BUFFER_COUNT; i++) {
+            readCounts[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Returns the value for {@code key} if it exists in the cache or can be
+     * created by {@code #create}. If a value was returned, it is moved to the
+     * head of the queue. This returns null if a value is not cached and cannot
+     * be created.
+     */
+    public final V get(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Node<K, V> node = map.get(key);
+        if (node != null) {
+            hitCount.increment();
+            recordRead(node);
+            return node.value;
+        }
+        missCount.increment();
+
+        // Don't hold any locks while calling create. Another thread might create a value for
+        // the same key at the same time, which is fine as long as create creates equal values
+        // for equal keys.
+        V result = create(key);
+        if (result != null) {
+            putInternal(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Caches {@code value} for {@code key}. The value is moved to the head of
+     * the queue.
+     *
+     * @return the previous value mapped by {@code key}. Although that entry is
+     *     no longer cached, it has not been passed to {@link #entryEvicted}.
+     */
+    public final V put(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        } else if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        return putInternal(key, value);
+    }
+
+    private V putInternal(K key, V value) {
+        Node<K, V> node = new Node<K, V>(key, value);
+        Node<K, V> previous;
+        List<Node<K, V>> evicted;
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            previous = map.put(key, node);
+            if (previous != null) {
+                unlink(previous);
+            }
+            linkLast(node);
+            evicted = trimToSize(maxSize);
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyEvicted(evicted);
+        return previous != null ? previous.value : null;
+    }
+
+    /**
+     * Records a hit on {@code node}, and replays the buffered hits if its buffer is full and no
+     * other thread holds the lock.
+     */
+    private void recordRead(Node<K, V> node) {
+        int buffer = (int) Thread.currentThread().getId() & (READ_BUFFER_COUNT - 1);
+        long count = readCounts[buffer].getAndIncrement();
+        int index = (int) count & (READ_BUFFER_SIZE - 1);
+        // Overwrites, and so drops, a hit that hasn't been replayed yet.
+        readBuffers.lazySet(buffer * READ_BUFFER_SIZE + index, node);
+        if (index == READ_BUFFER_SIZE - 1 && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /** Moves the nodes in the read buffers to the head of the queue. Requires evictionLock. */
+    private void drainReadBuffers() {
+        for (int i = 0; i < readBuffers.length(); i++) {
+            Node<K, V> node = readBuffers.getAndSet(i, null);
+            // Skip nodes that were evicted or replaced since they were read.
+            if (node != null && node.next != null) {
+                unlink(node);
+                linkLast(node);
+            }
+        }
+    }
+
+    /** Requires evictionLock. */
+    private void linkLast(Node<K, V> node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    /** Requires evictionLock. */
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    /**
+     * Removes least recently used entries until there are at most {@code maxSize}, and returns
+     * them. Requires evictionLock.
+     */
+    private List<Node<K, V>> trimToSize(int maxSize) {
+        List<Node<K, V>> evicted = null;
+        while (map.size() > maxSize && head.next != head) {
+            Node<K, V> eldest = head.next;
+            unlink(eldest);
+            map.remove(eldest.key, eldest);
+            if (evicted == null) {
+                evicted = new ArrayList<Node<K, V>>();
+            }
+            evicted.add(eldest);
+        }
+        return evicted;
+    }
+
+    /** Passes evicted entries to {@link #entryEvicted}. Must not be called with evictionLock. */
+    private void notifyEvicted(List<Node<K, V>> evicted) {
+        if (evicted != null) {
+            evictionCount.add(evicted.size());
+            for (Node<K, V> node : evicted) {
+                entryEvicted(node.key, node.value);
+            }
+        }
+    }
+
+    /**
+     * Called for entries that have reached the tail of the least recently used
+     * queue and are removed. The default implementation does nothing. Unlike
+     * {@link BasicLruCache}, this is called without holding any locks.
+     */
+    protected void entryEvicted(K key, V value) {}
+
+    /**
+     * Called after a cache miss to compute a value for the corresponding key.
+     * Returns the computed value or null if no value can be computed. The
+     * default implementation returns null.
+     */
+    protected V create(K key) {
+        return null;
+    }
+
+    /**
+     * Returns a copy of the current contents of the cache, ordered from least
+     * recently accessed to most recently accessed.
+     */
+    public final Map<K, V> snapshot() {
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            Map<K, V> result = new LinkedHashMap<K, V>();
+            for (Node<K, V> node = head.next; node != head; node = node.next) {
+                result.put(node.key, node.value);
+            }
+            return result;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Clear the cache, calling {@link #entryEvicted} on each removed entry.
+     */
+    public final void evictAll() {
+        List<Node<K, V>> evicted;
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            evicted = trimToSize(0);
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyEvicted(evicted);
+    }
+
+    /** Returns the number of times {@link #get} found a cached value. */
+    public final long hitCount() {
+        return hitCount.sum();
+    }
+
+    /** Returns the number of times {@link #get} didn't find a cached value. */
+    public final long missCount() {
+        return missCount.sum();
+    }
+
+    /** Returns the number of entries passed to {@link #entryEvicted}. */
+    public final long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        long hits = hitCount();
+        long misses = missCount();
+        long accesses = hits + misses;
+        int hitPercent = accesses != 0 ? (int) (100 * hits / accesses) : 0;
+        return String.format("ConcurrentLruCache[maxSize=%d,hits=%d,misses=%d,evictions=%d,"
+                + "hitRate=%d%%]", maxSize, hits, misses, evictionCount(), hitPercent);
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread-safe map whose keys are weakly or softly referenced and compared by identity, for
+ * caches of metadata about classes and class loaders that mustn't keep them from being
+ * unloaded. Values are strongly referenced, so a value that refers to its key must wrap itself
+ * in a {@link SoftReference} or {@link WeakReference}, or the key will never be collected.
+ *
+ * <p>Unlike a {@link java.util.concurrent.ConcurrentHashMap} of {@code WeakReference} keys,
+ * {@link #get} doesn't allocate a reference to look the key up, and takes no locks. Writes lock
+ * one of several segments of the table. Entries whose keys were collected are removed on the
+ * next write, or by {@link #expungeStaleEntries}, and passed to {@link #entryExpunged}.
+ *
+ * <p>Null keys and values are not permitted.
+ */
+public class ConcurrentReferenceKeyMap<K, V> {
+    /** How strongly keys are referenced. */
+    public enum Strength {
+        /** Keys are held by {@link WeakReference}s, like those of {@link java.util.WeakHashMap}. */
+        WEAK,
+        /** Keys are held by {@link SoftReference}s, and kept until memory runs low. */
+        SOFT
+    }
+
+    /** The number of segments. A power of two. */
+    private static final int SEGMENT_COUNT = 16;
+    private static final int SEGMENT_SHIFT = 32 - Integer.numberOfTrailingZeros(SEGMENT_COUNT);
+    private static final int INITIAL_SEGMENT_CAPACITY = 4;
+
+    private final Strength strength;
+    private final ReferenceQueue<K> queue = new ReferenceQueue<K>();
+    private final Segment<K, V>[] segments;
+
+    public ConcurrentReferenceKeyMap() {
+        this(Strength.WEAK);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentReferenceKeyMap(Strength strength) {
+        if (strength == null) {
+            throw new NullPointerException("strength == null");
+        }
+        this.strength = strength;
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<K, V>();
+        }
+    }
+
+    /**
+     * Returns the value for {@code key}, or null if there is none.
+     */
+    public V get(Object key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        int hash = hash(key);
+        Node<K, V> node = segmentFor(hash).find(key, hash);
+        return node != null ? node.value : null;
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, returning the previous value or null.
+     */
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    /**
+     * Maps {@code key} to {@code value} unless it already has a value, and returns the previous
+     * value or null.
+     */
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        } else if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        expungeStaleEntries();
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value, onlyIfAbsent, this);
+    }
+
+    /**
+     * Removes the entry for {@code key}, returning its value or null.
+     */
+    public V remove(Object key) {
+        return removeInternal(key, null);
+    }
+
+    /**
+     * Removes the entry for {@code key} if its value equals {@code value}, and returns whether
+     * it did.
+     */
+    public boolean remove(Object key, Object value) {
+        if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        return removeInternal(key, value) != null;
+    }
+
+    private V removeInternal(Object key, Object expectedValue) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        expungeStaleEntries();
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash, expectedValue);
+    }
+
+    /**
+     * Returns the number of entries, including those whose keys were collected but haven't been
+     * noticed yet.
+     */
+    public int size() {
+        expungeStaleEntries();
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all entries. They are not passed to {@link #entryExpunged}.
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+        // Forget the references of the removed entries.
+        while (queue.poll() != null) {
+        }
+    }
+
+    /**
+     * Removes the entries whose keys were collected, passing their values to
+     * {@link #entryExpunged}. Writes do this anyway.
+     */
+    public void expungeStaleEntries() {
+        for (Reference<? extends K> reference; (reference = queue.poll()) != null; ) {
+            int hash = (reference instanceof WeakKey)
+                    ? ((WeakKey<?>) reference).hash
+                    : ((SoftKey<?>) reference).hash;
+            V value = segmentFor(hash).removeStale(reference, hash);
+            if (value != null) {
+                entryExpunged(value);
+            }
+        }
+    }
+
+    /**
+     * Called with the value of an entry whose key was collected, after the entry was removed.
+     * The default implementation does nothing. This is called without holding any locks.
+     */
+    protected void entryExpunged(V value) {}
+
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[hash >>> SEGMENT_SHIFT];
+    }
+
+    Reference<K> newKeyReference(K key, int hash) {
+        return strength == Strength.WEAK
+                ? new WeakKey<K>(key, hash, queue)
+                : new SoftKey<K>(key, hash, queue);
+    }
+
+    /** Spreads identity hash codes, which may be sequential, over the segments and buckets. */
+    private static int hash(Object key) {
+        int hash = System.identityHashCode(key) * 0x9e3779b9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class WeakKey<K> extends WeakReference<K> {
+        final int hash;
+
+        WeakKey(K key, int hash, ReferenceQueue<K> queue) {
+            super(key, queue);
+            this.hash = hash;
+        }
+    }
+
+    private static final class SoftKey<K> extends SoftReference<K> {
+        final int hash;
+
+        SoftKey(K key, int hash, ReferenceQueue<K> queue) {
+            super(key, queue);
+            this.hash = hash;
+        }
+    }
+
+    private static final class Node<K, V> {
+        final int hash;
+        final Reference<K> key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(int hash, Reference<K> key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * A hash table of some of the entries. Readers see a consistent table without locking:
+     * nodes are published with volatile writes, unlinked nodes still lead to the rest of their
+     * bucket, and resizing builds a new table from new nodes. Writers synchronize on the
+     * segment.
+     */
+    private static final class Segment<K, V> {
+        volatile AtomicReferenceArray<Node<K, V>> table =
+                new AtomicReferenceArray<Node<K, V>>(INITIAL_SEGMENT_CAPACITY);
+        volatile int count;
+
+        Node<K, V> find(Object key, int hash) {
+            AtomicReferenceArray<Node<K, V>> table = this.table;
+            Node<K, V> node = table.get(hash & (table.length() - 1));
+            while (node != null) {
+                if (node.hash == hash && node.key.get() == key) {
+                    return node;
+                }
+                node = node.next;
+            }
+            return null;
+        }
+
+        synchronized V put(K key, int hash, V value, boolean onlyIfAbsent,
+                ConcurrentReferenceKeyMap<K, V> map) {
+            Node<K, V> node = find(key, hash);
+            if (node != null) {
+                V previous = node.value;
+                if (!onlyIfAbsent) {
+                    node.value = value;
+                }
+                return previous;
+            }
+            AtomicReferenceArray<Node<K, V>> table = this.table;
+            if (count >= table.length() / 4 * 3) {
+                table = resize(table);
+            }
+            int index = hash & (table.length() - 1);
+            table.set(index, new Node<K, V>(hash, map.newKeyReference(key, hash), value,
+                    table.get(index)));
+            count++;
+            return null;
+        }
+
+        synchronized V remove(Object key, int hash, Object expectedValue) {
+            Node<K, V> node = find(key, hash);
+            if (node == null || (expectedValue != null && !expectedValue.equals(node.value))) {
+                return null;
+            }
+            unlink(node);
+            // Don't enqueue the reference to the removed key, which is never looked up again.
+            node.key.clear();
+            return node.value;
+        }
+
+        /** Removes the node with the collected key {@code reference}, returning its value. */
+        synchronized V removeStale(Reference<?> reference, int hash) {
+            AtomicReferenceArray<Node<K, V>> table = this.table;
+            for (Node<K, V> node = table.get(hash & (table.length() - 1)); node != null;
+                    node = node.next) {
+                if (node.key == reference) {
+                    unlink(node);
+                    return node.value;
+                }
+            }
+            return null;
+        }
+
+        synchronized void clear() {
+            table = new AtomicReferenceArray<Node<K, V>>(INITIAL_SEGMENT_CAPACITY);
+            count = 0;
+        }
+
+        /** Removes {@code node} from its bucket. Requires the lock. */
+        private void unlink(Node<K, V> node) {
+            AtomicReferenceArray<Node<K, V>> table = this.table;
+            int index = node.hash & (table.length() - 1);
+            Node<K, V> head = table.get(index);
+            if (head == node) {
+                table.set(index, node.next);
+            } else {
+                Node<K, V> previous = head;
+                while (previous.next != node) {
+                    previous = previous.next;
+                }
+                previous.next = node.next;
+            }
+            count--;
+        }
+
+        /**
+         * Returns a table twice as large with copies of the nodes, and publishes it. Requires
+         * the lock.
+         */
+        private AtomicReferenceArray<Node<K, V>> resize(
+                AtomicReferenceArray<Node<K, V>> oldTable) {
+            AtomicReferenceArray<Node<K, V>> newTable =
+                    new AtomicReferenceArray<Node<K, V>>(oldTable.length() * 2);
+            int mask = newTable.length() - 1;
+            for (int i = 0; i < oldTable.length(); i++) {
+                for (Node<K, V> node = oldTable.get(i); node != null; node = node.next) {
+                    // The copies share the key references, so that nodes whose keys were
+                    // collected are still found, and expunged, when their references are polled.
+                    int index = node.hash & mask;
+                    newTable.set(index, new Node<K, V>(node.hash, node.key, node.value,
+                            newTable.get(index)));
+                }
+            }
+            table = newTable;
+            return newTable;
+        }
+    }
+}
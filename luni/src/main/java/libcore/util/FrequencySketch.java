@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ * Copyright 2015 Ben Manes. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+/**
+ * Estimates how often each key was seen recently, for the admission policy of
+ * {@link TinyLfuCache}.
+ *
+ * <p>This is a count-min sketch of 4-bit counters, sixteen to a {@code long}. Each key has a
+ * counter in four different {@code long}s, and its frequency is the smallest of them, so
+ * collisions can only make a key look more frequent than it is. When the number of increments
+ * reaches ten times the number of {@code long}s, all counters are halved, so that keys that were
+ * popular a long time ago don't stay popular forever. Not thread-safe.
+ *
+ * <p>Derived from {@code com.github.benmanes.caffeine.cache.FrequencySketch} of the Caffeine
+ * caching library (https://github.com/ben-manes/caffeine), which has the same seeds, counter
+ * layout and reset.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_FREQUENCY = 15;
+    private static final int MAX_TABLE_LENGTH = 1 << 26;
+
+    private long[] table = EmptyArray.LONG;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    /**
+     * Grows the sketch if it is too small to tell {@code expectedKeys} keys apart. The
+     * frequencies of keys seen so far are kept.
+     */
+    void ensureCapacity(int expectedKeys) {
+        int keys = Math.min(Math.max(expectedKeys, 8), MAX_TABLE_LENGTH);
+        int length = Integer.highestOneBit(keys - 1) << 1;
+        if (table.length >= length) {
+            return;
+        }
+        // A key's counters in the larger table are at indexes whose low bits are its indexes in
+        // the current one, so copying the current table into each part keeps its frequencies.
+        long[] newTable = new long[length];
+        for (int i = 0; i < length && table.length != 0; i += table.length) {
+            System.arraycopy(table, 0, newTable, i, table.length);
+        }
+        table = newTable;
+        tableMask = length - 1;
+        sampleSize = 10 * length;
+    }
+
+    /** Returns the estimated number of times {@code key} was seen, at most 15. */
+    int frequency(Object key) {
+        if (table.length == 0) {
+            return 0;
+        }
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xf);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /** Records that {@code key} was seen. */
+    void increment(Object key) {
+        if (table.length == 0) {
+            return;
+        }
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Increments the {@code counter}th counter of {@code table[index]} unless it has reached
+     * the maximum, and returns whether it did.
+     */
+    private boolean incrementAt(int index, int counter) {
+        int shift = counter << 2;
+        long mask = 0xfL << shift;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << shift;
+            return true;
+        }
+        return false;
+    }
+
+    /** Halves all counters, and the count of increments since the last reset. */
+    private void reset() {
+        int oddCounters = 0;
+        for (int i = 0; i < table.length; i++) {
+            oddCounters += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        // Each odd counter lost half an increment to rounding.
+        size = (size - (oddCounters >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    /** Spreads the bits of poor hash codes, such as those of small Integers. */
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
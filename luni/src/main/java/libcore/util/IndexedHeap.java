@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A priority queue that, unlike {@link java.util.PriorityQueue}, can remove an element or
+ * change its priority in O(log n) time. {@link #add} returns a {@link Handle} for the element,
+ * which knows where the element is in the heap, and which {@link #update} and {@link #remove}
+ * take instead of searching for the element.
+ *
+ * <p>The heap is 4-ary rather than binary: it is half as deep, and the four children of a node
+ * are next to each other in the array, so removing the least element touches fewer cache lines
+ * for the cost of more comparisons per level. Elements are ordered by their natural ordering or
+ * by a comparator, and the order of equal elements is unspecified. See {@link IndexedLongHeap}
+ * for a version with {@code long} priorities that doesn't allocate handles. Not thread-safe.
+ */
+public final class IndexedHeap<E> {
+    /**
+     * The position of an element in an {@link IndexedHeap}.
+     */
+    public static final class Handle<E> {
+        private E element;
+        /** The index of this handle in the heap array, or -1 once it was removed. */
+        private int index = -1;
+
+        private Handle(E element) {
+            this.element = element;
+        }
+
+        /** Returns the element, whether or not it is still queued. */
+        public E get() {
+            return element;
+        }
+
+        /** Returns whether the element is still in its heap. */
+        public boolean isQueued() {
+            return index >= 0;
+        }
+    }
+
+    private final Comparator<? super E> comparator;
+    private Handle<E>[] heap;
+    private int size;
+
+    /**
+     * Creates a heap ordered by the natural ordering of its elements.
+     */
+    public IndexedHeap() {
+        this(null);
+    }
+
+    /**
+     * Creates a heap ordered by {@code comparator}, or by the natural ordering of its elements
+     * if that is null.
+     */
+    @SuppressWarnings("unchecked")
+    public IndexedHeap(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        this.heap = (Handle<E>[]) new Handle<?>[16];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds {@code element}, returning its handle.
+     */
+    public Handle<E> add(E element) {
+        if (element == null) {
+            throw new NullPointerException("element == null");
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        Handle<E> handle = new Handle<E>(element);
+        siftUp(size++, handle);
+        return handle;
+    }
+
+    /**
+     * Returns the least element, or null if the heap is empty.
+     */
+    public E peek() {
+        return size != 0 ? heap[0].element : null;
+    }
+
+    /**
+     * Returns the handle of the least element, or null if the heap is empty.
+     */
+    public Handle<E> peekHandle() {
+        return size != 0 ? heap[0] : null;
+    }
+
+    /**
+     * Removes and returns the least element, or returns null if the heap is empty.
+     */
+    public E poll() {
+        if (size == 0) {
+            return null;
+        }
+        Handle<E> least = heap[0];
+        removeAt(0);
+        return least.element;
+    }
+
+    /**
+     * Returns whether {@code handle} is the handle of an element in this heap.
+     */
+    public boolean contains(Handle<E> handle) {
+        int index = handle.index;
+        return index >= 0 && index < size && heap[index] == handle;
+    }
+
+    /**
+     * Replaces the element of {@code handle}, which is usually the same element with a
+     * different priority, and moves it to its new place in the heap.
+     *
+     * @throws IllegalArgumentException if the handle isn't in this heap.
+     */
+    public void update(Handle<E> handle, E element) {
+        if (element == null) {
+            throw new NullPointerException("element == null");
+        }
+        checkContains(handle);
+        handle.element = element;
+        int index = handle.index;
+        if (index > 0 && compare(element, heap[parentOf(index)].element) < 0) {
+            siftUp(index, handle);
+        } else {
+            siftDown(index, handle);
+        }
+    }
+
+    /**
+     * Removes the element of {@code handle}, returning whether it was in this heap.
+     */
+    public boolean remove(Handle<E> handle) {
+        if (!contains(handle)) {
+            return false;
+        }
+        removeAt(handle.index);
+        return true;
+    }
+
+    /**
+     * Removes all elements.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].index = -1;
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int index) {
+        Handle<E> removed = heap[index];
+        removed.index = -1;
+        Handle<E> last = heap[--size];
+        heap[size] = null;
+        if (index == size) {
+            return;
+        }
+        // Put the last element in the hole, and move it up or down from there.
+        if (index > 0 && compare(last.element, heap[parentOf(index)].element) < 0) {
+            siftUp(index, last);
+        } else {
+            siftDown(index, last);
+        }
+    }
+
+    /** Moves {@code handle}, which belongs at or above {@code index}, up to its place. */
+    private void siftUp(int index, Handle<E> handle) {
+        while (index > 0) {
+            int parent = parentOf(index);
+            Handle<E> parentHandle = heap[parent];
+            if (compare(handle.element, parentHandle.element) >= 0) {
+                break;
+            }
+            heap[index] = parentHandle;
+            parentHandle.index = index;
+            index = parent;
+        }
+        heap[index] = handle;
+        handle.index = index;
+    }
+
+    /** Moves {@code handle}, which belongs at or below {@code index}, down to its place. */
+    private void siftDown(int index, Handle<E> handle) {
+        while (true) {
+            int firstChild = (index << 2) + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int least = firstChild;
+            for (int child = firstChild + 1, end = Math.min(firstChild + 4, size);
+                    child < end; child++) {
+                if (compare(heap[child].element, heap[least].element) < 0) {
+                    least = child;
+                }
+            }
+            Handle<E> leastHandle = heap[least];
+            if (compare(handle.element, leastHandle.element) <= 0) {
+                break;
+            }
+            heap[index] = leastHandle;
+            leastHandle.index = index;
+            index = least;
+        }
+        heap[index] = handle;
+        handle.index = index;
+    }
+
+    private static int parentOf(int index) {
+        return (index - 1) >>> 2;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E a, E b) {
+        return comparator != null
+                ? comparator.compare(a, b)
+                : ((Comparable<? super E>) a).compareTo(b);
+    }
+
+    private void checkContains(Handle<E> handle) {
+        if (!contains(handle)) {
+            throw new IllegalArgumentException("Handle is not in this heap: " + handle.element);
+        }
+    }
+}
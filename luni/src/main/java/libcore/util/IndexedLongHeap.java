@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A priority queue of non-negative {@code int} ids, each with a {@code long} priority, such as
+ * a deadline. The id with the least priority comes first, and the order of ids with equal
+ * priorities is unspecified. The priority of an id can be changed, and an id removed, in
+ * O(log n) time, and nothing is allocated unless the arrays need to grow.
+ *
+ * <p>Like {@link IndexedHeap}, this is a 4-ary heap. The priorities are stored in the heap
+ * array next to their ids, so sifting doesn't look anything up by id, and the position of each
+ * id in the heap is kept in an array indexed by id, so ids should be small and dense, like
+ * indices into a table of tasks. Not thread-safe.
+ */
+public final class IndexedLongHeap {
+    /** The value of {@link #positions} for ids that aren't queued. */
+    private static final int NOT_QUEUED = -1;
+
+    private int[] ids;
+    private long[] priorities;
+    private int[] positions;
+    private int size;
+
+    public IndexedLongHeap() {
+        this(16);
+    }
+
+    /**
+     * Creates a heap that holds the ids from 0 to {@code idCapacity - 1} without resizing.
+     */
+    public IndexedLongHeap(int idCapacity) {
+        if (idCapacity < 0) {
+            throw new IllegalArgumentException("idCapacity < 0: " + idCapacity);
+        }
+        ids = new int[idCapacity];
+        priorities = new long[idCapacity];
+        positions = new int[idCapacity];
+        Arrays.fill(positions, NOT_QUEUED);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < positions.length && positions[id] != NOT_QUEUED;
+    }
+
+    /**
+     * Returns the priority of {@code id}, or {@code valueIfNotQueued} if it isn't queued.
+     */
+    public long getPriority(int id, long valueIfNotQueued) {
+        return contains(id) ? priorities[positions[id]] : valueIfNotQueued;
+    }
+
+    /**
+     * Adds {@code id} with {@code priority}, or changes its priority if it is already queued.
+     */
+    public void set(int id, long priority) {
+        if (id < 0) {
+            throw new IllegalArgumentException("id < 0: " + id);
+        }
+        if (id >= positions.length) {
+            int oldLength = positions.length;
+            positions = Arrays.copyOf(positions, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(positions, oldLength, positions.length, NOT_QUEUED);
+        }
+        int index = positions[id];
+        if (index == NOT_QUEUED) {
+            if (size == ids.length) {
+                int length = Math.max(16, size * 2);
+                ids = Arrays.copyOf(ids, length);
+                priorities = Arrays.copyOf(priorities, length);
+            }
+            siftUp(size++, id, priority);
+        } else if (index > 0 && priority < priorities[parentOf(index)]) {
+            siftUp(index, id, priority);
+        } else {
+            siftDown(index, id, priority);
+        }
+    }
+
+    /**
+     * Removes {@code id}, returning whether it was queued.
+     */
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        removeAt(positions[id]);
+        return true;
+    }
+
+    /**
+     * Returns the id with the least priority, or -1 if the heap is empty.
+     */
+    public int peek() {
+        return size != 0 ? ids[0] : -1;
+    }
+
+    /**
+     * Returns the least priority.
+     *
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    public long peekPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return priorities[0];
+    }
+
+    /**
+     * Removes and returns the id with the least priority, or returns -1 if the heap is empty.
+     */
+    public int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int id = ids[0];
+        removeAt(0);
+        return id;
+    }
+
+    /**
+     * Removes all ids.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[ids[i]] = NOT_QUEUED;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int index) {
+        positions[ids[index]] = NOT_QUEUED;
+        int last = --size;
+        if (index == last) {
+            return;
+        }
+        // Put the last id in the hole, and move it up or down from there.
+        int lastId = ids[last];
+        long lastPriority = priorities[last];
+        if (index > 0 && lastPriority < priorities[parentOf(index)]) {
+            siftUp(index, lastId, lastPriority);
+        } else {
+            siftDown(index, lastId, lastPriority);
+        }
+    }
+
+    private void siftUp(int index, int id, long priority) {
+        while (index > 0) {
+            int parent = parentOf(index);
+            if (priority >= priorities[parent]) {
+                break;
+            }
+            moveTo(index, parent);
+            index = parent;
+        }
+        ids[index] = id;
+        priorities[index] = priority;
+        positions[id] = index;
+    }
+
+    private void siftDown(int index, int id, long priority) {
+        while (true) {
+            int firstChild = (index << 2) + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int least = firstChild;
+            for (int child = firstChild + 1, end = Math.min(firstChild + 4, size);
+                    child < end; child++) {
+                if (priorities[child] < priorities[least]) {
+                    least = child;
+                }
+            }
+            if (priority <= priorities[least]) {
+                break;
+            }
+            moveTo(index, least);
+            index = least;
+        }
+        ids[index] = id;
+        priorities[index] = priority;
+        positions[id] = index;
+    }
+
+    /** Moves the id at {@code from} to {@code to}. */
+    private void moveTo(int to, int from) {
+        int id = ids[from];
+        ids[to] = id;
+        priorities[to] = priorities[from];
+        positions[id] = to;
+    }
+
+    private static int parentOf(int index) {
+        return (index - 1) >>> 2;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash set of {@code int}s that doesn't box its elements, and doesn't
+ * allocate on lookups, adds of existing elements and removes.
+ *
+ * <p>Elements are stored in an array with open addressing and linear probing,
+ * like the keys of {@link IntIntMap}. Not thread-safe.
+ */
+public final class IntHashSet {
+    /** Marks a free slot in {@link #elements}. The element 0 is stored separately. */
+    private static final int FREE = 0;
+
+    private int[] elements;
+    private int size;
+    private int resizeThreshold;
+
+    private boolean hasZero;
+
+    public IntHashSet() {
+        this(8);
+    }
+
+    /**
+     * Creates a set that holds {@code expectedSize} elements without resizing.
+     */
+    public IntHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize < 0: " + expectedSize);
+        }
+        allocate(OpenHashing.capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return hasZero;
+        }
+        return elements[indexOf(value)] != FREE;
+    }
+
+    /**
+     * Adds {@code value}, returning whether the set didn't contain it already.
+     */
+    public boolean add(int value) {
+        if (value == FREE) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int index = indexOf(value);
+        if (elements[index] != FREE) {
+            return false;
+        }
+        if (size >= resizeThreshold) {
+            resize(OpenHashing.grow(elements.length));
+            index = indexOf(value);
+        }
+        elements[index] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes {@code value}, returning whether the set contained it.
+     */
+    public boolean remove(int value) {
+        if (value == FREE) {
+            if (!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int index = indexOf(value);
+        if (elements[index] == FREE) {
+            return false;
+        }
+        removeAt(index);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(elements, FREE);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Returns a new array of the elements, in no particular order.
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int count = 0;
+        if (hasZero) {
+            result[count++] = FREE;
+        }
+        for (int element : elements) {
+            if (element != FREE) {
+                result[count++] = element;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Returns the index of {@code value}, or of the free slot where it would be inserted.
+     */
+    private int indexOf(int value) {
+        int mask = elements.length - 1;
+        int index = OpenHashing.hash(value) & mask;
+        while (elements[index] != FREE && elements[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void removeAt(int gap) {
+        int mask = elements.length - 1;
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            int element = elements[index];
+            if (element == FREE) {
+                break;
+            }
+            // Move the element back into the gap unless that would put it before its home slot.
+            int home = OpenHashing.hash(element) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                elements[gap] = element;
+                gap = index;
+            }
+        }
+        elements[gap] = FREE;
+    }
+
+    private void allocate(int capacity) {
+        elements = new int[capacity];
+        resizeThreshold = OpenHashing.resizeThreshold(capacity);
+    }
+
+    private void resize(int capacity) {
+        int[] oldElements = elements;
+        allocate(capacity);
+        for (int element : oldElements) {
+            if (element != FREE) {
+                elements[indexOf(element)] = element;
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code int} to {@code int} that neither boxes its keys and
+ * values nor allocates on lookups, puts of existing keys and removes.
+ *
+ * <p>Entries are stored in arrays with open addressing and linear probing.
+ * Removal shifts later entries of the same probe sequence back, so there are
+ * no tombstones and lookups never slow down after many removes. Not
+ * thread-safe.
+ */
+public final class IntIntMap {
+    /** Marks a free slot in {@link #keys}. The key 0 is stored separately. */
+    private static final int FREE = 0;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeThreshold;
+
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntMap() {
+        this(8);
+    }
+
+    /**
+     * Creates a map that holds {@code expectedSize} entries without resizing.
+     */
+    public IntIntMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize < 0: " + expectedSize);
+        }
+        allocate(OpenHashing.capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == FREE) {
+            return hasZeroKey;
+        }
+        return keys[indexOf(key)] != FREE;
+    }
+
+    /**
+     * Returns the value for {@code key}, or {@code valueIfKeyNotFound} if there is none.
+     */
+    public int get(int key, int valueIfKeyNotFound) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : valueIfKeyNotFound;
+        }
+        int index = indexOf(key);
+        return keys[index] != FREE ? values[index] : valueIfKeyNotFound;
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, replacing any previous value.
+     */
+    public void put(int key, int value) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int index = indexOf(key);
+        if (keys[index] == FREE) {
+            if (size >= resizeThreshold) {
+                resize(OpenHashing.grow(keys.length));
+                index = indexOf(key);
+            }
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Removes the entry for {@code key}, returning whether there was one.
+     */
+    public boolean remove(int key) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            zeroValue = 0;
+            size--;
+            return true;
+        }
+        int index = indexOf(key);
+        if (keys[index] == FREE) {
+            return false;
+        }
+        removeAt(index);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns a new array of the keys, in no particular order.
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int count = 0;
+        if (hasZeroKey) {
+            result[count++] = FREE;
+        }
+        for (int key : keys) {
+            if (key != FREE) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        if (hasZeroKey) {
+            sb.append(FREE).append('=').append(zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(keys[i]).append('=').append(values[i]);
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Returns the index of {@code key}, or of the free slot where it would be inserted.
+     */
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = OpenHashing.hash(key) & mask;
+        while (keys[index] != FREE && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void removeAt(int gap) {
+        int mask = keys.length - 1;
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            int key = keys[index];
+            if (key == FREE) {
+                break;
+            }
+            // Move the entry back into the gap unless that would put it before its home slot.
+            int home = OpenHashing.hash(key) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = FREE;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        resizeThreshold = OpenHashing.resizeThreshold(capacity);
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code int} to objects that doesn't box its keys, and
+ * doesn't allocate on lookups, puts of existing keys and removes. Values may
+ * be null.
+ *
+ * <p>Entries are stored in arrays with open addressing and linear probing,
+ * like those of {@link IntIntMap}. Not thread-safe.
+ */
+public final class IntObjectMap<V> {
+    /** Marks a free slot in {@link #keys}. The key 0 is stored separately. */
+    private static final int FREE = 0;
+
+    /**
+     * Receives the entries of a map, see {@link #forEach}.
+     */
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeThreshold;
+
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    public IntObjectMap() {
+        this(8);
+    }
+
+    /**
+     * Creates a map that holds {@code expectedSize} entries without resizing.
+     */
+    public IntObjectMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize < 0: " + expectedSize);
+        }
+        allocate(OpenHashing.capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == FREE) {
+            return hasZeroKey;
+        }
+        return keys[indexOf(key)] != FREE;
+    }
+
+    /**
+     * Returns the value for {@code key}, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == FREE) {
+            return zeroValue;
+        }
+        return (V) values[indexOf(key)];
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, returning the previous value or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == FREE) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            V previous = zeroValue;
+            zeroValue = value;
+            return previous;
+        }
+        int index = indexOf(key);
+        if (keys[index] == FREE) {
+            if (size >= resizeThreshold) {
+                resize(OpenHashing.grow(keys.length));
+                index = indexOf(key);
+            }
+            keys[index] = key;
+            size++;
+        }
+        V previous = (V) values[index];
+        values[index] = value;
+        return previous;
+    }
+
+    /**
+     * Removes the entry for {@code key}, returning its value or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == FREE) {
+            V previous = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+        int index = indexOf(key);
+        if (keys[index] == FREE) {
+            return null;
+        }
+        V previous = (V) values[index];
+        removeAt(index);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Passes each entry to {@code action}, in no particular order. The map must not be
+     * modified until this returns.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept(FREE, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=').append(value);
+        });
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Returns the index of {@code key}, or of the free slot where it would be inserted.
+     */
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = OpenHashing.hash(key) & mask;
+        while (keys[index] != FREE && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void removeAt(int gap) {
+        int mask = keys.length - 1;
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            int key = keys[index];
+            if (key == FREE) {
+                break;
+            }
+            // Move the entry back into the gap unless that would put it before its home slot.
+            int home = OpenHashing.hash(key) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        resizeThreshold = OpenHashing.resizeThreshold(capacity);
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+/**
+ * Sizing and hashing shared by the open-addressing primitive collections.
+ */
+final class OpenHashing {
+    private OpenHashing() {}
+
+    /** The largest power-of-two array length. */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Returns the table capacity, a power of two, for {@code expectedSize} entries.
+     */
+    static int capacityFor(int expectedSize) {
+        // A load factor of 3/4 keeps linear probe sequences short.
+        long minCapacity = Math.max(8L, (expectedSize * 4L + 2) / 3);
+        if (minCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) minCapacity - 1) << 1;
+    }
+
+    /**
+     * Returns the number of entries at which a table of {@code capacity} is grown.
+     */
+    static int resizeThreshold(int capacity) {
+        return capacity / 4 * 3;
+    }
+
+    /**
+     * Returns the capacity to grow a full table of {@code capacity} to.
+     */
+    static int grow(int capacity) {
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException("Too many entries");
+        }
+        return capacity * 2;
+    }
+
+    /**
+     * Spreads the bits of {@code key}, so that keys that differ only in their high bits,
+     * such as multiples of a power of two, don't collide.
+     */
+    static int hash(int key) {
+        int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,1169 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import libcore.io.BufferIterator;
+
+/**
+ * A set of non-negative {@code int}s, like {@link java.util.BitSet}, that stays small when the
+ * values are sparse or clustered. A {@code BitSet} holds a bit for every value up to the
+ * largest, so a few large values cost a lot of memory, and {@link java.util.BitSet#and} and
+ * friends scan all the words in between.
+ *
+ * <p>Values are split into chunks of 65536 by their upper 16 bits, and only chunks that hold
+ * values are stored, each in the smallest of three containers: a sorted array of the lower 16
+ * bits for up to 4096 values, a bitmap of 1024 {@code long}s for more, or a sorted list of
+ * runs of consecutive values. Adding and removing values switches between arrays and bitmaps
+ * as needed; call {@link #runOptimize} once a set is built to turn containers into runs where
+ * that is smaller. The set operations work chunk by chunk, and skip chunks that can't
+ * contribute to the result.
+ *
+ * <p>{@link #toByteArray} writes a little-endian format that starts with a directory of the
+ * containers, whose data is 8-byte aligned. {@link #read} reads it back, for example through
+ * {@link libcore.io.MemoryMappedFile#littleEndianIterator}, copying each container with a bulk
+ * read. Not thread-safe.
+ */
+public final class RoaringBitmap {
+    private static final int MAGIC = 0x31424d52; // "RMB1" in little-endian order
+
+    // Container types in the serialized form.
+    private static final int ARRAY = 0;
+    private static final int BITMAP = 1;
+    private static final int RUN = 2;
+
+    /** The most values an array container holds. More take more space than a bitmap. */
+    private static final int MAX_ARRAY_SIZE = 4096;
+    /** The number of {@code long}s in a bitmap container, one bit for each of 65536 values. */
+    private static final int WORD_COUNT = 1024;
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int DIRECTORY_ENTRY_SIZE = 12;
+
+    // The upper 16 bits of the values in each container, in increasing order.
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringBitmap() {
+        this(4);
+    }
+
+    private RoaringBitmap(int capacity) {
+        keys = new char[capacity];
+        containers = new Container[capacity];
+    }
+
+    /**
+     * Adds {@code value}.
+     *
+     * @throws IndexOutOfBoundsException if {@code value} is negative.
+     */
+    public void add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        char low = (char) value;
+        int i = indexOf(key);
+        if (i >= 0) {
+            containers[i] = containers[i].add(low);
+        } else {
+            ArrayContainer container = new ArrayContainer(4);
+            container.add(low);
+            insertAt(~i, key, container);
+        }
+    }
+
+    /**
+     * Adds the values from {@code fromIndex}, inclusive, to {@code toIndex}, exclusive.
+     *
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative, or greater than
+     *     {@code toIndex}.
+     */
+    public void add(int fromIndex, int toIndex) {
+        checkValue(fromIndex);
+        if (toIndex < fromIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex
+                    + " > toIndex: " + toIndex);
+        }
+        if (fromIndex == toIndex) {
+            return;
+        }
+        int firstKey = fromIndex >>> 16;
+        int lastKey = (toIndex - 1) >>> 16;
+        for (int key = firstKey; key <= lastKey; key++) {
+            int from = (key == firstKey) ? fromIndex & 0xffff : 0;
+            int to = (key == lastKey) ? ((toIndex - 1) & 0xffff) + 1 : CHUNK_SIZE;
+            int i = indexOf((char) key);
+            if (i < 0) {
+                insertAt(~i, (char) key, RunContainer.ofRange(from, to));
+            } else if (from == 0 && to == CHUNK_SIZE) {
+                containers[i] = RunContainer.ofRange(from, to);
+            } else {
+                containers[i] = containers[i].addRange(from, to);
+            }
+        }
+    }
+
+    /**
+     * Removes {@code value}, if present.
+     *
+     * @throws IndexOutOfBoundsException if {@code value} is negative.
+     */
+    public void remove(int value) {
+        checkValue(value);
+        int i = indexOf((char) (value >>> 16));
+        if (i >= 0) {
+            Container container = containers[i].remove((char) value);
+            if (container.cardinality() == 0) {
+                removeAt(i);
+            } else {
+                containers[i] = container;
+            }
+        }
+    }
+
+    /**
+     * Returns whether {@code value} is in this set. Negative values never are.
+     */
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int i = indexOf((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    /**
+     * Returns the least value in this set that is greater than or equal to
+     * {@code fromIndex}, or -1 if there is none.
+     *
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative.
+     */
+    public int nextSetBit(int fromIndex) {
+        checkValue(fromIndex);
+        char key = (char) (fromIndex >>> 16);
+        int i = indexOf(key);
+        if (i >= 0) {
+            int low = containers[i].nextValue(fromIndex & 0xffff);
+            if (low >= 0) {
+                return key << 16 | low;
+            }
+            i++;
+        } else {
+            i = ~i;
+        }
+        return i < size ? keys[i] << 16 | containers[i].nextValue(0) : -1;
+    }
+
+    /**
+     * Returns the number of values in this set.
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Removes the values that aren't in {@code other}.
+     */
+    public void and(RoaringBitmap other) {
+        int n = 0;
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            char key = keys[i];
+            char otherKey = other.keys[j];
+            if (key < otherKey) {
+                i++;
+            } else if (key > otherKey) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() != 0) {
+                    keys[n] = key;
+                    containers[n++] = container;
+                }
+                i++;
+                j++;
+            }
+        }
+        Arrays.fill(containers, n, size, null);
+        size = n;
+    }
+
+    /**
+     * Removes the values that are in {@code other}.
+     */
+    public void andNot(RoaringBitmap other) {
+        int n = 0;
+        for (int i = 0, j = 0; i < size; ) {
+            char key = keys[i];
+            if (j < other.size && other.keys[j] < key) {
+                j++;
+                continue;
+            }
+            Container container = containers[i];
+            if (j < other.size && other.keys[j] == key) {
+                container = container.andNot(other.containers[j++]);
+            }
+            if (container.cardinality() != 0) {
+                keys[n] = key;
+                containers[n++] = container;
+            }
+            i++;
+        }
+        Arrays.fill(containers, n, size, null);
+        size = n;
+    }
+
+    /**
+     * Adds the values in {@code other}.
+     */
+    public void or(RoaringBitmap other) {
+        merge(other, false);
+    }
+
+    /**
+     * Adds the values in {@code other} that aren't in this set, and removes those that are.
+     */
+    public void xor(RoaringBitmap other) {
+        merge(other, true);
+    }
+
+    private void merge(RoaringBitmap other, boolean xor) {
+        int capacity = size + other.size;
+        char[] newKeys = new char[capacity];
+        Container[] newContainers = new Container[capacity];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            char key;
+            Container container;
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                key = keys[i];
+                container = containers[i++];
+            } else if (i == size || other.keys[j] < keys[i]) {
+                key = other.keys[j];
+                container = other.containers[j++].copy();
+            } else {
+                key = keys[i];
+                container = xor
+                        ? containers[i++].xor(other.containers[j++])
+                        : containers[i++].or(other.containers[j++]);
+            }
+            if (container.cardinality() != 0) {
+                newKeys[n] = key;
+                newContainers[n++] = container;
+            }
+        }
+        keys = newKeys;
+        containers = newContainers;
+        size = n;
+    }
+
+    /**
+     * Returns the number of values that are in both this set and {@code other}, without
+     * computing their intersection.
+     */
+    public long andCardinality(RoaringBitmap other) {
+        long cardinality = 0;
+        for (int i = 0, j = 0; i < size && j < other.size; ) {
+            char key = keys[i];
+            char otherKey = other.keys[j];
+            if (key < otherKey) {
+                i++;
+            } else if (key > otherKey) {
+                j++;
+            } else {
+                cardinality += containers[i++].andCardinality(other.containers[j++]);
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Stores runs of consecutive values as runs, in the containers where that takes less space
+     * than an array or a bitmap.
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].runOptimize();
+        }
+    }
+
+    /**
+     * Returns a stream of the values in this set, in increasing order. The set must not be
+     * modified while the stream is in use.
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(Spliterators.spliterator(new ValueIterator(),
+                cardinality(), Spliterator.ORDERED | Spliterator.DISTINCT
+                        | Spliterator.SORTED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Returns this set in the format read by {@link #read}.
+     */
+    public byte[] toByteArray() {
+        int[] offsets = new int[size];
+        int offset = align8(HEADER_SIZE + size * DIRECTORY_ENTRY_SIZE);
+        for (int i = 0; i < size; i++) {
+            offsets[i] = offset;
+            offset = align8(offset + containers[i].serializedDataSize());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(offset).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            Container container = containers[i];
+            buffer.putInt(keys[i] | container.type() << 16);
+            buffer.putInt(container.serializedCount());
+            buffer.putInt(offsets[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.position(offsets[i]);
+            containers[i].writeData(buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Reads a set written by {@link #toByteArray}, starting at the current position of
+     * {@code it}, which must read little-endian data. The position of {@code it} afterwards is
+     * unspecified.
+     *
+     * @throws IllegalArgumentException if the data isn't a valid set.
+     */
+    public static RoaringBitmap read(BufferIterator it) {
+        long start = it.pos();
+        int magic = it.readInt();
+        if (magic != MAGIC) {
+            throw new IllegalArgumentException("Not a RoaringBitmap: magic="
+                    + Integer.toHexString(magic));
+        }
+        int count = it.readInt();
+        if (count < 0 || count > CHUNK_SIZE / 2) {
+            throw new IllegalArgumentException("Invalid container count: " + count);
+        }
+        int[] directory = new int[count * 3];
+        it.readIntArray(directory, 0, directory.length);
+        RoaringBitmap bitmap = new RoaringBitmap(count);
+        for (int i = 0; i < count; i++) {
+            int key = directory[i * 3] & 0xffff;
+            int type = directory[i * 3] >>> 16;
+            int n = directory[i * 3 + 1];
+            int offset = directory[i * 3 + 2];
+            if ((i > 0 && key <= bitmap.keys[i - 1]) || key >= CHUNK_SIZE / 2) {
+                throw new IllegalArgumentException("Invalid key " + key + " at " + i);
+            }
+            it.seek(start + offset);
+            Container container;
+            if (type == ARRAY) {
+                container = ArrayContainer.read(it, n);
+            } else if (type == BITMAP) {
+                container = BitmapContainer.read(it, n);
+            } else if (type == RUN) {
+                container = RunContainer.read(it, n);
+            } else {
+                throw new IllegalArgumentException("Invalid container type " + type + " at " + i);
+            }
+            bitmap.keys[i] = (char) key;
+            bitmap.containers[i] = container;
+        }
+        bitmap.size = count;
+        return bitmap;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof RoaringBitmap)) {
+            return false;
+        }
+        RoaringBitmap other = (RoaringBitmap) o;
+        if (size != other.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != other.keys[i]
+                    || !containers[i].contentEquals(other.containers[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // Depends only on the values, not on how they are stored.
+        int hash = 1;
+        for (PrimitiveIterator.OfInt it = new ValueIterator(); it.hasNext(); ) {
+            hash = 31 * hash + it.nextInt();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (PrimitiveIterator.OfInt it = new ValueIterator(); it.hasNext(); ) {
+            sb.append(it.nextInt());
+            if (it.hasNext()) {
+                sb.append(", ");
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertAt(int index, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        size--;
+        System.arraycopy(keys, index + 1, keys, index, size - index);
+        System.arraycopy(containers, index + 1, containers, index, size - index);
+        containers[size] = null;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IndexOutOfBoundsException("value < 0: " + value);
+        }
+    }
+
+    private static int align8(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    /** Sets the bits from {@code from}, inclusive, to {@code to}, exclusive, in words. */
+    private static void setRange(long[] words, int from, int to) {
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+        } else {
+            words[first] |= firstMask;
+            for (int i = first + 1; i < last; i++) {
+                words[i] = -1L;
+            }
+            words[last] |= lastMask;
+        }
+    }
+
+    /** Returns the smaller of an array and a bitmap container that holds the bits of words. */
+    private static Container fromWords(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality > MAX_ARRAY_SIZE) {
+            return new BitmapContainer(words, cardinality);
+        }
+        char[] values = new char[cardinality];
+        int n = 0;
+        for (int i = 0; i < WORD_COUNT; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                values[n++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return new ArrayContainer(values, n);
+    }
+
+    /**
+     * The lower 16 bits of the values in one chunk. Operations that change a container return
+     * the container to use from then on, which may be of a different type; operations that
+     * combine two containers return a new one.
+     */
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        /** Returns the least value greater than or equal to {@code from}, or -1. */
+        abstract int nextValue(int from);
+
+        /** Sets the bits of this container's values in {@code words}. */
+        abstract void fillWords(long[] words);
+
+        abstract Container copy();
+
+        abstract int sizeInBytes();
+
+        abstract int type();
+
+        /** Returns the count stored in the directory, which depends on the type. */
+        abstract int serializedCount();
+
+        abstract int serializedDataSize();
+
+        abstract void writeData(ByteBuffer buffer);
+
+        /** Returns new bitmap words with the bits of this container's values set. */
+        long[] toWords() {
+            long[] words = new long[WORD_COUNT];
+            fillWords(words);
+            return words;
+        }
+
+        /** Returns bitmap words for this container's values, which must not be modified. */
+        long[] wordsForReading() {
+            return toWords();
+        }
+
+        Container addRange(int from, int to) {
+            long[] words = toWords();
+            setRange(words, from, to);
+            return fromWords(words);
+        }
+
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] words = toWords();
+            long[] otherWords = other.wordsForReading();
+            for (int i = 0; i < WORD_COUNT; i++) {
+                words[i] &= otherWords[i];
+            }
+            return fromWords(words);
+        }
+
+        Container andNot(Container other) {
+            long[] words = toWords();
+            long[] otherWords = other.wordsForReading();
+            for (int i = 0; i < WORD_COUNT; i++) {
+                words[i] &= ~otherWords[i];
+            }
+            return fromWords(words);
+        }
+
+        Container or(Container other) {
+            long[] words = toWords();
+            other.fillWords(words);
+            return fromWords(words);
+        }
+
+        Container xor(Container other) {
+            long[] words = toWords();
+            long[] otherWords = other.wordsForReading();
+            for (int i = 0; i < WORD_COUNT; i++) {
+                words[i] ^= otherWords[i];
+            }
+            return fromWords(words);
+        }
+
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            long[] words = wordsForReading();
+            long[] otherWords = other.wordsForReading();
+            int cardinality = 0;
+            for (int i = 0; i < WORD_COUNT; i++) {
+                cardinality += Long.bitCount(words[i] & otherWords[i]);
+            }
+            return cardinality;
+        }
+
+        /** Returns this container, or a run container if that is smaller. */
+        abstract Container runOptimize();
+
+        boolean contentEquals(Container other) {
+            if (cardinality() != other.cardinality()) {
+                return false;
+            }
+            for (int value = nextValue(0); value >= 0;
+                    value = value + 1 < CHUNK_SIZE ? nextValue(value + 1) : -1) {
+                if (!other.contains((char) value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** A sorted array of at most {@link #MAX_ARRAY_SIZE} values. */
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int size;
+
+        ArrayContainer(int capacity) {
+            values = new char[capacity];
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        static ArrayContainer read(BufferIterator it, int count) {
+            if (count < 1 || count > MAX_ARRAY_SIZE) {
+                throw new IllegalArgumentException("Invalid array container size: " + count);
+            }
+            short[] shorts = new short[count];
+            it.readShortArray(shorts, 0, count);
+            char[] values = new char[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = (char) shorts[i];
+                if (i > 0 && values[i] <= values[i - 1]) {
+                    throw new IllegalArgumentException("Unsorted array container");
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+
+        @Override int cardinality() {
+            return size;
+        }
+
+        @Override boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (size == MAX_ARRAY_SIZE) {
+                return new BitmapContainer(toWords(), size).add(value);
+            }
+            i = ~i;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, size * 2)));
+            }
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = value;
+            size++;
+            return this;
+        }
+
+        @Override Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                size--;
+                System.arraycopy(values, i + 1, values, i, size - i);
+            }
+            return this;
+        }
+
+        @Override int nextValue(int from) {
+            int i = Arrays.binarySearch(values, 0, size, (char) from);
+            if (i < 0) {
+                i = ~i;
+            }
+            return i < size ? values[i] : -1;
+        }
+
+        @Override void fillWords(long[] words) {
+            for (int i = 0; i < size; i++) {
+                char value = values[i];
+                words[value >>> 6] |= 1L << value;
+            }
+        }
+
+        @Override Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, size), size);
+        }
+
+        @Override Container and(Container other) {
+            ArrayContainer result = new ArrayContainer(Math.min(size, other.cardinality()));
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0, j = 0; i < size && j < array.size; ) {
+                    char value = values[i];
+                    char otherValue = array.values[j];
+                    if (value < otherValue) {
+                        i++;
+                    } else if (value > otherValue) {
+                        j++;
+                    } else {
+                        result.values[result.size++] = value;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) {
+                        result.values[result.size++] = values[i];
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override int andCardinality(Container other) {
+            int cardinality = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i])) {
+                    cardinality++;
+                }
+            }
+            return cardinality;
+        }
+
+        @Override Container andNot(Container other) {
+            ArrayContainer result = new ArrayContainer(size);
+            for (int i = 0; i < size; i++) {
+                if (!other.contains(values[i])) {
+                    result.values[result.size++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        @Override Container or(Container other) {
+            if (!(other instanceof ArrayContainer)) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (size + array.size > MAX_ARRAY_SIZE) {
+                return super.or(other);
+            }
+            ArrayContainer result = new ArrayContainer(size + array.size);
+            int i = 0;
+            int j = 0;
+            while (i < size && j < array.size) {
+                char value = values[i];
+                char otherValue = array.values[j];
+                if (value <= otherValue) {
+                    result.values[result.size++] = value;
+                    i++;
+                    if (value == otherValue) {
+                        j++;
+                    }
+                } else {
+                    result.values[result.size++] = otherValue;
+                    j++;
+                }
+            }
+            while (i < size) {
+                result.values[result.size++] = values[i++];
+            }
+            while (j < array.size) {
+                result.values[result.size++] = array.values[j++];
+            }
+            return result;
+        }
+
+        @Override Container xor(Container other) {
+            if (!(other instanceof ArrayContainer)) {
+                return other.xor(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (size + array.size > MAX_ARRAY_SIZE) {
+                return super.xor(other);
+            }
+            ArrayContainer result = new ArrayContainer(size + array.size);
+            int i = 0;
+            int j = 0;
+            while (i < size && j < array.size) {
+                char value = values[i];
+                char otherValue = array.values[j];
+                if (value < otherValue) {
+                    result.values[result.size++] = value;
+                    i++;
+                } else if (value > otherValue) {
+                    result.values[result.size++] = otherValue;
+                    j++;
+                } else {
+                    i++;
+                    j++;
+                }
+            }
+            while (i < size) {
+                result.values[result.size++] = values[i++];
+            }
+            while (j < array.size) {
+                result.values[result.size++] = array.values[j++];
+            }
+            return result;
+        }
+
+        @Override Container runOptimize() {
+            int runCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || values[i] != values[i - 1] + 1) {
+                    runCount++;
+                }
+            }
+            return RunContainer.sizeInBytesFor(runCount) < sizeInBytes()
+                    ? RunContainer.of(this, runCount) : this;
+        }
+
+        @Override int sizeInBytes() {
+            return size * 2;
+        }
+
+        @Override int type() {
+            return ARRAY;
+        }
+
+        @Override int serializedCount() {
+            return size;
+        }
+
+        @Override int serializedDataSize() {
+            return size * 2;
+        }
+
+        @Override void writeData(ByteBuffer buffer) {
+            for (int i = 0; i < size; i++) {
+                buffer.putChar(values[i]);
+            }
+        }
+    }
+
+    /** A bitmap of more than {@link #MAX_ARRAY_SIZE} values. */
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static BitmapContainer read(BufferIterator it, int count) {
+            long[] words = new long[WORD_COUNT];
+            it.readLongArray(words, 0, WORD_COUNT);
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality != count || cardinality <= MAX_ARRAY_SIZE) {
+                throw new IllegalArgumentException("Invalid bitmap container cardinality: "
+                        + count + ", actual " + cardinality);
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+
+        @Override int cardinality() {
+            return cardinality;
+        }
+
+        @Override boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                if (--cardinality <= MAX_ARRAY_SIZE) {
+                    return fromWords(words);
+                }
+            }
+            return this;
+        }
+
+        @Override int nextValue(int from) {
+            int i = from >>> 6;
+            long word = words[i] & (-1L << from);
+            while (word == 0) {
+                if (++i == WORD_COUNT) {
+                    return -1;
+                }
+                word = words[i];
+            }
+            return i << 6 | Long.numberOfTrailingZeros(word);
+        }
+
+        @Override void fillWords(long[] words) {
+            for (int i = 0; i < WORD_COUNT; i++) {
+                words[i] |= this.words[i];
+            }
+        }
+
+        @Override long[] toWords() {
+            return words.clone();
+        }
+
+        @Override long[] wordsForReading() {
+            return words;
+        }
+
+        @Override Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override Container runOptimize() {
+            // A run starts at each set bit whose lower neighbor is clear.
+            int runCount = 0;
+            long previous = 0;
+            for (long word : words) {
+                runCount += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+                previous = word;
+            }
+            return RunContainer.sizeInBytesFor(runCount) < sizeInBytes()
+                    ? RunContainer.of(this, runCount) : this;
+        }
+
+        @Override int sizeInBytes() {
+            return WORD_COUNT * 8;
+        }
+
+        @Override int type() {
+            return BITMAP;
+        }
+
+        @Override int serializedCount() {
+            return cardinality;
+        }
+
+        @Override int serializedDataSize() {
+            return WORD_COUNT * 8;
+        }
+
+        @Override void writeData(ByteBuffer buffer) {
+            for (long word : words) {
+                buffer.putLong(word);
+            }
+        }
+    }
+
+    /**
+     * Sorted runs of consecutive values, stored as pairs of the first value and the length
+     * minus one. Runs neither overlap nor touch. Changes turn it into an array or a bitmap.
+     */
+    private static final class RunContainer extends Container {
+        private final char[] runs;
+        private final int runCount;
+        private final int cardinality;
+
+        private RunContainer(char[] runs, int runCount) {
+            this.runs = runs;
+            this.runCount = runCount;
+            int cardinality = 0;
+            for (int i = 0; i < runCount; i++) {
+                cardinality += runs[2 * i + 1] + 1;
+            }
+            this.cardinality = cardinality;
+        }
+
+        static int sizeInBytesFor(int runCount) {
+            return runCount * 4;
+        }
+
+        /** Returns a container of the values from {@code from} to {@code to}, exclusive. */
+        static RunContainer ofRange(int from, int to) {
+            return new RunContainer(new char[] { (char) from, (char) (to - from - 1) }, 1);
+        }
+
+        /** Returns a container of the values of {@code container}, which has runCount runs. */
+        static RunContainer of(Container container, int runCount) {
+            char[] runs = new char[runCount * 2];
+            int n = 0;
+            for (int value = container.nextValue(0); value >= 0; ) {
+                int end = value;
+                while (end + 1 < CHUNK_SIZE && container.contains((char) (end + 1))) {
+                    end++;
+                }
+                runs[n++] = (char) value;
+                runs[n++] = (char) (end - value);
+                value = end + 1 < CHUNK_SIZE ? container.nextValue(end + 1) : -1;
+            }
+            return new RunContainer(runs, runCount);
+        }
+
+        static RunContainer read(BufferIterator it, int count) {
+            if (count < 1 || count > CHUNK_SIZE / 2) {
+                throw new IllegalArgumentException("Invalid run container size: " + count);
+            }
+            short[] shorts = new short[count * 2];
+            it.readShortArray(shorts, 0, shorts.length);
+            char[] runs = new char[shorts.length];
+            int previousEnd = -2;
+            for (int i = 0; i < count; i++) {
+                char start = (char) shorts[2 * i];
+                char length = (char) shorts[2 * i + 1];
+                if (start <= previousEnd + 1 || start + length >= CHUNK_SIZE) {
+                    throw new IllegalArgumentException("Invalid run " + (int) start
+                            + "+" + (int) length);
+                }
+                runs[2 * i] = start;
+                runs[2 * i + 1] = length;
+                previousEnd = start + length;
+            }
+            return new RunContainer(runs, count);
+        }
+
+        /** Returns the index of the last run starting at or before value, or -1. */
+        private int runIndex(int value) {
+            int low = 0;
+            int high = runCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (runs[2 * mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+
+        private int end(int i) {
+            return runs[2 * i] + runs[2 * i + 1];
+        }
+
+        @Override int cardinality() {
+            return cardinality;
+        }
+
+        @Override boolean contains(char value) {
+            int i = runIndex(value);
+            return i >= 0 && value <= end(i);
+        }
+
+        @Override Container add(char value) {
+            return contains(value) ? this : fromWords(toWords()).add(value);
+        }
+
+        @Override Container remove(char value) {
+            return contains(value) ? fromWords(toWords()).remove(value) : this;
+        }
+
+        @Override int nextValue(int from) {
+            int i = runIndex(from);
+            if (i >= 0 && from <= end(i)) {
+                return from;
+            }
+            return i + 1 < runCount ? runs[2 * (i + 1)] : -1;
+        }
+
+        @Override void fillWords(long[] words) {
+            for (int i = 0; i < runCount; i++) {
+                setRange(words, runs[2 * i], end(i) + 1);
+            }
+        }
+
+        @Override Container copy() {
+            // Run containers are never modified.
+            return this;
+        }
+
+        @Override Container runOptimize() {
+            return this;
+        }
+
+        @Override int sizeInBytes() {
+            return sizeInBytesFor(runCount);
+        }
+
+        @Override int type() {
+            return RUN;
+        }
+
+        @Override int serializedCount() {
+            return runCount;
+        }
+
+        @Override int serializedDataSize() {
+            return runCount * 4;
+        }
+
+        @Override void writeData(ByteBuffer buffer) {
+            for (int i = 0; i < runCount * 2; i++) {
+                buffer.putChar(runs[i]);
+            }
+        }
+    }
+
+    /** Iterates over the values of this set, in increasing order. */
+    private final class ValueIterator implements PrimitiveIterator.OfInt {
+        private int index;
+        private int next;
+
+        ValueIterator() {
+            next = size != 0 ? keys[0] << 16 | containers[0].nextValue(0) : -1;
+        }
+
+        @Override public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override public int nextInt() {
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+            int result = next;
+            int low = (result & 0xffff) + 1;
+            int nextLow = low < CHUNK_SIZE ? containers[index].nextValue(low) : -1;
+            if (nextLow >= 0) {
+                next = keys[index] << 16 | nextLow;
+            } else if (++index < size) {
+                next = keys[index] << 16 | containers[index].nextValue(0);
+            } else {
+                next = -1;
+            }
+            return result;
+        }
+    }
+}
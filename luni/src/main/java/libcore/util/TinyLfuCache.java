@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache bounded by the total weight of its entries, as computed by {@link #weigh}, that
+ * decides which entries to keep by how often their keys are used rather than only by how
+ * recently. Unlike {@link BasicLruCache}, a single pass over many keys that are used once
+ * doesn't flush the entries that are used all the time.
+ *
+ * <p>New entries go into a small least-recently-used window, which holds about one percent of
+ * the maximum weight. An entry that falls out of the window is only admitted to the rest of the
+ * cache if its key has been used more often, recently, than the key of the entry it would
+ * replace, which is the least recently used one. Usage is estimated by a {@link
+ * FrequencySketch} of all the keys passed to {@link #get}, whether or not they were cached,
+ * and to {@link #put}.
+ *
+ * <p>Entries can also expire a fixed time after they were put. Like {@code BasicLruCache}, this
+ * class is thread-safe but takes its monitor on every access.
+ */
+public class TinyLfuCache<K, V> {
+    private final long maxWeight;
+    private final long maxWindowWeight;
+    private final long expireAfterWriteNanos;
+
+    // Both are in access order, so their eldest entries are the least recently used.
+    private final LinkedHashMap<K, Entry<V>> window;
+    private final LinkedHashMap<K, Entry<V>> main;
+    private long windowWeight;
+    private long mainWeight;
+
+    private final FrequencySketch sketch = new FrequencySketch();
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    private static final class Entry<V> {
+        final V value;
+        final int weight;
+        final long writeNanos;
+
+        Entry(V value, int weight, long writeNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.writeNanos = writeNanos;
+        }
+    }
+
+    /**
+     * Creates a cache whose entries weigh at most {@code maxWeight} in total, and don't expire.
+     */
+    public TinyLfuCache(long maxWeight) {
+        this(maxWeight, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The most keys the sketch is sized for up front. Weights may be sizes in bytes, so the
+     * maximum weight can be far more than the number of keys; the sketch grows with the number
+     * of entries beyond this.
+     */
+    private static final int MAX_INITIAL_SKETCH_KEYS = 1 << 12;
+
+    /**
+     * Creates a cache whose entries weigh at most {@code maxWeight} in total, and expire
+     * {@code expireAfterWrite} after they were put, or never if that is 0.
+     */
+    public TinyLfuCache(long maxWeight, long expireAfterWrite, TimeUnit unit) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight <= 0");
+        }
+        if (expireAfterWrite < 0) {
+            throw new IllegalArgumentException("expireAfterWrite < 0");
+        }
+        this.maxWeight = maxWeight;
+        this.maxWindowWeight = Math.max(1, maxWeight / 100);
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        this.window = new LinkedHashMap<K, Entry<V>>(0, 0.75f, true);
+        this.main = new LinkedHashMap<K, Entry<V>>(0, 0.75f, true);
+        // Size the sketch before the first get, whose use would otherwise not be counted.
+        sketch.ensureCapacity((int) Math.min(maxWeight, MAX_INITIAL_SKETCH_KEYS));
+    }
+
+    /**
+     * Returns the value for {@code key} if it exists in the cache or can be
+     * created by {@code #create}. This returns null if a value is not cached
+     * and cannot be created.
+     */
+    public final V get(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        List<Map.Entry<K, V>> evicted = null;
+        synchronized (this) {
+            sketch.increment(key);
+            Entry<V> entry = window.get(key);
+            if (entry == null) {
+                entry = main.get(key);
+            }
+            if (entry != null) {
+                if (!isExpired(entry, nanoTime())) {
+                    hitCount++;
+                    return entry.value;
+                }
+                evicted = new ArrayList<Map.Entry<K, V>>();
+                removeEntry(key, evicted);
+                evictionCount++;
+            }
+            missCount++;
+        }
+        notifyEvicted(evicted);
+
+        // Don't hold any locks while calling create.
+        V result = create(key);
+        if (result != null) {
+            // This get has already been counted as a use of key.
+            put(key, result, false);
+        }
+        return result;
+    }
+
+    /**
+     * Caches {@code value} for {@code key}, unless it weighs more than the maximum weight of
+     * the cache. That may evict other entries, or the new entry itself once it falls out of
+     * the window of recently added entries.
+     *
+     * @return the previous value mapped by {@code key}. Although that entry is
+     *     no longer cached, it has not been passed to {@link #entryEvicted}.
+     */
+    public final V put(K key, V value) {
+        return put(key, value, true);
+    }
+
+    private V put(K key, V value, boolean countUse) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        } else if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        int weight = weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalStateException("Negative weight: " + key + "=" + value);
+        }
+
+        List<Map.Entry<K, V>> evicted = new ArrayList<Map.Entry<K, V>>();
+        Entry<V> previous;
+        synchronized (this) {
+            if (countUse) {
+                sketch.increment(key);
+            }
+            previous = removeEntry(key, null);
+            Entry<V> entry = new Entry<V>(value, weight, nanoTime());
+            if (weight > maxWeight) {
+                evicted.add(entry(key, value));
+            } else {
+                window.put(key, entry);
+                windowWeight += weight;
+                sketch.ensureCapacity(window.size() + main.size());
+                evictFromWindow(evicted);
+            }
+            evictionCount += evicted.size();
+        }
+        notifyEvicted(evicted);
+        return previous != null ? previous.value : null;
+    }
+
+    /**
+     * Removes the entry for {@code key}, returning its value or null. The entry is not passed
+     * to {@link #entryEvicted}.
+     */
+    public synchronized final V remove(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        Entry<V> previous = removeEntry(key, null);
+        return previous != null ? previous.value : null;
+    }
+
+    /**
+     * Removes the entry for {@code key} from whichever space holds it, adding it to {@code
+     * evicted} if that isn't null.
+     */
+    private Entry<V> removeEntry(K key, List<Map.Entry<K, V>> evicted) {
+        Entry<V> entry = window.remove(key);
+        if (entry != null) {
+            windowWeight -= entry.weight;
+        } else {
+            entry = main.remove(key);
+            if (entry != null) {
+                mainWeight -= entry.weight;
+            }
+        }
+        if (entry != null && evicted != null) {
+            evicted.add(entry(key, entry.value));
+        }
+        return entry;
+    }
+
+    /**
+     * Moves the least recently used entries out of the window until it is within its weight,
+     * admitting them to the main space or evicting them.
+     */
+    private void evictFromWindow(List<Map.Entry<K, V>> evicted) {
+        Iterator<Map.Entry<K, Entry<V>>> it = window.entrySet().iterator();
+        while (windowWeight > maxWindowWeight && it.hasNext()) {
+            Map.Entry<K, Entry<V>> candidate = it.next();
+            it.remove();
+            windowWeight -= candidate.getValue().weight;
+            admit(candidate.getKey(), candidate.getValue(), evicted);
+        }
+    }
+
+    /**
+     * Adds {@code candidate} to the main space, evicting its least recently used entries if
+     * there isn't room for it and they are all used less often than the candidate, or expired.
+     * Evicts only the candidate instead if it loses to any of them.
+     */
+    private void admit(K key, Entry<V> candidate, List<Map.Entry<K, V>> evicted) {
+        long now = nanoTime();
+        int candidateFrequency = sketch.frequency(key);
+        // Find the victims that make room first, so that none is evicted if the candidate
+        // loses to a later one.
+        long excessWeight = windowWeight + mainWeight + candidate.weight - maxWeight;
+        List<K> victims = new ArrayList<K>();
+        Iterator<Map.Entry<K, Entry<V>>> it = main.entrySet().iterator();
+        while (excessWeight > 0) {
+            Map.Entry<K, Entry<V>> victim = it.hasNext() ? it.next() : null;
+            // With no victims left, the window alone leaves no room for the candidate.
+            if (victim == null || !(isExpired(victim.getValue(), now)
+                    || candidateFrequency > sketch.frequency(victim.getKey()))) {
+                evicted.add(entry(key, candidate.value));
+                return;
+            }
+            victims.add(victim.getKey());
+            excessWeight -= victim.getValue().weight;
+        }
+        for (K victim : victims) {
+            removeEntry(victim, evicted);
+        }
+        main.put(key, candidate);
+        mainWeight += candidate.weight;
+    }
+
+    private static <K, V> Map.Entry<K, V> entry(K key, V value) {
+        return new AbstractMap.SimpleImmutableEntry<K, V>(key, value);
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return expireAfterWriteNanos != 0 && now - entry.writeNanos >= expireAfterWriteNanos;
+    }
+
+    private void notifyEvicted(List<Map.Entry<K, V>> evicted) {
+        if (evicted != null) {
+            for (Map.Entry<K, V> entry : evicted) {
+                entryEvicted(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the weight of the entry for {@code key} and {@code value}, for example its size
+     * in bytes. The weight of an entry must not change while it is cached. The default
+     * implementation returns 1, so that the maximum weight is the maximum number of entries.
+     */
+    protected int weigh(K key, V value) {
+        return 1;
+    }
+
+    /**
+     * Called for entries that are removed to keep the cache within its maximum weight, that
+     * weren't admitted, or that expired. The default implementation does nothing. This is called
+     * without holding any locks.
+     */
+    protected void entryEvicted(K key, V value) {}
+
+    /**
+     * Called after a cache miss to compute a value for the corresponding key.
+     * Returns the computed value or null if no value can be computed. The
+     * default implementation returns null.
+     */
+    protected V create(K key) {
+        return null;
+    }
+
+    /** Returns the current time, for expiry. Overridden by tests. */
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Returns a copy of the current contents of the cache, in no particular order. Expired
+     * entries that haven't been evicted yet are included.
+     */
+    public synchronized final Map<K, V> snapshot() {
+        Map<K, V> result = new LinkedHashMap<K, V>();
+        for (Map.Entry<K, Entry<V>> entry : main.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().value);
+        }
+        for (Map.Entry<K, Entry<V>> entry : window.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().value);
+        }
+        return result;
+    }
+
+    /**
+     * Clear the cache, calling {@link #entryEvicted} on each removed entry.
+     */
+    public final void evictAll() {
+        List<Map.Entry<K, V>> evicted = new ArrayList<Map.Entry<K, V>>();
+        synchronized (this) {
+            for (Map.Entry<K, Entry<V>> entry : main.entrySet()) {
+                evicted.add(entry(entry.getKey(), entry.getValue().value));
+            }
+            for (Map.Entry<K, Entry<V>> entry : window.entrySet()) {
+                evicted.add(entry(entry.getKey(), entry.getValue().value));
+            }
+            main.clear();
+            window.clear();
+            mainWeight = 0;
+            windowWeight = 0;
+            evictionCount += evicted.size();
+        }
+        notifyEvicted(evicted);
+    }
+
+    /** Returns the number of cached entries. */
+    public synchronized final int size() {
+        return window.size() + main.size();
+    }
+
+    /** Returns the total weight of the cached entries. */
+    public synchronized final long weight() {
+        return windowWeight + mainWeight;
+    }
+
+    /** Returns the number of times {@link #get} found a cached value. */
+    public synchronized final long hitCount() {
+        return hitCount;
+    }
+
+    /** Returns the number of times {@link #get} didn't find a cached value. */
+    public synchronized final long missCount() {
+        return missCount;
+    }
+
+    /** Returns the number of entries passed to {@link #entryEvicted}. */
+    public synchronized final long evictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long accesses = hitCount + missCount;
+        int hitPercent = accesses != 0 ? (int) (100 * hitCount / accesses) : 0;
+        return String.format("TinyLfuCache[maxWeight=%d,weight=%d,hits=%d,misses=%d,"
+                + "evictions=%d,hitRate=%d%%]", maxWeight, windowWeight + mainWeight, hitCount,
+                missCount, evictionCount, hitPercent);
+    }
+}
@@ -86,8 +86,8 @@ public final class ZoneInfoDB {
      * See http://b/8270865 for context.
      */
     private final static int CACHE_SIZE = 1;
-    private final BasicLruCache<String, ZoneInfo> cache =
-        new BasicLruCache<String, ZoneInfo>(CACHE_SIZE) {
+    private final ConcurrentLruCache<String, ZoneInfo> cache =
+        new ConcurrentLruCache<String, ZoneInfo>(CACHE_SIZE) {
       @Override
       protected ZoneInfo create(String id) {
         try {
@@ -204,7 +204,7 @@ public final class ZoneInfoDB {
         }
         version = new String(tzdata_version, 6, 5, StandardCharsets.US_ASCII);
 
-        final int fileSize = mappedFile.size();
+        final long fileSize = mappedFile.size();
         int index_offset = it.readInt();
         validateOffset(index_offset, fileSize);
         int data_offset = it.readInt();
@@ -219,13 +219,13 @@ public final class ZoneInfoDB {
         }
 
         readIndex(it, index_offset, data_offset);
-        readZoneTab(it, zonetab_offset, fileSize - zonetab_offset);
+        readZoneTab(it, zonetab_offset, Math.toIntExact(fileSize - zonetab_offset));
       } catch (IndexOutOfBoundsException e) {
         throw new IOException("Invalid read from data file", e);
       }
     }
 
-    private static void validateOffset(int offset, int size) throws IOException {
+    private static void validateOffset(int offset, long size) throws IOException {
       if (offset < 0 || offset >= size) {
         throw new IOException("Invalid offset=" + offset + ", size=" + size);
       }
@@ -218,6 +218,12 @@ static void OsConstants_initConstants(JNIEnv* env, jclass c) {
     initConstant(env, c, "EXDEV", EXDEV);
     initConstant(env, c, "EXIT_FAILURE", EXIT_FAILURE);
     initConstant(env, c, "EXIT_SUCCESS", EXIT_SUCCESS);
+#if defined(FALLOC_FL_KEEP_SIZE)
+    initConstant(env, c, "FALLOC_FL_KEEP_SIZE", FALLOC_FL_KEEP_SIZE);
+#endif
+#if defined(FALLOC_FL_PUNCH_HOLE)
+    initConstant(env, c, "FALLOC_FL_PUNCH_HOLE", FALLOC_FL_PUNCH_HOLE);
+#endif
     initConstant(env, c, "FD_CLOEXEC", FD_CLOEXEC);
     initConstant(env, c, "FIONREAD", FIONREAD);
     initConstant(env, c, "F_DUPFD", F_DUPFD);
@@ -342,6 +348,13 @@ static void OsConstants_initConstants(JNIEnv* env, jclass c) {
     initConstant(env, c, "IP_RECVTOS", IP_RECVTOS);
     initConstant(env, c, "IP_TOS", IP_TOS);
     initConstant(env, c, "IP_TTL", IP_TTL);
+    initConstant(env, c, "MADV_DONTNEED", MADV_DONTNEED);
+    initConstant(env, c, "MADV_HUGEPAGE", MADV_HUGEPAGE);
+    initConstant(env, c, "MADV_NORMAL", MADV_NORMAL);
+    initConstant(env, c, "MADV_RANDOM", MADV_RANDOM);
+    initConstant(env, c, "MADV_SEQUENTIAL", MADV_SEQUENTIAL);
+    initConstant(env, c, "MADV_WILLNEED", MADV_WILLNEED);
+    initConstant(env, c, "MAP_ANONYMOUS", MAP_ANONYMOUS);
     initConstant(env, c, "MAP_FIXED", MAP_FIXED);
     initConstant(env, c, "MAP_POPULATE", MAP_POPULATE);
     initConstant(env, c, "MAP_PRIVATE", MAP_PRIVATE);
@@ -373,6 +386,9 @@ static void OsConstants_initConstants(JNIEnv* env, jclass c) {
     initConstant(env, c, "MSG_PEEK", MSG_PEEK);
     initConstant(env, c, "MSG_TRUNC", MSG_TRUNC);
     initConstant(env, c, "MSG_WAITALL", MSG_WAITALL);
+#if defined(MSG_WAITFORONE)
+    initConstant(env, c, "MSG_WAITFORONE", MSG_WAITFORONE);
+#endif
     initConstant(env, c, "MS_ASYNC", MS_ASYNC);
     initConstant(env, c, "MS_INVALIDATE", MS_INVALIDATE);
     initConstant(env, c, "MS_SYNC", MS_SYNC);
@@ -406,6 +422,12 @@ static void OsConstants_initConstants(JNIEnv* env, jclass c) {
     initConstant(env, c, "POLLRDNORM", POLLRDNORM);
     initConstant(env, c, "POLLWRBAND", POLLWRBAND);
     initConstant(env, c, "POLLWRNORM", POLLWRNORM);
+    initConstant(env, c, "POSIX_FADV_DONTNEED", POSIX_FADV_DONTNEED);
+    initConstant(env, c, "POSIX_FADV_NOREUSE", POSIX_FADV_NOREUSE);
+    initConstant(env, c, "POSIX_FADV_NORMAL", POSIX_FADV_NORMAL);
+    initConstant(env, c, "POSIX_FADV_RANDOM", POSIX_FADV_RANDOM);
+    initConstant(env, c, "POSIX_FADV_SEQUENTIAL", POSIX_FADV_SEQUENTIAL);
+    initConstant(env, c, "POSIX_FADV_WILLNEED", POSIX_FADV_WILLNEED);
 #if defined(PR_GET_DUMPABLE)
     initConstant(env, c, "PR_GET_DUMPABLE", PR_GET_DUMPABLE);
 #endif
@@ -528,6 +550,11 @@ static void OsConstants_initConstants(JNIEnv* env, jclass c) {
     initConstant(env, c, "SO_SNDLOWAT", SO_SNDLOWAT);
     initConstant(env, c, "SO_SNDTIMEO", SO_SNDTIMEO);
     initConstant(env, c, "SO_TYPE", SO_TYPE);
+#if defined(SPLICE_F_MOVE)
+    initConstant(env, c, "SPLICE_F_MORE", SPLICE_F_MORE);
+    initConstant(env, c, "SPLICE_F_MOVE", SPLICE_F_MOVE);
+    initConstant(env, c, "SPLICE_F_NONBLOCK", SPLICE_F_NONBLOCK);
+#endif
     initConstant(env, c, "STDERR_FILENO", STDERR_FILENO);
     initConstant(env, c, "STDIN_FILENO", STDIN_FILENO);
     initConstant(env, c, "STDOUT_FILENO", STDOUT_FILENO);
@@ -821,6 +821,58 @@ static void Posix_connectSocketAddress(
     (void) NET_FAILURE_RETRY(env, int, connect, javaFd, sa, sa_len);
 }
 
+// Shared by copy_file_range(2) and splice(2), which both take a pair of optional in/out
+// offsets. A null MutableLong means "use and update the file offset of the descriptor".
+typedef ssize_t (*SpliceFunction)(int fdIn, off64_t* inOffset, int fdOut, off64_t* outOffset,
+                                  size_t byteCount, unsigned int flags);
+
+static jlong doSplice(JNIEnv* env, const char* name, SpliceFunction fn,
+                      jobject javaFdIn, jobject javaInOffset,
+                      jobject javaFdOut, jobject javaOutOffset,
+                      jlong byteCount, jint flags) {
+    int fdIn = jniGetFDFromFileDescriptor(env, javaFdIn);
+    int fdOut = jniGetFDFromFileDescriptor(env, javaFdOut);
+    static jfieldID valueFid = env->GetFieldID(JniConstants::mutableLongClass, "value", "J");
+    off64_t inOffset = 0;
+    off64_t* inOffsetPtr = NULL;
+    if (javaInOffset != NULL) {
+        inOffset = env->GetLongField(javaInOffset, valueFid);
+        inOffsetPtr = &inOffset;
+    }
+    off64_t outOffset = 0;
+    off64_t* outOffsetPtr = NULL;
+    if (javaOutOffset != NULL) {
+        outOffset = env->GetLongField(javaOutOffset, valueFid);
+        outOffsetPtr = &outOffset;
+    }
+    jlong result = throwIfMinusOne(env, name, TEMP_FAILURE_RETRY(fn(fdIn, inOffsetPtr,
+            fdOut, outOffsetPtr, static_cast<size_t>(byteCount), static_cast<unsigned int>(flags))));
+    if (javaInOffset != NULL) {
+        env->SetLongField(javaInOffset, valueFid, inOffset);
+    }
+    if (javaOutOffset != NULL) {
+        env->SetLongField(javaOutOffset, valueFid, outOffset);
+    }
+    return result;
+}
+
+static ssize_t copyFileRange(int fdIn, off64_t* inOffset, int fdOut, off64_t* outOffset,
+                             size_t byteCount, unsigned int flags) {
+#if defined(__NR_copy_file_range)
+    // Neither bionic nor older glibc have a wrapper for this.
+    return syscall(__NR_copy_file_range, fdIn, inOffset, fdOut, outOffset, byteCount, flags);
+#else
+    errno = ENOSYS;
+    return -1;
+#endif
+}
+
+static jlong Posix_copy_file_range(JNIEnv* env, jobject, jobject javaFdIn, jobject javaInOffset,
+        jobject javaFdOut, jobject javaOutOffset, jlong byteCount, jint flags) {
+    return doSplice(env, "copy_file_range", copyFileRange, javaFdIn, javaInOffset,
+                    javaFdOut, javaOutOffset, byteCount, flags);
+}
+
 static jobject Posix_dup(JNIEnv* env, jobject, jobject javaOldFd) {
     int oldFd = jniGetFDFromFileDescriptor(env, javaOldFd);
     int newFd = throwIfMinusOne(env, "dup", TEMP_FAILURE_RETRY(dup(oldFd)));
@@ -863,6 +915,11 @@ static void Posix_execv(JNIEnv* env, jobject, jstring javaFilename, jobjectArray
     throwErrnoException(env, "execv");
 }
 
+static void Posix_fallocate(JNIEnv* env, jobject, jobject javaFd, jint mode, jlong offset, jlong length) {
+    int fd = jniGetFDFromFileDescriptor(env, javaFd);
+    throwIfMinusOne(env, "fallocate", TEMP_FAILURE_RETRY(fallocate64(fd, mode, offset, length)));
+}
+
 static void Posix_fchmod(JNIEnv* env, jobject, jobject javaFd, jint mode) {
     int fd = jniGetFDFromFileDescriptor(env, javaFd);
     throwIfMinusOne(env, "fchmod", TEMP_FAILURE_RETRY(fchmod(fd, mode)));
@@ -1460,6 +1517,11 @@ static jobject Posix_lstat(JNIEnv* env, jobject, jstring javaPath) {
     return doStat(env, javaPath, true);
 }
 
+static void Posix_madvise(JNIEnv* env, jobject, jlong address, jlong byteCount, jint advice) {
+    void* ptr = reinterpret_cast<void*>(static_cast<uintptr_t>(address));
+    throwIfMinusOne(env, "madvise", TEMP_FAILURE_RETRY(madvise(ptr, byteCount, advice)));
+}
+
 static void Posix_mincore(JNIEnv* env, jobject, jlong address, jlong byteCount, jbyteArray javaVector) {
     ScopedByteArrayRW vector(env, javaVector);
     if (vector.get() == NULL) {
@@ -1626,6 +1688,16 @@ static jint Posix_poll(JNIEnv* env, jobject, jobjectArray javaStructs, jint time
     return rc;
 }
 
+static void Posix_posix_fadvise(JNIEnv* env, jobject, jobject javaFd, jlong offset,
+                                jlong length, jint advice) {
+    int fd = jniGetFDFromFileDescriptor(env, javaFd);
+    // posix_fadvise returns the error number rather than setting errno.
+    errno = posix_fadvise64(fd, offset, length, advice);
+    if (errno != 0) {
+        throwErrnoException(env, "posix_fadvise");
+    }
+}
+
 static void Posix_posix_fallocate(JNIEnv* env, jobject, jobject javaFd __unused,
                                   jlong offset __unused, jlong length __unused) {
     int fd = jniGetFDFromFileDescriptor(env, javaFd);
@@ -1729,6 +1801,62 @@ static jint Posix_recvfromBytes(JNIEnv* env, jobject, jobject javaFd, jobject ja
     return recvCount;
 }
 
+static jint Posix_recvmmsg(JNIEnv* env, jobject, jobject javaFd, jobjectArray javaBuffers,
+        jintArray javaOffsets, jintArray javaByteCounts, jint flags, jobjectArray javaSrcAddresses) {
+    size_t messageCount = env->GetArrayLength(javaBuffers);
+    IoVec<ScopedBytesRW> ioVec(env, messageCount);
+    if (!ioVec.init(javaBuffers, javaOffsets, javaByteCounts)) {
+        return -1;
+    }
+    if (messageCount == 0) {
+        return 0;
+    }
+    // One iovec per message: each buffer receives exactly one datagram.
+    std::vector<mmsghdr> messages(messageCount);
+    std::vector<sockaddr_storage> addresses(messageCount);
+    memset(&messages[0], 0, messageCount * sizeof(mmsghdr));
+    memset(&addresses[0], 0, messageCount * sizeof(sockaddr_storage));
+    for (size_t i = 0; i < messageCount; ++i) {
+        messages[i].msg_hdr.msg_iov = ioVec.get() + i;
+        messages[i].msg_hdr.msg_iovlen = 1;
+        if (javaSrcAddresses != NULL) {
+            messages[i].msg_hdr.msg_name = &addresses[i];
+            messages[i].msg_hdr.msg_namelen = sizeof(sockaddr_storage);
+        }
+    }
+    int rc = NET_FAILURE_RETRY(env, int, recvmmsg, javaFd, &messages[0], messageCount, flags, NULL);
+    if (rc == -1) {
+        return -1;
+    }
+    ScopedIntArrayRW byteCounts(env, javaByteCounts);
+    if (byteCounts.get() == NULL) {
+        return -1;
+    }
+    for (int i = 0; i < rc; ++i) {
+        byteCounts[i] = messages[i].msg_len;
+        if (javaSrcAddresses == NULL) {
+            continue;
+        }
+        // As in recvfrom, only fill in the address if there is one. http://b/33483694
+        const sockaddr_storage& ss = addresses[i];
+        if (ss.ss_family != AF_INET && ss.ss_family != AF_INET6) {
+            continue;
+        }
+        // fillInetSocketAddress creates local references of its own, so give each message a
+        // frame rather than let them pile up until IoVec pops its frame.
+        if (env->PushLocalFrame(8) < 0) {
+            return -1;
+        }
+        jobject javaSrcAddress = env->GetObjectArrayElement(javaSrcAddresses, i);
+        bool filled = fillInetSocketAddress(env, javaSrcAddress, ss);
+        env->PopLocalFrame(NULL);
+        if (!filled) {
+            return -1;
+        }
+    }
+    return rc;
+}
+
 static void Posix_remove(JNIEnv* env, jobject, jstring javaPath) {
     ScopedUtfChars path(env, javaPath);
     if (path.c_str() == NULL) {
@@ -1783,6 +1911,60 @@ static jlong Posix_sendfile(JNIEnv* env, jobject, jobject javaOutFd, jobject jav
     return result;
 }
 
+static jint Posix_sendmmsg(JNIEnv* env, jobject, jobject javaFd, jobjectArray javaBuffers,
+        jintArray javaOffsets, jintArray javaByteCounts, jint flags, jobjectArray javaDestAddresses) {
+    size_t messageCount = env->GetArrayLength(javaBuffers);
+    IoVec<ScopedBytesRO> ioVec(env, messageCount);
+    if (!ioVec.init(javaBuffers, javaOffsets, javaByteCounts)) {
+        return -1;
+    }
+    if (messageCount == 0) {
+        return 0;
+    }
+    // inetAddressToSockaddr produces IPv4-mapped IPv6 addresses, which is what the IPv6 sockets
+    // created by the java.net APIs want. An IPv4 socket needs the addresses verbatim instead
+    // (see NET_IPV4_FALLBACK).
+    int domain = AF_UNSPEC;
+    socklen_t domainLength = sizeof(domain);
+    int fd = jniGetFDFromFileDescriptor(env, javaFd);
+    bool verbatim = getsockopt(fd, SOL_SOCKET, SO_DOMAIN, &domain, &domainLength) == 0
+            && domain == AF_INET;
+    std::vector<mmsghdr> messages(messageCount);
+    std::vector<sockaddr_storage> addresses(messageCount);
+    memset(&messages[0], 0, messageCount * sizeof(mmsghdr));
+    for (size_t i = 0; i < messageCount; ++i) {
+        messages[i].msg_hdr.msg_iov = ioVec.get() + i;
+        messages[i].msg_hdr.msg_iovlen = 1;
+        if (javaDestAddresses == NULL) {
+            continue;
+        }
+        // Converting an address creates several local references, so give each one a frame
+        // rather than let them pile up until IoVec pops its frame.
+        if (env->PushLocalFrame(8) < 0) {
+            return -1;
+        }
+        jobject javaDestAddress = env->GetObjectArrayElement(javaDestAddresses, i);
+        if (javaDestAddress == NULL) {
+            env->PopLocalFrame(NULL);
+            continue;  // Use the connected peer.
+        }
+        jobject javaInetAddress;
+        jint port;
+        javaInetSocketAddressToInetAddressAndPort(env, javaDestAddress, javaInetAddress, port);
+        socklen_t sa_len;
+        bool ok = verbatim
+                ? inetAddressToSockaddrVerbatim(env, javaInetAddress, port, addresses[i], sa_len)
+                : inetAddressToSockaddr(env, javaInetAddress, port, addresses[i], sa_len);
+        env->PopLocalFrame(NULL);
+        if (!ok) {
+            return -1;  // Exception already thrown.
+        }
+        messages[i].msg_hdr.msg_name = &addresses[i];
+        messages[i].msg_hdr.msg_namelen = sa_len;
+    }
+    return NET_FAILURE_RETRY(env, int, sendmmsg, javaFd, &messages[0], messageCount, flags);
+}
+
 static jint Posix_sendtoBytes(JNIEnv* env, jobject, jobject javaFd, jobject javaBytes, jint byteOffset, jint byteCount, jint flags, jobject javaInetAddress, jint port) {
     ScopedBytesRO bytes(env, javaBytes);
     if (bytes.get() == NULL) {
@@ -2029,6 +2211,17 @@ static void Posix_socketpair(JNIEnv* env, jobject, jint domain, jint type, jint
     }
 }
 
+static ssize_t spliceFd(int fdIn, off64_t* inOffset, int fdOut, off64_t* outOffset,
+                        size_t byteCount, unsigned int flags) {
+    return splice(fdIn, inOffset, fdOut, outOffset, byteCount, flags);
+}
+
+static jlong Posix_splice(JNIEnv* env, jobject, jobject javaFdIn, jobject javaInOffset,
+        jobject javaFdOut, jobject javaOutOffset, jlong byteCount, jint flags) {
+    return doSplice(env, "splice", spliceFd, javaFdIn, javaInOffset,
+                    javaFdOut, javaOutOffset, byteCount, flags);
+}
+
 static jobject Posix_stat(JNIEnv* env, jobject, jstring javaPath) {
     return doStat(env, javaPath, false);
 }
@@ -2157,11 +2350,13 @@ static JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Posix, close, "(Ljava/io/FileDescriptor;)V"),
     NATIVE_METHOD(Posix, connect, "(Ljava/io/FileDescriptor;Ljava/net/InetAddress;I)V"),
     NATIVE_METHOD_OVERLOAD(Posix, connect, "(Ljava/io/FileDescriptor;Ljava/net/SocketAddress;)V", SocketAddress),
+    NATIVE_METHOD(Posix, copy_file_range, "(Ljava/io/FileDescriptor;Landroid/util/MutableLong;Ljava/io/FileDescriptor;Landroid/util/MutableLong;JI)J"),
     NATIVE_METHOD(Posix, dup, "(Ljava/io/FileDescriptor;)Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Posix, dup2, "(Ljava/io/FileDescriptor;I)Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Posix, environ, "()[Ljava/lang/String;"),
     NATIVE_METHOD(Posix, execv, "(Ljava/lang/String;[Ljava/lang/String;)V"),
     NATIVE_METHOD(Posix, execve, "(Ljava/lang/String;[Ljava/lang/String;[Ljava/lang/String;)V"),
+    NATIVE_METHOD(Posix, fallocate, "(Ljava/io/FileDescriptor;IJJ)V"),
     NATIVE_METHOD(Posix, fchmod, "(Ljava/io/FileDescriptor;I)V"),
     NATIVE_METHOD(Posix, fchown, "(Ljava/io/FileDescriptor;II)V"),
     NATIVE_METHOD(Posix, fcntlFlock, "(Ljava/io/FileDescriptor;ILandroid/system/StructFlock;)I"),
@@ -2210,6 +2405,7 @@ static JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Posix, listxattr, "(Ljava/lang/String;)[Ljava/lang/String;"),
     NATIVE_METHOD(Posix, lseek, "(Ljava/io/FileDescriptor;JI)J"),
     NATIVE_METHOD(Posix, lstat, "(Ljava/lang/String;)Landroid/system/StructStat;"),
+    NATIVE_METHOD(Posix, madvise, "(JJI)V"),
     NATIVE_METHOD(Posix, mincore, "(JJ[B)V"),
     NATIVE_METHOD(Posix, mkdir, "(Ljava/lang/String;I)V"),
     NATIVE_METHOD(Posix, mkfifo, "(Ljava/lang/String;I)V"),
@@ -2221,6 +2417,7 @@ static JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Posix, open, "(Ljava/lang/String;II)Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Posix, pipe2, "(I)[Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Posix, poll, "([Landroid/system/StructPollfd;I)I"),
+    NATIVE_METHOD(Posix, posix_fadvise, "(Ljava/io/FileDescriptor;JJI)V"),
     NATIVE_METHOD(Posix, posix_fallocate, "(Ljava/io/FileDescriptor;JJ)V"),
     NATIVE_METHOD(Posix, prctl, "(IJJJJ)I"),
     NATIVE_METHOD(Posix, preadBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;IIJ)I"),
@@ -2230,10 +2427,12 @@ static JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Posix, realpath, "(Ljava/lang/String;)Ljava/lang/String;"),
     NATIVE_METHOD(Posix, readv, "(Ljava/io/FileDescriptor;[Ljava/lang/Object;[I[I)I"),
     NATIVE_METHOD(Posix, recvfromBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;IIILjava/net/InetSocketAddress;)I"),
+    NATIVE_METHOD(Posix, recvmmsg, "(Ljava/io/FileDescriptor;[Ljava/lang/Object;[I[II[Ljava/net/InetSocketAddress;)I"),
     NATIVE_METHOD(Posix, remove, "(Ljava/lang/String;)V"),
     NATIVE_METHOD(Posix, removexattr, "(Ljava/lang/String;Ljava/lang/String;)V"),
     NATIVE_METHOD(Posix, rename, "(Ljava/lang/String;Ljava/lang/String;)V"),
     NATIVE_METHOD(Posix, sendfile, "(Ljava/io/FileDescriptor;Ljava/io/FileDescriptor;Landroid/util/MutableLong;J)J"),
+    NATIVE_METHOD(Posix, sendmmsg, "(Ljava/io/FileDescriptor;[Ljava/lang/Object;[I[II[Ljava/net/InetSocketAddress;)I"),
     NATIVE_METHOD(Posix, sendtoBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;IIILjava/net/InetAddress;I)I"),
     NATIVE_METHOD_OVERLOAD(Posix, sendtoBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;IIILjava/net/SocketAddress;)I", SocketAddress),
     NATIVE_METHOD(Posix, setegid, "(I)V"),
@@ -2257,6 +2456,7 @@ static JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Posix, shutdown, "(Ljava/io/FileDescriptor;I)V"),
     NATIVE_METHOD(Posix, socket, "(III)Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Posix, socketpair, "(IIILjava/io/FileDescriptor;Ljava/io/FileDescriptor;)V"),
+    NATIVE_METHOD(Posix, splice, "(Ljava/io/FileDescriptor;Landroid/util/MutableLong;Ljava/io/FileDescriptor;Landroid/util/MutableLong;JI)J"),
     NATIVE_METHOD(Posix, stat, "(Ljava/lang/String;)Landroid/system/StructStat;"),
     NATIVE_METHOD(Posix, statvfs, "(Ljava/lang/String;)Landroid/system/StructStatVfs;"),
     NATIVE_METHOD(Posix, strerror, "(I)Ljava/lang/String;"),
@@ -88,12 +88,14 @@ public class BlockGuardOsTest {
                 "kill(int,int)",
                 "listen(java.io.FileDescriptor,int)",
                 "listxattr(java.lang.String)",
+                "madvise(long,long,int)",
                 "mincore(long,long,byte[])",
                 "mlock(long,long)",
                 "mmap(long,long,int,int,java.io.FileDescriptor,long)",
                 "munlock(long,long)",
                 "munmap(long,long)",
                 "pipe2(int)",
+                "posix_fadvise(java.io.FileDescriptor,long,long,int)",
                 "prctl(int,long,long,long,long)",
                 "setegid(int)",
                 "setenv(java.lang.String,java.lang.String,boolean)",
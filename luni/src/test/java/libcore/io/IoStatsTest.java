@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import android.system.ErrnoException;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import junit.framework.TestCase;
+import libcore.io.IoStats.Kind;
+import libcore.io.IoStats.Op;
+
+import static android.system.OsConstants.*;
+
+public class IoStatsTest extends TestCase {
+    private boolean wasEnabled;
+
+    @Override protected void setUp() throws Exception {
+        super.setUp();
+        wasEnabled = IoStats.isEnabled();
+    }
+
+    @Override protected void tearDown() throws Exception {
+        IoStats.setEnabled(wasEnabled);
+        super.tearDown();
+    }
+
+    public void testBucketFor() {
+        assertEquals(0, IoStats.bucketFor(0));
+        assertEquals(0, IoStats.bucketFor(999));
+        assertEquals(1, IoStats.bucketFor(1000));
+        assertEquals(2, IoStats.bucketFor(2000));
+        assertEquals(2, IoStats.bucketFor(3999));
+        assertEquals(3, IoStats.bucketFor(4000));
+        assertEquals(IoStats.BUCKET_COUNT - 1, IoStats.bucketFor(Long.MAX_VALUE));
+    }
+
+    public void testRecordsFileIo() throws Exception {
+        File file = File.createTempFile("IoStatsTest", null);
+        try {
+            IoStats.setEnabled(true);
+            IoStats.reset();
+            FileDescriptor fd = Libcore.os.open(file.getPath(), O_RDWR, 0);
+            try {
+                assertEquals(10, Libcore.os.write(fd, new byte[10], 0, 10));
+                Libcore.os.fsync(fd);
+                assertEquals(4, Libcore.os.pread(fd, new byte[4], 0, 4, 0));
+            } finally {
+                Libcore.os.close(fd);
+            }
+
+            IoStats.Snapshot snapshot = IoStats.snapshot();
+            assertTrue(snapshot.getCount(Op.OPEN, Kind.DISK) >= 1);
+            assertTrue(snapshot.getCount(Op.WRITE, Kind.DISK) >= 1);
+            assertTrue(snapshot.getByteCount(Op.WRITE, Kind.DISK) >= 10);
+            assertTrue(snapshot.getCount(Op.SYNC, Kind.DISK) >= 1);
+            assertTrue(snapshot.getCount(Op.READ, Kind.DISK) >= 1);
+            assertTrue(snapshot.getByteCount(Op.READ, Kind.DISK) >= 4);
+            assertTrue(snapshot.getTotalNanos(Op.SYNC, Kind.DISK) > 0);
+            assertTrue(snapshot.toString().contains("SYNC DISK count="));
+
+            long total = 0;
+            for (long bucketCount : snapshot.getHistogram(Op.SYNC, Kind.DISK)) {
+                total += bucketCount;
+            }
+            assertEquals(snapshot.getCount(Op.SYNC, Kind.DISK), total);
+        } finally {
+            file.delete();
+        }
+    }
+
+    // read and write count as network I/O on sockets, whichever call was used.
+    public void testClassifiesByFileDescriptor() throws Exception {
+        FileDescriptor[] fds = { new FileDescriptor(), new FileDescriptor() };
+        Libcore.os.socketpair(AF_UNIX, SOCK_STREAM, 0, fds[0], fds[1]);
+        try {
+            IoStats.setEnabled(true);
+            IoStats.reset();
+            assertEquals(10, Libcore.os.write(fds[0], new byte[10], 0, 10));
+            assertEquals(10, Libcore.os.read(fds[1], new byte[10], 0, 10));
+
+            IoStats.Snapshot snapshot = IoStats.snapshot();
+            assertTrue(snapshot.getByteCount(Op.WRITE, Kind.NETWORK) >= 10);
+            assertTrue(snapshot.getByteCount(Op.READ, Kind.NETWORK) >= 10);
+        } finally {
+            Libcore.os.close(fds[0]);
+            Libcore.os.close(fds[1]);
+        }
+    }
+
+    // java.net sockets read and write natively rather than through BlockGuardOs.
+    public void testRecordsSocketStreams() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+                Socket client = new Socket(server.getInetAddress(), server.getLocalPort());
+                Socket accepted = server.accept()) {
+            IoStats.setEnabled(true);
+            IoStats.reset();
+            client.getOutputStream().write(new byte[100]);
+            InputStream in = accepted.getInputStream();
+            for (int total = 0; total < 100; ) {
+                total += in.read(new byte[100], 0, 100 - total);
+            }
+
+            IoStats.Snapshot snapshot = IoStats.snapshot();
+            assertTrue(snapshot.getByteCount(Op.WRITE, Kind.NETWORK) >= 100);
+            assertTrue(snapshot.getByteCount(Op.READ, Kind.NETWORK) >= 100);
+        }
+    }
+
+    // Batched datagram calls record the total length of the datagrams they moved.
+    public void testRecordsDatagramBatchBytes() throws Exception {
+        try (DatagramChannel receiver = DatagramChannel.open();
+                DatagramChannel sender = DatagramChannel.open()) {
+            receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketAddress target = receiver.getLocalAddress();
+            IoStats.setEnabled(true);
+            IoStats.reset();
+            ByteBuffer[] srcs = { ByteBuffer.allocate(3), ByteBuffer.allocate(5) };
+            assertEquals(2, sender.send(srcs, new SocketAddress[] { target, target }));
+            ByteBuffer[] dsts = { ByteBuffer.allocate(16), ByteBuffer.allocate(16) };
+            int received = 0;
+            while (received < 2) {
+                received += receiver.receive(Arrays.copyOfRange(dsts, received, 2),
+                        new SocketAddress[2 - received]);
+            }
+
+            IoStats.Snapshot snapshot = IoStats.snapshot();
+            assertTrue(snapshot.getByteCount(Op.WRITE, Kind.NETWORK) >= 8);
+            assertTrue(snapshot.getByteCount(Op.READ, Kind.NETWORK) >= 8);
+        }
+    }
+
+    public void testRecordsFailedCalls() throws Exception {
+        IoStats.setEnabled(true);
+        IoStats.reset();
+        try {
+            Libcore.os.open("/does/not/exist", O_RDONLY, 0);
+            fail();
+        } catch (ErrnoException expected) {
+        }
+        assertTrue(IoStats.snapshot().getCount(Op.OPEN, Kind.DISK) >= 1);
+    }
+
+    public void testDisabled() throws Exception {
+        IoStats.setEnabled(false);
+        IoStats.reset();
+        FileDescriptor fd = Libcore.os.open("/dev/null", O_RDONLY, 0);
+        Libcore.os.close(fd);
+        IoStats.Snapshot snapshot = IoStats.snapshot();
+        assertEquals(0, snapshot.getCount(Op.OPEN, Kind.DISK));
+        assertEquals("", snapshot.toString());
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.TestCase;
+
+public class MappedLongLongMapTest extends TestCase {
+
+    private File tempDir;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        tempDir = IoUtils.createTemporaryDirectory("MappedLongLongMapTest");
+    }
+
+    public void testPutGet() throws Exception {
+        try (MappedLongLongMap map = MappedLongLongMap.allocate(10)) {
+            assertEquals(0, map.size());
+            assertFalse(map.isReadOnly());
+            assertEquals(-1, map.get(5, -1));
+            map.put(5, 50);
+            map.put(Long.MIN_VALUE, 60);
+            map.put(5, 55);
+            assertEquals(2, map.size());
+            assertEquals(55, map.get(5, -1));
+            assertEquals(60, map.get(Long.MIN_VALUE, -1));
+            assertTrue(map.containsKey(5));
+            assertFalse(map.containsKey(6));
+        }
+    }
+
+    public void testZeroKey() throws Exception {
+        try (MappedLongLongMap map = MappedLongLongMap.allocate(10)) {
+            assertFalse(map.containsKey(0));
+            assertEquals(-1, map.get(0, -1));
+            map.put(0, 7);
+            assertTrue(map.containsKey(0));
+            assertEquals(7, map.get(0, -1));
+            assertEquals(1, map.size());
+        }
+    }
+
+    public void testFull() throws Exception {
+        try (MappedLongLongMap map = MappedLongLongMap.allocate(100)) {
+            long capacity = map.capacity();
+            assertTrue(capacity >= 100);
+            for (long key = 1; key <= capacity; key++) {
+                map.put(key, key);
+            }
+            // Existing keys can still be replaced.
+            map.put(1, -1);
+            try {
+                map.put(capacity + 1, 0);
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+            assertEquals(capacity, map.size());
+        }
+    }
+
+    public void testInvalidCapacity() throws Exception {
+        try {
+            MappedLongLongMap.allocate(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            MappedLongLongMap.allocate(Long.MAX_VALUE);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testMatchesHashMap() throws Exception {
+        Random random = new Random(42);
+        Map<Long, Long> expected = new HashMap<>();
+        try (MappedLongLongMap map = MappedLongLongMap.allocate(50000)) {
+            for (int i = 0; i < 50000; i++) {
+                long key = random.nextBoolean() ? random.nextInt(1000) : random.nextLong();
+                long value = random.nextLong();
+                map.put(key, value);
+                expected.put(key, value);
+            }
+            assertEquals(expected.size(), map.size());
+            for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+                assertEquals(entry.getValue().longValue(), map.get(entry.getKey(), 0));
+            }
+        }
+    }
+
+    public void testCreateAndMmapRO() throws Exception {
+        String path = new File(tempDir, "index").getPath();
+        try (MappedLongLongMap map = MappedLongLongMap.create(path, 1000)) {
+            for (long key = 0; key < 1000; key++) {
+                map.put(key, key * key);
+            }
+            map.sync();
+        }
+        try (MappedLongLongMap map = MappedLongLongMap.mmapRO(path)) {
+            assertTrue(map.isReadOnly());
+            assertEquals(1000, map.size());
+            for (long key = 0; key < 1000; key++) {
+                assertEquals(key * key, map.get(key, -1));
+            }
+            assertFalse(map.containsKey(1000));
+            try {
+                map.put(1000, 0);
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+        }
+    }
+
+    public void testMmapRO_notAMap() throws Exception {
+        File file = new File(tempDir, "notAMap");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[4096]);
+        }
+        try {
+            MappedLongLongMap.mmapRO(file.getPath());
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testMmapRO_sizeTooLarge() throws Exception {
+        String path = new File(tempDir, "index").getPath();
+        try (MappedLongLongMap map = MappedLongLongMap.create(path, 6)) {
+            map.put(1, 1);
+        }
+        try (FileChannel channel = new RandomAccessFile(path, "rw").getChannel()) {
+            // The size field of the header.
+            channel.write(nativeOrderLong(1000), 16);
+        }
+        try {
+            MappedLongLongMap.mmapRO(path);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testMmapRO_noFreeSlot() throws Exception {
+        String path = new File(tempDir, "index").getPath();
+        long slotCount;
+        try (MappedLongLongMap map = MappedLongLongMap.create(path, 6)) {
+            for (long key = 1; key <= 6; key++) {
+                map.put(key, key);
+            }
+            slotCount = new File(path).length() / 16 - 4;
+        }
+        // Fill the free slots behind the map's back, keeping the size in the header valid.
+        try (FileChannel channel = new RandomAccessFile(path, "rw").getChannel()) {
+            for (long slot = 0; slot < slotCount; slot++) {
+                long position = 64 + slot * 16;
+                ByteBuffer key = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+                channel.read(key, position);
+                if (key.getLong(0) == 0) {
+                    channel.write(nativeOrderLong(100 + slot), position);
+                }
+            }
+        }
+        try (MappedLongLongMap map = MappedLongLongMap.mmapRO(path)) {
+            assertEquals(3, map.get(3, -1));
+            try {
+                map.get(7, -1);
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+        }
+    }
+
+    private static ByteBuffer nativeOrderLong(long value) {
+        ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+        buffer.putLong(0, value);
+        return buffer;
+    }
+
+    public void testClose() throws Exception {
+        MappedLongLongMap map = MappedLongLongMap.allocate(10);
+        map.close();
+        assertTrue(map.isClosed());
+        // A second close is a no-op.
+        map.close();
+        try {
+            map.get(1, 0);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testConcurrentReaders() throws Exception {
+        final int count = 100000;
+        try (final MappedLongLongMap map = MappedLongLongMap.allocate(count)) {
+            final AtomicReference<String> failure = new AtomicReference<>();
+            Thread[] readers = new Thread[4];
+            for (int t = 0; t < readers.length; t++) {
+                readers[t] = new Thread(() -> {
+                    Random random = new Random();
+                    while (map.size() < count && failure.get() == null) {
+                        long key = random.nextInt(count) + 1;
+                        long value = map.get(key, -1);
+                        // A key is either missing or has its final value, never a torn one.
+                        if (value != -1 && value != key * 3) {
+                            failure.set("key=" + key + ", value=" + value);
+                        }
+                    }
+                });
+                readers[t].start();
+            }
+            for (long key = 1; key <= count; key++) {
+                map.put(key, key * 3);
+            }
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            assertNull(failure.get());
+        }
+    }
+}
@@ -23,9 +23,12 @@ import android.system.OsConstants;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
 import java.util.Arrays;
 import java.util.function.Function;
 
@@ -93,6 +96,34 @@ public class MemoryMappedFileTest extends TestCase {
         memoryMappedFile.close();
     }
 
+    public void testAdvise() throws Exception {
+        byte[] bytes = createBytes(10);
+        File file = createFile(bytes);
+        try {
+            MemoryMappedFile memoryMappedFile = MemoryMappedFile.mmapRO(file.getPath());
+            memoryMappedFile.advise(OsConstants.MADV_RANDOM);
+            memoryMappedFile.advise(OsConstants.MADV_WILLNEED);
+            memoryMappedFile.advise(OsConstants.MADV_DONTNEED);
+            try {
+                memoryMappedFile.advise(-1);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+            BufferIterator iterator = memoryMappedFile.bigEndianIterator();
+            iterator.seek(9);
+            assertReadByteSucceeds(iterator, bytes[9]);
+
+            memoryMappedFile.close();
+            try {
+                memoryMappedFile.advise(OsConstants.MADV_NORMAL);
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
     public void testReadAfterCloseFails() throws Exception {
         byte[] bytes = createBytes(10);
         File file = createFile(bytes);
@@ -387,7 +418,7 @@ public class MemoryMappedFileTest extends TestCase {
 
     private static void checkIntArrayZeroReadCases(BufferIterator iterator) {
         // Zero length reads do nothing.
-        int posBeforeRead = iterator.pos();
+        long posBeforeRead = iterator.pos();
         int[] dstWithExistingValues = new int[] { 111, 222 };
         iterator.readIntArray(dstWithExistingValues, 0, 0);
         assertEquals(posBeforeRead, iterator.pos());
@@ -436,6 +467,188 @@ public class MemoryMappedFileTest extends TestCase {
         }
     }
 
+    public void testReadLong() throws Exception {
+        byte[] bytes = createBytes(10);
+        File file = createFile(bytes);
+        try {
+            MemoryMappedFile mappedFile = MemoryMappedFile.mmapRO(file.getPath());
+            for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+                BufferIterator iterator = order == ByteOrder.BIG_ENDIAN
+                        ? mappedFile.bigEndianIterator() : mappedFile.littleEndianIterator();
+                ByteBuffer expected = ByteBuffer.wrap(bytes).order(order);
+                assertEquals(expected.getLong(0), iterator.readLong());
+                assertEquals(8, iterator.pos());
+
+                // Odd offset.
+                iterator.seek(1);
+                assertEquals(expected.getLong(1), iterator.readLong());
+
+                // Partly after bounds.
+                iterator.seek(3);
+                try {
+                    iterator.readLong();
+                    fail();
+                } catch (IndexOutOfBoundsException expectedException) {
+                }
+                assertEquals(3, iterator.pos());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testReadLongArrayAndShortArray() throws Exception {
+        byte[] bytes = createBytes(36);
+        File file = createFile(bytes);
+        try {
+            checkReadLongAndShortArrays(MemoryMappedFile.mmapRO(file.getPath()), bytes, 1);
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testMmapRo_segmented() throws Exception {
+        int pageSize = (int) Libcore.os.sysconf(OsConstants._SC_PAGESIZE);
+        byte[] bytes = createBytes(pageSize * 2 + 10);
+        File file = createFile(bytes);
+        try (MemoryMappedFile mappedFile = MemoryMappedFile.mmapRO(file.getPath(), pageSize)) {
+            assertEquals(bytes.length, mappedFile.size());
+            mappedFile.advise(OsConstants.MADV_SEQUENTIAL);
+
+            // Values that span the first segment boundary.
+            BufferIterator bigEndian = mappedFile.bigEndianIterator();
+            ByteBuffer expected = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN);
+            bigEndian.seek(pageSize - 1);
+            assertEquals(expected.getShort(pageSize - 1), bigEndian.readShort());
+            bigEndian.seek(pageSize - 2);
+            assertEquals(expected.getInt(pageSize - 2), bigEndian.readInt());
+            bigEndian.seek(pageSize - 5);
+            assertEquals(expected.getLong(pageSize - 5), bigEndian.readLong());
+            assertEquals(pageSize + 3, bigEndian.pos());
+
+            // A byte array that spans both segment boundaries.
+            byte[] dst = new byte[pageSize + 4];
+            bigEndian.seek(pageSize - 2);
+            bigEndian.readByteArray(dst, 0, dst.length);
+            assertArrayEquals(Arrays.copyOfRange(bytes, pageSize - 2, pageSize * 2 + 2), dst);
+
+            // The end of the last, short segment.
+            bigEndian.seek(bytes.length - 1);
+            assertReadByteSucceeds(bigEndian, bytes[bytes.length - 1]);
+            assertReadByteFails(bigEndian);
+
+            checkReadLongAndShortArrays(mappedFile, bytes, pageSize - 13);
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testMmapRo_segmentedInvalidSegmentSize() throws Exception {
+        byte[] bytes = createBytes(10);
+        File file = createFile(bytes);
+        try {
+            MemoryMappedFile.mmapRO(file.getPath(), 3);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testMmapRo_segmentedEmptyFile() throws Exception {
+        File file = createFile(new byte[0]);
+        try {
+            MemoryMappedFile.mmapRO(file.getPath(), Libcore.os.sysconf(OsConstants._SC_PAGESIZE));
+            fail();
+        } catch (ErrnoException e) {
+            assertEquals(OsConstants.EINVAL, e.errno);
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testMmapRo_moreThan2GiB() throws Exception {
+        long fileSize = 3L * 1024 * 1024 * 1024;
+        File file = File.createTempFile("bytes", null, tempDir);
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                // Sparse, so this doesn't need 3 GiB of disk.
+                raf.setLength(fileSize);
+                raf.seek(fileSize - 8);
+                raf.writeLong(0x0102030405060708L);
+            }
+            MemoryMappedFile mappedFile;
+            try {
+                mappedFile = MemoryMappedFile.mmapRO(file.getPath());
+            } catch (ErrnoException e) {
+                // Not enough address space in a 32-bit process.
+                assertEquals(OsConstants.ENOMEM, e.errno);
+                return;
+            }
+            try {
+                assertEquals(fileSize, mappedFile.size());
+                BufferIterator iterator = mappedFile.bigEndianIterator();
+                iterator.seek(fileSize - 8);
+                assertEquals(0x0102030405060708L, iterator.readLong());
+                assertEquals(fileSize, iterator.pos());
+                assertReadByteFails(iterator);
+                iterator.seek(Integer.MAX_VALUE + 1L);
+                assertReadByteSucceeds(iterator, (byte) 0);
+            } finally {
+                mappedFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Checks long[] and short[] reads starting at {@code offset} in both byte orders against
+     * the same reads from a {@link ByteBuffer}.
+     */
+    private static void checkReadLongAndShortArrays(
+            MemoryMappedFile mappedFile, byte[] bytes, int offset) {
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+            BufferIterator iterator = order == ByteOrder.BIG_ENDIAN
+                    ? mappedFile.bigEndianIterator() : mappedFile.littleEndianIterator();
+            ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+            byteBuffer.position(offset);
+
+            LongBuffer expectedLongs = byteBuffer.slice().order(order).asLongBuffer();
+            long[] longs = new long[4];
+            expectedLongs.get(longs, 0, longs.length);
+            long[] actualLongs = new long[longs.length + 1];
+            iterator.seek(offset);
+            iterator.readLongArray(actualLongs, 1, longs.length);
+            assertEquals(Arrays.toString(longs),
+                    Arrays.toString(Arrays.copyOfRange(actualLongs, 1, actualLongs.length)));
+            assertEquals(offset + longs.length * SizeOf.LONG, iterator.pos());
+
+            ShortBuffer expectedShorts = byteBuffer.slice().order(order).asShortBuffer();
+            short[] shorts = new short[15];
+            expectedShorts.get(shorts, 0, shorts.length);
+            short[] actualShorts = new short[shorts.length];
+            iterator.seek(offset);
+            iterator.readShortArray(actualShorts, 0, shorts.length);
+            assertEquals(Arrays.toString(shorts), Arrays.toString(actualShorts));
+            assertEquals(offset + shorts.length * SizeOf.SHORT, iterator.pos());
+
+            // Reads past the end fail without moving the position.
+            iterator.seek(bytes.length - SizeOf.LONG);
+            try {
+                iterator.readLongArray(actualLongs, 0, 2);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                iterator.readShortArray(actualShorts, 0, 5);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            assertEquals(bytes.length - SizeOf.LONG, iterator.pos());
+        }
+    }
+
     public void testReadByteArray() throws Exception {
         checkReadByteArray(MemoryMappedFile::bigEndianIterator);
         checkReadByteArray(MemoryMappedFile::littleEndianIterator);
@@ -471,7 +684,7 @@ public class MemoryMappedFileTest extends TestCase {
 
     private static void checkByteArrayZeroReadCases(BufferIterator iterator) {
         // Zero length reads do nothing.
-        int posBeforeRead = iterator.pos();
+        long posBeforeRead = iterator.pos();
         byte[] dstWithExistingValues = new byte[] { 11, 22, 33, 44, 55, 66, 77, 88 };
         iterator.readByteArray(dstWithExistingValues, 0, 0);
         assertEquals(posBeforeRead, iterator.pos());
@@ -515,7 +728,7 @@ public class MemoryMappedFileTest extends TestCase {
     private static void assertReadByteArrayFails(
             BufferIterator iterator, byte[] dst, int offset, int intCount) {
 
-        int posBefore = iterator.pos();
+        long posBefore = iterator.pos();
         try {
             iterator.readByteArray(dst, offset, intCount);
             fail();
@@ -527,7 +740,7 @@ public class MemoryMappedFileTest extends TestCase {
     private static void assertReadByteArraySucceeds(
             BufferIterator iterator, byte[] underlyingData, int byteCount) {
 
-        int posBefore = iterator.pos();
+        int posBefore = (int) iterator.pos();
 
         // Create a byte[] containing book-end bytes we don't expect to be touched:
         // [Byte.MAX_VALUE, {the bytes we expect from underlyingData from posBefore onward},
@@ -552,7 +765,7 @@ public class MemoryMappedFileTest extends TestCase {
     private static void assertReadIntArrayFails(
             BufferIterator iterator, int[] dst, int offset, int intCount) {
 
-        int posBefore = iterator.pos();
+        long posBefore = iterator.pos();
         try {
             iterator.readIntArray(dst, offset, intCount);
             fail();
@@ -564,7 +777,7 @@ public class MemoryMappedFileTest extends TestCase {
     private static void assertReadIntArraySucceeds(
             BufferIterator iterator, byte[] underlyingData, ByteOrder byteOrder, int intCount) {
 
-        int posBefore = iterator.pos();
+        int posBefore = (int) iterator.pos();
 
         // Create an int[] containing book-end ints we don't expect to be touched:
         // [Integer.MAX_VALUE, {the ints we expect from underlyingData from posBefore onward},
@@ -594,7 +807,7 @@ public class MemoryMappedFileTest extends TestCase {
     }
 
     private static void assertReadIntFails(BufferIterator iterator) {
-        int posBefore = iterator.pos();
+        long posBefore = iterator.pos();
         try {
             iterator.readInt();
             fail();
@@ -604,13 +817,13 @@ public class MemoryMappedFileTest extends TestCase {
     }
 
     private static void assertReadIntSucceeds(BufferIterator iterator, int expectedValue) {
-        int posBefore = iterator.pos();
+        long posBefore = iterator.pos();
         assertEquals(expectedValue, iterator.readInt());
         assertEquals(posBefore + SizeOf.INT, iterator.pos());
     }
 
     private static void assertReadShortFails(BufferIterator iterator) {
-        int posBefore = iterator.pos();
+        long posBefore = iterator.pos();
         try {
             iterator.readShort();
             fail();
@@ -620,13 +833,13 @@ public class MemoryMappedFileTest extends TestCase {
     }
 
     private static void assertReadShortSucceeds(BufferIterator iterator, short expectedValue) {
-        int posBefore = iterator.pos();
+        long posBefore = iterator.pos();
         assertEquals(expectedValue, iterator.readShort());
         assertEquals(posBefore + SizeOf.SHORT, iterator.pos());
     }
 
     private static void assertReadByteFails(BufferIterator iterator) {
-        int posBefore = iterator.pos();
+        long posBefore = iterator.pos();
         try {
             iterator.readByte();
             fail();
@@ -637,7 +850,7 @@ public class MemoryMappedFileTest extends TestCase {
     }
 
     private static void assertReadByteSucceeds(BufferIterator iterator, byte expectedValue) {
-        int posBefore = iterator.pos();
+        long posBefore = iterator.pos();
         assertEquals(expectedValue, iterator.readByte());
         assertEquals(posBefore + 1, iterator.pos());
     }
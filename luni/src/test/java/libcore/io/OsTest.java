@@ -23,6 +23,7 @@ import android.system.PacketSocketAddress;
 import android.system.StructTimeval;
 import android.system.StructUcred;
 import android.system.UnixSocketAddress;
+import android.util.MutableLong;
 
 import java.io.File;
 import java.io.FileDescriptor;
@@ -464,6 +465,128 @@ public class OsTest extends TestCase {
     }
   }
 
+  public void test_copy_file_range() throws Exception {
+    File src = File.createTempFile("OsTest", "src");
+    File dst = File.createTempFile("OsTest", "dst");
+    try (FileOutputStream fos = new FileOutputStream(src)) {
+      fos.write("hello world".getBytes(StandardCharsets.US_ASCII));
+    }
+    try (FileInputStream fis = new FileInputStream(src);
+         FileOutputStream fos = new FileOutputStream(dst)) {
+      MutableLong inOffset = new MutableLong(6);
+      long copied;
+      try {
+        copied = Libcore.os.copy_file_range(fis.getFD(), inOffset, fos.getFD(), null, 100, 0);
+      } catch (ErrnoException e) {
+        // Not every kernel or file system can do this.
+        assertTrue(e.errno == ENOSYS || e.errno == EXDEV || e.errno == EINVAL);
+        return;
+      }
+      assertEquals(5, copied);
+      assertEquals(11, inOffset.value);
+      // The input descriptor's own offset is untouched when an explicit offset is given.
+      assertEquals(0, Libcore.os.lseek(fis.getFD(), 0, SEEK_CUR));
+      assertEquals(5, Libcore.os.lseek(fos.getFD(), 0, SEEK_CUR));
+    }
+    assertEquals("world", IoUtils.readFileAsString(dst.getPath()));
+  }
+
+  public void test_splice() throws Exception {
+    File src = File.createTempFile("OsTest", "src");
+    try (FileOutputStream fos = new FileOutputStream(src)) {
+      fos.write("hello world".getBytes(StandardCharsets.US_ASCII));
+    }
+    FileDescriptor[] pipe = Libcore.os.pipe2(0);
+    try (FileInputStream fis = new FileInputStream(src)) {
+      MutableLong inOffset = new MutableLong(0);
+      assertEquals(5, Libcore.os.splice(fis.getFD(), inOffset, pipe[1], null, 5, SPLICE_F_MOVE));
+      assertEquals(5, inOffset.value);
+      byte[] bytes = new byte[16];
+      assertEquals(5, Libcore.os.read(pipe[0], bytes, 0, bytes.length));
+      assertEquals("hello", new String(bytes, 0, 5, StandardCharsets.US_ASCII));
+    } finally {
+      Libcore.os.close(pipe[0]);
+      Libcore.os.close(pipe[1]);
+    }
+  }
+
+  public void test_fallocate() throws Exception {
+    File file = File.createTempFile("OsTest", "fallocate");
+    try (FileOutputStream fos = new FileOutputStream(file)) {
+      try {
+        Libcore.os.fallocate(fos.getFD(), FALLOC_FL_KEEP_SIZE, 0, 65536);
+        assertEquals(0, Libcore.os.fstat(fos.getFD()).st_size);
+        Libcore.os.fallocate(fos.getFD(), 0, 0, 65536);
+        assertEquals(65536, Libcore.os.fstat(fos.getFD()).st_size);
+      } catch (ErrnoException e) {
+        // Not every file system can reserve space ahead of time.
+        assertEquals(EOPNOTSUPP, e.errno);
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void test_posix_fadvise() throws Exception {
+    File file = File.createTempFile("OsTest", "fadvise");
+    try (FileOutputStream fos = new FileOutputStream(file)) {
+      fos.write(new byte[8192]);
+    }
+    try (FileInputStream fis = new FileInputStream(file)) {
+      Libcore.os.posix_fadvise(fis.getFD(), 0, 0, POSIX_FADV_SEQUENTIAL);
+      Libcore.os.posix_fadvise(fis.getFD(), 0, 4096, POSIX_FADV_WILLNEED);
+      Libcore.os.posix_fadvise(fis.getFD(), 0, 0, POSIX_FADV_DONTNEED);
+      try {
+        Libcore.os.posix_fadvise(fis.getFD(), 0, 0, -1);
+        fail();
+      } catch (ErrnoException expected) {
+        assertEquals(EINVAL, expected.errno);
+      }
+    } finally {
+      file.delete();
+    }
+
+    FileDescriptor[] pipe = Libcore.os.pipe2(0);
+    try {
+      Libcore.os.posix_fadvise(pipe[0], 0, 0, POSIX_FADV_NORMAL);
+      fail();
+    } catch (ErrnoException expected) {
+      assertEquals(ESPIPE, expected.errno);
+    } finally {
+      Libcore.os.close(pipe[0]);
+      Libcore.os.close(pipe[1]);
+    }
+  }
+
+  public void test_madvise() throws Exception {
+    long pageSize = Libcore.os.sysconf(_SC_PAGESIZE);
+    File file = File.createTempFile("OsTest", "madvise");
+    try (FileOutputStream fos = new FileOutputStream(file)) {
+      fos.write(new byte[(int) pageSize * 4]);
+    }
+    long address;
+    try (FileInputStream fis = new FileInputStream(file)) {
+      address = Libcore.os.mmap(0, pageSize * 4, PROT_READ, MAP_SHARED, fis.getFD(), 0);
+    } finally {
+      file.delete();
+    }
+    try {
+      Libcore.os.madvise(address, pageSize * 4, MADV_SEQUENTIAL);
+      Libcore.os.madvise(address, pageSize * 4, MADV_RANDOM);
+      Libcore.os.madvise(address, pageSize, MADV_WILLNEED);
+      Libcore.os.madvise(address, pageSize * 4, MADV_NORMAL);
+      // The address must be page-aligned.
+      try {
+        Libcore.os.madvise(address + 1, pageSize, MADV_NORMAL);
+        fail();
+      } catch (ErrnoException expected) {
+        assertEquals(EINVAL, expected.errno);
+      }
+    } finally {
+      Libcore.os.munmap(address, pageSize * 4);
+    }
+  }
+
   // b/27294715
   public void test_recvfrom_concurrentShutdown() throws Exception {
       final FileDescriptor serverFd = Libcore.os.socket(AF_INET, SOCK_DGRAM, 0);
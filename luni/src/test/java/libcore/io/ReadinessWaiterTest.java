@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import java.io.FileDescriptor;
+import java.net.SocketException;
+import junit.framework.TestCase;
+
+import static android.system.OsConstants.*;
+
+public class ReadinessWaiterTest extends TestCase {
+    private FileDescriptor[] pipe;
+
+    @Override protected void setUp() throws Exception {
+        super.setUp();
+        pipe = Libcore.os.pipe2(0);
+    }
+
+    @Override protected void tearDown() throws Exception {
+        IoUtils.closeQuietly(pipe[0]);
+        IoUtils.closeQuietly(pipe[1]);
+        super.tearDown();
+    }
+
+    public void testTimeout() throws Exception {
+        ReadinessWaiter waiter = ReadinessWaiter.get();
+        assertEquals(0, waiter.await(pipe[0], POLLIN, 0));
+        long start = System.nanoTime();
+        assertEquals(0, waiter.await(pipe[0], POLLIN, 50));
+        assertTrue(System.nanoTime() - start >= 40_000_000L);
+    }
+
+    public void testReady() throws Exception {
+        ReadinessWaiter waiter = ReadinessWaiter.get();
+        assertEquals(POLLOUT, waiter.await(pipe[1], POLLOUT, 1000));
+        assertEquals(POLLOUT, waiter.await(pipe[1], POLLOUT, 1000));
+
+        Libcore.os.write(pipe[1], new byte[1], 0, 1);
+        assertEquals(POLLIN, waiter.await(pipe[0], POLLIN, 1000));
+        assertEquals(POLLOUT, waiter.await(pipe[1], POLLOUT | POLLIN, 1000));
+        assertEquals(POLLIN, waiter.await(pipe[0], POLLIN, 1000));
+    }
+
+    public void testHangUp() throws Exception {
+        ReadinessWaiter waiter = ReadinessWaiter.get();
+        Libcore.os.close(pipe[1]);
+        assertEquals(POLLHUP, waiter.await(pipe[0], POLLIN, 1000) & POLLHUP);
+    }
+
+    public void testFdNumberReused() throws Exception {
+        ReadinessWaiter waiter = ReadinessWaiter.get();
+        assertEquals(POLLOUT, waiter.await(pipe[1], POLLOUT, 1000));
+        Libcore.os.close(pipe[1]);
+        Libcore.os.close(pipe[0]);
+
+        // The lowest free numbers are reused, so the new pipe most likely gets the old numbers.
+        pipe = Libcore.os.pipe2(0);
+        assertEquals(0, waiter.await(pipe[0], POLLIN, 0));
+        assertEquals(POLLOUT, waiter.await(pipe[1], POLLOUT, 1000));
+    }
+
+    public void testClosedFd() throws Exception {
+        Libcore.os.close(pipe[0]);
+        try {
+            ReadinessWaiter.get().await(pipe[0], POLLIN, 10000);
+            fail();
+        } catch (SocketException expected) {
+        }
+    }
+
+    public void testPerThread() throws Exception {
+        final ReadinessWaiter[] other = new ReadinessWaiter[1];
+        Thread thread = new Thread(() -> {
+            try {
+                other[0] = ReadinessWaiter.get();
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertSame(ReadinessWaiter.get(), ReadinessWaiter.get());
+        assertNotNull(other[0]);
+        assertNotSame(ReadinessWaiter.get(), other[0]);
+    }
+
+    public void testAsynchronousClose() throws Exception {
+        FileDescriptor fd1 = new FileDescriptor();
+        FileDescriptor fd2 = new FileDescriptor();
+        Libcore.os.socketpair(AF_UNIX, SOCK_STREAM, 0, fd1, fd2);
+        try {
+            Thread closer = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                    IoBridge.closeAndSignalBlockedThreads(fd1);
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            closer.start();
+            try {
+                ReadinessWaiter.get().await(fd1, POLLIN, 10000);
+                fail();
+            } catch (SocketException expected) {
+            }
+            closer.join();
+        } finally {
+            IoUtils.closeQuietly(fd1);
+            IoUtils.closeQuietly(fd2);
+        }
+    }
+}
@@ -22,7 +22,9 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import android.system.ErrnoException;
@@ -270,6 +272,88 @@ public final class FileInputStreamTest extends TestCaseWithRules {
         }
     }
 
+    // Small sequential reads switch the stream to reading ahead, which must not be visible
+    // through skip, available, the channel or the file descriptor.
+    public void testSmallReadsAreReadAhead() throws Exception {
+        File file = File.createTempFile("FileInputStreamTest_testSmallReadsAreReadAhead", "");
+        try {
+            byte[] contents = new byte[64 * 1024];
+            for (int i = 0; i < contents.length; i++) {
+                contents[i] = (byte) (i * 31);
+            }
+            try (FileOutputStream fos = new FileOutputStream(file)) {
+                fos.write(contents);
+            }
+
+            try (FileInputStream fis = new FileInputStream(file)) {
+                int pos = 0;
+                for (; pos < 1000; pos++) {
+                    assertEquals(contents[pos] & 0xff, fis.read());
+                }
+                assertEquals(contents.length - pos, fis.available());
+                assertEquals(SKIP_SIZE, fis.skip(SKIP_SIZE));
+                pos += SKIP_SIZE;
+                for (; pos < 20000; pos++) {
+                    assertEquals(contents[pos] & 0xff, fis.read());
+                }
+                byte[] large = new byte[16 * 1024];
+                assertEquals(large.length, fis.read(large));
+                for (int i = 0; i < large.length; i++) {
+                    assertEquals(contents[pos++], large[i]);
+                }
+                for (; pos < 40000; pos++) {
+                    assertEquals(contents[pos] & 0xff, fis.read());
+                }
+                assertEquals(pos, fis.getChannel().position());
+                assertEquals(pos, Libcore.os.lseek(fis.getFD(), 0, OsConstants.SEEK_CUR));
+                for (; pos < contents.length; pos++) {
+                    assertEquals(contents[pos] & 0xff, fis.read());
+                }
+                assertEquals(-1, fis.read());
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    // available and skip must use the bytes read ahead, rather than give them back and read
+    // them again. The file changes after they were read ahead, so bytes read again would differ.
+    public void testAvailableAndSkipKeepReadAhead() throws Exception {
+        File file = File.createTempFile("FileInputStreamTest_testAvailableAndSkipKeepReadAhead",
+                "");
+        try {
+            byte[] contents = new byte[16 * 1024];
+            for (int i = 0; i < contents.length; i++) {
+                contents[i] = (byte) (i * 31);
+            }
+            try (FileOutputStream fos = new FileOutputStream(file)) {
+                fos.write(contents);
+            }
+
+            try (FileInputStream fis = new FileInputStream(file)) {
+                int pos = 0;
+                for (; pos < 100; pos++) {
+                    assertEquals(contents[pos] & 0xff, fis.read());
+                }
+                byte[] changed = new byte[4000];
+                Arrays.fill(changed, (byte) 0x55);
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.seek(pos);
+                    raf.write(changed);
+                }
+                while (pos < 4000) {
+                    assertEquals(contents.length - pos, fis.available());
+                    assertEquals(3, fis.skip(3));
+                    pos += 3;
+                    assertEquals(contents[pos] & 0xff, fis.read());
+                    pos++;
+                }
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
     /**
      * Allocates a file to the specified size using fallocate, falling back to ftruncate.
      */
@@ -196,6 +196,72 @@ public class FileTest extends junit.framework.TestCase {
         assertEquals(target.getCanonicalPath(), linkName.getCanonicalPath());
     }
 
+    // getCanonicalPath caches its results, which must not outlive a delete or rename.
+    public void test_getCanonicalPath_afterDelete() throws Exception {
+        File base = createTemporaryDirectory();
+        File target1 = new File(base, "target1");
+        File target2 = new File(base, "target2");
+        assertTrue(target1.createNewFile());
+        assertTrue(target2.createNewFile());
+        File linkName = new File(base, "link");
+        ln_s(target1, linkName);
+        assertEquals(target1.getCanonicalPath(), linkName.getCanonicalPath());
+        assertEquals(target1.getCanonicalPath(), linkName.getCanonicalPath());
+
+        assertTrue(linkName.delete());
+        ln_s(target2, linkName);
+        assertEquals(target2.getCanonicalPath(), linkName.getCanonicalPath());
+
+        File renamed = new File(base, "renamed");
+        assertTrue(linkName.renameTo(renamed));
+        assertEquals(target2.getCanonicalPath(), renamed.getCanonicalPath());
+        assertEquals(new File(base.getCanonicalFile(), "link").getPath(),
+                linkName.getCanonicalPath());
+    }
+
+    public void test_getCanonicalPath_concurrent() throws Exception {
+        File base = createTemporaryDirectory();
+        // More paths than the cache holds, so that threads also evict each other's entries.
+        final File[] links = new File[500];
+        final String[] expected = new String[links.length];
+        for (int i = 0; i < links.length; i++) {
+            File target = new File(base, "target" + i);
+            assertTrue(target.createNewFile());
+            links[i] = new File(base, "link" + i);
+            ln_s(target, links[i]);
+            expected[i] = target.getCanonicalPath();
+        }
+
+        Thread[] threads = new Thread[8];
+        final Throwable[] failure = new Throwable[1];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int round = 0; round < 10; round++) {
+                        for (int i = 0; i < links.length; i++) {
+                            int index = (i + offset * 61) % links.length;
+                            assertEquals(expected[index], links[index].getCanonicalPath());
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        synchronized (failure) {
+            if (failure[0] != null) {
+                throw new AssertionError(failure[0]);
+            }
+        }
+    }
+
     private static void ln_s(File target, File linkName) throws Exception {
         ln_s(target.toString(), linkName.toString());
     }
@@ -71,6 +71,33 @@ public final class RandomAccessFileTest extends TestCaseWithRules {
         }
     }
 
+    public void testPreallocate() throws Exception {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[10]);
+            raf.preallocate(0, 1024 * 1024);
+            // Reserving space doesn't change the file's length or position.
+            assertEquals(10, raf.length());
+            assertEquals(10, raf.getFilePointer());
+            try {
+                raf.preallocate(-1, 1);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+            try {
+                raf.preallocate(0, 0);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            try {
+                raf.preallocate(0, 1024);
+                fail();
+            } catch (IOException expected) {
+            }
+        }
+    }
+
     // http://b/3015023
     public void testRandomAccessFileHasCleanupFinalizer() throws Exception {
         File file = File.createTempFile("RandomAccessFileTest", "tmp");
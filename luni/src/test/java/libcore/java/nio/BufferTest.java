@@ -16,6 +16,7 @@
 
 package libcore.java.nio;
 
+import android.system.OsConstants;
 import junit.framework.TestCase;
 import java.io.File;
 import java.io.RandomAccessFile;
@@ -904,11 +905,98 @@ public class BufferTest extends TestCase {
             fail();
         } catch (UnsupportedOperationException expected) {
         }
+        try {
+            notMapped.advise(OsConstants.MADV_NORMAL);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
 
         MappedByteBuffer mapped = (MappedByteBuffer) allocateMapped(1);
         mapped.force();
         mapped.isLoaded();
         mapped.load();
+        assertSame(mapped, mapped.advise(OsConstants.MADV_SEQUENTIAL));
+        assertSame(mapped, mapped.advise(OsConstants.MADV_RANDOM));
+        try {
+            mapped.advise(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        // A writable buffer may be a private mapping, whose changes MADV_DONTNEED would discard.
+        mapped.put(0, (byte) 1);
+        try {
+            mapped.advise(OsConstants.MADV_DONTNEED);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(1, mapped.get(0));
+
+        File file = File.createTempFile("mapped", "tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(1);
+            MappedByteBuffer readOnly =
+                    raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, 1);
+            assertSame(readOnly, readOnly.advise(OsConstants.MADV_DONTNEED));
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testMapWithOptions() throws Exception {
+        FileChannel.MapMode mode = FileChannel.MapMode.READ_WRITE.withOptions(
+                FileChannel.MapMode.POPULATE | FileChannel.MapMode.HUGE_PAGES);
+        assertSame(FileChannel.MapMode.READ_WRITE, mode.baseMode());
+        assertEquals(FileChannel.MapMode.POPULATE | FileChannel.MapMode.HUGE_PAGES,
+                mode.options());
+        assertEquals("READ_WRITE+POPULATE+HUGE_PAGES", mode.toString());
+        assertSame(FileChannel.MapMode.READ_WRITE, mode.withOptions(0));
+        try {
+            FileChannel.MapMode.READ_ONLY.withOptions(4);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        File f = File.createTempFile("mapped", "tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+            raf.setLength(65536);
+            FileChannel ch = raf.getChannel();
+            MappedByteBuffer mbb = ch.map(mode, 0, 65536);
+            assertTrue(mbb.isLoaded());
+            mbb.putInt(4096, 0x12345678);
+            mbb.force();
+            assertEquals(0x12345678, raf.getChannel().map(
+                    FileChannel.MapMode.READ_ONLY.withOptions(FileChannel.MapMode.POPULATE),
+                    4096, 4).getInt());
+        } finally {
+            f.delete();
+        }
+    }
+
+    public void testAllocateDirectWithOptions() throws Exception {
+        ByteBuffer b = ByteBuffer.allocateDirect(65536,
+                FileChannel.MapMode.POPULATE | FileChannel.MapMode.HUGE_PAGES);
+        assertTrue(b.isDirect());
+        assertFalse(b.hasArray());
+        assertEquals(65536, b.capacity());
+        assertTrue(((MappedByteBuffer) b).isLoaded());
+        for (int i = 0; i < b.capacity(); i += 8) {
+            assertEquals(0L, b.getLong(i));
+        }
+        b.putLong(8, 42L);
+        assertEquals(42L, b.duplicate().getLong(8));
+        assertEquals(42L, b.slice().getLong(8));
+
+        assertEquals(0, ByteBuffer.allocateDirect(0, 0).capacity());
+        try {
+            ByteBuffer.allocateDirect(-1, 0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            ByteBuffer.allocateDirect(1, 4);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
     }
 
     // https://code.google.com/p/android/issues/detail?id=53637
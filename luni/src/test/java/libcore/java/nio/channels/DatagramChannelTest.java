@@ -25,6 +25,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
 import java.net.ProtocolFamily;
+import java.net.SocketAddress;
 import java.net.StandardProtocolFamily;
 import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
@@ -33,6 +34,7 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.UnsupportedAddressTypeException;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.Arrays;
 import java.util.Enumeration;
 
 public class DatagramChannelTest extends junit.framework.TestCase {
@@ -71,6 +73,68 @@ public class DatagramChannelTest extends junit.framework.TestCase {
         }
     }
 
+    public void test_receiveBatch_nonBlocking() throws Exception {
+        DatagramChannel dc = DatagramChannel.open();
+        try {
+            dc.configureBlocking(false);
+            dc.bind(null);
+            ByteBuffer[] dsts = { ByteBuffer.allocate(16), ByteBuffer.allocate(16) };
+            // Should return immediately, since we're non-blocking.
+            assertEquals(0, dc.receive(dsts, new SocketAddress[2]));
+        } finally {
+            dc.close();
+        }
+    }
+
+    public void test_sendBatch_receiveBatch() throws Exception {
+        DatagramChannel receiver = DatagramChannel.open();
+        DatagramChannel sender = DatagramChannel.open();
+        try {
+            receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketAddress target = receiver.getLocalAddress();
+            // Mix direct and heap buffers, and check that positions are respected.
+            ByteBuffer direct = ByteBuffer.allocateDirect(8);
+            direct.put((byte) 9).put("abc".getBytes("US-ASCII")).flip().position(1);
+            ByteBuffer[] srcs = {
+                    ByteBuffer.wrap("hello".getBytes("US-ASCII")),
+                    direct,
+                    ByteBuffer.wrap("".getBytes("US-ASCII")),
+            };
+            assertEquals(3, sender.send(srcs, new SocketAddress[] { target, target, target }));
+            for (ByteBuffer src : srcs) {
+                assertFalse(src.hasRemaining());
+            }
+
+            ByteBuffer[] dsts = {
+                    ByteBuffer.allocate(16), ByteBuffer.allocateDirect(16),
+                    ByteBuffer.allocate(16), ByteBuffer.allocate(16),
+            };
+            dsts[0].position(2);
+            SocketAddress[] senders = new SocketAddress[4];
+            int received = 0;
+            while (received < 3) {
+                ByteBuffer[] remaining = Arrays.copyOfRange(dsts, received, 4);
+                SocketAddress[] remainingSenders = new SocketAddress[remaining.length];
+                int n = receiver.receive(remaining, remainingSenders);
+                assertTrue(n > 0);
+                System.arraycopy(remainingSenders, 0, senders, received, n);
+                received += n;
+            }
+            assertEquals(7, dsts[0].position());
+            assertEquals("hello", new String(dsts[0].array(), 2, 5, "US-ASCII"));
+            assertEquals(3, dsts[1].position());
+            assertEquals(0, dsts[2].position());
+            assertNull(senders[3]);
+            int senderPort = ((InetSocketAddress) sender.getLocalAddress()).getPort();
+            for (int i = 0; i < 3; i++) {
+                assertEquals(senderPort, ((InetSocketAddress) senders[i]).getPort());
+            }
+        } finally {
+            sender.close();
+            receiver.close();
+        }
+    }
+
     public void testInitialState() throws Exception {
         DatagramChannel dc = DatagramChannel.open();
         try {
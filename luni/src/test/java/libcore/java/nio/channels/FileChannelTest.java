@@ -23,7 +23,10 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.Pipe;
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -33,6 +36,10 @@ import java.util.HashSet;
 import java.util.Set;
 import libcore.io.IoUtils;
 
+import static android.system.OsConstants.POSIX_FADV_DONTNEED;
+import static android.system.OsConstants.POSIX_FADV_NORMAL;
+import static android.system.OsConstants.POSIX_FADV_SEQUENTIAL;
+import static android.system.OsConstants.POSIX_FADV_WILLNEED;
 import static java.nio.file.StandardOpenOption.READ;
 import static java.nio.file.StandardOpenOption.WRITE;
 import static org.mockito.Mockito.mock;
@@ -126,6 +133,111 @@ public class FileChannelTest extends junit.framework.TestCase {
         assertEquals("hello world", new String(IoUtils.readFileAsString(tmp.getPath())));
     }
 
+    public void test_transferTo_file() throws Exception {
+        FileChannel src = createFileContainingBytes("0123456789".getBytes("US-ASCII"));
+        File tmp = File.createTempFile("FileChannelTest", "tmp");
+        FileChannel dst = new FileOutputStream(tmp).getChannel();
+        dst.write(ByteBuffer.wrap("ab".getBytes("US-ASCII")));
+
+        assertEquals(5, src.transferTo(3, 5, dst));
+        // The target's position advances, the source's doesn't.
+        assertEquals(7, dst.position());
+        assertEquals(0, src.position());
+        // Asking for more than is available copies what's there.
+        assertEquals(2, src.transferTo(8, 100, dst));
+        dst.close();
+        src.close();
+        assertEquals("ab3456789", IoUtils.readFileAsString(tmp.getPath()));
+    }
+
+    public void test_transferFrom_file() throws Exception {
+        FileChannel src = createFileContainingBytes("0123456789".getBytes("US-ASCII"));
+        src.position(4);
+        FileChannel dst = createFileContainingBytes("abcdef".getBytes("US-ASCII"));
+
+        assertEquals(3, dst.transferFrom(src, 2, 3));
+        // The source's position advances, the target's doesn't.
+        assertEquals(7, src.position());
+        assertEquals(0, dst.position());
+        ByteBuffer result = ByteBuffer.allocate(6);
+        assertEquals(6, dst.read(result, 0));
+        assertEquals("ab456f", new String(result.array(), "US-ASCII"));
+        dst.close();
+        src.close();
+    }
+
+    public void test_transferTo_transferFrom_pipe() throws Exception {
+        FileChannel src = createFileContainingBytes("0123456789".getBytes("US-ASCII"));
+        Pipe pipe = Pipe.open();
+        assertEquals(10, src.transferTo(0, 10, pipe.sink()));
+        pipe.sink().close();
+
+        FileChannel dst = createFileContainingBytes(new byte[0]);
+        assertEquals(4, dst.transferFrom(pipe.source(), 0, 4));
+        assertEquals(6, dst.transferFrom(pipe.source(), 4, 100));
+        ByteBuffer result = ByteBuffer.allocate(10);
+        assertEquals(10, dst.read(result, 0));
+        assertEquals("0123456789", new String(result.array(), "US-ASCII"));
+        pipe.source().close();
+        dst.close();
+        src.close();
+    }
+
+    public void test_advise() throws Exception {
+        FileChannel fc = createFileContainingBytes("0123456789".getBytes("US-ASCII"));
+        assertSame(fc, fc.advise(0, 0, POSIX_FADV_SEQUENTIAL));
+        assertSame(fc, fc.advise(2, 4, POSIX_FADV_WILLNEED));
+        assertSame(fc, fc.advise(0, 0, POSIX_FADV_DONTNEED));
+        // The hint doesn't change what is read.
+        ByteBuffer result = ByteBuffer.allocate(10);
+        assertEquals(10, fc.read(result, 0));
+        assertEquals("0123456789", new String(result.array(), "US-ASCII"));
+
+        try {
+            fc.advise(-1, 0, POSIX_FADV_NORMAL);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            fc.advise(0, 0, -1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        fc.close();
+        try {
+            fc.advise(0, 0, POSIX_FADV_NORMAL);
+            fail();
+        } catch (ClosedChannelException expected) {
+        }
+    }
+
+    public void test_preallocate() throws Exception {
+        FileChannel fc = createFileContainingBytes("0123456789".getBytes("US-ASCII"));
+        assertSame(fc, fc.preallocate(5, 1024 * 1024));
+        // The size and content are unchanged, and writes go where they did before.
+        assertEquals(10, fc.size());
+        fc.write(ByteBuffer.wrap("ab".getBytes("US-ASCII")), 10);
+        assertEquals(12, fc.size());
+        ByteBuffer result = ByteBuffer.allocate(12);
+        assertEquals(12, fc.read(result, 0));
+        assertEquals("0123456789ab", new String(result.array(), "US-ASCII"));
+
+        try {
+            fc.preallocate(0, 0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        fc.close();
+
+        File tmp = File.createTempFile("FileChannelTest", "tmp");
+        try (FileInputStream fis = new FileInputStream(tmp)) {
+            fis.getChannel().preallocate(0, 1024);
+            fail();
+        } catch (NonWritableChannelException expected) {
+        }
+    }
+
     public void test_position_writeAddsPadding() throws Exception {
         byte[] initialBytes = "12345".getBytes("US-ASCII");
         int initialFileSize = initialBytes.length; // 5
@@ -21,11 +21,14 @@ import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.io.FileDescriptor;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.NoConnectionPendingException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import junit.framework.TestCase;
@@ -138,6 +141,63 @@ public class SelectorTest extends TestCase {
         }
     }
 
+    public void testSelectWithAction() throws Exception {
+        Selector selector = Selector.open();
+        ServerSocketChannel ssc = ServerSocketChannel.open();
+        try {
+            ssc.socket().bind(null);
+            SocketChannel sc = SocketChannel.open(ssc.socket().getLocalSocketAddress());
+            sc.configureBlocking(false);
+            ssc.accept().write(ByteBuffer.allocate(128));
+
+            SelectionKey key = sc.register(selector, SelectionKey.OP_READ);
+            List<SelectionKey> consumed = new ArrayList<>();
+            assertEquals(1, selector.select(consumed::add, 1000));
+            assertEquals(1, consumed.size());
+            assertSame(key, consumed.get(0));
+            assertEquals(SelectionKey.OP_READ, key.readyOps());
+            // The selected-key set is not used.
+            assertTrue(selector.selectedKeys().isEmpty());
+
+            // The channel is still readable, so it is selected again.
+            consumed.clear();
+            assertEquals(1, selector.selectNow(consumed::add));
+            assertEquals(1, consumed.size());
+
+            try {
+                selector.selectNow(k -> {
+                    try {
+                        selector.close();
+                    } catch (IOException e) {
+                        throw new AssertionError(e);
+                    }
+                });
+                fail();
+            } catch (ClosedSelectorException expected) {
+            }
+        } finally {
+            selector.close();
+            ssc.close();
+        }
+    }
+
+    public void testSelectWithActionWakeup() throws Exception {
+        Selector selector = Selector.open();
+        try {
+            for (int i = 0; i < 1000; i++) {
+                selector.wakeup();
+                assertEquals(0, selector.select(k -> fail()));
+            }
+            try {
+                selector.select(k -> fail(), -1);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+        } finally {
+            selector.close();
+        }
+    }
+
     // http://code.google.com/p/android/issues/detail?id=80785
     public void test_80785() throws Exception {
         Selector selector = Selector.open();
@@ -24,7 +24,9 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileStore;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystemLoopException;
@@ -36,6 +38,7 @@ import java.nio.file.LinkOption;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.attribute.FileAttributeView;
@@ -46,10 +49,13 @@ import java.nio.file.spi.FileSystemProvider;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.FileVisitResult.TERMINATE;
@@ -794,6 +800,254 @@ public class Files2Test {
         } catch (FileSystemLoopException expected) {}
     }
 
+    @Test
+    public void test_walkFileTree_attributesMatchLstat() throws IOException {
+        // Directory structure.
+        //    root
+        //    ├── dir1
+        //    │   └── file0 .. file199
+        //    ├── link1 ─ dir1
+        //    └── link2 ─ dir1/file0
+        //
+        // More entries than a directory stream reads at once, with the types and attributes
+        // walkFileTree sees checked against those of an lstat.
+
+        // Directory Setup.
+        Path rootDir = filesSetup.getPathInTestDir("root");
+        Path dir1 = filesSetup.getPathInTestDir("root/dir1");
+        Files.createDirectories(dir1);
+        for (int i = 0; i < 200; i++) {
+            Files.write(dir1.resolve("file" + i), new byte[i]);
+        }
+        Files.createSymbolicLink(rootDir.resolve("link1"), dir1.toAbsolutePath());
+        Files.createSymbolicLink(rootDir.resolve("link2"), dir1.resolve("file0").toAbsolutePath());
+
+        Map<Path, BasicFileAttributes> visited = new HashMap<>();
+        Files.walkFileTree(rootDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                visited.put(dir, attrs);
+                return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                visited.put(file, attrs);
+                return CONTINUE;
+            }
+        });
+
+        assertEquals(204, visited.size());
+        for (Map.Entry<Path, BasicFileAttributes> entry : visited.entrySet()) {
+            BasicFileAttributes expected = Files.readAttributes(entry.getKey(),
+                    BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            BasicFileAttributes actual = entry.getValue();
+            assertEquals(expected.isDirectory(), actual.isDirectory());
+            assertEquals(expected.isRegularFile(), actual.isRegularFile());
+            assertEquals(expected.isSymbolicLink(), actual.isSymbolicLink());
+            assertEquals(expected.isOther(), actual.isOther());
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.lastModifiedTime(), actual.lastModifiedTime());
+            assertEquals(expected.fileKey(), actual.fileKey());
+        }
+        assertTrue(visited.get(rootDir.resolve("link1")).isSymbolicLink());
+        assertTrue(visited.get(rootDir.resolve("link2")).isSymbolicLink());
+        assertEquals(199, visited.get(dir1.resolve("file199")).size());
+    }
+
+    @Test
+    public void test_walkFileTree_entryRemovedDuringWalk() throws IOException {
+        // Directory structure.
+        //    root
+        //    └── file0 .. file9
+        //
+        // The stream reads all ten entries at once. Removing the others while the first is
+        // visited makes reading their attributes fail, which is reported to visitFileFailed.
+        Path rootDir = filesSetup.getPathInTestDir("root");
+        Files.createDirectories(rootDir);
+        for (int i = 0; i < 10; i++) {
+            Files.write(rootDir.resolve("file" + i), new byte[i]);
+        }
+
+        List<Path> visited = new ArrayList<>();
+        List<IOException> failures = new ArrayList<>();
+        Files.walkFileTree(rootDir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                    throws IOException {
+                if (visited.isEmpty()) {
+                    for (int i = 0; i < 10; i++) {
+                        Path other = rootDir.resolve("file" + i);
+                        if (!other.equals(file)) {
+                            Files.delete(other);
+                        }
+                    }
+                }
+                visited.add(file);
+                assertEquals(Files.size(file), attrs.size());
+                return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                failures.add(exc);
+                return CONTINUE;
+            }
+        });
+
+        assertEquals(1, visited.size());
+        assertEquals(9, failures.size());
+        for (IOException failure : failures) {
+            assertTrue(failure instanceof NoSuchFileException);
+        }
+    }
+
+    @Test
+    public void test_find_attributesMatchLstat() throws IOException {
+        // Directory structure.
+        //    root
+        //    └── dir1
+        //        └── file0 .. file199
+        Path rootDir = filesSetup.getPathInTestDir("root");
+        Path dir1 = filesSetup.getPathInTestDir("root/dir1");
+        Files.createDirectories(dir1);
+        for (int i = 0; i < 200; i++) {
+            Files.write(dir1.resolve("file" + i), new byte[i]);
+        }
+
+        Map<Path, Long> sizes = new HashMap<>();
+        try (Stream<Path> stream = Files.find(rootDir, Integer.MAX_VALUE, (path, attrs) -> {
+            sizes.put(path, attrs.size());
+            return attrs.isRegularFile();
+        })) {
+            assertEquals(200, stream.count());
+        }
+
+        assertEquals(202, sizes.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(Long.valueOf(i), sizes.get(dir1.resolve("file" + i)));
+        }
+        try (Stream<Path> stream = Files.walk(rootDir)) {
+            assertEquals(202, stream.count());
+        }
+    }
+
+    @Test
+    public void test_newDirectoryStream_closeDuringIteration() throws IOException {
+        Path rootDir = filesSetup.getPathInTestDir("root");
+        Files.createDirectories(rootDir);
+        for (int i = 0; i < 200; i++) {
+            Files.createFile(rootDir.resolve("file" + i));
+        }
+
+        Set<Path> entries = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(rootDir)) {
+            for (Path entry : stream) {
+                assertTrue(entries.add(entry));
+            }
+        }
+        assertEquals(200, entries.size());
+
+        DirectoryStream<Path> stream = Files.newDirectoryStream(rootDir);
+        Iterator<Path> iterator = stream.iterator();
+        assertTrue(iterator.hasNext());
+        assertTrue(entries.contains(iterator.next()));
+        stream.close();
+        // Entries read ahead of the close must not be returned after it.
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void test_walk_parallel() throws IOException {
+        // Directory structure.
+        //    root
+        //    ├── dir0 .. dir7
+        //    │   ├── dir0 .. dir7
+        //    │   │   └── file0 .. file9
+        //    │   └── file0 .. file9
+        //    └── file0
+        //
+        // A parallel walk or find splits at directories, and must visit each file once.
+
+        // Directory Setup.
+        Path rootDir = filesSetup.getPathInTestDir("root");
+        Files.createDirectories(rootDir);
+        Files.createFile(rootDir.resolve("file0"));
+        for (int i = 0; i < 8; i++) {
+            Path dir = Files.createDirectory(rootDir.resolve("dir" + i));
+            for (int j = 0; j < 8; j++) {
+                Path subdir = Files.createDirectory(dir.resolve("dir" + j));
+                for (int k = 0; k < 10; k++) {
+                    Files.createFile(subdir.resolve("file" + k));
+                }
+            }
+            for (int k = 0; k < 10; k++) {
+                Files.createFile(dir.resolve("file" + k));
+            }
+        }
+
+        List<Path> expected;
+        try (Stream<Path> paths = Files.walk(rootDir)) {
+            expected = paths.collect(Collectors.toList());
+        }
+        assertEquals(1 + 1 + 8 * (1 + 8 * (1 + 10) + 10), expected.size());
+        assertEquals(expected.size(), new HashSet<>(expected).size());
+
+        try (Stream<Path> paths = Files.walk(rootDir).parallel()) {
+            List<Path> actual = paths.collect(Collectors.toList());
+            assertEquals(expected.size(), actual.size());
+            assertEquals(new HashSet<>(expected), new HashSet<>(actual));
+        }
+        try (Stream<Path> paths = Files.walk(rootDir, 1).parallel()) {
+            assertEquals(1 + 1 + 8, paths.count());
+        }
+        try (Stream<Path> paths = Files.find(rootDir, Integer.MAX_VALUE,
+                (path, attrs) -> attrs.isRegularFile()).parallel()) {
+            assertEquals(1 + 8 * (8 * 10 + 10), paths.count());
+        }
+        // Short-circuiting leaves parts of the tree unvisited, and closing must close them.
+        try (Stream<Path> paths = Files.walk(rootDir).parallel()) {
+            assertTrue(paths.anyMatch(path -> path.getFileName().toString().equals("file9")));
+        }
+    }
+
+    @Test
+    public void test_walk_parallel_FileSystemLoopException() throws IOException {
+        // Directory structure.
+        //    root
+        //    ├── dir0 .. dir7
+        //    │   └── dir
+        //    │       └── file0 .. file9
+        //    └── dir5/dir/file5 is a symlink to dir5
+        //
+        // The loop must be found whichever part of a split walk reaches the symlink.
+
+        // Directory Setup.
+        Path rootDir = filesSetup.getPathInTestDir("root");
+        for (int i = 0; i < 8; i++) {
+            Path dir = Files.createDirectories(rootDir.resolve("dir" + i).resolve("dir"));
+            for (int k = 0; k < 10; k++) {
+                if (i == 5 && k == 5) {
+                    Files.createSymbolicLink(dir.resolve("file" + k),
+                            rootDir.resolve("dir" + i).toAbsolutePath());
+                } else {
+                    Files.createFile(dir.resolve("file" + k));
+                }
+            }
+        }
+
+        try (Stream<Path> paths = Files.walk(rootDir, FileVisitOption.FOLLOW_LINKS).parallel()) {
+            paths.count();
+            fail();
+        } catch (UncheckedIOException expected) {
+            Throwable cause = expected;
+            while (cause != null && !(cause instanceof FileSystemLoopException)) {
+                cause = cause.getCause();
+            }
+            assertTrue(cause instanceof FileSystemLoopException);
+        }
+    }
+
     // -- Mock Class --
 
     private static class TestFileVisitor implements FileVisitor<Path> {
@@ -17,6 +17,9 @@
 package libcore.java.util;
 
 import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
 
 public class ArrayListTest extends junit.framework.TestCase {
     public void test_replaceAll() {
@@ -26,4 +29,39 @@ public class ArrayListTest extends junit.framework.TestCase {
     public void test_sort() {
         ListDefaultMethodTester.test_sort(new ArrayList<>());
     }
+
+    public void test_parallelSort() {
+        ListDefaultMethodTester.test_parallelSort(new ArrayList<>());
+    }
+
+    /**
+     * Large lists are sorted on several threads, and must end up in the same order as with a
+     * sequential sort.
+     */
+    public void test_parallelSort_large() {
+        Random random = new Random(0);
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000000; i++) {
+            list.add(random.nextInt());
+        }
+        // LinkedList sorts a copy with Arrays.sort, always on one thread.
+        List<Integer> expected = new LinkedList<>(list);
+        expected.sort((v1, v2) -> Integer.compare(v1 >> 16, v2 >> 16));
+        list.parallelSort((v1, v2) -> Integer.compare(v1 >> 16, v2 >> 16));
+        assertEquals(expected, list);
+    }
+
+    /** sort must call the comparator only on the caller's thread, however large the list. */
+    public void test_sort_large_callsComparatorOnCallerThread() {
+        Random random = new Random(0);
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 1000000; i++) {
+            list.add(random.nextInt());
+        }
+        Thread caller = Thread.currentThread();
+        list.sort((v1, v2) -> {
+            assertSame(caller, Thread.currentThread());
+            return Integer.compare(v1, v2);
+        });
+    }
 }
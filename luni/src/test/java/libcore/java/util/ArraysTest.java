@@ -16,7 +16,10 @@
 
 package libcore.java.util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
 
 public class ArraysTest extends junit.framework.TestCase {
@@ -534,4 +537,235 @@ public class ArraysTest extends junit.framework.TestCase {
         } catch (IllegalArgumentException expected) {
         }
     }
+
+    public void test_asList_parallelSort() {
+        Random random = new Random(0);
+        Integer[] array = new Integer[100000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = random.nextInt(100000);
+        }
+        // Compares only the high digits, so that the results differ if the sort isn't stable.
+        Comparator<Integer> c = (v1, v2) -> Integer.compare(v1 / 100, v2 / 100);
+        List<Integer> expected = new ArrayList<>(Arrays.asList(array));
+        expected.sort(c);
+        List<Integer> list = Arrays.asList(array);
+        list.parallelSort(c);
+        assertEquals(expected, list);
+    }
+
+    // Large enough for the radix sorts used by Arrays.parallelSort.
+    private static final int LARGE_LENGTH = 1 << 17;
+
+    public void test_sort$I_large() {
+        for (int[] a : largeIntArrays()) {
+            int[] expected = sortedCopy(a);
+            Arrays.sort(a);
+            assertTrue(Arrays.equals(expected, a));
+        }
+    }
+
+    public void test_parallelSort$I_large() {
+        for (int[] a : largeIntArrays()) {
+            int[] expected = sortedCopy(a);
+            Arrays.parallelSort(a);
+            assertTrue(Arrays.equals(expected, a));
+        }
+    }
+
+    public void test_parallelSort$III_large() {
+        for (int[] a : largeIntArrays()) {
+            int[] expected = a.clone();
+            int[] sortedRange = sortedCopy(Arrays.copyOfRange(a, 3, a.length - 5));
+            System.arraycopy(sortedRange, 0, expected, 3, sortedRange.length);
+            Arrays.parallelSort(a, 3, a.length - 5);
+            assertTrue(Arrays.equals(expected, a));
+        }
+    }
+
+    public void test_sort$J_large() {
+        for (long[] a : largeLongArrays()) {
+            long[] expected = sortedCopy(a);
+            Arrays.sort(a);
+            assertTrue(Arrays.equals(expected, a));
+        }
+    }
+
+    public void test_parallelSort$J_large() {
+        for (long[] a : largeLongArrays()) {
+            long[] expected = sortedCopy(a);
+            Arrays.parallelSort(a);
+            assertTrue(Arrays.equals(expected, a));
+        }
+    }
+
+    public void test_sort$F_large() {
+        for (float[] a : largeFloatArrays()) {
+            float[] expected = sortedCopy(a);
+            Arrays.sort(a);
+            assertFloatArraysIdentical(expected, a);
+        }
+    }
+
+    public void test_parallelSort$F_large() {
+        for (float[] a : largeFloatArrays()) {
+            float[] expected = sortedCopy(a);
+            Arrays.parallelSort(a);
+            assertFloatArraysIdentical(expected, a);
+        }
+    }
+
+    public void test_sort$D_large() {
+        for (double[] a : largeDoubleArrays()) {
+            double[] expected = sortedCopy(a);
+            Arrays.sort(a);
+            assertDoubleArraysIdentical(expected, a);
+        }
+    }
+
+    public void test_parallelSort$D_large() {
+        for (double[] a : largeDoubleArrays()) {
+            double[] expected = sortedCopy(a);
+            Arrays.parallelSort(a);
+            assertDoubleArraysIdentical(expected, a);
+        }
+    }
+
+    /** Returns random, few distinct, sorted, nearly sorted and reversed arrays. */
+    private static int[][] largeIntArrays() {
+        Random random = new Random(0);
+        int[][] arrays = new int[5][LARGE_LENGTH];
+        for (int i = 0; i < LARGE_LENGTH; i++) {
+            arrays[0][i] = random.nextInt();
+            arrays[1][i] = random.nextInt(100) - 50;
+            arrays[2][i] = i - LARGE_LENGTH / 2;
+            arrays[3][i] = i;
+            arrays[4][i] = LARGE_LENGTH - i;
+        }
+        for (int i = 0; i < LARGE_LENGTH / 100; i++) {
+            arrays[3][random.nextInt(LARGE_LENGTH)] = random.nextInt();
+        }
+        return arrays;
+    }
+
+    private static long[][] largeLongArrays() {
+        Random random = new Random(0);
+        long[][] arrays = new long[5][LARGE_LENGTH];
+        for (int i = 0; i < LARGE_LENGTH; i++) {
+            arrays[0][i] = random.nextLong();
+            arrays[1][i] = random.nextInt(100) - 50;
+            arrays[2][i] = (i - LARGE_LENGTH / 2) * 0x100000000L;
+            arrays[3][i] = i;
+            arrays[4][i] = LARGE_LENGTH - i;
+        }
+        for (int i = 0; i < LARGE_LENGTH / 100; i++) {
+            arrays[3][random.nextInt(LARGE_LENGTH)] = random.nextLong();
+        }
+        return arrays;
+    }
+
+    /** Returns random arrays with some NaNs, infinities and zeros of both signs. */
+    private static float[][] largeFloatArrays() {
+        Random random = new Random(0);
+        float[] specials = { Float.NaN, Float.intBitsToFloat(0x7fc12345), -0.0f, 0.0f,
+                Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, Float.MIN_VALUE,
+                -Float.MIN_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE };
+        float[][] arrays = new float[2][LARGE_LENGTH];
+        for (int i = 0; i < LARGE_LENGTH; i++) {
+            arrays[0][i] = (float) random.nextGaussian();
+            arrays[1][i] = random.nextInt(10) == 0
+                    ? specials[random.nextInt(specials.length)]
+                    : Float.intBitsToFloat(random.nextInt());
+        }
+        return arrays;
+    }
+
+    private static double[][] largeDoubleArrays() {
+        Random random = new Random(0);
+        double[] specials = { Double.NaN, Double.longBitsToDouble(0x7ff8000000012345L), -0.0,
+                0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.MIN_VALUE,
+                -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE };
+        double[][] arrays = new double[2][LARGE_LENGTH];
+        for (int i = 0; i < LARGE_LENGTH; i++) {
+            arrays[0][i] = random.nextGaussian();
+            arrays[1][i] = random.nextInt(10) == 0
+                    ? specials[random.nextInt(specials.length)]
+                    : Double.longBitsToDouble(random.nextLong());
+        }
+        return arrays;
+    }
+
+    // The expected results are sorted by comparing boxed values, which doesn't use
+    // DualPivotQuicksort.
+
+    private static int[] sortedCopy(int[] a) {
+        Integer[] boxed = new Integer[a.length];
+        for (int i = 0; i < a.length; i++) {
+            boxed[i] = a[i];
+        }
+        Arrays.sort(boxed);
+        int[] result = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = boxed[i];
+        }
+        return result;
+    }
+
+    private static long[] sortedCopy(long[] a) {
+        Long[] boxed = new Long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            boxed[i] = a[i];
+        }
+        Arrays.sort(boxed);
+        long[] result = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = boxed[i];
+        }
+        return result;
+    }
+
+    private static float[] sortedCopy(float[] a) {
+        Float[] boxed = new Float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            boxed[i] = a[i];
+        }
+        Arrays.sort(boxed);
+        float[] result = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = boxed[i];
+        }
+        return result;
+    }
+
+    private static double[] sortedCopy(double[] a) {
+        Double[] boxed = new Double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            boxed[i] = a[i];
+        }
+        Arrays.sort(boxed);
+        double[] result = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            result[i] = boxed[i];
+        }
+        return result;
+    }
+
+    /**
+     * Asserts that the arrays are equal, telling -0.0 from 0.0 but not one NaN from another,
+     * since the order of NaNs is unspecified.
+     */
+    private static void assertFloatArraysIdentical(float[] expected, float[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("at " + i, Float.floatToIntBits(expected[i]),
+                    Float.floatToIntBits(actual[i]));
+        }
+    }
+
+    private static void assertDoubleArraysIdentical(double[] expected, double[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("at " + i, Double.doubleToLongBits(expected[i]),
+                    Double.doubleToLongBits(actual[i]));
+        }
+    }
 }
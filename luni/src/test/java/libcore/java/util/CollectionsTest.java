@@ -1352,6 +1352,11 @@ public final class CollectionsTest extends TestCase {
         ListDefaultMethodTester.test_sort(Collections.synchronizedList(new ArrayList<>()));
     }
 
+    public void test_SynchronizedList_parallelSort() {
+        ListDefaultMethodTester.test_parallelSort(
+                Collections.synchronizedList(new ArrayList<>()));
+    }
+
     public void test_CheckedList_replaceAll() {
         ListDefaultMethodTester.test_replaceAll(Collections.checkedList(new ArrayList<>(), Integer.class));
     }
@@ -1360,6 +1365,11 @@ public final class CollectionsTest extends TestCase {
         ListDefaultMethodTester.test_sort(Collections.checkedList(new ArrayList<>(), Double.class));
     }
 
+    public void test_CheckedList_parallelSort() {
+        ListDefaultMethodTester.test_parallelSort(
+                Collections.checkedList(new ArrayList<>(), Integer.class));
+    }
+
     public void test_EmptyList_replaceAll() {
         Collections.emptyList().replaceAll(k -> 1);
 
@@ -1456,6 +1466,27 @@ public final class CollectionsTest extends TestCase {
         }
     }
 
+    public void test_unmodifiableList_parallelSort() {
+        try {
+            Collections.unmodifiableList(new ArrayList<>()).parallelSort((k1, k2) -> 1);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    public void test_parallelSort() {
+        List<String> list = new ArrayList<>(Arrays.asList("c", "a", "b"));
+        Collections.parallelSort(list);
+        assertEquals(Arrays.asList("a", "b", "c"), list);
+        Collections.parallelSort(list, Collections.reverseOrder());
+        assertEquals(Arrays.asList("c", "b", "a"), list);
+
+        List<String> singleton = Collections.singletonList("a");
+        Collections.parallelSort(singleton);
+        assertEquals(Collections.singletonList("a"), singleton);
+        Collections.parallelSort(Collections.<String>emptyList());
+    }
+
     public void test_SingletonList_replaceAll() {
         try {
             Collections.singletonList(1).replaceAll(k -> 2);
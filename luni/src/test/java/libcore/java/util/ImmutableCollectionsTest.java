@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.java.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import junit.framework.TestCase;
+
+public final class ImmutableCollectionsTest extends TestCase {
+
+    public void testListOf() {
+        for (int size = 0; size < 10; size++) {
+            Integer[] elements = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                elements[i] = i * 7;
+            }
+            List<Integer> expected = new ArrayList<>(Arrays.asList(elements));
+            List<Integer> list = Collections.listOf(elements);
+            assertEquals(expected, list);
+            assertEquals(list, expected);
+            assertEquals(expected.hashCode(), list.hashCode());
+            assertEquals(expected.toString(), list.toString());
+            for (int i = 0; i < size; i++) {
+                assertEquals(elements[i], list.get(i));
+                assertTrue(list.contains(i * 7));
+            }
+            assertFalse(list.contains(-1));
+            assertFalse(list.contains(null));
+            try {
+                list.get(size);
+                fail();
+            } catch (IndexOutOfBoundsException expected2) {
+            }
+            assertUnmodifiable(list);
+            assertEquals(expected, Collections.listCopyOf(expected));
+        }
+    }
+
+    public void testListOfCopiesArray() {
+        String[] elements = { "a", "b", "c" };
+        List<String> list = Collections.listOf(elements);
+        elements[0] = "z";
+        assertEquals("a", list.get(0));
+    }
+
+    // The list must not share the array that toArray returned, which the collection may keep.
+    public void testListCopyOfCopiesToArray() {
+        final Object[] array = { "a", "b", "c" };
+        Collection<String> coll = new ArrayList<String>(Arrays.asList("a", "b", "c")) {
+            @Override public Object[] toArray() {
+                return array;
+            }
+        };
+        List<String> list = Collections.listCopyOf(coll);
+        array[0] = "z";
+        assertEquals("a", list.get(0));
+    }
+
+    // toArray must return an Object[], even if the elements came in a String[].
+    public void testListToArrayIsObjectArray() {
+        List<List<String>> lists = new ArrayList<>();
+        lists.add(Collections.listOf("a", "b", "c"));
+        lists.add(Collections.listCopyOf(Arrays.asList("a", "b", "c")));
+        for (List<String> list : lists) {
+            Object[] array = list.toArray();
+            assertSame(Object[].class, array.getClass());
+            array[0] = 1;
+        }
+    }
+
+    public void testListCopyOfImmutableListIsSame() {
+        List<String> list = Collections.listOf("a", "b", "c");
+        assertSame(list, Collections.listCopyOf(list));
+    }
+
+    public void testSetOf() {
+        for (int size = 0; size < 20; size++) {
+            String[] elements = new String[size];
+            for (int i = 0; i < size; i++) {
+                elements[i] = "e" + i;
+            }
+            Set<String> expected = new HashSet<>(Arrays.asList(elements));
+            Set<String> set = Collections.setOf(elements);
+            assertEquals(size, set.size());
+            assertEquals(expected, set);
+            assertEquals(set, expected);
+            assertEquals(expected.hashCode(), set.hashCode());
+            for (String e : elements) {
+                assertTrue(set.contains(e));
+            }
+            assertFalse(set.contains("x"));
+            assertFalse(set.contains(null));
+            assertEquals(expected, new HashSet<>(set));
+            assertExhausted(set.iterator(), size);
+            assertUnmodifiable(set);
+        }
+    }
+
+    public void testSetOfRejectsDuplicates() {
+        try {
+            Collections.setOf("a", "a");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            Collections.setOf("a", "b", "c", "b");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testSetCopyOfDropsDuplicates() {
+        assertEquals(Collections.singleton("a"), Collections.setCopyOf(Arrays.asList("a", "a")));
+        Set<String> set = Collections.setCopyOf(Arrays.asList("a", "b", "a", "c", "b"));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), set);
+        assertSame(set, Collections.setCopyOf(set));
+    }
+
+    public void testMapOf() {
+        assertEquals(Collections.emptyMap(), Collections.mapOf());
+        assertEquals(Collections.singletonMap("a", 1), Collections.mapOf("a", 1));
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("a", 1);
+        expected.put("b", 2);
+        assertEquals(expected, Collections.mapOf("a", 1, "b", 2));
+        expected.put("c", 3);
+        assertEquals(expected, Collections.mapOf("a", 1, "b", 2, "c", 3));
+        try {
+            Collections.mapOf("a", 1, "a", 2);
+            fail();
+        } catch (IllegalArgumentException expected2) {
+        }
+    }
+
+    public void testMapCopyOf() {
+        for (int size = 0; size < 20; size++) {
+            Map<String, Integer> expected = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                expected.put("k" + i, i);
+            }
+            Map<String, Integer> map = Collections.mapCopyOf(expected);
+            assertEquals(size, map.size());
+            assertEquals(expected, map);
+            assertEquals(map, expected);
+            assertEquals(expected.hashCode(), map.hashCode());
+            assertEquals(expected.keySet(), map.keySet());
+            assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+            for (int i = 0; i < size; i++) {
+                assertEquals(Integer.valueOf(i), map.get("k" + i));
+                assertTrue(map.containsKey("k" + i));
+                assertTrue(map.containsValue(i));
+            }
+            assertNull(map.get("x"));
+            assertNull(map.get(null));
+            assertFalse(map.containsKey("x"));
+            assertFalse(map.containsValue(-1));
+            assertEquals(Integer.valueOf(-1), map.getOrDefault("x", -1));
+
+            final Map<String, Integer> visited = new HashMap<>();
+            map.forEach(visited::put);
+            assertEquals(expected, visited);
+            assertExhausted(map.entrySet().iterator(), size);
+            assertUnmodifiable(map);
+            assertSame(map, Collections.mapCopyOf(map));
+        }
+    }
+
+    public void testMapCopyOfRejectsEqualKeys() {
+        Map<String, Integer> identityMap = new IdentityHashMap<>();
+        identityMap.put(new String("a"), 1);
+        identityMap.put(new String("a"), 2);
+        try {
+            Collections.mapCopyOf(identityMap);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testMapOfEntries() {
+        Map<String, Integer> map = Collections.mapOfEntries(
+                new AbstractMap.SimpleEntry<>("a", 1),
+                new AbstractMap.SimpleEntry<>("b", 2),
+                new AbstractMap.SimpleEntry<>("c", 3),
+                new AbstractMap.SimpleEntry<>("d", 4));
+        assertEquals(4, map.size());
+        assertEquals(Integer.valueOf(3), map.get("c"));
+    }
+
+    public void testNullsAreRejected() {
+        try {
+            Collections.listOf("a", null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+        try {
+            Collections.setOf("a", "b", null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+        try {
+            Collections.mapOf("a", null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+        try {
+            Collections.listCopyOf(Arrays.asList("a", "b", "c", null));
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    public void testSerialization() throws Exception {
+        List<Object> collections = new ArrayList<>();
+        collections.add(Collections.listOf());
+        collections.add(Collections.listOf("a"));
+        collections.add(Collections.listOf("a", "b"));
+        collections.add(Collections.listOf("a", "b", "c"));
+        collections.add(Collections.setOf());
+        collections.add(Collections.setOf("a"));
+        collections.add(Collections.setOf("a", "b"));
+        collections.add(Collections.setOf("a", "b", "c"));
+        collections.add(Collections.mapOf());
+        collections.add(Collections.mapOf("a", 1));
+        collections.add(Collections.mapOf("a", 1, "b", 2));
+        collections.add(Collections.mapOf("a", 1, "b", 2, "c", 3));
+        for (Object collection : collections) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(collection);
+            }
+            Object copy = new ObjectInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray())).readObject();
+            assertEquals(collection, copy);
+            assertSame(collection.getClass(), copy.getClass());
+        }
+    }
+
+    private static void assertExhausted(Iterator<?> iterator, int size) {
+        for (int i = 0; i < size; i++) {
+            iterator.next();
+        }
+        assertFalse(iterator.hasNext());
+        try {
+            iterator.next();
+            fail();
+        } catch (NoSuchElementException expected) {
+        }
+    }
+
+    private static void assertUnmodifiable(Collection<?> collection) {
+        try {
+            collection.clear();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            collection.add(null);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            collection.removeIf(e -> true);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    private static void assertUnmodifiable(Map<String, Integer> map) {
+        try {
+            map.clear();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            map.put("x", 1);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            map.remove("x");
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            map.keySet().clear();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+}
@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.lang.Iterable;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -34,6 +35,7 @@ import java.util.Set;
 import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 public class LinkedHashMapTest extends junit.framework.TestCase {
 
@@ -419,6 +421,46 @@ public class LinkedHashMapTest extends junit.framework.TestCase {
                 m.entrySet().spliterator().characteristics());
     }
 
+    public void test_spliterator_splitsInHalves() {
+        LinkedHashMap<Integer, Integer> m = new LinkedHashMap<>();
+        List<Integer> expectedKeys = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            m.put(i * 7, i);
+            expectedKeys.add(i * 7);
+        }
+        Spliterator<Integer> spliterator = m.keySet().spliterator();
+        assertTrue(spliterator.tryAdvance(key -> assertEquals(0, (int) key)));
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(50, prefix.getExactSizeIfKnown());
+        assertEquals(50, spliterator.getExactSizeIfKnown());
+        List<Integer> keys = new ArrayList<>();
+        keys.add(0);
+        prefix.forEachRemaining(keys::add);
+        spliterator.forEachRemaining(keys::add);
+        assertEquals(expectedKeys, keys);
+
+        assertEquals(expectedKeys, m.keySet().parallelStream().collect(Collectors.toList()));
+        assertEquals(new ArrayList<>(m.values()),
+                m.values().parallelStream().collect(Collectors.toList()));
+    }
+
+    public void test_LinkedHashSet_spliterator() {
+        LinkedHashSet<String> set = new LinkedHashSet<>(
+                Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j"));
+        ArrayList<String> expectedElements = new ArrayList<>(set);
+        SpliteratorTester.runBasicIterationTests(set.spliterator(), expectedElements);
+        SpliteratorTester.runBasicSplitTests(set, expectedElements);
+        SpliteratorTester.testSpliteratorNPE(set.spliterator());
+        SpliteratorTester.runOrderedTests(set);
+        SpliteratorTester.runSizedTests(set.spliterator(), 10);
+        SpliteratorTester.runSubSizedTests(set.spliterator(), 10);
+        assertEquals(
+                Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SIZED
+                        | Spliterator.SUBSIZED,
+                set.spliterator().characteristics());
+        SpliteratorTester.assertSupportsTrySplit(set);
+    }
+
     private static Map.Entry<?, ?> eldest(LinkedHashMap<?,?> map) {
         // Should be the same as: return (map.isEmpty()) ? null : map.entrySet().iterator().next();
         return map.eldest();
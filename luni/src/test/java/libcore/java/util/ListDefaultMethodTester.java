@@ -16,7 +16,10 @@
 
 package libcore.java.util;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.fail;
@@ -47,4 +50,21 @@ public class ListDefaultMethodTester {
         assertEquals(2.0, l.get(1));
         assertEquals(5.0, l.get(2));
     }
+
+    public static void test_parallelSort(List<Integer> l) {
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            l.add(random.nextInt(100000));
+        }
+        // Compares only the high digits, so that the results differ if the sort isn't stable.
+        Comparator<Integer> c = (v1, v2) -> Integer.compare(v1 / 100, v2 / 100);
+        List<Integer> expected = new ArrayList<>(l);
+        expected.sort(c);
+        l.parallelSort(c);
+        assertEquals(expected, l);
+
+        l.parallelSort(null);
+        expected.sort(null);
+        assertEquals(expected, l);
+    }
 }
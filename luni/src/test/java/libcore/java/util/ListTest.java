@@ -16,7 +16,10 @@
 
 package libcore.java.util;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 public class ListTest extends junit.framework.TestCase {
 
@@ -29,4 +32,32 @@ public class ListTest extends junit.framework.TestCase {
     public void test_sort() {
         ListDefaultMethodTester.test_sort(new LinkedList<>());
     }
+
+    // LinkedList uses the List's default methods
+    public void test_parallelSort() {
+        ListDefaultMethodTester.test_parallelSort(new LinkedList<>());
+    }
+
+    public void test_LinkedList_spliterator() {
+        LinkedList<Integer> list = new LinkedList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        ArrayList<Integer> expectedElements = new ArrayList<>(list);
+        SpliteratorTester.runBasicIterationTests(list.spliterator(), expectedElements);
+        SpliteratorTester.runBasicSplitTests(list, expectedElements);
+        SpliteratorTester.runOrderedTests(list);
+        SpliteratorTester.runSubSizedTests(list.spliterator(), 100);
+
+        // Splits take the first half of the remaining elements.
+        Spliterator<Integer> spliterator = list.spliterator();
+        assertTrue(spliterator.tryAdvance(e -> assertEquals(0, (int) e)));
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(49, prefix.getExactSizeIfKnown());
+        assertEquals(50, spliterator.getExactSizeIfKnown());
+        assertTrue(prefix.tryAdvance(e -> assertEquals(1, (int) e)));
+        assertTrue(spliterator.tryAdvance(e -> assertEquals(50, (int) e)));
+
+        assertEquals(expectedElements, list.parallelStream().collect(Collectors.toList()));
+    }
 }
@@ -32,6 +32,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.Spliterator;
 import java.util.TreeMap;
+import java.util.stream.Collectors;
 import libcore.util.SerializationTester;
 
 public class TreeMapTest extends TestCase {
@@ -745,6 +746,68 @@ public class TreeMapTest extends TestCase {
         SpliteratorTester.assertSupportsTrySplit(entries);
     }
 
+    public void test_spliterator_subMap() {
+        TreeMap<Integer, String> treeMap = new TreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            treeMap.put(i, Integer.toString(i));
+        }
+        NavigableMap<Integer, String> subMap = treeMap.subMap(10, true, 90, false);
+
+        Set<Integer> keys = subMap.keySet();
+        ArrayList<Integer> expectedKeys = new ArrayList<>(keys);
+        SpliteratorTester.runBasicIterationTests(keys.spliterator(), expectedKeys);
+        SpliteratorTester.runBasicSplitTests(keys, expectedKeys);
+        SpliteratorTester.testSpliteratorNPE(keys.spliterator());
+        assertEquals(Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SORTED,
+                keys.spliterator().characteristics());
+        SpliteratorTester.runSortedTests(keys);
+        SpliteratorTester.runOrderedTests(keys);
+        SpliteratorTester.assertSupportsTrySplit(keys);
+
+        Set<Map.Entry<Integer, String>> entries = subMap.entrySet();
+        ArrayList<Map.Entry<Integer, String>> expectedEntries = new ArrayList<>(entries);
+        SpliteratorTester.runBasicSplitTests(entries, expectedEntries,
+                (a, b) -> (a.getKey().compareTo(b.getKey())));
+        SpliteratorTester.runOrderedTests(entries);
+        SpliteratorTester.assertSupportsTrySplit(entries);
+
+        Set<Integer> descendingKeys = subMap.descendingMap().keySet();
+        ArrayList<Integer> expectedDescendingKeys = new ArrayList<>(descendingKeys);
+        SpliteratorTester.runBasicIterationTests(
+                descendingKeys.spliterator(), expectedDescendingKeys);
+        SpliteratorTester.runBasicSplitTests(descendingKeys, expectedDescendingKeys);
+        SpliteratorTester.runOrderedTests(descendingKeys);
+        SpliteratorTester.assertSupportsTrySplit(descendingKeys);
+
+        assertEquals(expectedKeys,
+                keys.parallelStream().collect(Collectors.toList()));
+        assertNull(treeMap.subMap(200, 300).keySet().spliterator().trySplit());
+    }
+
+    public void test_spliterator_splitsInRange() {
+        TreeMap<Integer, Integer> treeMap = new TreeMap<>();
+        for (int i = 0; i < 1024; i++) {
+            treeMap.put(i, i);
+        }
+        // Splits after advancing must stay within the remaining range.
+        Spliterator<Integer> spliterator = treeMap.keySet().spliterator();
+        for (int i = 0; i < 600; i++) {
+            assertTrue(spliterator.tryAdvance(key -> { }));
+        }
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        long prefixCount = count(prefix);
+        long rest = count(spliterator);
+        assertEquals(424, prefixCount + rest);
+        assertTrue(prefixCount + " / " + rest, prefixCount > 0 && rest > 0);
+    }
+
+    private static long count(Spliterator<?> spliterator) {
+        long[] count = new long[1];
+        spliterator.forEachRemaining(e -> count[0]++);
+        return count[0];
+    }
+
     public void test_replaceAll() throws Exception {
         TreeMap<String, String> map = new TreeMap<>();
         map.put("one", "1");
@@ -26,4 +26,8 @@ public class VectorTest extends junit.framework.TestCase {
     public void test_sort() {
         ListDefaultMethodTester.test_sort(new Vector<>());
     }
+
+    public void test_parallelSort() {
+        ListDefaultMethodTester.test_parallelSort(new Vector<>());
+    }
 }
\ No newline at end of file
@@ -18,11 +18,13 @@ package libcore.java.util.concurrent;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -320,6 +322,20 @@ public final class CopyOnWriteArrayListTest extends TestCase {
         assertEquals(5.0, l.get(2));
     }
 
+    public void test_parallelSort() {
+        List<Integer> expected = randomIntegers(100000);
+        List<Integer> l = new CopyOnWriteArrayList<>(expected);
+        // Compares only the high digits, so that the results differ if the sort isn't stable.
+        Comparator<Integer> c = (v1, v2) -> Integer.compare(v1 / 100, v2 / 100);
+        expected.sort(c);
+        l.parallelSort(c);
+        assertEquals(expected, l);
+
+        expected.sort(null);
+        l.parallelSort(null);
+        assertEquals(expected, l);
+    }
+
     public void test_forEach() {
         List<Double> l = new CopyOnWriteArrayList<>(new Double[] {10.0, 5.0, 2.0});
         List<Double> replica = new ArrayList<>();
@@ -404,6 +420,18 @@ public final class CopyOnWriteArrayListTest extends TestCase {
         assertEquals(12, (int)completeList.get(5));
     }
 
+    public void test_subList_parallelSort() {
+        List<Integer> expected = randomIntegers(100000);
+        CopyOnWriteArrayList<Integer> completeList = new CopyOnWriteArrayList<>(expected);
+        List<Integer> subList = completeList.subList(1000, 99000);
+        // Compares only the high digits, so that the results differ if the sort isn't stable.
+        Comparator<Integer> c = (v1, v2) -> Integer.compare(v1 / 100, v2 / 100);
+        expected.subList(1000, 99000).sort(c);
+        subList.parallelSort(c);
+        assertEquals(expected, completeList);
+        assertEquals(expected.subList(1000, 99000), subList);
+    }
+
     public void test_subList_forEach() {
         List<Double> l = new CopyOnWriteArrayList<>(new Double[]{10.0, 5.0, 2.0, -3.0, 7.0, 12.0})
                 .subList(1, 4);
@@ -425,4 +453,13 @@ public final class CopyOnWriteArrayListTest extends TestCase {
         } catch (NullPointerException expected) {
         }
     }
+
+    private static List<Integer> randomIntegers(int size) {
+        Random random = new Random(0);
+        List<Integer> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(random.nextInt(size));
+        }
+        return result;
+    }
 }
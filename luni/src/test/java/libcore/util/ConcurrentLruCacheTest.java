@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+public final class ConcurrentLruCacheTest extends TestCase {
+
+    public void testCreateOnCacheMiss() {
+        ConcurrentLruCache<String, String> cache = newCreatingCache();
+        assertEquals("created-aa", cache.get("aa"));
+        assertSnapshot(cache, "aa", "created-aa");
+        assertNull(cache.get("a"));
+        assertSnapshot(cache, "aa", "created-aa");
+    }
+
+    public void testNoCreateOnCacheHit() {
+        ConcurrentLruCache<String, String> cache = newCreatingCache();
+        cache.put("aa", "put-aa");
+        assertEquals("put-aa", cache.get("aa"));
+    }
+
+    public void testConstructorDoesNotAllowZeroCacheSize() {
+        try {
+            new ConcurrentLruCache<String, String>(0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testCannotPutNullKeyOrValue() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(3);
+        try {
+            cache.put(null, "A");
+            fail();
+        } catch (NullPointerException expected) {
+        }
+        try {
+            cache.put("a", null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    public void testPutReturnsPrevious() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(3);
+        assertNull(cache.put("a", "A"));
+        assertEquals("A", cache.put("a", "A2"));
+        assertSnapshot(cache, "a", "A2");
+    }
+
+    public void testEvictionWithSingletonCache() {
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(1);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertSnapshot(cache, "b", "B");
+    }
+
+    public void testGetMovesToHead() {
+        final List<String> evictionLog = new ArrayList<String>();
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(3) {
+            @Override protected void entryEvicted(String key, String value) {
+                evictionLog.add(key + "=" + value);
+            }
+        };
+
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        assertEquals("A", cache.get("a"));
+        cache.put("d", "D");
+        assertEquals(Arrays.asList("b=B"), evictionLog);
+        assertSnapshot(cache, "c", "C", "a", "A", "d", "D");
+    }
+
+    /**
+     * Replacing the value for a key doesn't cause an eviction but it does bring
+     * the replaced entry to the front of the queue.
+     */
+    public void testPutDoesNotCauseEviction() {
+        final List<String> evictionLog = new ArrayList<String>();
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(3) {
+            @Override protected void entryEvicted(String key, String value) {
+                evictionLog.add(key + "=" + value);
+            }
+        };
+
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        cache.put("b", "B2");
+        assertEquals(Collections.emptyList(), evictionLog);
+        assertSnapshot(cache, "a", "A", "c", "C", "b", "B2");
+    }
+
+    public void testEvictAll() {
+        final List<String> evictionLog = new ArrayList<String>();
+        ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<String, String>(10) {
+            @Override protected void entryEvicted(String key, String value) {
+                evictionLog.add(key + "=" + value);
+            }
+        };
+
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.put("c", "C");
+        cache.evictAll();
+        assertSnapshot(cache);
+        assertEquals(Arrays.asList("a=A", "b=B", "c=C"), evictionLog);
+        assertEquals(3, cache.evictionCount());
+    }
+
+    public void testStatistics() {
+        ConcurrentLruCache<String, String> cache = newCreatingCache();
+        cache.get("aa");
+        cache.get("aa");
+        cache.get("bb");
+        cache.get("cc");
+        cache.get("dd");
+        assertEquals(1, cache.hitCount());
+        assertEquals(4, cache.missCount());
+        assertEquals(1, cache.evictionCount());
+        assertEquals("ConcurrentLruCache[maxSize=3,hits=1,misses=4,evictions=1,hitRate=20%]",
+                cache.toString());
+    }
+
+    public void testConcurrentAccess() throws Exception {
+        final int maxSize = 16;
+        final AtomicInteger evictions = new AtomicInteger();
+        final ConcurrentLruCache<Integer, Integer> cache =
+                new ConcurrentLruCache<Integer, Integer>(maxSize) {
+            @Override protected Integer create(Integer key) {
+                return key * 2;
+            }
+
+            @Override protected void entryEvicted(Integer key, Integer value) {
+                evictions.incrementAndGet();
+            }
+        };
+        final AtomicInteger wrongValues = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    int key = (i * 7 + offset) % 40;
+                    if (cache.get(key) != key * 2) {
+                        wrongValues.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, wrongValues.get());
+        Map<Integer, Integer> snapshot = cache.snapshot();
+        assertTrue(snapshot.size() <= maxSize);
+        assertEquals(8 * 20000, cache.hitCount() + cache.missCount());
+        assertEquals(evictions.get(), cache.evictionCount());
+        // Every miss put an entry, and every entry is either still cached, evicted or replaced
+        // by a racing miss for the same key.
+        assertTrue(cache.missCount() >= snapshot.size() + cache.evictionCount());
+    }
+
+    private ConcurrentLruCache<String, String> newCreatingCache() {
+        return new ConcurrentLruCache<String, String>(3) {
+            @Override protected String create(String key) {
+                return (key.length() > 1) ? ("created-" + key) : null;
+            }
+        };
+    }
+
+    private <T> void assertSnapshot(ConcurrentLruCache<T, T> cache, T... keysAndValues) {
+        List<T> actualKeysAndValues = new ArrayList<T>();
+        for (Map.Entry<T, T> entry : cache.snapshot().entrySet()) {
+            actualKeysAndValues.add(entry.getKey());
+            actualKeysAndValues.add(entry.getValue());
+        }
+
+        // assert using lists because order is important for LRUs
+        assertEquals(Arrays.asList(keysAndValues), actualKeysAndValues);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.TestCase;
+
+public final class ConcurrentReferenceKeyMapTest extends TestCase {
+
+    public void testPutGetRemove() {
+        ConcurrentReferenceKeyMap<Object, String> map = new ConcurrentReferenceKeyMap<>();
+        Object a = new Object();
+        Object b = new Object();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(a, "a"));
+        assertNull(map.put(b, "b"));
+        assertEquals("a", map.put(a, "A"));
+        assertEquals("A", map.get(a));
+        assertEquals("b", map.get(b));
+        assertTrue(map.containsKey(a));
+        assertEquals(2, map.size());
+
+        assertEquals("A", map.remove(a));
+        assertNull(map.get(a));
+        assertFalse(map.containsKey(a));
+        assertNull(map.remove(a));
+        assertEquals(1, map.size());
+
+        map.clear();
+        assertNull(map.get(b));
+        assertTrue(map.isEmpty());
+    }
+
+    public void testPutIfAbsent() {
+        ConcurrentReferenceKeyMap<Object, String> map = new ConcurrentReferenceKeyMap<>();
+        Object a = new Object();
+        assertNull(map.putIfAbsent(a, "a"));
+        assertEquals("a", map.putIfAbsent(a, "A"));
+        assertEquals("a", map.get(a));
+    }
+
+    public void testRemoveValue() {
+        ConcurrentReferenceKeyMap<Object, String> map = new ConcurrentReferenceKeyMap<>();
+        Object a = new Object();
+        map.put(a, "a");
+        assertFalse(map.remove(a, "b"));
+        assertEquals("a", map.get(a));
+        assertTrue(map.remove(a, "a"));
+        assertNull(map.get(a));
+    }
+
+    public void testKeysAreComparedByIdentity() {
+        ConcurrentReferenceKeyMap<String, String> map = new ConcurrentReferenceKeyMap<>();
+        String key = new String("key");
+        map.put(key, "value");
+        assertEquals("value", map.get(key));
+        assertNull(map.get(new String("key")));
+    }
+
+    public void testNullsAreRejected() {
+        ConcurrentReferenceKeyMap<Object, String> map = new ConcurrentReferenceKeyMap<>();
+        try {
+            map.get(null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+        try {
+            map.put(null, "a");
+            fail();
+        } catch (NullPointerException expected) {
+        }
+        try {
+            map.put(new Object(), null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    public void testManyKeys() {
+        for (ConcurrentReferenceKeyMap.Strength strength
+                : ConcurrentReferenceKeyMap.Strength.values()) {
+            ConcurrentReferenceKeyMap<Object, Integer> map =
+                    new ConcurrentReferenceKeyMap<>(strength);
+            List<Object> keys = new ArrayList<>();
+            for (int i = 0; i < 10000; i++) {
+                Object key = new Object();
+                keys.add(key);
+                map.put(key, i);
+            }
+            assertEquals(10000, map.size());
+            for (int i = 0; i < keys.size(); i++) {
+                assertEquals(Integer.valueOf(i), map.get(keys.get(i)));
+            }
+            for (int i = 0; i < keys.size(); i += 2) {
+                assertEquals(Integer.valueOf(i), map.remove(keys.get(i)));
+            }
+            assertEquals(5000, map.size());
+            for (int i = 0; i < keys.size(); i++) {
+                assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), map.get(keys.get(i)));
+            }
+        }
+    }
+
+    public void testCollectedKeysAreExpunged() throws Exception {
+        final List<String> expunged = new ArrayList<>();
+        ConcurrentReferenceKeyMap<Object, String> map =
+                new ConcurrentReferenceKeyMap<Object, String>() {
+                    @Override protected void entryExpunged(String value) {
+                        expunged.add(value);
+                    }
+                };
+        Object kept = new Object();
+        map.put(kept, "kept");
+        for (int i = 0; i < 100; i++) {
+            map.put(new Object(), "collected");
+        }
+
+        for (int i = 0; i < 100 && map.size() > 1; i++) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            Thread.sleep(10);
+        }
+        assertEquals(1, map.size());
+        assertEquals("kept", map.get(kept));
+        assertEquals(100, expunged.size());
+        for (String value : expunged) {
+            assertEquals("collected", value);
+        }
+    }
+
+    public void testRemovedKeysAreNotExpunged() throws Exception {
+        final List<String> expunged = new ArrayList<>();
+        ConcurrentReferenceKeyMap<Object, String> map =
+                new ConcurrentReferenceKeyMap<Object, String>() {
+                    @Override protected void entryExpunged(String value) {
+                        expunged.add(value);
+                    }
+                };
+        Object key = new Object();
+        map.put(key, "removed");
+        map.remove(key);
+        key = null;
+
+        Runtime.getRuntime().gc();
+        System.runFinalization();
+        map.expungeStaleEntries();
+        assertTrue(expunged.isEmpty());
+    }
+
+    public void testConcurrentPutIfAbsent() throws Exception {
+        final ConcurrentReferenceKeyMap<Object, Integer> map = new ConcurrentReferenceKeyMap<>();
+        final Object[] keys = new Object[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Object();
+        }
+        final int threadCount = 4;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int id = t;
+            threads[t] = new Thread() {
+                @Override public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < keys.length; i++) {
+                            Object key = keys[(i * (id + 1)) % keys.length];
+                            Integer value = map.get(key);
+                            if (value == null) {
+                                map.putIfAbsent(key, id);
+                            } else if (value < 0 || value >= threadCount) {
+                                throw new AssertionError("Unexpected value " + value);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        for (Object key : keys) {
+            assertNotNull(map.get(key));
+        }
+        assertEquals(keys.length, map.size());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import junit.framework.TestCase;
+
+public final class FrequencySketchTest extends TestCase {
+
+    public void testEmpty() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.increment("a");
+        assertEquals(0, sketch.frequency("a"));
+    }
+
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(64);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(1);
+        }
+        sketch.increment(2);
+        assertTrue(sketch.frequency(1) >= 5);
+        assertTrue(sketch.frequency(2) >= 1);
+        assertTrue(sketch.frequency(1) > sketch.frequency(2));
+    }
+
+    public void testSaturates() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(64);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("a");
+        }
+        assertEquals(15, sketch.frequency("a"));
+    }
+
+    public void testReset() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(64);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("hot");
+        }
+        // Enough other increments to halve all counters at least once.
+        for (int i = 0; i < 64 * 10; i++) {
+            sketch.increment(i);
+        }
+        assertTrue(sketch.frequency("hot") < 10);
+    }
+
+    public void testGrowingKeepsFrequencies() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(64);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("a");
+        }
+        sketch.ensureCapacity(1024);
+        assertTrue(sketch.frequency("a") >= 5);
+        sketch.increment("a");
+        assertTrue(sketch.frequency("a") >= 6);
+    }
+}
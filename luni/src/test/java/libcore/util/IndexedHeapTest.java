@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package libcore.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public final class IndexedHeapTest extends TestCase {
+
+    public void testAddPoll() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        assertNull(heap.peek());
+        assertNull(heap.poll());
+        heap.add(3);
+        heap.add(1);
+        heap.add(2);
+        assertEquals(3, heap.size());
+        assertEquals(1, (int) heap.peek());
+        assertEquals(1, (int) heap.poll());
+        assertEquals(2, (int) heap.poll());
+        assertEquals(3, (int) heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    public void testComparator() {
+        IndexedHeap<String> heap = new IndexedHeap<>(Comparator.reverseOrder());
+        heap.add("a");
+        heap.add("c");
+        heap.add("b");
+        assertEquals("c", heap.poll());
+        assertEquals("b", heap.poll());
+        assertEquals("a", heap.poll());
+    }
+
+    public void testUpdate() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        IndexedHeap.Handle<Integer> ten = heap.add(10);
+        IndexedHeap.Handle<Integer> twenty = heap.add(20);
+        heap.add(15);
+        heap.update(twenty, 5);
+        assertSame(twenty, heap.peekHandle());
+        heap.update(twenty, 30);
+        assertSame(ten, heap.peekHandle());
+        assertEquals(30, (int) twenty.get());
+    }
+
+    public void testRemove() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        IndexedHeap.Handle<Integer> one = heap.add(1);
+        heap.add(2);
+        assertTrue(heap.remove(one));
+        assertFalse(one.isQueued());
+        assertFalse(heap.contains(one));
+        assertFalse(heap.remove(one));
+        assertEquals(1, heap.size());
+        assertEquals(2, (int) heap.poll());
+    }
+
+    public void testHandleOfOtherHeap() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        IndexedHeap<Integer> other = new IndexedHeap<>();
+        heap.add(1);
+        IndexedHeap.Handle<Integer> handle = other.add(1);
+        assertFalse(heap.contains(handle));
+        assertFalse(heap.remove(handle));
+        try {
+            heap.update(handle, 2);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testNullElement() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        try {
+            heap.add(null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    public void testClear() {
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        IndexedHeap.Handle<Integer> handle = heap.add(1);
+        heap.add(2);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(handle.isQueued());
+        assertNull(heap.poll());
+    }
+
+    public void testAgainstPriorityQueue() {
+        Random random = new Random(0);
+        IndexedHeap<Integer> heap = new IndexedHeap<>();
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        List<IndexedHeap.Handle<Integer>> handles = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 || handles.isEmpty()) {
+                int value = random.nextInt(1000);
+                handles.add(heap.add(value));
+                expected.add(value);
+            } else if (operation == 1) {
+                IndexedHeap.Handle<Integer> handle = handles.remove(random.nextInt(handles.size()));
+                int value = random.nextInt(1000);
+                expected.remove(handle.get());
+                expected.add(value);
+                heap.update(handle, value);
+                handles.add(handle);
+            } else if (operation == 2) {
+                IndexedHeap.Handle<Integer> handle = handles.remove(random.nextInt(handles.size()));
+                assertTrue(heap.remove(handle));
+                expected.remove(handle.get());
+            } else {
+                IndexedHeap.Handle<Integer> least = heap.peekHandle();
+                assertEquals(expected.poll(), heap.poll());
+                handles.remove(least);
+            }
+            assertEquals(expected.size(), heap.size());
+            assertEquals(expected.peek(), heap.peek());
+        }
+    }
+}
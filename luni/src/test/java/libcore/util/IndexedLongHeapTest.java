@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package libcore.util;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+import junit.framework.TestCase;
+
+public final class IndexedLongHeapTest extends TestCase {
+
+    public void testSetPoll() {
+        IndexedLongHeap heap = new IndexedLongHeap();
+        assertEquals(-1, heap.peek());
+        assertEquals(-1, heap.poll());
+        heap.set(7, 300L);
+        heap.set(8, 100L);
+        heap.set(9, 200L);
+        assertEquals(3, heap.size());
+        assertEquals(8, heap.peek());
+        assertEquals(100L, heap.peekPriority());
+        assertEquals(8, heap.poll());
+        assertEquals(9, heap.poll());
+        assertEquals(7, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    public void testChangePriority() {
+        IndexedLongHeap heap = new IndexedLongHeap();
+        heap.set(1, 10L);
+        heap.set(2, 20L);
+        heap.set(3, 30L);
+        heap.set(3, 5L);
+        assertEquals(3, heap.peek());
+        heap.set(3, Long.MAX_VALUE);
+        assertEquals(1, heap.peek());
+        assertEquals(Long.MAX_VALUE, heap.getPriority(3, -1L));
+        assertEquals(3, heap.size());
+    }
+
+    public void testRemove() {
+        IndexedLongHeap heap = new IndexedLongHeap();
+        heap.set(1, 10L);
+        heap.set(2, 20L);
+        assertTrue(heap.remove(1));
+        assertFalse(heap.contains(1));
+        assertFalse(heap.remove(1));
+        assertFalse(heap.remove(1000));
+        assertEquals(-1L, heap.getPriority(1, -1L));
+        assertEquals(2, heap.poll());
+    }
+
+    public void testGrowsForLargeIds() {
+        IndexedLongHeap heap = new IndexedLongHeap(0);
+        heap.set(1000, 1L);
+        heap.set(0, 2L);
+        assertTrue(heap.contains(1000));
+        assertFalse(heap.contains(999));
+        assertEquals(1000, heap.poll());
+    }
+
+    public void testNegativeId() {
+        IndexedLongHeap heap = new IndexedLongHeap();
+        try {
+            heap.set(-1, 0L);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertFalse(heap.contains(-1));
+    }
+
+    public void testPeekPriorityEmpty() {
+        IndexedLongHeap heap = new IndexedLongHeap();
+        try {
+            heap.peekPriority();
+            fail();
+        } catch (NoSuchElementException expected) {
+        }
+    }
+
+    public void testClear() {
+        IndexedLongHeap heap = new IndexedLongHeap();
+        heap.set(1, 1L);
+        heap.set(2, 2L);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(1));
+        heap.set(2, 5L);
+        assertEquals(2, heap.poll());
+    }
+
+    public void testAgainstTreeSet() {
+        Random random = new Random(0);
+        IndexedLongHeap heap = new IndexedLongHeap();
+        long[] priorities = new long[500];
+        // Ordered by priority, then id, so that it has one entry per queued id.
+        TreeSet<long[]> expected = new TreeSet<>((a, b) -> a[0] != b[0]
+                ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(priorities.length);
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                long priority = random.nextInt(100);
+                if (heap.contains(id)) {
+                    expected.remove(new long[] { priorities[id], id });
+                }
+                heap.set(id, priority);
+                priorities[id] = priority;
+                expected.add(new long[] { priority, id });
+            } else if (operation == 1) {
+                boolean queued = expected.remove(new long[] { priorities[id], id });
+                assertEquals(queued, heap.remove(id));
+            } else if (!expected.isEmpty()) {
+                long leastPriority = expected.first()[0];
+                assertEquals(leastPriority, heap.peekPriority());
+                int polled = heap.poll();
+                assertEquals(leastPriority, priorities[polled]);
+                assertTrue(expected.remove(new long[] { leastPriority, polled }));
+            }
+            assertEquals(expected.size(), heap.size());
+        }
+    }
+}
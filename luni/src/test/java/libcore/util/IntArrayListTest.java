@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+public final class IntArrayListTest extends TestCase {
+
+    public void testAddGetSet() {
+        IntArrayList list = new IntArrayList();
+        assertTrue(list.isEmpty());
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        assertEquals(100, list.size());
+        assertEquals(42, list.get(42));
+        assertEquals(42, list.set(42, -1));
+        assertEquals(-1, list.get(42));
+        assertEquals(42, list.indexOf(-1));
+        assertTrue(list.contains(99));
+        assertFalse(list.contains(100));
+    }
+
+    public void testAddAllRemoveAt() {
+        IntArrayList list = new IntArrayList(1);
+        list.addAll(new int[] { 1, 2, 3, 4 });
+        assertEquals(2, list.removeAt(1));
+        assertTrue(Arrays.equals(new int[] { 1, 3, 4 }, list.toArray()));
+        assertEquals("[1, 3, 4]", list.toString());
+        list.clear();
+        assertEquals(0, list.toArray().length);
+        assertEquals("[]", list.toString());
+    }
+
+    public void testOutOfBounds() {
+        IntArrayList list = new IntArrayList();
+        list.add(1);
+        try {
+            list.get(1);
+            fail();
+        } catch (ArrayIndexOutOfBoundsException expected) {
+        }
+        try {
+            list.removeAt(-1);
+            fail();
+        } catch (ArrayIndexOutOfBoundsException expected) {
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+public final class IntHashSetTest extends TestCase {
+
+    public void testAddContainsRemove() {
+        IntHashSet set = new IntHashSet();
+        assertTrue(set.add(0));
+        assertTrue(set.add(7));
+        assertFalse(set.add(7));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(7));
+        assertFalse(set.contains(8));
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertFalse(set.contains(0));
+        assertEquals(1, set.size());
+    }
+
+    public void testToArrayAndClear() {
+        IntHashSet set = new IntHashSet(4);
+        for (int i = 0; i < 1000; i += 3) {
+            set.add(i);
+        }
+        int[] values = set.toArray();
+        Arrays.sort(values);
+        assertEquals(334, values.length);
+        assertEquals(0, values[0]);
+        assertEquals(999, values[333]);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(3));
+    }
+}
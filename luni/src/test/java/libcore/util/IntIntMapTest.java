@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+public final class IntIntMapTest extends TestCase {
+
+    public void testPutGetRemove() {
+        IntIntMap map = new IntIntMap();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(5, -1));
+
+        map.put(5, 50);
+        map.put(6, 60);
+        assertEquals(2, map.size());
+        assertEquals(50, map.get(5, -1));
+        assertEquals(60, map.get(6, -1));
+        assertTrue(map.containsKey(5));
+        assertFalse(map.containsKey(7));
+
+        map.put(5, 55);
+        assertEquals(2, map.size());
+        assertEquals(55, map.get(5, -1));
+
+        assertTrue(map.remove(5));
+        assertFalse(map.remove(5));
+        assertEquals(1, map.size());
+        assertEquals(-1, map.get(5, -1));
+    }
+
+    public void testZeroKey() {
+        IntIntMap map = new IntIntMap();
+        assertFalse(map.containsKey(0));
+        assertEquals(-1, map.get(0, -1));
+        map.put(0, 0);
+        assertTrue(map.containsKey(0));
+        assertEquals(0, map.get(0, -1));
+        assertEquals(1, map.size());
+        assertEquals("{0=0}", map.toString());
+        assertTrue(map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertTrue(map.isEmpty());
+    }
+
+    public void testClearAndKeys() {
+        IntIntMap map = new IntIntMap(2);
+        for (int i = -100; i <= 100; i++) {
+            map.put(i, i * 2);
+        }
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        assertEquals(201, keys.length);
+        assertEquals(-100, keys[0]);
+        assertEquals(100, keys[200]);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.keys().length);
+        assertEquals(-1, map.get(50, -1));
+    }
+
+    public void testNegativeExpectedSize() {
+        try {
+            new IntIntMap(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testMatchesHashMap() {
+        Random random = new Random(42);
+        IntIntMap map = new IntIntMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        // A small key range makes removes collide with live probe sequences.
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(512) - 256;
+            if (random.nextBoolean()) {
+                int value = random.nextInt();
+                map.put(key, value);
+                expected.put(key, value);
+            } else {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -256; key < 256; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value != null, map.containsKey(key));
+            if (value != null) {
+                assertEquals(value.intValue(), map.get(key, 0));
+            }
+        }
+    }
+}
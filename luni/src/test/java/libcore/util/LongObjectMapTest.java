@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import junit.framework.TestCase;
+
+public final class LongObjectMapTest extends TestCase {
+
+    public void testPutGetRemove() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        long big = 1L << 40;
+        assertNull(map.put(big, "big"));
+        assertNull(map.put(big + 1, "big+1"));
+        // Keys that only differ in their high bits must not collide.
+        assertNull(map.put(0x1_0000_0005L, "high"));
+        assertNull(map.put(5L, "low"));
+        assertEquals(4, map.size());
+        assertEquals("big", map.get(big));
+        assertEquals("high", map.get(0x1_0000_0005L));
+        assertEquals("low", map.get(5L));
+        assertEquals("high", map.remove(0x1_0000_0005L));
+        assertNull(map.get(0x1_0000_0005L));
+        assertEquals("low", map.get(5L));
+    }
+
+    public void testZeroKeyAndGrowth() {
+        LongObjectMap<Long> map = new LongObjectMap<>(1);
+        for (long i = 0; i < 10000; i++) {
+            map.put(i * 0x1_0000_0001L, i);
+        }
+        assertEquals(10000, map.size());
+        for (long i = 0; i < 10000; i++) {
+            assertEquals(Long.valueOf(i), map.get(i * 0x1_0000_0001L));
+        }
+        assertEquals(Long.valueOf(0), map.remove(0));
+        assertEquals(9999, map.size());
+    }
+}
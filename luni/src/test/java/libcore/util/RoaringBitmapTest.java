@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import junit.framework.TestCase;
+import libcore.io.IoUtils;
+import libcore.io.MemoryMappedFile;
+
+public final class RoaringBitmapTest extends TestCase {
+
+    public void testAddContainsRemove() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        assertTrue(bitmap.isEmpty());
+        bitmap.add(1);
+        bitmap.add(1 << 20);
+        bitmap.add(Integer.MAX_VALUE);
+        bitmap.add(1);
+        assertEquals(3, bitmap.cardinality());
+        assertTrue(bitmap.contains(1));
+        assertTrue(bitmap.contains(1 << 20));
+        assertTrue(bitmap.contains(Integer.MAX_VALUE));
+        assertFalse(bitmap.contains(2));
+        assertFalse(bitmap.contains(-1));
+        bitmap.remove(1 << 20);
+        bitmap.remove(12345);
+        assertFalse(bitmap.contains(1 << 20));
+        assertEquals("{1, 2147483647}", bitmap.toString());
+    }
+
+    public void testNegativeValue() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        try {
+            bitmap.add(-1);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            bitmap.add(5, 4);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    public void testArrayBecomesBitmapAndBack() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 10000; i += 2) {
+            bitmap.add(i);
+        }
+        assertEquals(5000, bitmap.cardinality());
+        for (int i = 0; i < 10000; i += 4) {
+            bitmap.remove(i);
+        }
+        assertEquals(2500, bitmap.cardinality());
+        assertTrue(bitmap.contains(2));
+        assertFalse(bitmap.contains(4));
+        assertEquals(6, bitmap.nextSetBit(3));
+    }
+
+    public void testAddRange() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(100, 300000);
+        bitmap.add(5);
+        assertEquals(300000 - 100 + 1, bitmap.cardinality());
+        assertTrue(bitmap.contains(100));
+        assertTrue(bitmap.contains(299999));
+        assertFalse(bitmap.contains(300000));
+        assertEquals(100, bitmap.nextSetBit(6));
+        assertEquals(-1, bitmap.nextSetBit(300000));
+    }
+
+    public void testAddRangeOfAllValues() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(0, Integer.MAX_VALUE);
+        bitmap.add(Integer.MAX_VALUE);
+        assertEquals(1L << 31, bitmap.cardinality());
+    }
+
+    public void testSetOperations() {
+        Random random = new Random(0);
+        for (int i = 0; i < 20; i++) {
+            BitSet expectedA = new BitSet();
+            BitSet expectedB = new BitSet();
+            RoaringBitmap a = randomBitmap(random, expectedA);
+            RoaringBitmap b = randomBitmap(random, expectedB);
+
+            BitSet expected = (BitSet) expectedA.clone();
+            expected.and(expectedB);
+            assertEquals(expected.cardinality(), a.andCardinality(b));
+            RoaringBitmap result = copy(a);
+            result.and(b);
+            assertBitmap(expected, result);
+
+            expected = (BitSet) expectedA.clone();
+            expected.or(expectedB);
+            result = copy(a);
+            result.or(b);
+            assertBitmap(expected, result);
+
+            expected = (BitSet) expectedA.clone();
+            expected.xor(expectedB);
+            result = copy(a);
+            result.xor(b);
+            assertBitmap(expected, result);
+
+            expected = (BitSet) expectedA.clone();
+            expected.andNot(expectedB);
+            result = copy(a);
+            result.andNot(b);
+            assertBitmap(expected, result);
+
+            // The operands must be unchanged.
+            assertBitmap(expectedA, a);
+            assertBitmap(expectedB, b);
+        }
+    }
+
+    public void testRunOptimize() {
+        Random random = new Random(0);
+        BitSet expected = new BitSet();
+        RoaringBitmap bitmap = randomBitmap(random, expected);
+        int serializedLength = bitmap.toByteArray().length;
+        bitmap.runOptimize();
+        assertTrue(bitmap.toByteArray().length <= serializedLength);
+        assertBitmap(expected, bitmap);
+        // Run containers turn back into arrays or bitmaps when they change.
+        bitmap.add(1 << 22);
+        bitmap.remove(expected.nextSetBit(0));
+        expected.set(1 << 22);
+        expected.clear(expected.nextSetBit(0));
+        assertBitmap(expected, bitmap);
+    }
+
+    public void testEqualsIgnoresContainerTypes() {
+        RoaringBitmap runs = new RoaringBitmap();
+        runs.add(0, 10000);
+        RoaringBitmap bits = new RoaringBitmap();
+        for (int i = 0; i < 10000; i++) {
+            bits.add(i);
+        }
+        assertEquals(runs, bits);
+        assertEquals(runs.hashCode(), bits.hashCode());
+        bits.remove(5);
+        assertFalse(runs.equals(bits));
+    }
+
+    public void testStream() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(70000);
+        bitmap.add(3);
+        bitmap.add(65535, 65538);
+        assertTrue(Arrays.equals(new int[] { 3, 65535, 65536, 65537, 70000 },
+                bitmap.stream().toArray()));
+        assertEquals(5, bitmap.stream().count());
+        assertEquals(0, new RoaringBitmap().stream().count());
+    }
+
+    public void testReadFromMemoryMappedFile() throws Exception {
+        Random random = new Random(0);
+        BitSet expected = new BitSet();
+        RoaringBitmap bitmap = randomBitmap(random, expected);
+        bitmap.runOptimize();
+        File file = new File(IoUtils.createTemporaryDirectory("RoaringBitmapTest"), "bitmap");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bitmap.toByteArray());
+        }
+        try (MemoryMappedFile mappedFile = MemoryMappedFile.mmapRO(file.getPath())) {
+            RoaringBitmap read = RoaringBitmap.read(mappedFile.littleEndianIterator());
+            assertEquals(bitmap, read);
+            assertBitmap(expected, read);
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testReadInvalid() throws Exception {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(1);
+        File file = new File(IoUtils.createTemporaryDirectory("RoaringBitmapTest"), "bitmap");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bitmap.toByteArray());
+        }
+        try (MemoryMappedFile mappedFile = MemoryMappedFile.mmapRO(file.getPath())) {
+            RoaringBitmap.read(mappedFile.bigEndianIterator());
+            fail();
+        } catch (IllegalArgumentException expected) {
+        } finally {
+            file.delete();
+        }
+    }
+
+    /** Returns a bitmap of random sparse values, dense values and ranges, and sets expected. */
+    private static RoaringBitmap randomBitmap(Random random, BitSet expected) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(1 << 20);
+            int operation = random.nextInt(10);
+            if (operation < 6) {
+                bitmap.add(value);
+                expected.set(value);
+            } else if (operation < 9) {
+                // Clustered values, so that some containers become bitmaps.
+                for (int j = 0; j < 100; j++) {
+                    bitmap.add(value + j * 3);
+                    expected.set(value + j * 3);
+                }
+            } else {
+                int to = value + random.nextInt(100000);
+                bitmap.add(value, to);
+                expected.set(value, to);
+            }
+        }
+        return bitmap;
+    }
+
+    private static RoaringBitmap copy(RoaringBitmap bitmap) {
+        RoaringBitmap copy = new RoaringBitmap();
+        copy.or(bitmap);
+        return copy;
+    }
+
+    private static void assertBitmap(BitSet expected, RoaringBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertTrue(Arrays.equals(expected.stream().toArray(), actual.stream().toArray()));
+        for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1)) {
+            assertTrue(actual.contains(i));
+        }
+        assertEquals(expected.nextSetBit(12345), actual.nextSetBit(12345));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+
+public final class TinyLfuCacheTest extends TestCase {
+
+    public void testCreateOnCacheMiss() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(10) {
+            @Override protected String create(String key) {
+                return (key.length() > 1) ? ("created-" + key) : null;
+            }
+        };
+        assertEquals("created-aa", cache.get("aa"));
+        assertEquals("created-aa", cache.get("aa"));
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(1, cache.size());
+    }
+
+    public void testConstructorArguments() {
+        try {
+            new TinyLfuCache<String, String>(0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new TinyLfuCache<String, String>(10, -1, TimeUnit.SECONDS);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testCannotPutNullKeyOrValue() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(10);
+        try {
+            cache.put(null, "A");
+            fail();
+        } catch (NullPointerException expected) {
+        }
+        try {
+            cache.put("a", null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    public void testPutReplacesAndRemove() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(10);
+        assertNull(cache.put("a", "A"));
+        assertEquals("A", cache.put("a", "A2"));
+        assertEquals("A2", cache.get("a"));
+        assertEquals("A2", cache.remove("a"));
+        assertNull(cache.remove("a"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.evictionCount());
+    }
+
+    public void testWeightBound() {
+        final List<String> evictionLog = new ArrayList<String>();
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(100) {
+            @Override protected int weigh(String key, String value) {
+                return value.length();
+            }
+
+            @Override protected void entryEvicted(String key, String value) {
+                evictionLog.add(key);
+            }
+        };
+        for (int i = 0; i < 50; i++) {
+            cache.put("key" + i, "0123456789");
+            assertTrue(cache.weight() <= 100);
+        }
+        assertTrue(cache.size() <= 10);
+        assertEquals(50 - cache.size(), evictionLog.size());
+        assertEquals(evictionLog.size(), cache.evictionCount());
+
+        // An entry heavier than the whole cache isn't cached.
+        char[] big = new char[101];
+        Arrays.fill(big, 'x');
+        cache.put("big", new String(big));
+        assertFalse(cache.snapshot().containsKey("big"));
+        assertEquals("big", evictionLog.get(evictionLog.size() - 1));
+    }
+
+    public void testRejectedCandidateEvictsNoVictims() {
+        final List<String> evictionLog = new ArrayList<String>();
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(3) {
+            @Override protected int weigh(String key, String value) {
+                return value.length();
+            }
+
+            @Override protected void entryEvicted(String key, String value) {
+                evictionLog.add(key);
+            }
+        };
+        // The window holds a weight of 1, so "a" and "b" move to the main space and "x" stays.
+        cache.put("a", "a");
+        cache.put("b", "b");
+        cache.put("x", "x");
+        for (int i = 0; i < 5; i++) {
+            cache.get("b");
+        }
+        cache.get("c");
+        cache.get("c");
+
+        // "c" needs the room of both "a" and "b". It is used more often than "a", but less
+        // often than "b", so it is rejected and both stay.
+        cache.put("c", "ccc");
+        assertEquals(Arrays.asList("x", "c"), evictionLog);
+        assertTrue(cache.snapshot().containsKey("a"));
+        assertTrue(cache.snapshot().containsKey("b"));
+        assertEquals(2, cache.weight());
+    }
+
+    public void testUsesBeforeFirstPutAreCounted() {
+        final List<String> evictionLog = new ArrayList<String>();
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(3) {
+            @Override protected void entryEvicted(String key, String value) {
+                evictionLog.add(key);
+            }
+        };
+        // Uses of "a" before anything was put.
+        for (int i = 0; i < 3; i++) {
+            cache.get("a");
+        }
+        // "b" and "c" fill the main space. "d", put once like them, can't replace "b".
+        cache.put("b", "B");
+        cache.put("c", "C");
+        cache.put("d", "D");
+        cache.put("a", "A");
+        assertEquals(Arrays.asList("d"), evictionLog);
+
+        // "a" has been used more often than "b", so it replaces it.
+        cache.put("e", "E");
+        assertEquals(Arrays.asList("d", "b"), evictionLog);
+        assertTrue(cache.snapshot().containsKey("a"));
+    }
+
+    public void testPutCountsUse() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(3);
+        cache.put("b", "B");
+        cache.put("c", "C");
+        cache.put("d", "D");
+        // "a" has been put more often than "b", which is the least recently used in the main
+        // space, so it replaces it when it leaves the window.
+        cache.put("a", "A");
+        cache.put("a", "A");
+        cache.put("e", "E");
+        assertTrue(cache.snapshot().containsKey("a"));
+        assertFalse(cache.snapshot().containsKey("b"));
+    }
+
+    public void testScanDoesNotFlushFrequentKeys() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<Integer, Integer>(100) {
+            @Override protected Integer create(Integer key) {
+                return key;
+            }
+        };
+        // Each round uses keys 0 to 49, then scans 200 keys that are used only once. Each round
+        // uses more keys than fit, so an LRU cache would never hit.
+        int nextScanKey = 1000;
+        for (int round = 0; round < 50; round++) {
+            for (int key = 0; key < 50; key++) {
+                cache.get(key);
+            }
+            for (int i = 0; i < 200; i++) {
+                cache.get(nextScanKey++);
+            }
+        }
+        int cached = 0;
+        for (int key = 0; key < 50; key++) {
+            if (cache.snapshot().containsKey(key)) {
+                cached++;
+            }
+        }
+        assertTrue("cached=" + cached, cached >= 45);
+    }
+
+    public void testExpireAfterWrite() {
+        final long[] now = { 0 };
+        final List<String> evictionLog = new ArrayList<String>();
+        TinyLfuCache<String, String> cache =
+                new TinyLfuCache<String, String>(10, 5, TimeUnit.SECONDS) {
+            @Override long nanoTime() {
+                return now[0];
+            }
+
+            @Override protected void entryEvicted(String key, String value) {
+                evictionLog.add(key);
+            }
+        };
+        cache.put("a", "A");
+        now[0] = TimeUnit.SECONDS.toNanos(4);
+        assertEquals("A", cache.get("a"));
+        now[0] = TimeUnit.SECONDS.toNanos(5);
+        assertNull(cache.get("a"));
+        assertEquals(Arrays.asList("a"), evictionLog);
+        assertEquals(0, cache.size());
+    }
+
+    public void testEvictAll() {
+        final List<String> evictionLog = new ArrayList<String>();
+        TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(10) {
+            @Override protected void entryEvicted(String key, String value) {
+                evictionLog.add(key + "=" + value);
+            }
+        };
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.evictAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+        assertEquals(2, evictionLog.size());
+        assertTrue(evictionLog.containsAll(Arrays.asList("a=A", "b=B")));
+    }
+}
@@ -584,17 +584,17 @@ public class ZoneInfoTest extends TestCase {
     }
 
     @Override
-    public void seek(int offset) {
-      buffer.position(offset);
+    public void seek(long offset) {
+      buffer.position((int) offset);
     }
 
     @Override
-    public void skip(int byteCount) {
-      buffer.position(buffer.position() + byteCount);
+    public void skip(long byteCount) {
+      buffer.position((int) (buffer.position() + byteCount));
     }
 
     @Override
-    public int pos() {
+    public long pos() {
       return buffer.position();
     }
 
@@ -625,6 +625,23 @@ public class ZoneInfoTest extends TestCase {
       skip(4 * intCount);
     }
 
+    @Override
+    public long readLong() {
+      long value = buffer.asLongBuffer().get();
+      // Using a separate view does not update the position of this buffer so do it
+      // explicitly.
+      skip(8);
+      return value;
+    }
+
+    @Override
+    public void readLongArray(long[] dst, int dstOffset, int longCount) {
+      buffer.asLongBuffer().get(dst, dstOffset, longCount);
+      // Using a separate view does not update the position of this buffer so do it
+      // explicitly.
+      skip(8 * longCount);
+    }
+
     @Override
     public short readShort() {
       short value = buffer.asShortBuffer().get();
@@ -633,5 +650,13 @@ public class ZoneInfoTest extends TestCase {
       skip(2);
       return value;
     }
+
+    @Override
+    public void readShortArray(short[] dst, int dstOffset, int shortCount) {
+      buffer.asShortBuffer().get(dst, dstOffset, shortCount);
+      // Using a separate view does not update the position of this buffer so do it
+      // explicitly.
+      skip(2 * shortCount);
+    }
   }
 }
@@ -291,14 +291,18 @@ non_openjdk_java_files := \
   luni/src/main/java/libcore/io/EventLogger.java \
   luni/src/main/java/libcore/io/ForwardingOs.java \
   luni/src/main/java/libcore/io/IoBridge.java \
+  luni/src/main/java/libcore/io/IoStats.java \
   luni/src/main/java/libcore/io/IoTracker.java \
   luni/src/main/java/libcore/io/IoUtils.java \
   luni/src/main/java/libcore/io/Libcore.java \
+  luni/src/main/java/libcore/io/MappedLongLongMap.java \
   luni/src/main/java/libcore/io/Memory.java \
   luni/src/main/java/libcore/io/MemoryMappedFile.java \
   luni/src/main/java/libcore/io/NioBufferIterator.java \
   luni/src/main/java/libcore/io/Os.java \
   luni/src/main/java/libcore/io/Posix.java \
+  luni/src/main/java/libcore/io/ReadinessWaiter.java \
+  luni/src/main/java/libcore/io/SegmentedBufferIterator.java \
   luni/src/main/java/libcore/io/SizeOf.java \
   luni/src/main/java/libcore/io/Streams.java \
   luni/src/main/java/libcore/math/MathUtils.java \
@@ -325,11 +329,24 @@ non_openjdk_java_files := \
   luni/src/main/java/libcore/util/EmptyArray.java \
   luni/src/main/java/libcore/util/BasicLruCache.java \
   luni/src/main/java/libcore/util/CollectionUtils.java \
+  luni/src/main/java/libcore/util/ConcurrentLruCache.java \
+  luni/src/main/java/libcore/util/ConcurrentReferenceKeyMap.java \
   luni/src/main/java/libcore/util/EmptyArray.java \
+  luni/src/main/java/libcore/util/FrequencySketch.java \
+  luni/src/main/java/libcore/util/IndexedHeap.java \
+  luni/src/main/java/libcore/util/IndexedLongHeap.java \
+  luni/src/main/java/libcore/util/IntArrayList.java \
+  luni/src/main/java/libcore/util/IntHashSet.java \
+  luni/src/main/java/libcore/util/IntIntMap.java \
+  luni/src/main/java/libcore/util/IntObjectMap.java \
+  luni/src/main/java/libcore/util/LongObjectMap.java \
   luni/src/main/java/libcore/util/NativeAllocationRegistry.java \
+  luni/src/main/java/libcore/util/OpenHashing.java \
   luni/src/main/java/libcore/util/Objects.java \
   luni/src/main/java/libcore/util/RecoverySystem.java \
+  luni/src/main/java/libcore/util/RoaringBitmap.java \
   luni/src/main/java/libcore/util/SneakyThrow.java \
+  luni/src/main/java/libcore/util/TinyLfuCache.java \
   luni/src/main/java/libcore/util/ZoneInfo.java \
   luni/src/main/java/libcore/util/ZoneInfoDB.java \
   luni/src/main/java/libcore/util/HexEncoding.java \
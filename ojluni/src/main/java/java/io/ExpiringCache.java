@@ -28,22 +28,24 @@
 
 package java.io;
 
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.Map;
-import java.util.LinkedHashMap;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+// Android-changed: Made the cache concurrent.
+// It was a LinkedHashMap behind the cache's lock, which every
+// File.getCanonicalPath call from every thread took.
 class ExpiringCache {
-    private long millisUntilExpiration;
-    private Map<String,Entry> map;
-    // Clear out old entries every few queries
-    private int queryCount;
-    private int queryOverflow = 300;
-    private int MAX_ENTRIES = 200;
+    private final long millisUntilExpiration;
+    private final Map<String,Entry> map = new ConcurrentHashMap<>();
+    private static final int MAX_ENTRIES = 200;
+    // Entries left after evicting the eldest, so that a full cache does not
+    // look for the eldest entry on every put
+    private static final int ENTRIES_AFTER_EVICTION = MAX_ENTRIES * 3 / 4;
 
-    static class Entry {
-        private long   timestamp;
-        private String val;
+    static final class Entry {
+        private final long   timestamp;
+        private final String val;
 
         Entry(long timestamp, String val) {
             this.timestamp = timestamp;
@@ -51,78 +53,66 @@ class ExpiringCache {
         }
 
         long   timestamp()                  { return timestamp;           }
-        void   setTimestamp(long timestamp) { this.timestamp = timestamp; }
 
         String val()                        { return val;                 }
-        void   setVal(String val)           { this.val = val;             }
     }
 
     ExpiringCache() {
         this(30000);
     }
 
-    @SuppressWarnings("serial")
     ExpiringCache(long millisUntilExpiration) {
         this.millisUntilExpiration = millisUntilExpiration;
-        map = new LinkedHashMap<String,Entry>() {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry eldest) {
-              return size() > MAX_ENTRIES;
-            }
-          };
     }
 
-    synchronized String get(String key) {
-        if (++queryCount >= queryOverflow) {
-            cleanup();
-        }
-        Entry entry = entryFor(key);
-        if (entry != null) {
-            return entry.val();
-        }
-        return null;
+    String get(String key) {
+        Entry entry = entryFor(key, System.currentTimeMillis());
+        return entry != null ? entry.val() : null;
     }
 
-    synchronized void put(String key, String val) {
-        if (++queryCount >= queryOverflow) {
-            cleanup();
-        }
-        Entry entry = entryFor(key);
-        if (entry != null) {
-            entry.setTimestamp(System.currentTimeMillis());
-            entry.setVal(val);
-        } else {
-            map.put(key, new Entry(System.currentTimeMillis(), val));
+    void put(String key, String val) {
+        long now = System.currentTimeMillis();
+        map.put(key, new Entry(now, val));
+        if (map.size() > MAX_ENTRIES) {
+            evict(now);
         }
     }
 
-    synchronized void clear() {
+    void clear() {
         map.clear();
     }
 
-    private Entry entryFor(String key) {
+    private Entry entryFor(String key, long now) {
         Entry entry = map.get(key);
-        if (entry != null) {
-            long delta = System.currentTimeMillis() - entry.timestamp();
-            if (delta < 0 || delta >= millisUntilExpiration) {
-                map.remove(key);
-                entry = null;
-            }
+        if (entry != null && isExpired(entry, now)) {
+            map.remove(key, entry);
+            entry = null;
         }
         return entry;
     }
 
-    private void cleanup() {
-        Set<String> keySet = map.keySet();
-        // Avoid ConcurrentModificationExceptions
-        String[] keys = new String[keySet.size()];
-        int i = 0;
-        for (String key: keySet) {
-            keys[i++] = key;
+    private boolean isExpired(Entry entry, long now) {
+        long delta = now - entry.timestamp();
+        return delta < 0 || delta >= millisUntilExpiration;
+    }
+
+    /**
+     * Removes the expired entries and, if that leaves too many, the eldest.
+     * Threads that put at the same time may both evict, which only evicts
+     * more than needed.
+     */
+    @SuppressWarnings("unchecked")
+    private void evict(long now) {
+        map.values().removeIf(entry -> isExpired(entry, now));
+        if (map.size() <= MAX_ENTRIES) {
+            return;
         }
-        for (int j = 0; j < keys.length; j++) {
-            entryFor(keys[j]);
+        int excess = map.size() - ENTRIES_AFTER_EVICTION;
+        Map.Entry<String,Entry>[] entries = map.entrySet().toArray(new Map.Entry[0]);
+        Arrays.sort(entries, (a, b) -> Long.compare(a.getValue().timestamp(),
+                                                    b.getValue().timestamp()));
+        for (int i = 0; i < excess && i < entries.length; i++) {
+            map.remove(entries[i].getKey(), entries[i].getValue());
         }
-        queryCount = 0;
     }
 }
@@ -52,6 +52,10 @@ public final class FileDescriptor {
 
     private int descriptor;
 
+    // Android-added: The descriptor that isSocketCached$ last checked, shifted left by one, and
+    // whether it was a socket in the low bit. It starts out as -1, which isn't one.
+    private volatile long socketCheck = -1L << 1;
+
     /**
      * Constructs an (invalid) FileDescriptor
      * object.
@@ -159,6 +163,23 @@ public final class FileDescriptor {
         return isSocket(descriptor);
     }
 
+    /**
+     * Like {@link #isSocket$}, but only checks once for each descriptor this object holds.
+     * @hide internal use only
+     */
+    // Android-added.
+    public boolean isSocketCached$() {
+        // The answer is packed with its descriptor, so that racing callers can't pair the
+        // answer for one descriptor with another.
+        int fd = descriptor;
+        long check = socketCheck;
+        if ((int) (check >> 1) != fd) {
+            check = ((long) fd << 1) | (isSocket(fd) ? 1 : 0);
+            socketCheck = check;
+        }
+        return (check & 1) != 0;
+    }
+
     // Android-added.
     private static FileDescriptor dupFd(int fd) {
         try {
@@ -27,12 +27,17 @@
 package java.io;
 
 import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
+import android.system.ErrnoException;
 import dalvik.system.BlockGuard;
 import dalvik.system.CloseGuard;
 import sun.nio.ch.FileChannelImpl;
 import libcore.io.IoBridge;
 import libcore.io.IoTracker;
+import libcore.io.Libcore;
+
+import static android.system.OsConstants.*;
 
 
 /**
@@ -72,6 +77,22 @@ class FileInputStream extends InputStream
     private final CloseGuard guard = CloseGuard.get();
     private final IoTracker tracker = new IoTracker();
 
+    /**
+     * Buffer for reading ahead of a caller that makes small sequential reads, or null until
+     * {@link #tracker} sees such reads. While it holds data, the file position is ahead of
+     * this stream's position by {@code readAheadCount - readAheadPos} bytes.
+     */
+    private byte[] readAheadBuffer;
+    private int readAheadPos;
+    private int readAheadCount;
+
+    /**
+     * Whether this stream may still start reading ahead. Only streams that opened the file
+     * themselves may, as nothing else can see the file position until {@link #getFD} or
+     * {@link #getChannel} is called.
+     */
+    private boolean readAheadAllowed;
+
     /**
      * Creates a <code>FileInputStream</code> by
      * opening a connection to an actual file,
@@ -145,6 +166,7 @@ class FileInputStream extends InputStream
         fd = new FileDescriptor();
         isFdOwner = true;
         this.path = name;
+        readAheadAllowed = true;
 
         BlockGuard.getThreadPolicy().onReadFromDisk();
         open(name);
@@ -250,8 +272,102 @@ class FileInputStream extends InputStream
         if (closed && len > 0) {
             throw new IOException("Stream Closed");
         }
-        tracker.trackIo(len);
-        return IoBridge.read(fd, b, off, len);
+        if (readAheadBuffer == null) {
+            tracker.trackIo(len);
+            if (!tracker.isUnbuffered() || !readAheadAllowed || !startReadAhead()) {
+                return IoBridge.read(fd, b, off, len);
+            }
+        }
+        return readBuffered(b, off, len);
+    }
+
+    /**
+     * Allocates {@link #readAheadBuffer} if this stream is allowed to read ahead and reads a
+     * regular file. Returns whether the buffer is in use.
+     */
+    private synchronized boolean startReadAhead() {
+        if (readAheadAllowed && readAheadBuffer == null) {
+            readAheadAllowed = false;
+            try {
+                // Only regular files can give back bytes read ahead by seeking backwards.
+                if (S_ISREG(Libcore.os.fstat(fd).st_mode)) {
+                    readAheadBuffer = new byte[IoTracker.READ_AHEAD_BUFFER_SIZE];
+                }
+            } catch (ErrnoException ignored) {
+                // Read without buffering; the next read will report the error, if any.
+            }
+        }
+        return readAheadBuffer != null;
+    }
+
+    private synchronized int readBuffered(byte[] b, int off, int len) throws IOException {
+        if (readAheadBuffer == null) {
+            return IoBridge.read(fd, b, off, len);
+        }
+        Arrays.checkOffsetAndCount(b.length, off, len);
+        if (len == 0) {
+            return 0;
+        }
+        int available = readAheadCount - readAheadPos;
+        if (available == 0) {
+            if (len >= readAheadBuffer.length) {
+                // Large reads gain nothing from going through the buffer.
+                return IoBridge.read(fd, b, off, len);
+            }
+            tracker.trackIo(readAheadBuffer.length);
+            int count = IoBridge.read(fd, readAheadBuffer, 0, readAheadBuffer.length);
+            if (count <= 0) {
+                return count;
+            }
+            readAheadPos = 0;
+            readAheadCount = count;
+            available = count;
+        }
+        int count = Math.min(len, available);
+        System.arraycopy(readAheadBuffer, readAheadPos, b, off, count);
+        readAheadPos += count;
+        return count;
+    }
+
+    /** Returns the number of bytes read ahead but not yet returned. */
+    private synchronized int readAheadAvailable() {
+        return readAheadCount - readAheadPos;
+    }
+
+    /**
+     * Skips up to {@code n} of the bytes read ahead but not yet returned, without touching
+     * the file position. Returns the number of bytes skipped.
+     */
+    private synchronized long skipReadAhead(long n) {
+        if (n <= 0) {
+            return 0;
+        }
+        int count = (int) Math.min(n, readAheadCount - readAheadPos);
+        readAheadPos += count;
+        return count;
+    }
+
+    /**
+     * Seeks back over the bytes read ahead but not yet returned, so that the file position
+     * matches this stream's position again. If {@code stop} is true, this stream never reads
+     * ahead again, because code outside it is about to use the file position.
+     */
+    private synchronized void unreadAhead(boolean stop) throws ErrnoException {
+        if (stop) {
+            readAheadAllowed = false;
+        }
+        if (readAheadBuffer == null) {
+            return;
+        }
+        int unread = readAheadCount - readAheadPos;
+        readAheadPos = 0;
+        readAheadCount = 0;
+        if (stop) {
+            readAheadBuffer = null;
+        }
+        if (unread > 0) {
+            Libcore.os.lseek(fd, -unread, SEEK_CUR);
+        }
     }
 
     /**
@@ -283,11 +399,21 @@ class FileInputStream extends InputStream
             throw new IOException("Stream Closed");
         }
 
+        // Android-changed: Skip the bytes read ahead first.
+        long skipped = skipReadAhead(n);
+        if (skipped == n) {
+            return skipped;
+        }
         try {
             BlockGuard.getThreadPolicy().onReadFromDisk();
-            return skip0(n);
+            if (n < 0) {
+                unreadAhead(false);
+            }
+            return skipped + skip0(n - skipped);
+        } catch (ErrnoException e) {
+            throw e.rethrowAsIOException();
         } catch(UseManualSkipException e) {
-            return super.skip(n);
+            return skipped + super.skip(n - skipped);
         }
     }
 
@@ -321,7 +447,9 @@ class FileInputStream extends InputStream
             throw new IOException("Stream Closed");
         }
 
-        return available0();
+        // Android-changed: Count the bytes read ahead, which are past the file position.
+        long available = readAheadAvailable() + (long) available0();
+        return (int) Math.min(available, Integer.MAX_VALUE);
     }
 
     private native int available0() throws IOException;
@@ -374,6 +502,11 @@ class FileInputStream extends InputStream
      */
     public final FileDescriptor getFD() throws IOException {
         if (fd != null) {
+            try {
+                unreadAhead(true);
+            } catch (ErrnoException e) {
+                throw e.rethrowAsIOException();
+            }
             return fd;
         }
         throw new IOException();
@@ -397,6 +530,11 @@ class FileInputStream extends InputStream
      */
     public FileChannel getChannel() {
         synchronized (this) {
+            try {
+                unreadAhead(true);
+            } catch (ErrnoException ignored) {
+                // The fd is no longer valid; the channel will report that when it is used.
+            }
             if (channel == null) {
                 channel = FileChannelImpl.open(fd, path, true, false, this);
 
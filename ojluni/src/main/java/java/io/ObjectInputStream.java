@@ -26,8 +26,6 @@
 
 package java.io;
 
-import java.io.ObjectStreamClass.WeakClassKey;
-import java.lang.ref.ReferenceQueue;
 import java.lang.reflect.Array;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
@@ -38,10 +36,8 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
-import static java.io.ObjectStreamClass.processQueue;
+import libcore.util.ConcurrentReferenceKeyMap;
 import sun.reflect.misc.ReflectUtil;
 import dalvik.system.VMStack;
 
@@ -232,12 +228,9 @@ public class ObjectInputStream
 
     private static class Caches {
         /** cache of subclass security audit results */
-        static final ConcurrentMap<WeakClassKey,Boolean> subclassAudits =
-            new ConcurrentHashMap<>();
-
-        /** queue for WeakReferences to audited subclasses */
-        static final ReferenceQueue<Class<?>> subclassAuditsQueue =
-            new ReferenceQueue<>();
+        // Android-changed: Use a ConcurrentReferenceKeyMap instead of WeakClassKeys.
+        static final ConcurrentReferenceKeyMap<Class<?>,Boolean> subclassAudits =
+            new ConcurrentReferenceKeyMap<>();
     }
 
     /** filter stream for handling block data conversion */
@@ -1244,12 +1237,11 @@ public class ObjectInputStream
         if (sm == null) {
             return;
         }
-        processQueue(Caches.subclassAuditsQueue, Caches.subclassAudits);
-        WeakClassKey key = new WeakClassKey(cl, Caches.subclassAuditsQueue);
-        Boolean result = Caches.subclassAudits.get(key);
+        // Android-changed: Look the class up directly.
+        Boolean result = Caches.subclassAudits.get(cl);
         if (result == null) {
             result = Boolean.valueOf(auditSubclass(cl));
-            Caches.subclassAudits.putIfAbsent(key, result);
+            Caches.subclassAudits.putIfAbsent(cl, result);
         }
         if (result.booleanValue()) {
             return;
@@ -26,18 +26,14 @@
 
 package java.io;
 
-import java.io.ObjectStreamClass.WeakClassKey;
-import java.lang.ref.ReferenceQueue;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import static java.io.ObjectStreamClass.processQueue;
 import java.io.SerialCallbackContext;
 
+import libcore.util.ConcurrentReferenceKeyMap;
 import sun.reflect.misc.ReflectUtil;
 
 /**
@@ -167,12 +163,9 @@ public class ObjectOutputStream
 
     private static class Caches {
         /** cache of subclass security audit results */
-        static final ConcurrentMap<WeakClassKey,Boolean> subclassAudits =
-            new ConcurrentHashMap<>();
-
-        /** queue for WeakReferences to audited subclasses */
-        static final ReferenceQueue<Class<?>> subclassAuditsQueue =
-            new ReferenceQueue<>();
+        // Android-changed: Use a ConcurrentReferenceKeyMap instead of WeakClassKeys.
+        static final ConcurrentReferenceKeyMap<Class<?>,Boolean> subclassAudits =
+            new ConcurrentReferenceKeyMap<>();
     }
 
     /** filter stream for handling block data conversion */
@@ -1062,12 +1055,11 @@ public class ObjectOutputStream
         if (sm == null) {
             return;
         }
-        processQueue(Caches.subclassAuditsQueue, Caches.subclassAudits);
-        WeakClassKey key = new WeakClassKey(cl, Caches.subclassAuditsQueue);
-        Boolean result = Caches.subclassAudits.get(key);
+        // Android-changed: Look the class up directly.
+        Boolean result = Caches.subclassAudits.get(cl);
         if (result == null) {
             result = Boolean.valueOf(auditSubclass(cl));
-            Caches.subclassAudits.putIfAbsent(key, result);
+            Caches.subclassAudits.putIfAbsent(cl, result);
         }
         if (result.booleanValue()) {
             return;
@@ -26,9 +26,7 @@
 package java.io;
 
 import java.lang.ref.Reference;
-import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
-import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -54,6 +52,7 @@ import sun.reflect.Reflection;
 import sun.reflect.misc.ReflectUtil;
 import dalvik.system.VMRuntime;
 import dalvik.system.VMStack;
+import libcore.util.ConcurrentReferenceKeyMap;
 /**
  * Serialization's descriptor for classes.  It contains the name and
  * serialVersionUID of the class.  The ObjectStreamClass for a specific class
@@ -81,21 +80,22 @@ public class ObjectStreamClass implements Serializable {
 
     /** reflection factory for obtaining serialization constructors */
 
+    // Android-changed: Key the caches by class in ConcurrentReferenceKeyMaps, which
+    // don't need a WeakReference to look a class up, instead of by WeakClassKeys and
+    // FieldReflectorKeys registered with ReferenceQueues.
     private static class Caches {
         /** cache mapping local classes -> descriptors */
-        static final ConcurrentMap<WeakClassKey,Reference<?>> localDescs =
-            new ConcurrentHashMap<>();
+        static final ConcurrentReferenceKeyMap<Class<?>,Reference<?>> localDescs =
+            new ConcurrentReferenceKeyMap<>();
 
-        /** cache mapping field group/local desc pairs -> field reflectors */
-        static final ConcurrentMap<FieldReflectorKey,Reference<?>> reflectors =
-            new ConcurrentHashMap<>();
+        /** cache mapping local classes -> field groups -> field reflectors */
+        static final ConcurrentReferenceKeyMap<Class<?>,
+                ConcurrentMap<String,Reference<?>>> reflectors =
+            new ConcurrentReferenceKeyMap<>();
 
-        /** queue for WeakReferences to local classes */
-        private static final ReferenceQueue<Class<?>> localDescsQueue =
-            new ReferenceQueue<>();
-        /** queue for WeakReferences to field reflectors keys */
-        private static final ReferenceQueue<Class<?>> reflectorsQueue =
-            new ReferenceQueue<>();
+        /** cache mapping field groups without a local class -> field reflectors */
+        static final ConcurrentMap<String,Reference<?>> nullClassReflectors =
+            new ConcurrentHashMap<>();
     }
 
     /** class associated with this descriptor (if any) */
@@ -307,8 +307,8 @@ public class ObjectStreamClass implements Serializable {
         if (!(all || Serializable.class.isAssignableFrom(cl))) {
             return null;
         }
-        processQueue(Caches.localDescsQueue, Caches.localDescs);
-        WeakClassKey key = new WeakClassKey(cl, Caches.localDescsQueue);
+        // Android-changed: Look the class up directly.
+        Class<?> key = cl;
         Reference<?> ref = Caches.localDescs.get(key);
         Object entry = null;
         if (ref != null) {
@@ -2113,10 +2113,10 @@ public class ObjectStreamClass implements Serializable {
         // class irrelevant if no fields
         Class<?> cl = (localDesc != null && fields.length > 0) ?
             localDesc.cl : null;
-        processQueue(Caches.reflectorsQueue, Caches.reflectors);
-        FieldReflectorKey key = new FieldReflectorKey(cl, fields,
-                                                      Caches.reflectorsQueue);
-        Reference<?> ref = Caches.reflectors.get(key);
+        // Android-changed: Look the reflector up by class, then by field signatures.
+        ConcurrentMap<String,Reference<?>> reflectors = getReflectors(cl);
+        String key = getSignatures(fields);
+        Reference<?> ref = reflectors.get(key);
         Object entry = null;
         if (ref != null) {
             entry = ref.get();
@@ -2127,9 +2127,9 @@ public class ObjectStreamClass implements Serializable {
             Reference<?> newRef = new SoftReference<>(newEntry);
             do {
                 if (ref != null) {
-                    Caches.reflectors.remove(key, ref);
+                    reflectors.remove(key, ref);
                 }
-                ref = Caches.reflectors.putIfAbsent(key, newRef);
+                ref = reflectors.putIfAbsent(key, newRef);
                 if (ref != null) {
                     entry = ref.get();
                 }
@@ -2150,7 +2150,7 @@ public class ObjectStreamClass implements Serializable {
                 entry = th;
             }
             future.set(entry);
-            Caches.reflectors.put(key, new SoftReference<Object>(entry));
+            reflectors.put(key, new SoftReference<Object>(entry));
         }
 
         if (entry instanceof FieldReflector) {
@@ -2166,50 +2166,38 @@ public class ObjectStreamClass implements Serializable {
         }
     }
 
+    // Android-changed: Replaced FieldReflectorKey with per-class maps.
     /**
-     * FieldReflector cache lookup key.  Keys are considered equal if they
-     * refer to the same class and equivalent field formats.
+     * Returns the cache of field reflectors of the given class, or of
+     * descriptors without a local class if cl is null.
      */
-    private static class FieldReflectorKey extends WeakReference<Class<?>> {
-
-        private final String sigs;
-        private final int hash;
-        private final boolean nullClass;
-
-        FieldReflectorKey(Class<?> cl, ObjectStreamField[] fields,
-                          ReferenceQueue<Class<?>> queue)
-        {
-            super(cl, queue);
-            nullClass = (cl == null);
-            StringBuilder sbuf = new StringBuilder();
-            for (int i = 0; i < fields.length; i++) {
-                ObjectStreamField f = fields[i];
-                sbuf.append(f.getName()).append(f.getSignature());
-            }
-            sigs = sbuf.toString();
-            hash = System.identityHashCode(cl) + sigs.hashCode();
-        }
-
-        public int hashCode() {
-            return hash;
+    private static ConcurrentMap<String,Reference<?>> getReflectors(Class<?> cl) {
+        if (cl == null) {
+            return Caches.nullClassReflectors;
         }
-
-        public boolean equals(Object obj) {
-            if (obj == this) {
-                return true;
+        ConcurrentMap<String,Reference<?>> reflectors = Caches.reflectors.get(cl);
+        if (reflectors == null) {
+            reflectors = new ConcurrentHashMap<>();
+            ConcurrentMap<String,Reference<?>> existing =
+                Caches.reflectors.putIfAbsent(cl, reflectors);
+            if (existing != null) {
+                reflectors = existing;
             }
+        }
+        return reflectors;
+    }
 
-            if (obj instanceof FieldReflectorKey) {
-                FieldReflectorKey other = (FieldReflectorKey) obj;
-                Class<?> referent;
-                return (nullClass ? other.nullClass
-                                  : ((referent = get()) != null) &&
-                                    (referent == other.get())) &&
-                    sigs.equals(other.sigs);
-            } else {
-                return false;
-            }
+    /**
+     * Returns the names and signatures of the given fields, which identify
+     * a field reflector of a class.
+     */
+    private static String getSignatures(ObjectStreamField[] fields) {
+        StringBuilder sbuf = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            ObjectStreamField f = fields[i];
+            sbuf.append(f.getName()).append(f.getSignature());
         }
+        return sbuf.toString();
     }
 
     /**
@@ -2306,65 +2294,5 @@ public class ObjectStreamClass implements Serializable {
                                                 "is not supported on SDK " + targetSdkVersion);
     }
 
-    /**
-     * Removes from the specified map any keys that have been enqueued
-     * on the specified reference queue.
-     */
-    static void processQueue(ReferenceQueue<Class<?>> queue,
-                             ConcurrentMap<? extends
-                             WeakReference<Class<?>>, ?> map)
-    {
-        Reference<? extends Class<?>> ref;
-        while((ref = queue.poll()) != null) {
-            map.remove(ref);
-        }
-    }
-
-    /**
-     *  Weak key for Class objects.
-     *
-     **/
-    static class WeakClassKey extends WeakReference<Class<?>> {
-        /**
-         * saved value of the referent's identity hash code, to maintain
-         * a consistent hash code after the referent has been cleared
-         */
-        private final int hash;
-
-        /**
-         * Create a new WeakClassKey to the given object, registered
-         * with a queue.
-         */
-        WeakClassKey(Class<?> cl, ReferenceQueue<Class<?>> refQueue) {
-            super(cl, refQueue);
-            hash = System.identityHashCode(cl);
-        }
-
-        /**
-         * Returns the identity hash code of the original referent.
-         */
-        public int hashCode() {
-            return hash;
-        }
-
-        /**
-         * Returns true if the given object is this identical
-         * WeakClassKey instance, or, if this object's referent has not
-         * been cleared, if the given object is another WeakClassKey
-         * instance with the identical non-null referent as this one.
-         */
-        public boolean equals(Object obj) {
-            if (obj == this) {
-                return true;
-            }
-
-            if (obj instanceof WeakClassKey) {
-                Object referent = get();
-                return (referent != null) &&
-                       (referent == ((WeakClassKey) obj).get());
-            } else {
-                return false;
-            }
-        }
-    }
+    // Android-removed: processQueue and WeakClassKey, replaced by ConcurrentReferenceKeyMap.
 }
@@ -88,6 +88,18 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
      */
     private final IoTracker ioTracker = new IoTracker();
 
+    /**
+     * Whether the kernel has been told to read ahead aggressively because {@link #ioTracker}
+     * saw a run of small sequential reads.
+     */
+    private boolean sequentialAdviceGiven;
+
+    // Android-added: preallocate.
+    // Whether the kernel supports fallocate(2), until it is found not to.
+    private static volatile boolean fallocateSupported = true;
+    // Whether the file system of this file can reserve storage, until it is found not to.
+    private volatile boolean preallocateSupported = true;
+
     /**
      * Creates a random access file stream to read from, and optionally
      * to write to, a file with the specified name. A new
@@ -333,6 +345,17 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
      */
     private int readBytes(byte b[], int off, int len) throws IOException {
         ioTracker.trackIo(len, IoTracker.Mode.READ);
+        if (!sequentialAdviceGiven && ioTracker.isUnbuffered()) {
+            // Unlike FileInputStream, this class can't buffer reads itself without getting in
+            // the way of seek, getFilePointer, writes and the channel. Doubling the kernel's
+            // read-ahead still saves disk round trips for the small reads that follow.
+            sequentialAdviceGiven = true;
+            try {
+                Libcore.os.posix_fadvise(fd, 0, 0, POSIX_FADV_SEQUENTIAL);
+            } catch (ErrnoException ignored) {
+                // The advice is only a hint.
+            }
+        }
         return IoBridge.read(fd, b, off, len);
     }
 
@@ -615,6 +638,51 @@ public class RandomAccessFile implements DataOutput, DataInput, Closeable {
     }
 
 
+    // Android-added: preallocate.
+    /**
+     * Reserves storage for a region of this file.
+     *
+     * <p> Where the file system supports it, writes within the region will
+     * then not fail for lack of disk space, and the region is likely to be
+     * laid out contiguously on disk.  This helps files that grow by many
+     * small appends, such as logs.  The length of the file, as returned by the
+     * {@code length} method, and its contents are not changed.  On file
+     * systems that cannot reserve storage ahead of time this method has no
+     * effect.
+     *
+     * @param      position   The offset at which the region starts
+     * @param      length     The length of the region
+     * @exception  IllegalArgumentException  If {@code position} is negative
+     *             or {@code length} is not positive
+     * @exception  IOException  If an I/O error occurs, for example if the file
+     *             was not opened for writing or there is not enough space on
+     *             the device
+     * @see        java.nio.channels.FileChannel#preallocate
+     * @hide
+     */
+    public void preallocate(long position, long length) throws IOException {
+        if (position < 0) {
+            throw new IllegalArgumentException("position < 0");
+        }
+        if (length <= 0) {
+            throw new IllegalArgumentException("length <= 0");
+        }
+        if (!fallocateSupported || !preallocateSupported) {
+            return;
+        }
+        try {
+            Libcore.os.fallocate(fd, FALLOC_FL_KEEP_SIZE, position, length);
+        } catch (ErrnoException errnoException) {
+            if (errnoException.errno == ENOSYS) {
+                fallocateSupported = false;
+            } else if (errnoException.errno == EOPNOTSUPP) {
+                preallocateSupported = false;
+            } else {
+                throw errnoException.rethrowAsIOException();
+            }
+        }
+    }
+
     /**
      * Closes this random access file stream and releases any system
      * resources associated with the stream. A closed random access
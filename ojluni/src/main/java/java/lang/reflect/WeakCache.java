@@ -24,13 +24,13 @@
  */
 package java.lang.reflect;
 
-import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import libcore.util.ConcurrentReferenceKeyMap;
 
 /**
  * Cache mapping pairs of {@code (key, sub-key) -> value}. Keys and values are
@@ -56,10 +56,19 @@ import java.util.function.Supplier;
  */
 final class WeakCache<K, P, V> {
 
-    private final ReferenceQueue<K> refQueue
-        = new ReferenceQueue<>();
-    // the key type is Object for supporting null key
-    private final ConcurrentMap<Object, ConcurrentMap<Object, Supplier<V>>> map
+    // Android-changed: Look keys up in a ConcurrentReferenceKeyMap instead of wrapping
+    // them in CacheKeys, and keep the values of the null key separately.
+    private final ConcurrentReferenceKeyMap<K, ConcurrentMap<Object, Supplier<V>>> map
+        = new ConcurrentReferenceKeyMap<K, ConcurrentMap<Object, Supplier<V>>>() {
+            @Override
+            protected void entryExpunged(ConcurrentMap<Object, Supplier<V>> valuesMap) {
+                // remove also from reverseMap
+                for (Supplier<V> cacheValue : valuesMap.values()) {
+                    reverseMap.remove(cacheValue);
+                }
+            }
+        };
+    private final ConcurrentMap<Object, Supplier<V>> nullKeyValuesMap
         = new ConcurrentHashMap<>();
     private final ConcurrentMap<Supplier<V>, Boolean> reverseMap
         = new ConcurrentHashMap<>();
@@ -102,13 +111,13 @@ final class WeakCache<K, P, V> {
 
         expungeStaleEntries();
 
-        Object cacheKey = CacheKey.valueOf(key, refQueue);
-
-        // lazily install the 2nd level valuesMap for the particular cacheKey
-        ConcurrentMap<Object, Supplier<V>> valuesMap = map.get(cacheKey);
+        // lazily install the 2nd level valuesMap for the particular key
+        // Android-changed: Look the key up directly.
+        ConcurrentMap<Object, Supplier<V>> valuesMap =
+            key == null ? nullKeyValuesMap : map.get(key);
         if (valuesMap == null) {
             ConcurrentMap<Object, Supplier<V>> oldValuesMap
-                = map.putIfAbsent(cacheKey,
+                = map.putIfAbsent(key,
                                   valuesMap = new ConcurrentHashMap<>());
             if (oldValuesMap != null) {
                 valuesMap = oldValuesMap;
@@ -185,10 +194,8 @@ final class WeakCache<K, P, V> {
     }
 
     private void expungeStaleEntries() {
-        CacheKey<K> cacheKey;
-        while ((cacheKey = (CacheKey<K>)refQueue.poll()) != null) {
-            cacheKey.expungeFrom(map, reverseMap);
-        }
+        // Android-changed: The map removes stale values from reverseMap.
+        map.expungeStaleEntries();
     }
 
     /**
@@ -319,61 +326,5 @@ final class WeakCache<K, P, V> {
         }
     }
 
-    /**
-     * CacheKey containing a weakly referenced {@code key}. It registers
-     * itself with the {@code refQueue} so that it can be used to expunge
-     * the entry when the {@link WeakReference} is cleared.
-     */
-    private static final class CacheKey<K> extends WeakReference<K> {
-
-        // a replacement for null keys
-        private static final Object NULL_KEY = new Object();
-
-        static <K> Object valueOf(K key, ReferenceQueue<K> refQueue) {
-            return key == null
-                   // null key means we can't weakly reference it,
-                   // so we use a NULL_KEY singleton as cache key
-                   ? NULL_KEY
-                   // non-null key requires wrapping with a WeakReference
-                   : new CacheKey<>(key, refQueue);
-        }
-
-        private final int hash;
-
-        private CacheKey(K key, ReferenceQueue<K> refQueue) {
-            super(key, refQueue);
-            this.hash = System.identityHashCode(key);  // compare by identity
-        }
-
-        @Override
-        public int hashCode() {
-            return hash;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            K key;
-            return obj == this ||
-                   obj != null &&
-                   obj.getClass() == this.getClass() &&
-                   // cleared CacheKey is only equal to itself
-                   (key = this.get()) != null &&
-                   // compare key by identity
-                   key == ((CacheKey<K>) obj).get();
-        }
-
-        void expungeFrom(ConcurrentMap<?, ? extends ConcurrentMap<?, ?>> map,
-                         ConcurrentMap<?, Boolean> reverseMap) {
-            // removing just by key is always safe here because after a CacheKey
-            // is cleared and enqueue-ed it is only equal to itself
-            // (see equals method)...
-            ConcurrentMap<?, ?> valuesMap = map.remove(this);
-            // remove also from reverseMap if needed
-            if (valuesMap != null) {
-                for (Object cacheValue : valuesMap.values()) {
-                    reverseMap.remove(cacheValue);
-                }
-            }
-        }
-    }
+    // Android-removed: CacheKey, replaced by ConcurrentReferenceKeyMap.
 }
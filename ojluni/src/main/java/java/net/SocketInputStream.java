@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.nio.channels.FileChannel;
 
 import dalvik.system.BlockGuard;
+import libcore.io.IoStats;
 import sun.net.ConnectionResetException;
 
 /**
@@ -111,7 +112,16 @@ class SocketInputStream extends FileInputStream
                            byte b[], int off, int len,
                            int timeout)
         throws IOException {
-        return socketRead0(fd, b, off, len, timeout);
+        // Android-changed: Record the call in IoStats.
+        // return socketRead0(fd, b, off, len, timeout);
+        final long startNanos = IoStats.begin();
+        int n = -1;
+        try {
+            n = socketRead0(fd, b, off, len, timeout);
+            return n;
+        } finally {
+            IoStats.end(IoStats.Op.READ, IoStats.Kind.NETWORK, startNanos, n);
+        }
     }
 
     /**
@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.nio.channels.FileChannel;
 
 import dalvik.system.BlockGuard;
+import libcore.io.IoStats;
 
 /**
  * This stream extends FileOutputStream to implement a
@@ -106,7 +107,16 @@ class SocketOutputStream extends FileOutputStream
         FileDescriptor fd = impl.acquireFD();
         try {
             BlockGuard.getThreadPolicy().onNetwork();
-            socketWrite0(fd, b, off, len);
+            // Android-changed: Record the call in IoStats.
+            // socketWrite0(fd, b, off, len);
+            final long startNanos = IoStats.begin();
+            int written = -1;
+            try {
+                socketWrite0(fd, b, off, len);
+                written = len;
+            } finally {
+                IoStats.end(IoStats.Op.WRITE, IoStats.Kind.NETWORK, startNanos, written);
+            }
         } catch (SocketException se) {
             if (se instanceof sun.net.ConnectionResetException) {
                 impl.setConnectionResetPending();
@@ -241,6 +241,43 @@ public abstract class ByteBuffer
         return new DirectByteBuffer(capacity, memoryRef);
     }
 
+    // ----- BEGIN android -----
+    /**
+     * Allocates a new direct byte buffer in memory mapped for it alone,
+     * with the given options.
+     *
+     * <p> The options are those of {@link
+     * java.nio.channels.FileChannel.MapMode#withOptions
+     * FileChannel.MapMode.withOptions}: {@link
+     * java.nio.channels.FileChannel.MapMode#POPULATE POPULATE} allocates
+     * all of the buffer's memory up front, so that first accesses to it take
+     * no page faults, and {@link
+     * java.nio.channels.FileChannel.MapMode#HUGE_PAGES HUGE_PAGES} asks for
+     * the memory to be backed by transparent huge pages, which reduces the
+     * TLB misses of random accesses to a large buffer.
+     *
+     * <p> The new buffer's position will be zero, its limit will be its
+     * capacity, its mark will be undefined, and each of its elements will be
+     * initialized to zero.  Unlike a buffer allocated by {@link
+     * #allocateDirect(int)}, it has no backing array.  Its memory is
+     * unmapped when the buffer is garbage-collected.
+     *
+     * @param capacity The new buffer's capacity, in bytes
+     * @param options A combination of the options, or zero
+     * @return The new byte buffer
+     * @throws IllegalArgumentException If the <tt>capacity</tt> is a negative integer,
+     *         or <tt>options</tt> has bits other than those of the options
+     * @throws OutOfMemoryError If the memory cannot be mapped
+     * @hide
+     */
+    public static ByteBuffer allocateDirect(int capacity, int options) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity < 0: " + capacity);
+        }
+        return DirectByteBuffer.allocateMapped(capacity, options);
+    }
+    // ----- END android -----
+
 
     /**
      * Allocates a new byte buffer.
@@ -27,13 +27,23 @@
 package java.nio;
 
 import java.io.FileDescriptor;
+import java.nio.channels.FileChannel.MapMode;
 
+import android.system.ErrnoException;
 import dalvik.system.VMRuntime;
+import libcore.io.Libcore;
 import libcore.io.Memory;
 import libcore.io.SizeOf;
 import sun.misc.Cleaner;
 import sun.nio.ch.DirectBuffer;
 
+import static android.system.OsConstants.MADV_HUGEPAGE;
+import static android.system.OsConstants.MAP_ANONYMOUS;
+import static android.system.OsConstants.MAP_POPULATE;
+import static android.system.OsConstants.MAP_PRIVATE;
+import static android.system.OsConstants.PROT_READ;
+import static android.system.OsConstants.PROT_WRITE;
+
 /** @hide */
 // Not final because it is extended in tests.
 public class DirectByteBuffer extends MappedByteBuffer implements DirectBuffer {
@@ -111,6 +121,45 @@ public class DirectByteBuffer extends MappedByteBuffer implements DirectBuffer {
         cleaner = Cleaner.create(memoryRef, unmapper);
     }
 
+    // ----- BEGIN android -----
+    // Allocates a buffer in a private anonymous mapping, see ByteBuffer.allocateDirect(int, int)
+    static DirectByteBuffer allocateMapped(int capacity, int options) {
+        if ((options & ~(MapMode.POPULATE | MapMode.HUGE_PAGES)) != 0) {
+            throw new IllegalArgumentException("Invalid options: " + options);
+        }
+        // A mapping can't be empty.
+        final long size = Math.max(capacity, 1);
+        int flags = MAP_PRIVATE | MAP_ANONYMOUS;
+        if ((options & MapMode.POPULATE) != 0) {
+            flags |= MAP_POPULATE;
+        }
+        final long address;
+        try {
+            address = Libcore.os.mmap(0, size, PROT_READ | PROT_WRITE, flags,
+                    new FileDescriptor(), 0);
+        } catch (ErrnoException e) {
+            OutOfMemoryError oome = new OutOfMemoryError("Direct buffer memory");
+            oome.initCause(e);
+            throw oome;
+        }
+        if ((options & MapMode.HUGE_PAGES) != 0) {
+            try {
+                Libcore.os.madvise(address, size, MADV_HUGEPAGE);
+            } catch (ErrnoException ignored) {
+                // Only a hint; fails if the kernel has no transparent huge pages.
+            }
+        }
+        Runnable unmapper = () -> {
+            try {
+                Libcore.os.munmap(address, size);
+            } catch (ErrnoException e) {
+                throw new AssertionError(e);
+            }
+        };
+        return new DirectByteBuffer(capacity, address, new FileDescriptor(), unmapper, false);
+    }
+    // ----- END android -----
+
     // For duplicates and slices
     DirectByteBuffer(MemoryRef memoryRef,         // package-private
                      int mark, int pos, int lim, int cap,
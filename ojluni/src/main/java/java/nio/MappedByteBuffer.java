@@ -27,6 +27,7 @@
 package java.nio;
 
 import java.io.FileDescriptor;
+import android.system.OsConstants;
 
 import sun.misc.Unsafe;
 
@@ -209,9 +210,61 @@ public abstract class MappedByteBuffer
         return this;
     }
 
+    // ----- BEGIN android -----
+    /**
+     * Advises the operating system how this buffer's content will be
+     * accessed.
+     *
+     * <p> The advice is one of the {@code MADV_} constants in {@link
+     * android.system.OsConstants}.  For example {@code MADV_SEQUENTIAL}
+     * causes pages to be read ahead aggressively and dropped soon after they
+     * have been accessed, which suits a single pass over a large file, while
+     * {@code MADV_RANDOM} disables read-ahead, which suits an index that is
+     * probed at arbitrary offsets.  {@code MADV_WILLNEED} starts reading the
+     * content in the background, and {@code MADV_NORMAL} undoes earlier
+     * advice.
+     *
+     * <p> Only advice that never changes the buffer's content is accepted.
+     * {@code MADV_DONTNEED} is accepted for read-only buffers, whose pages
+     * are read from the file again when they are next accessed; a writable
+     * buffer may be a private mapping, whose changes it would discard.
+     *
+     * <p> The advice applies to the whole mapped region and is only a hint.
+     * If the operating system fails to act on it, the failure is ignored.
+     * </p>
+     *
+     * @param  advice
+     *         The advice
+     *
+     * @return This buffer
+     *
+     * @throws IllegalArgumentException
+     *         If the advice is not one of those above
+     */
+    public final MappedByteBuffer advise(int advice) {
+        checkMapped();
+        if (advice != OsConstants.MADV_NORMAL
+                && advice != OsConstants.MADV_RANDOM
+                && advice != OsConstants.MADV_SEQUENTIAL
+                && advice != OsConstants.MADV_WILLNEED
+                && (advice != OsConstants.MADV_DONTNEED || !isReadOnly())) {
+            throw new IllegalArgumentException("Unsupported advice: " + advice);
+        }
+        if ((address != 0) && (capacity() != 0)) {
+            long offset = mappingOffset();
+            advise0(mappingAddress(offset), mappingLength(offset), advice);
+        }
+        return this;
+    }
+    // ----- END android -----
+
     private native boolean isLoaded0(long address, long length, int pageCount);
 
     private native void load0(long address, long length);
 
     private native void force0(FileDescriptor fd, long address, long length);
+
+    // ----- BEGIN android -----
+    private native void advise0(long address, long length, int advice);
+    // ----- END android -----
 }
@@ -463,6 +463,147 @@ public abstract class DatagramChannel
     public abstract int send(ByteBuffer src, SocketAddress target)
         throws IOException;
 
+    // ----- BEGIN android -----
+    /**
+     * Receives a batch of datagrams via this channel.
+     *
+     * <p> Datagram <i>i</i> is transferred into {@code dsts[i]} as if by the
+     * {@link #receive(ByteBuffer) receive} method, and its source address is
+     * stored in {@code senders[i]}.  If this channel is in blocking mode then
+     * this method blocks until at least one datagram is available and then
+     * receives, without blocking again, as many further datagrams as are
+     * immediately available and fit in the remaining buffers.  If this channel
+     * is in non-blocking mode then only datagrams that are immediately
+     * available are received.
+     *
+     * <p> Implementations may move a whole batch with a single system call,
+     * which is considerably cheaper than one call per datagram.  This
+     * implementation simply invokes {@link #receive(ByteBuffer) receive},
+     * and so receives at most one datagram in blocking mode.
+     *
+     * @param  dsts
+     *         The buffers into which the datagrams are to be transferred
+     *
+     * @param  senders
+     *         The array in which the source addresses are to be stored; must
+     *         be at least as long as {@code dsts}
+     *
+     * @return  The number of datagrams received, possibly zero if this channel
+     *          is in non-blocking mode
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code senders} is shorter than {@code dsts}
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the read operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the read operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed
+     *          and it does not permit datagrams to be accepted
+     *          from a datagram's sender
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     */
+    public int receive(ByteBuffer[] dsts, SocketAddress[] senders)
+        throws IOException
+    {
+        if (senders.length < dsts.length)
+            throw new IllegalArgumentException("senders.length < dsts.length");
+        int n = 0;
+        while (n < dsts.length) {
+            SocketAddress sender = receive(dsts[n]);
+            if (sender == null)
+                break;
+            senders[n++] = sender;
+            // Only the first datagram may be waited for
+            if (isBlocking())
+                break;
+        }
+        return n;
+    }
+
+    /**
+     * Sends a batch of datagrams via this channel.
+     *
+     * <p> The remaining bytes of {@code srcs[i]} are sent as a single
+     * datagram to {@code targets[i]}, as if by the {@link
+     * #send(ByteBuffer,SocketAddress) send} method.  If {@code targets} is
+     * {@code null}, or one of its elements is {@code null}, then the datagram
+     * is sent to the address to which this channel is connected.  Datagrams are
+     * sent in order, stopping early if this channel is in non-blocking mode
+     * and there is insufficient room in the underlying output buffer.
+     *
+     * <p> Implementations may move a whole batch with a single system call,
+     * which is considerably cheaper than one call per datagram.  This
+     * implementation simply invokes {@link #send(ByteBuffer,SocketAddress)
+     * send} or {@link #write(ByteBuffer) write} for each datagram.
+     *
+     * @param  srcs
+     *         The buffers containing the datagrams to be sent
+     *
+     * @param  targets
+     *         The addresses to which the datagrams are to be sent, or
+     *         {@code null} to send all of them to the connected address
+     *
+     * @return  The number of datagrams sent
+     *
+     * @throws  IllegalArgumentException
+     *          If {@code targets} is shorter than {@code srcs}
+     *
+     * @throws  NotYetConnectedException
+     *          If a target is {@code null} and this channel is not connected
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the write operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the write operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed
+     *          and it does not permit datagrams to be sent
+     *          to a given address
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     */
+    public int send(ByteBuffer[] srcs, SocketAddress[] targets)
+        throws IOException
+    {
+        if (targets != null && targets.length < srcs.length)
+            throw new IllegalArgumentException("targets.length < srcs.length");
+        int n = 0;
+        while (n < srcs.length) {
+            ByteBuffer src = srcs[n];
+            SocketAddress target = (targets != null) ? targets[n] : null;
+            boolean empty = !src.hasRemaining();
+            int sent = (target != null) ? send(src, target) : write(src);
+            if (sent == 0 && !empty)
+                break;
+            n++;
+        }
+        return n;
+    }
+    // ----- END android -----
+
 
     // -- ByteChannel operations --
 
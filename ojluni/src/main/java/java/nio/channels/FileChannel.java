@@ -553,6 +553,103 @@ public abstract class FileChannel
      */
     public abstract void force(boolean metaData) throws IOException;
 
+    // ----- BEGIN android -----
+    /**
+     * Advises the operating system how a region of this channel's file will
+     * be accessed.
+     *
+     * <p> The advice is one of the {@code POSIX_FADV_} constants in {@link
+     * android.system.OsConstants}.  For example {@code POSIX_FADV_SEQUENTIAL}
+     * enlarges the read-ahead window for a scan from start to end, {@code
+     * POSIX_FADV_RANDOM} disables read-ahead for a file that is read at
+     * arbitrary positions, {@code POSIX_FADV_WILLNEED} starts reading the
+     * region into the page cache in the background and {@code
+     * POSIX_FADV_DONTNEED} allows cached pages of the region to be dropped.
+     *
+     * <p> The advice is only a hint and never changes the file's content.
+     * This implementation does nothing. </p>
+     *
+     * @param  position
+     *         The position at which the region starts; must be non-negative
+     *
+     * @param  size
+     *         The size of the region; must be non-negative.  A size of zero
+     *         extends the region to the end of the file
+     *
+     * @param  advice
+     *         The advice
+     *
+     * @return  This file channel
+     *
+     * @throws  IllegalArgumentException
+     *          If the preconditions on the parameters do not hold
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     */
+    public FileChannel advise(long position, long size, int advice)
+        throws IOException
+    {
+        if ((position < 0) || (size < 0))
+            throw new IllegalArgumentException();
+        if (!isOpen())
+            throw new ClosedChannelException();
+        return this;
+    }
+
+    /**
+     * Reserves storage for a region of this channel's file.
+     *
+     * <p> Where the file system supports it, writes within the given region
+     * will then not fail for lack of disk space, and the file system has a
+     * chance to lay the region out contiguously.  This is useful for files
+     * that grow by many small appends, such as logs, which would otherwise be
+     * fragmented and stall while the file system allocates space for each
+     * write.
+     *
+     * <p> The file's size and content are not changed: any part of the region
+     * that lies beyond the end of the file is reserved, but does not become
+     * part of the file until it is written.  On file systems that cannot
+     * reserve storage ahead of time this method has no effect, as does this
+     * implementation. </p>
+     *
+     * @param  position
+     *         The position at which the region starts; must be non-negative
+     *
+     * @param  size
+     *         The size of the region; must be positive
+     *
+     * @return  This file channel
+     *
+     * @throws  IllegalArgumentException
+     *          If the preconditions on the parameters do not hold
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  NonWritableChannelException
+     *          If this channel was not opened for writing
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs, for example if there is not
+     *          enough space on the device
+     *
+     * @hide
+     */
+    public FileChannel preallocate(long position, long size)
+        throws IOException
+    {
+        if ((position < 0) || (size <= 0))
+            throw new IllegalArgumentException();
+        if (!isOpen())
+            throw new ClosedChannelException();
+        return this;
+    }
+    // ----- END android -----
+
     /**
      * Transfers bytes from this channel's file to the given writable byte
      * channel.
@@ -807,11 +904,101 @@ public abstract class FileChannel
         public static final MapMode PRIVATE
             = new MapMode("PRIVATE");
 
+        // ----- BEGIN android -----
+        /**
+         * Option for {@link #withOptions withOptions} that makes the mapping
+         * populate its page tables up front, reading the mapped region of
+         * the file ahead as needed.  Mapping then takes longer, but first
+         * accesses to the buffer take no page faults.
+         *
+         * @hide
+         */
+        public static final int POPULATE = 1;
+
+        /**
+         * Option for {@link #withOptions withOptions} that asks for the
+         * mapping to be backed by transparent huge pages where the kernel
+         * supports them for the file, which reduces the TLB misses of random
+         * accesses to a large mapping.  Without such support the option has
+         * no effect.
+         *
+         * @hide
+         */
+        public static final int HUGE_PAGES = 2;
+
+        private final MapMode baseMode;
+        private final int options;
+        // ----- END android -----
+
         private final String name;
 
         private MapMode(String name) {
             this.name = name;
+            // ----- BEGIN android -----
+            this.baseMode = this;
+            this.options = 0;
+            // ----- END android -----
+        }
+
+        // ----- BEGIN android -----
+        private MapMode(MapMode baseMode, int options) {
+            StringBuilder sb = new StringBuilder(baseMode.name);
+            if ((options & POPULATE) != 0)
+                sb.append("+POPULATE");
+            if ((options & HUGE_PAGES) != 0)
+                sb.append("+HUGE_PAGES");
+            this.name = sb.toString();
+            this.baseMode = baseMode;
+            this.options = options;
+        }
+
+        /**
+         * Returns a mode that maps like this one's {@link #baseMode base
+         * mode}, with the given options.
+         *
+         * @param  options
+         *         A combination of {@link #POPULATE} and {@link #HUGE_PAGES}
+         *
+         * @return  The mode
+         *
+         * @throws  IllegalArgumentException
+         *          If {@code options} has bits other than those of the
+         *          options
+         *
+         * @hide
+         */
+        public MapMode withOptions(int options) {
+            if ((options & ~(POPULATE | HUGE_PAGES)) != 0)
+                throw new IllegalArgumentException("Invalid options: " + options);
+            if (options == 0)
+                return baseMode;
+            return new MapMode(baseMode, options);
+        }
+
+        /**
+         * Returns the mode without options that this mode is based on, which
+         * is one of {@link #READ_ONLY}, {@link #READ_WRITE} and {@link
+         * #PRIVATE}.
+         *
+         * @return  The base mode
+         *
+         * @hide
+         */
+        public MapMode baseMode() {
+            return baseMode;
+        }
+
+        /**
+         * Returns the options of this mode.
+         *
+         * @return  A combination of {@link #POPULATE} and {@link #HUGE_PAGES}
+         *
+         * @hide
+         */
+        public int options() {
+            return options;
         }
+        // ----- END android -----
 
         /**
          * Returns a string describing this file-mapping mode.
@@ -28,7 +28,9 @@ package java.nio.channels;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
 
 /**
@@ -349,6 +351,122 @@ public abstract class Selector implements Closeable {
      */
     public abstract int select() throws IOException;
 
+    // ----- BEGIN android -----
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations.
+     *
+     * <p> This method performs a blocking <a href="#selop">selection
+     * operation</a>, with the same wake up conditions as {@link
+     * #select(long)}.  Instead of adding the selected keys to the
+     * selected-key set, it invokes the given action once for each key whose
+     * channel is ready for at least one of the operations in its interest
+     * set.  The action is invoked while the selection operation holds this
+     * selector's locks, and the key's ready set tells it which operations
+     * are ready.  The selected-key set is neither used nor changed.
+     *
+     * <p> The default implementation selects into the selected-key set and
+     * then consumes a copy of it; selectors provided by the platform pass
+     * keys to the action directly, without touching any set.  </p>
+     *
+     * @param  action   The action to perform
+     *
+     * @param  timeout  If positive, block for up to {@code timeout}
+     *                  milliseconds, more or less, while waiting for a
+     *                  channel to become ready; if zero, block indefinitely;
+     *                  must not be negative
+     *
+     * @return  The number of unique keys consumed, possibly zero
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     *
+     * @throws  IllegalArgumentException
+     *          If the value of the timeout argument is negative
+     */
+    public int select(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        if (timeout < 0)
+            throw new IllegalArgumentException("Negative timeout");
+        return doSelect(Objects.requireNonNull(action), timeout);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations, blocking until at least one channel is
+     * selected, this selector's {@link #wakeup wakeup} method is invoked, or
+     * the current thread is interrupted.
+     *
+     * <p> Equivalent to {@link #select(Consumer, long) select(action, 0)}.
+     *
+     * @param  action   The action to perform
+     *
+     * @return  The number of unique keys consumed, possibly zero
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     */
+    public int select(Consumer<SelectionKey> action) throws IOException {
+        return select(action, 0);
+    }
+
+    /**
+     * Selects and performs an action on the keys whose corresponding channels
+     * are ready for I/O operations, without blocking.
+     *
+     * <p> This is the non-blocking counterpart of {@link
+     * #select(Consumer, long)}, as {@link #selectNow()} is of {@link
+     * #select(long)}.
+     *
+     * @param  action   The action to perform
+     *
+     * @return  The number of unique keys consumed, possibly zero
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @throws  ClosedSelectorException
+     *          If this selector is closed or is closed by the action
+     */
+    public int selectNow(Consumer<SelectionKey> action) throws IOException {
+        return doSelect(Objects.requireNonNull(action), -1);
+    }
+
+    /**
+     * Default implementation of the select(Consumer) methods: a timeout of
+     * -1 means selectNow.
+     */
+    private int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        synchronized (this) {
+            Set<SelectionKey> selectedKeys = selectedKeys();
+            synchronized (selectedKeys) {
+                selectedKeys.clear();
+                int numKeySelected = (timeout < 0) ? selectNow() : select(timeout);
+
+                // Copy the selected-key set as the action may remove keys.
+                SelectionKey[] keysToConsume =
+                    selectedKeys.toArray(new SelectionKey[selectedKeys.size()]);
+                selectedKeys.clear();
+                for (SelectionKey key : keysToConsume) {
+                    action.accept(key);
+                    if (!isOpen())
+                        throw new ClosedSelectorException();
+                }
+                return numKeySelected;
+            }
+        }
+    }
+    // ----- END android -----
+
     /**
      * Causes the first selection operation that has not yet returned to return
      * immediately.
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 The Android Open Source Project
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package java.nio.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileTreeWalker.Event;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * A {@code Spliterator} over the nodes of a file tree, for the streams of
+ * {@link Files#walk} and {@link Files#find}. Unlike {@link FileTreeIterator},
+ * it splits at directory boundaries: a split takes over part of the entries
+ * of the outermost directory that still has some, so that parallel pipelines
+ * walk separate subtrees.
+ *
+ * <p> The nodes are reported depth-first, as by {@code FileTreeIterator},
+ * until the spliterator is split. Closing any of the spliterators split from
+ * the same one closes them all, and must not be done while another thread is
+ * traversing one of them.
+ */
+class FileTreeSpliterator implements Spliterator<Event>, Closeable {
+    private final FileTreeWalker walker;
+    // the walkers of all the spliterators split from the same one
+    private final Queue<FileTreeWalker> walkers;
+    private Event next;
+    private long est;
+
+    /**
+     * Creates a new spliterator to walk the file tree starting at the given
+     * file.  If {@code fileTypesOnly} is true, the attributes of entries
+     * other than directories may only know the file type, which is all that
+     * {@code Files.walk} needs.
+     *
+     * @throws  IllegalArgumentException
+     *          if {@code maxDepth} is negative
+     * @throws  IOException
+     *          if an I/O errors occurs opening the starting file
+     * @throws  SecurityException
+     *          if the security manager denies access to the starting file
+     * @throws  NullPointerException
+     *          if {@code start} or {@code options} is {@code null} or
+     *          the options array contains a {@code null} element
+     */
+    FileTreeSpliterator(Path start, int maxDepth, boolean fileTypesOnly,
+                        FileVisitOption... options)
+        throws IOException
+    {
+        this.walker = new FileTreeWalker(Arrays.asList(options), maxDepth, fileTypesOnly);
+        this.walkers = new ConcurrentLinkedQueue<>();
+        this.walkers.add(walker);
+        this.next = walker.walk(start);
+        this.est = Long.MAX_VALUE;
+        assert next.type() == FileTreeWalker.EventType.ENTRY ||
+               next.type() == FileTreeWalker.EventType.START_DIRECTORY;
+
+        // IOException if there a problem accessing the starting file
+        IOException ioe = next.ioeException();
+        if (ioe != null)
+            throw ioe;
+    }
+
+    private FileTreeSpliterator(FileTreeWalker walker, Queue<FileTreeWalker> walkers,
+                                long est)
+    {
+        this.walker = walker;
+        this.walkers = walkers;
+        this.est = est;
+        walkers.add(walker);
+    }
+
+    private Event nextEvent() {
+        if (next != null) {
+            Event result = next;
+            next = null;
+            return result;
+        }
+        FileTreeWalker.Event ev = walker.next();
+        while (ev != null) {
+            IOException ioe = ev.ioeException();
+            if (ioe != null)
+                throw new UncheckedIOException(ioe);
+
+            // END_DIRECTORY events are ignored
+            if (ev.type() != FileTreeWalker.EventType.END_DIRECTORY)
+                return ev;
+            ev = walker.next();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Event> action) {
+        if (action == null)
+            throw new NullPointerException();
+        if (!walker.isOpen())
+            throw new IllegalStateException();
+        Event ev = nextEvent();
+        if (ev == null)
+            return false;
+        action.accept(ev);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Event> action) {
+        if (action == null)
+            throw new NullPointerException();
+        if (!walker.isOpen())
+            throw new IllegalStateException();
+        for (Event ev = nextEvent(); ev != null; ev = nextEvent())
+            action.accept(ev);
+    }
+
+    @Override
+    public Spliterator<Event> trySplit() {
+        FileTreeWalker split = walker.trySplit();
+        if (split == null)
+            return null;
+        // the size of a subtree is unknown, so halve the estimate like the
+        // spliterators over iterators of unknown size do
+        est >>>= 1;
+        return new FileTreeSpliterator(split, walkers, est);
+    }
+
+    @Override
+    public long estimateSize() {
+        return est;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+
+    @Override
+    public void close() {
+        FileTreeWalker w;
+        while ((w = walkers.poll()) != null)
+            w.close();
+    }
+}
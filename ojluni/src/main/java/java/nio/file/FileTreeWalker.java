@@ -29,8 +29,12 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import sun.nio.fs.BasicFileAttributesHolder;
 
 /**
@@ -59,6 +63,14 @@ class FileTreeWalker implements Closeable {
     private final LinkOption[] linkOptions;
     private final int maxDepth;
     private final ArrayDeque<DirectoryNode> stack = new ArrayDeque<>();
+    // Android-added: Splitting for parallel walks.
+    // The directories above the start of a walk split from another walk,
+    // innermost first. Their number is the depth of the walk's start.
+    private final List<DirectoryNode> ancestors;
+    // Android-added: Walks that only need the file types of entries.
+    // Whether the attributes of entries other than directories are only used
+    // for their file type, so that those read with the directory will do.
+    private final boolean fileTypesOnly;
     private boolean closed;
 
     /**
@@ -68,7 +80,9 @@ class FileTreeWalker implements Closeable {
         private final Path dir;
         private final Object key;
         private final DirectoryStream<Path> stream;
-        private final Iterator<Path> iterator;
+        // Android-changed: Splitting for parallel walks.
+        // private final Iterator<Path> iterator;
+        private Iterator<Path> iterator;
         private boolean skipped;
 
         DirectoryNode(Path dir, Object key, DirectoryStream<Path> stream) {
@@ -78,6 +92,18 @@ class FileTreeWalker implements Closeable {
             this.iterator = stream.iterator();
         }
 
+        // Android-added: Splitting for parallel walks.
+        /**
+         * Creates a node for a directory whose stream belongs to another
+         * walker, iterating the given entries if not null.
+         */
+        DirectoryNode(Path dir, Object key, Iterator<Path> entries) {
+            this.dir = dir;
+            this.key = key;
+            this.stream = null;
+            this.iterator = entries;
+        }
+
         Path directory() {
             return dir;
         }
@@ -101,6 +127,91 @@ class FileTreeWalker implements Closeable {
         boolean skipped() {
             return skipped;
         }
+
+        // Android-added: Splitting for parallel walks.
+        void closeStream() throws IOException {
+            if (stream != null)
+                stream.close();
+        }
+
+        /**
+         * Splits off part of the entries not yet iterated, first reading all
+         * of them from the directory. Returns {@code null} if there are none
+         * to split off; {@code takeAll} allows taking a single entry.
+         */
+        EntryRange trySplit(boolean takeAll) {
+            if (skipped)
+                return null;
+            if (!(iterator instanceof EntryRange)) {
+                List<Path> entries = new ArrayList<>();
+                IOException ioe = null;
+                try {
+                    while (iterator.hasNext())
+                        entries.add(iterator.next());
+                } catch (DirectoryIteratorException x) {
+                    ioe = x.getCause();
+                }
+                iterator = new EntryRange(entries.toArray(new Path[entries.size()]),
+                                          0, entries.size(), ioe);
+            }
+            return ((EntryRange)iterator).trySplit(takeAll);
+        }
+    }
+
+    // Android-added: Splitting for parallel walks.
+    /**
+     * The entries of a directory read ahead of the walk, in the range
+     * [index, end) of an array. An error reading the directory is thrown by
+     * the range ending where the directory's entries end.
+     */
+    private static class EntryRange implements Iterator<Path> {
+        private final Path[] entries;
+        private int index;
+        private int end;
+        private IOException ioe;
+
+        EntryRange(Path[] entries, int index, int end, IOException ioe) {
+            this.entries = entries;
+            this.index = index;
+            this.end = end;
+            this.ioe = ioe;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < end)
+                return true;
+            if (ioe != null) {
+                IOException x = ioe;
+                ioe = null;
+                throw new DirectoryIteratorException(x);
+            }
+            return false;
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Path entry = entries[index];
+            entries[index++] = null;
+            return entry;
+        }
+
+        EntryRange trySplit(boolean takeAll) {
+            int mid = (index + end) >>> 1;
+            if (takeAll) {
+                mid = index;
+            } else if (mid == index) {
+                return null;
+            }
+            if (mid == end && ioe == null)
+                return null;
+            EntryRange split = new EntryRange(entries, mid, end, ioe);
+            end = mid;
+            ioe = null;
+            return split;
+        }
     }
 
     /**
@@ -175,6 +286,18 @@ class FileTreeWalker implements Closeable {
      *          array contains a {@code null} element
      */
     FileTreeWalker(Collection<FileVisitOption> options, int maxDepth) {
+        // Android-changed: Walks that only need the file types of entries.
+        this(options, maxDepth, false);
+    }
+
+    // Android-added: Walks that only need the file types of entries.
+    /**
+     * Creates a {@code FileTreeWalker} whose events for entries other than
+     * directories may have attributes that only know the file type, if
+     * {@code fileTypesOnly} is true.
+     */
+    FileTreeWalker(Collection<FileVisitOption> options, int maxDepth,
+                   boolean fileTypesOnly) {
         boolean fl = false;
         for (FileVisitOption option: options) {
             // will throw NPE if options contains null
@@ -191,6 +314,26 @@ class FileTreeWalker implements Closeable {
         this.linkOptions = (fl) ? new LinkOption[0] :
             new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
         this.maxDepth = maxDepth;
+        // Android-added: Splitting for parallel walks.
+        this.ancestors = Collections.emptyList();
+        // Android-added: Walks that only need the file types of entries.
+        this.fileTypesOnly = fileTypesOnly;
+    }
+
+    // Android-added: Splitting for parallel walks.
+    /**
+     * Creates a walker that continues the walk of {@code walker} over part of
+     * the entries of {@code dir}, with the given ancestors of {@code dir}.
+     */
+    private FileTreeWalker(FileTreeWalker walker, List<DirectoryNode> ancestors,
+                           DirectoryNode dir)
+    {
+        this.followLinks = walker.followLinks;
+        this.linkOptions = walker.linkOptions;
+        this.maxDepth = walker.maxDepth;
+        this.ancestors = ancestors;
+        this.fileTypesOnly = walker.fileTypesOnly;
+        this.stack.push(dir);
     }
 
     /**
@@ -207,7 +350,13 @@ class FileTreeWalker implements Closeable {
             (System.getSecurityManager() == null))
         {
             BasicFileAttributes cached = ((BasicFileAttributesHolder)file).get();
-            if (cached != null && (!followLinks || !cached.isSymbolicLink())) {
+            // Android-changed: Attributes that only know the file type are
+            // used only if that is all that is needed. Directories need their
+            // file key, and other attributes may be passed to the caller.
+            // if (cached != null && (!followLinks || !cached.isSymbolicLink())) {
+            if (cached != null && (!followLinks || !cached.isSymbolicLink()) &&
+                (!((BasicFileAttributesHolder)file).isFileTypeOnly() ||
+                 (fileTypesOnly && !cached.isDirectory()))) {
                 return cached;
             }
         }
@@ -236,7 +385,9 @@ class FileTreeWalker implements Closeable {
     private boolean wouldLoop(Path dir, Object key) {
         // if this directory and ancestor has a file key then we compare
         // them; otherwise we use less efficient isSameFile test.
-        for (DirectoryNode ancestor: stack) {
+        // Android-changed: Splitting for parallel walks.
+        // for (DirectoryNode ancestor: stack) {
+        for (DirectoryNode ancestor: ancestorsOf(stack, ancestors)) {
             Object ancestorKey = ancestor.key();
             if (key != null && ancestorKey != null) {
                 if (key.equals(ancestorKey)) {
@@ -257,6 +408,17 @@ class FileTreeWalker implements Closeable {
         return false;
     }
 
+    // Android-added: Splitting for parallel walks.
+    private static Iterable<DirectoryNode> ancestorsOf(ArrayDeque<DirectoryNode> stack,
+                                                       List<DirectoryNode> ancestors) {
+        if (ancestors.isEmpty())
+            return stack;
+        List<DirectoryNode> all = new ArrayList<>(stack.size() + ancestors.size());
+        all.addAll(stack);
+        all.addAll(ancestors);
+        return all;
+    }
+
     /**
      * Visits the given file, returning the {@code Event} corresponding to that
      * visit.
@@ -283,7 +445,9 @@ class FileTreeWalker implements Closeable {
         }
 
         // at maximum depth or file is not a directory
-        int depth = stack.size();
+        // Android-changed: Splitting for parallel walks.
+        // int depth = stack.size();
+        int depth = ancestors.size() + stack.size();
         if (depth >= maxDepth || !attrs.isDirectory()) {
             return new Event(EventType.ENTRY, entry, attrs);
         }
@@ -356,7 +520,9 @@ class FileTreeWalker implements Closeable {
             // no next entry so close and pop directory, creating corresponding event
             if (entry == null) {
                 try {
-                    top.stream().close();
+                    // Android-changed: Splitting for parallel walks.
+                    // top.stream().close();
+                    top.closeStream();
                 } catch (IOException e) {
                     if (ioe != null) {
                         ioe = e;
@@ -388,7 +554,9 @@ class FileTreeWalker implements Closeable {
         if (!stack.isEmpty()) {
             DirectoryNode node = stack.pop();
             try {
-                node.stream().close();
+                // Android-changed: Splitting for parallel walks.
+                // node.stream().close();
+                node.closeStream();
             } catch (IOException ignore) { }
         }
     }
@@ -403,6 +571,38 @@ class FileTreeWalker implements Closeable {
         }
     }
 
+    // Android-added: Splitting for parallel walks.
+    /**
+     * Splits off part of the entries that this walker has yet to visit, and
+     * returns a walker that visits them, or {@code null} if there are none to
+     * split off. The entries are taken from the outermost directory that has
+     * any, so that the split covers as much of the tree as possible; half of
+     * them unless the walker is still to descend into them.
+     *
+     * The returned walker does not close the directories above its entries,
+     * and reports them in no events but END_DIRECTORY ones.
+     */
+    FileTreeWalker trySplit() {
+        if (closed)
+            return null;
+        List<DirectoryNode> outer = new ArrayList<>();
+        Iterator<DirectoryNode> it = stack.descendingIterator();
+        while (it.hasNext()) {
+            DirectoryNode node = it.next();
+            EntryRange entries = node.trySplit(it.hasNext());
+            if (entries != null) {
+                List<DirectoryNode> splitAncestors = new ArrayList<>(outer.size() + ancestors.size());
+                for (int i = outer.size() - 1; i >= 0; i--)
+                    splitAncestors.add(outer.get(i));
+                splitAncestors.addAll(ancestors);
+                return new FileTreeWalker(this, splitAncestors,
+                    new DirectoryNode(node.directory(), node.key(), entries));
+            }
+            outer.add(new DirectoryNode(node.directory(), node.key(), (Iterator<Path>)null));
+        }
+        return null;
+    }
+
     /**
      * Returns {@code true} if the walker is open.
      */
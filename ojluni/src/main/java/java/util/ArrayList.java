@@ -1468,4 +1468,16 @@ public class ArrayList<E> extends AbstractList<E>
         }
         modCount++;
     }
+
+    // Android-added: parallelSort, sorting elementData in place.
+    @Override
+    @SuppressWarnings("unchecked")
+    public void parallelSort(Comparator<? super E> c) {
+        final int expectedModCount = modCount;
+        Arrays.parallelSort((E[]) elementData, 0, size, c);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
 }
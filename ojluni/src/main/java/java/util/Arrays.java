@@ -690,6 +690,9 @@ public class Arrays {
         if (n <= MIN_ARRAY_SORT_GRAN ||
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+        // Android-changed: Use parallel radix sort on large arrays.
+        else if (n >= RadixSort.PARALLEL_RADIX_SORT_THRESHOLD)
+            RadixSort.parallelSort(a, 0, n);
         else
             new ArraysParallelSortHelpers.FJInt.Sorter
                 (null, a, new int[n], 0, n, 0,
@@ -730,6 +733,9 @@ public class Arrays {
         if (n <= MIN_ARRAY_SORT_GRAN ||
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        // Android-changed: Use parallel radix sort on large arrays.
+        else if (n >= RadixSort.PARALLEL_RADIX_SORT_THRESHOLD)
+            RadixSort.parallelSort(a, fromIndex, toIndex);
         else
             new ArraysParallelSortHelpers.FJInt.Sorter
                 (null, a, new int[n], fromIndex, n, 0,
@@ -760,6 +766,9 @@ public class Arrays {
         if (n <= MIN_ARRAY_SORT_GRAN ||
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+        // Android-changed: Use parallel radix sort on large arrays.
+        else if (n >= RadixSort.PARALLEL_RADIX_SORT_THRESHOLD)
+            RadixSort.parallelSort(a, 0, n);
         else
             new ArraysParallelSortHelpers.FJLong.Sorter
                 (null, a, new long[n], 0, n, 0,
@@ -800,6 +809,9 @@ public class Arrays {
         if (n <= MIN_ARRAY_SORT_GRAN ||
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        // Android-changed: Use parallel radix sort on large arrays.
+        else if (n >= RadixSort.PARALLEL_RADIX_SORT_THRESHOLD)
+            RadixSort.parallelSort(a, fromIndex, toIndex);
         else
             new ArraysParallelSortHelpers.FJLong.Sorter
                 (null, a, new long[n], fromIndex, n, 0,
@@ -838,6 +850,9 @@ public class Arrays {
         if (n <= MIN_ARRAY_SORT_GRAN ||
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+        // Android-changed: Use parallel radix sort on large arrays.
+        else if (n >= RadixSort.PARALLEL_RADIX_SORT_THRESHOLD)
+            RadixSort.parallelSort(a, 0, n);
         else
             new ArraysParallelSortHelpers.FJFloat.Sorter
                 (null, a, new float[n], 0, n, 0,
@@ -886,6 +901,9 @@ public class Arrays {
         if (n <= MIN_ARRAY_SORT_GRAN ||
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        // Android-changed: Use parallel radix sort on large arrays.
+        else if (n >= RadixSort.PARALLEL_RADIX_SORT_THRESHOLD)
+            RadixSort.parallelSort(a, fromIndex, toIndex);
         else
             new ArraysParallelSortHelpers.FJFloat.Sorter
                 (null, a, new float[n], fromIndex, n, 0,
@@ -924,6 +942,9 @@ public class Arrays {
         if (n <= MIN_ARRAY_SORT_GRAN ||
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+        // Android-changed: Use parallel radix sort on large arrays.
+        else if (n >= RadixSort.PARALLEL_RADIX_SORT_THRESHOLD)
+            RadixSort.parallelSort(a, 0, n);
         else
             new ArraysParallelSortHelpers.FJDouble.Sorter
                 (null, a, new double[n], 0, n, 0,
@@ -972,6 +993,9 @@ public class Arrays {
         if (n <= MIN_ARRAY_SORT_GRAN ||
             (p = ForkJoinPool.getCommonPoolParallelism()) == 1)
             DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+        // Android-changed: Use parallel radix sort on large arrays.
+        else if (n >= RadixSort.PARALLEL_RADIX_SORT_THRESHOLD)
+            RadixSort.parallelSort(a, fromIndex, toIndex);
         else
             new ArraysParallelSortHelpers.FJDouble.Sorter
                 (null, a, new double[n], fromIndex, n, 0,
@@ -3821,6 +3845,12 @@ public class Arrays {
         public void sort(Comparator<? super E> c) {
             Arrays.sort(a, c);
         }
+
+        // Android-added: parallelSort, sorting the array in place.
+        @Override
+        public void parallelSort(Comparator<? super E> c) {
+            Arrays.parallelSort(a, c);
+        }
     }
 
     /**
@@ -216,6 +216,56 @@ public class Collections {
         }
     }
 
+    // Android-added: parallelSort, for sorting large lists on several threads.
+    /**
+     * Sorts the specified list into ascending order, according to the
+     * {@linkplain Comparable natural ordering} of its elements, like {@link
+     * #sort(List)}, but on several threads if the list is large.
+     *
+     * @param  <T> the class of the objects in the list
+     * @param  list the list to be sorted.
+     * @throws ClassCastException if the list contains elements that are not
+     *         <i>mutually comparable</i> (for example, strings and integers).
+     * @throws UnsupportedOperationException if the specified list's
+     *         list-iterator does not support the {@code set} operation.
+     * @throws IllegalArgumentException (optional) if the implementation
+     *         detects that the natural ordering of the list elements is
+     *         found to violate the {@link Comparable} contract
+     * @see List#parallelSort(Comparator)
+     */
+    public static <T extends Comparable<? super T>> void parallelSort(List<T> list) {
+        list.parallelSort(null);
+    }
+
+    // Android-added: parallelSort, for sorting large lists on several threads.
+    /**
+     * Sorts the specified list according to the order induced by the
+     * specified comparator, like {@link #sort(List, Comparator)}, but on
+     * several threads if the list is large.  The comparator may be called
+     * from threads of the {@link java.util.concurrent.ForkJoinPool#commonPool()
+     * common pool}.
+     *
+     * @implNote
+     * This implementation defers to the {@link List#parallelSort(Comparator)}
+     * method using the specified list and comparator.
+     *
+     * @param  <T> the class of the objects in the list
+     * @param  list the list to be sorted.
+     * @param  c the comparator to determine the order of the list.  A
+     *        {@code null} value indicates that the elements' <i>natural
+     *        ordering</i> should be used.
+     * @throws ClassCastException if the list contains elements that are not
+     *         <i>mutually comparable</i> using the specified comparator.
+     * @throws UnsupportedOperationException if the specified list's
+     *         list-iterator does not support the {@code set} operation.
+     * @throws IllegalArgumentException (optional) if the comparator is
+     *         found to violate the {@link Comparator} contract
+     * @see List#parallelSort(Comparator)
+     */
+    public static <T> void parallelSort(List<T> list, Comparator<? super T> c) {
+        list.parallelSort(c);
+    }
+
 
     /**
      * Searches the specified list for the specified object using the binary
@@ -1371,6 +1421,11 @@ public class Collections {
         public void sort(Comparator<? super E> c) {
             throw new UnsupportedOperationException();
         }
+        // Android-added: parallelSort.
+        @Override
+        public void parallelSort(Comparator<? super E> c) {
+            throw new UnsupportedOperationException();
+        }
 
         public ListIterator<E> listIterator()   {return listIterator(0);}
 
@@ -2503,6 +2558,11 @@ public class Collections {
         public void sort(Comparator<? super E> c) {
             synchronized (mutex) {list.sort(c);}
         }
+        // Android-added: parallelSort.
+        @Override
+        public void parallelSort(Comparator<? super E> c) {
+            synchronized (mutex) {list.parallelSort(c);}
+        }
 
         /**
          * SynchronizedRandomAccessList instances are serialized as
@@ -3538,6 +3598,12 @@ public class Collections {
         public void sort(Comparator<? super E> c) {
             list.sort(c);
         }
+
+        // Android-added: parallelSort.
+        @Override
+        public void parallelSort(Comparator<? super E> c) {
+            list.parallelSort(c);
+        }
     }
 
     /**
@@ -4517,6 +4583,10 @@ public class Collections {
         @Override
         public void sort(Comparator<? super E> c) {
         }
+        // Android-added: parallelSort.
+        @Override
+        public void parallelSort(Comparator<? super E> c) {
+        }
 
         // Override default methods in Collection
         @Override
@@ -4877,6 +4947,10 @@ public class Collections {
         @Override
         public void sort(Comparator<? super E> c) {
         }
+        // Android-added: parallelSort.
+        @Override
+        public void parallelSort(Comparator<? super E> c) {
+        }
         @Override
         public Spliterator<E> spliterator() {
             return singletonSpliterator(element);
@@ -5005,6 +5079,238 @@ public class Collections {
         }
     }
 
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable list containing the specified elements, in
+     * order.  Unlike the lists returned by {@link #unmodifiableList}, the
+     * returned list isn't a view of another list: lists of up to two
+     * elements keep them in fields, and larger ones in a single array, so
+     * that small lists take little memory.  The returned list is
+     * serializable and implements {@link RandomAccess}.
+     *
+     * @param <E> the class of the list elements
+     * @param elements the elements of the returned list.
+     * @return an immutable list containing the specified elements.
+     * @throws NullPointerException if an element is null or the array is
+     *         null
+     * @see #listCopyOf(Collection)
+     *
+     * @hide
+     */
+    @SafeVarargs
+    public static <E> List<E> listOf(E... elements) {
+        return ImmutableCollections.listFromArray(elements);
+    }
+
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable list containing the elements of the specified
+     * collection, in the order of its iterator, like {@link #listOf}.  If
+     * the collection is itself such a list, it is returned without being
+     * copied.
+     *
+     * @param <E> the class of the list elements
+     * @param coll the collection whose elements are to be copied.
+     * @return an immutable list containing the elements of the collection.
+     * @throws NullPointerException if an element is null or the collection
+     *         is null
+     *
+     * @hide
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> List<E> listCopyOf(Collection<? extends E> coll) {
+        if (coll instanceof ImmutableCollections.AbstractImmutableList) {
+            return (List<E>) coll;
+        }
+        return ImmutableCollections.listFromArray(coll.toArray());
+    }
+
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable set containing the specified elements.  Sets of
+     * up to two elements keep them in fields, and larger ones in a single
+     * open-addressed hash table.  The iteration order of the returned set
+     * is unspecified.  The returned set is serializable.
+     *
+     * @param <E> the class of the set elements
+     * @param elements the elements of the returned set.
+     * @return an immutable set containing the specified elements.
+     * @throws IllegalArgumentException if an element is repeated
+     * @throws NullPointerException if an element is null or the array is
+     *         null
+     * @see #setCopyOf(Collection)
+     *
+     * @hide
+     */
+    @SafeVarargs
+    public static <E> Set<E> setOf(E... elements) {
+        return ImmutableCollections.setFromArray(elements, false);
+    }
+
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable set containing the distinct elements of the
+     * specified collection, like {@link #setOf}.  If the collection is
+     * itself such a set, it is returned without being copied.
+     *
+     * @param <E> the class of the set elements
+     * @param coll the collection whose elements are to be copied.
+     * @return an immutable set containing the elements of the collection.
+     * @throws NullPointerException if an element is null or the collection
+     *         is null
+     *
+     * @hide
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> Set<E> setCopyOf(Collection<? extends E> coll) {
+        if (coll instanceof ImmutableCollections.AbstractImmutableSet) {
+            return (Set<E>) coll;
+        }
+        return ImmutableCollections.setFromArray(coll.toArray(), true);
+    }
+
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable map containing no mappings.  The returned map
+     * is serializable.
+     *
+     * @param <K> the class of the map keys
+     * @param <V> the class of the map values
+     * @return an empty immutable map.
+     * @see #mapOfEntries(Map.Entry...)
+     *
+     * @hide
+     */
+    public static <K,V> Map<K,V> mapOf() {
+        return ImmutableCollections.mapFromArray(new Object[0]);
+    }
+
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable map containing a single mapping.  Unlike {@link
+     * #singletonMap}, the map doesn't permit null keys or values.
+     *
+     * @param <K> the class of the map keys
+     * @param <V> the class of the map values
+     * @param k1 the key.
+     * @param v1 the value of the key.
+     * @return an immutable map containing the specified mapping.
+     * @throws NullPointerException if the key or value is null
+     *
+     * @hide
+     */
+    public static <K,V> Map<K,V> mapOf(K k1, V v1) {
+        return ImmutableCollections.mapFromArray(new Object[] {k1, v1});
+    }
+
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable map containing two mappings.
+     *
+     * @param <K> the class of the map keys
+     * @param <V> the class of the map values
+     * @param k1 the first key.
+     * @param v1 the value of the first key.
+     * @param k2 the second key.
+     * @param v2 the value of the second key.
+     * @return an immutable map containing the specified mappings.
+     * @throws IllegalArgumentException if the keys are equal
+     * @throws NullPointerException if a key or value is null
+     *
+     * @hide
+     */
+    public static <K,V> Map<K,V> mapOf(K k1, V v1, K k2, V v2) {
+        return ImmutableCollections.mapFromArray(new Object[] {k1, v1, k2, v2});
+    }
+
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable map containing three mappings.
+     *
+     * @param <K> the class of the map keys
+     * @param <V> the class of the map values
+     * @param k1 the first key.
+     * @param v1 the value of the first key.
+     * @param k2 the second key.
+     * @param v2 the value of the second key.
+     * @param k3 the third key.
+     * @param v3 the value of the third key.
+     * @return an immutable map containing the specified mappings.
+     * @throws IllegalArgumentException if a key is repeated
+     * @throws NullPointerException if a key or value is null
+     *
+     * @hide
+     */
+    public static <K,V> Map<K,V> mapOf(K k1, V v1, K k2, V v2, K k3, V v3) {
+        return ImmutableCollections.mapFromArray(new Object[] {k1, v1, k2, v2, k3, v3});
+    }
+
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable map containing the keys and values of the
+     * specified entries.  Maps of up to two mappings keep them in fields,
+     * and larger ones in a single open-addressed hash table that holds
+     * each key next to its value, so that small maps take little memory.
+     * The iteration order of the returned map is unspecified.  The
+     * returned map is serializable.
+     *
+     * @param <K> the class of the map keys
+     * @param <V> the class of the map values
+     * @param entries the entries whose keys and values are to be copied.
+     * @return an immutable map containing the specified mappings.
+     * @throws IllegalArgumentException if a key is repeated
+     * @throws NullPointerException if an entry, key or value is null or
+     *         the array is null
+     *
+     * @hide
+     */
+    @SafeVarargs
+    public static <K,V> Map<K,V> mapOfEntries(Map.Entry<? extends K, ? extends V>... entries) {
+        Object[] keysAndValues = new Object[entries.length * 2];
+        for (int i = 0; i < entries.length; i++) {
+            keysAndValues[2 * i] = entries[i].getKey();
+            keysAndValues[2 * i + 1] = entries[i].getValue();
+        }
+        return ImmutableCollections.mapFromArray(keysAndValues);
+    }
+
+    // Android-added: Compact immutable collections.
+    /**
+     * Returns an immutable map containing the mappings of the specified
+     * map, like {@link #mapOfEntries}.  If the map is itself such a map, it
+     * is returned without being copied.
+     *
+     * @param <K> the class of the map keys
+     * @param <V> the class of the map values
+     * @param map the map whose mappings are to be copied.
+     * @return an immutable map containing the mappings of the map.
+     * @throws IllegalArgumentException if the map has equal keys, as an
+     *         {@link IdentityHashMap} may
+     * @throws NullPointerException if a key or value is null or the map is
+     *         null
+     *
+     * @hide
+     */
+    @SuppressWarnings("unchecked")
+    public static <K,V> Map<K,V> mapCopyOf(Map<? extends K, ? extends V> map) {
+        if (map instanceof ImmutableCollections.AbstractImmutableMap) {
+            return (Map<K,V>) map;
+        }
+        Object[] keysAndValues = new Object[map.size() * 2];
+        int i = 0;
+        for (Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            if (i == keysAndValues.length) {
+                keysAndValues = Arrays.copyOf(keysAndValues, i * 2 + 2);
+            }
+            keysAndValues[i++] = e.getKey();
+            keysAndValues[i++] = e.getValue();
+        }
+        if (i < keysAndValues.length) {
+            keysAndValues = Arrays.copyOf(keysAndValues, i);
+        }
+        return ImmutableCollections.mapFromArray(keysAndValues);
+    }
+
     // Miscellaneous
 
     /**
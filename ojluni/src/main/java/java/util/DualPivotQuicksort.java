@@ -142,7 +142,12 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
             if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
+                // Android-changed: Use radix sort instead of Quicksort on large arrays,
+                // if there is a workspace for it.
+                if (right - left < RadixSort.RADIX_SORT_THRESHOLD
+                        || !RadixSort.sort(a, left, right + 1, work, workBase, workLen)) {
+                    sort(a, left, right, true);
+                }
                 return;
             }
         }
@@ -590,7 +595,12 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
             if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
+                // Android-changed: Use radix sort instead of Quicksort on large arrays,
+                // if there is a workspace for it.
+                if (right - left < RadixSort.RADIX_SORT_THRESHOLD
+                        || !RadixSort.sort(a, left, right + 1, work, workBase, workLen)) {
+                    sort(a, left, right, true);
+                }
                 return;
             }
         }
@@ -2138,7 +2148,12 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
             if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
+                // Android-changed: Use radix sort instead of Quicksort on large arrays,
+                // if there is a workspace for it.
+                if (right - left < RadixSort.RADIX_SORT_THRESHOLD
+                        || !RadixSort.sort(a, left, right + 1, work, workBase, workLen)) {
+                    sort(a, left, right, true);
+                }
                 return;
             }
         }
@@ -2677,7 +2692,12 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
             if (++count == MAX_RUN_COUNT) {
-                sort(a, left, right, true);
+                // Android-changed: Use radix sort instead of Quicksort on large arrays,
+                // if there is a workspace for it.
+                if (right - left < RadixSort.RADIX_SORT_THRESHOLD
+                        || !RadixSort.sort(a, left, right + 1, work, workBase, workLen)) {
+                    sort(a, left, right, true);
+                }
                 return;
             }
         }
@@ -0,0 +1,836 @@
+/*
+ * Copyright 2017 The Android Open Source Project
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compact immutable lists, sets and maps, returned by {@link
+ * Collections#listOf}, {@link Collections#setOf}, {@link Collections#mapOf}
+ * and their relatives.
+ *
+ * <p> Unlike the unmodifiable views of {@link Collections}, these hold
+ * their elements themselves.  Collections of up to two elements keep them
+ * in fields, and larger ones in a single array: lists in order, and sets
+ * and maps in an open-addressed hash table with linear probing that is at
+ * most half full.  Maps keep each key next to its value in the table.
+ * Null elements, keys and values are not permitted.
+ *
+ * <p> All of them are serialized as a {@link SerialForm}, which holds the
+ * elements in an array, so that the classes can change between releases.
+ */
+final class ImmutableCollections {
+
+    private ImmutableCollections() {
+    }
+
+    static UnsupportedOperationException uoe() {
+        return new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a list of the elements of the given array, which must be an
+     * {@code Object[]} that nothing else refers to.
+     *
+     * @throws NullPointerException if an element is null
+     */
+    @SuppressWarnings("unchecked")
+    static <E> List<E> listFromTrustedArray(Object[] a) {
+        for (Object e : a) {
+            Objects.requireNonNull(e);
+        }
+        switch (a.length) {
+            case 0:
+                return (List<E>) List0.INSTANCE;
+            case 1:
+                return new List1<>((E) a[0]);
+            case 2:
+                return new List2<>((E) a[0], (E) a[1]);
+            default:
+                return new ListN<>(a);
+        }
+    }
+
+    /**
+     * Returns a list of the elements of a copy of the given array, which
+     * may be of a subclass of {@code Object[]} and may still be used by
+     * others.
+     *
+     * @throws NullPointerException if an element is null
+     */
+    static <E> List<E> listFromArray(Object[] a) {
+        return listFromTrustedArray(Arrays.copyOf(a, a.length, Object[].class));
+    }
+
+    /**
+     * Returns a set of the elements of the given array, which isn't
+     * modified.
+     *
+     * @throws NullPointerException if an element is null
+     * @throws IllegalArgumentException if an element is repeated and
+     *         {@code allowDuplicates} is false
+     */
+    @SuppressWarnings("unchecked")
+    static <E> Set<E> setFromArray(Object[] a, boolean allowDuplicates) {
+        for (Object e : a) {
+            Objects.requireNonNull(e);
+        }
+        switch (a.length) {
+            case 0:
+                return (Set<E>) Set0.INSTANCE;
+            case 1:
+                return new Set1<>((E) a[0]);
+            case 2:
+                if (!a[0].equals(a[1])) {
+                    return new Set2<>((E) a[0], (E) a[1]);
+                } else if (allowDuplicates) {
+                    return new Set1<>((E) a[0]);
+                }
+                throw new IllegalArgumentException("duplicate element: " + a[0]);
+            default:
+                return SetN.create(a, allowDuplicates);
+        }
+    }
+
+    /**
+     * Returns a map of the keys and values of the given array, in which
+     * each key is followed by its value, and which isn't modified.
+     *
+     * @throws NullPointerException if a key or value is null
+     * @throws IllegalArgumentException if a key is repeated
+     */
+    @SuppressWarnings("unchecked")
+    static <K,V> Map<K,V> mapFromArray(Object[] keysAndValues) {
+        for (Object o : keysAndValues) {
+            Objects.requireNonNull(o);
+        }
+        Object[] kv = keysAndValues;
+        switch (kv.length) {
+            case 0:
+                return (Map<K,V>) Map0.INSTANCE;
+            case 2:
+                return new Map1<>((K) kv[0], (V) kv[1]);
+            case 4:
+                if (kv[0].equals(kv[2])) {
+                    throw new IllegalArgumentException("duplicate key: " + kv[0]);
+                }
+                return new Map2<>((K) kv[0], (V) kv[1], (K) kv[2], (V) kv[3]);
+            default:
+                return MapN.create(kv);
+        }
+    }
+
+    /**
+     * Returns the size of a hash table for {@code n} elements: the least
+     * power of two that is at least twice {@code n}.
+     */
+    static int tableSizeFor(int n) {
+        return Integer.highestOneBit(n * 2 - 1) << 1;
+    }
+
+    /**
+     * Spreads the bits of a hash code so that its low bits, which select
+     * the slot, depend on all of them.
+     */
+    static int spread(int h) {
+        h *= 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    // Lists
+
+    static abstract class AbstractImmutableList<E> extends AbstractList<E>
+            implements RandomAccess, Serializable {
+        @Override public boolean add(E e) { throw uoe(); }
+        @Override public void add(int index, E element) { throw uoe(); }
+        @Override public boolean addAll(Collection<? extends E> c) { throw uoe(); }
+        @Override public boolean addAll(int index, Collection<? extends E> c) { throw uoe(); }
+        @Override public void clear() { throw uoe(); }
+        @Override public E remove(int index) { throw uoe(); }
+        @Override public boolean remove(Object o) { throw uoe(); }
+        @Override public boolean removeAll(Collection<?> c) { throw uoe(); }
+        @Override public boolean removeIf(Predicate<? super E> filter) { throw uoe(); }
+        @Override public boolean retainAll(Collection<?> c) { throw uoe(); }
+        @Override public void replaceAll(UnaryOperator<E> operator) { throw uoe(); }
+        @Override public E set(int index, E element) { throw uoe(); }
+        @Override public void sort(Comparator<? super E> c) { throw uoe(); }
+        @Override public void parallelSort(Comparator<? super E> c) { throw uoe(); }
+
+        IndexOutOfBoundsException outOfBounds(int index) {
+            return new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        Object writeReplace() {
+            return new SerialForm(SerialForm.LIST, toArray());
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException {
+            throw new InvalidObjectException("Use SerialForm");
+        }
+    }
+
+    static final class List0<E> extends AbstractImmutableList<E> {
+        static final List0<?> INSTANCE = new List0<>();
+
+        @Override public int size() { return 0; }
+        @Override public E get(int index) { throw outOfBounds(index); }
+        @Override public Iterator<E> iterator() { return Collections.emptyIterator(); }
+        @Override public boolean contains(Object o) { return false; }
+    }
+
+    static final class List1<E> extends AbstractImmutableList<E> {
+        private final E e0;
+
+        List1(E e0) {
+            this.e0 = e0;
+        }
+
+        @Override public int size() { return 1; }
+
+        @Override
+        public E get(int index) {
+            if (index != 0) {
+                throw outOfBounds(index);
+            }
+            return e0;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return e0.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 + e0.hashCode();
+        }
+    }
+
+    static final class List2<E> extends AbstractImmutableList<E> {
+        private final E e0;
+        private final E e1;
+
+        List2(E e0, E e1) {
+            this.e0 = e0;
+            this.e1 = e1;
+        }
+
+        @Override public int size() { return 2; }
+
+        @Override
+        public E get(int index) {
+            if (index == 0) {
+                return e0;
+            } else if (index == 1) {
+                return e1;
+            }
+            throw outOfBounds(index);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return e0.equals(o) || e1.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 + e0.hashCode()) + e1.hashCode();
+        }
+    }
+
+    static final class ListN<E> extends AbstractImmutableList<E> {
+        private final Object[] elements;
+
+        ListN(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override public int size() { return elements.length; }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            if (index < 0 || index >= elements.length) {
+                throw outOfBounds(index);
+            }
+            return (E) elements[index];
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            if (o != null) {
+                for (int i = 0; i < elements.length; i++) {
+                    if (o.equals(elements[i])) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return elements.clone();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEach(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            for (Object e : elements) {
+                action.accept((E) e);
+            }
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(elements,
+                    Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+        }
+    }
+
+    // Sets
+
+    static abstract class AbstractImmutableSet<E> extends AbstractSet<E>
+            implements Serializable {
+        @Override public boolean add(E e) { throw uoe(); }
+        @Override public boolean addAll(Collection<? extends E> c) { throw uoe(); }
+        @Override public void clear() { throw uoe(); }
+        @Override public boolean remove(Object o) { throw uoe(); }
+        @Override public boolean removeAll(Collection<?> c) { throw uoe(); }
+        @Override public boolean removeIf(Predicate<? super E> filter) { throw uoe(); }
+        @Override public boolean retainAll(Collection<?> c) { throw uoe(); }
+
+        Object writeReplace() {
+            return new SerialForm(SerialForm.SET, toArray());
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException {
+            throw new InvalidObjectException("Use SerialForm");
+        }
+    }
+
+    static final class Set0<E> extends AbstractImmutableSet<E> {
+        static final Set0<?> INSTANCE = new Set0<>();
+
+        @Override public int size() { return 0; }
+        @Override public boolean contains(Object o) { return false; }
+        @Override public Iterator<E> iterator() { return Collections.emptyIterator(); }
+        @Override public int hashCode() { return 0; }
+    }
+
+    static final class Set1<E> extends AbstractImmutableSet<E> {
+        private final E e0;
+
+        Set1(E e0) {
+            this.e0 = e0;
+        }
+
+        @Override public int size() { return 1; }
+        @Override public boolean contains(Object o) { return e0.equals(o); }
+        @Override public Iterator<E> iterator() { return Collections.singletonIterator(e0); }
+        @Override public int hashCode() { return e0.hashCode(); }
+    }
+
+    static final class Set2<E> extends AbstractImmutableSet<E> {
+        private final E e0;
+        private final E e1;
+
+        Set2(E e0, E e1) {
+            this.e0 = e0;
+            this.e1 = e1;
+        }
+
+        @Override public int size() { return 2; }
+        @Override public boolean contains(Object o) { return e0.equals(o) || e1.equals(o); }
+        @Override public int hashCode() { return e0.hashCode() + e1.hashCode(); }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < 2;
+                }
+
+                @Override
+                public E next() {
+                    switch (index++) {
+                        case 0:
+                            return e0;
+                        case 1:
+                            return e1;
+                        default:
+                            index = 2;
+                            throw new NoSuchElementException();
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * A set of three or more elements in an open-addressed hash table.
+     */
+    static final class SetN<E> extends AbstractImmutableSet<E> {
+        private final Object[] table;
+        private final int size;
+
+        private SetN(Object[] table, int size) {
+            this.table = table;
+            this.size = size;
+        }
+
+        static <E> Set<E> create(Object[] elements, boolean allowDuplicates) {
+            Object[] table = new Object[tableSizeFor(elements.length)];
+            int size = 0;
+            for (Object e : elements) {
+                int index = probe(table, e);
+                if (index < 0) {
+                    table[~index] = e;
+                    size++;
+                } else if (!allowDuplicates) {
+                    throw new IllegalArgumentException("duplicate element: " + e);
+                }
+            }
+            if (size < elements.length) {
+                // Duplicates were dropped; the set may fit in fields or a smaller table.
+                return setFromArray(new SetN<>(table, size).toArray(), false);
+            }
+            return new SetN<>(table, size);
+        }
+
+        /**
+         * Returns the index of {@code o} in the table, or the complement
+         * of the index of the free slot where it belongs.
+         */
+        static int probe(Object[] table, Object o) {
+            int mask = table.length - 1;
+            for (int index = spread(o.hashCode()) & mask; ; index = (index + 1) & mask) {
+                Object e = table[index];
+                if (e == null) {
+                    return ~index;
+                } else if (o.equals(e)) {
+                    return index;
+                }
+            }
+        }
+
+        @Override public int size() { return size; }
+
+        @Override
+        public boolean contains(Object o) {
+            return o != null && probe(table, o) >= 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = 0;
+            for (Object e : table) {
+                if (e != null) {
+                    h += e.hashCode();
+                }
+            }
+            return h;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int index = nextIndex(0);
+
+                private int nextIndex(int from) {
+                    while (from < table.length && table[from] == null) {
+                        from++;
+                    }
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return index < table.length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public E next() {
+                    if (index >= table.length) {
+                        throw new NoSuchElementException();
+                    }
+                    E e = (E) table[index];
+                    index = nextIndex(index + 1);
+                    return e;
+                }
+            };
+        }
+    }
+
+    // Maps
+
+    static abstract class AbstractImmutableMap<K,V> extends AbstractMap<K,V>
+            implements Serializable {
+        @Override public void clear() { throw uoe(); }
+        @Override public V put(K key, V value) { throw uoe(); }
+        @Override public void putAll(Map<? extends K, ? extends V> m) { throw uoe(); }
+        @Override public V remove(Object key) { throw uoe(); }
+        @Override public V putIfAbsent(K key, V value) { throw uoe(); }
+        @Override public boolean remove(Object key, Object value) { throw uoe(); }
+        @Override public boolean replace(K key, V oldValue, V newValue) { throw uoe(); }
+        @Override public V replace(K key, V value) { throw uoe(); }
+        @Override public void replaceAll(BiFunction<? super K, ? super V, ? extends V> f) {
+            throw uoe();
+        }
+        @Override public V computeIfAbsent(K key, Function<? super K, ? extends V> f) {
+            throw uoe();
+        }
+        @Override public V computeIfPresent(K key,
+                BiFunction<? super K, ? super V, ? extends V> f) {
+            throw uoe();
+        }
+        @Override public V compute(K key, BiFunction<? super K, ? super V, ? extends V> f) {
+            throw uoe();
+        }
+        @Override public V merge(K key, V value,
+                BiFunction<? super V, ? super V, ? extends V> f) {
+            throw uoe();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public V getOrDefault(Object key, V defaultValue) {
+            V value = get(key);
+            return value != null ? value : defaultValue;
+        }
+
+        Object writeReplace() {
+            Object[] kv = new Object[size() * 2];
+            int i = 0;
+            for (Map.Entry<K,V> e : entrySet()) {
+                kv[i++] = e.getKey();
+                kv[i++] = e.getValue();
+            }
+            return new SerialForm(SerialForm.MAP, kv);
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException {
+            throw new InvalidObjectException("Use SerialForm");
+        }
+    }
+
+    static final class Map0<K,V> extends AbstractImmutableMap<K,V> {
+        static final Map0<?,?> INSTANCE = new Map0<>();
+
+        @Override public int size() { return 0; }
+        @Override public V get(Object key) { return null; }
+        @Override public boolean containsValue(Object value) { return false; }
+        @Override public Set<Map.Entry<K,V>> entrySet() { return Collections.emptySet(); }
+        @Override public int hashCode() { return 0; }
+    }
+
+    static final class Map1<K,V> extends AbstractImmutableMap<K,V> {
+        private final K k0;
+        private final V v0;
+
+        Map1(K k0, V v0) {
+            this.k0 = k0;
+            this.v0 = v0;
+        }
+
+        @Override public int size() { return 1; }
+        @Override public V get(Object key) { return k0.equals(key) ? v0 : null; }
+        @Override public boolean containsValue(Object value) { return v0.equals(value); }
+        @Override public int hashCode() { return k0.hashCode() ^ v0.hashCode(); }
+
+        @Override
+        public Set<Map.Entry<K,V>> entrySet() {
+            return new Set1<>(new SimpleImmutableEntry<>(k0, v0));
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            action.accept(k0, v0);
+        }
+    }
+
+    static final class Map2<K,V> extends AbstractImmutableMap<K,V> {
+        private final K k0;
+        private final V v0;
+        private final K k1;
+        private final V v1;
+
+        Map2(K k0, V v0, K k1, V v1) {
+            this.k0 = k0;
+            this.v0 = v0;
+            this.k1 = k1;
+            this.v1 = v1;
+        }
+
+        @Override public int size() { return 2; }
+
+        @Override
+        public V get(Object key) {
+            if (k0.equals(key)) {
+                return v0;
+            } else if (k1.equals(key)) {
+                return v1;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsValue(Object value) {
+            return v0.equals(value) || v1.equals(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return (k0.hashCode() ^ v0.hashCode()) + (k1.hashCode() ^ v1.hashCode());
+        }
+
+        @Override
+        public Set<Map.Entry<K,V>> entrySet() {
+            return new Set2<>(new SimpleImmutableEntry<>(k0, v0),
+                    new SimpleImmutableEntry<>(k1, v1));
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            action.accept(k0, v0);
+            action.accept(k1, v1);
+        }
+    }
+
+    /**
+     * A map of three or more entries in an open-addressed hash table,
+     * whose even slots hold keys and odd slots the values of the keys
+     * before them.
+     */
+    static final class MapN<K,V> extends AbstractImmutableMap<K,V> {
+        private final Object[] table;
+        private final int size;
+
+        private MapN(Object[] table, int size) {
+            this.table = table;
+            this.size = size;
+        }
+
+        static <K,V> Map<K,V> create(Object[] keysAndValues) {
+            int size = keysAndValues.length / 2;
+            Object[] table = new Object[tableSizeFor(size) * 2];
+            for (int i = 0; i < keysAndValues.length; i += 2) {
+                Object key = keysAndValues[i];
+                int index = probe(table, key);
+                if (index >= 0) {
+                    throw new IllegalArgumentException("duplicate key: " + key);
+                }
+                table[~index] = key;
+                table[~index + 1] = keysAndValues[i + 1];
+            }
+            return new MapN<>(table, size);
+        }
+
+        /**
+         * Returns the index of {@code key} in the table, or the complement
+         * of the index of the free slot where it belongs.
+         */
+        static int probe(Object[] table, Object key) {
+            int mask = table.length - 2;
+            for (int index = (spread(key.hashCode()) << 1) & mask; ;
+                    index = (index + 2) & mask) {
+                Object k = table[index];
+                if (k == null) {
+                    return ~index;
+                } else if (key.equals(k)) {
+                    return index;
+                }
+            }
+        }
+
+        @Override public int size() { return size; }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            if (key == null) {
+                return null;
+            }
+            int index = probe(table, key);
+            return index >= 0 ? (V) table[index + 1] : null;
+        }
+
+        @Override
+        public boolean containsValue(Object value) {
+            if (value != null) {
+                for (int i = 1; i < table.length; i += 2) {
+                    if (value.equals(table[i])) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = 0;
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != null) {
+                    h += table[i].hashCode() ^ table[i + 1].hashCode();
+                }
+            }
+            return h;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            Objects.requireNonNull(action);
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != null) {
+                    action.accept((K) table[i], (V) table[i + 1]);
+                }
+            }
+        }
+
+        @Override
+        public Set<Map.Entry<K,V>> entrySet() {
+            return new AbstractImmutableSet<Map.Entry<K,V>>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Iterator<Map.Entry<K,V>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+
+        private final class EntryIterator implements Iterator<Map.Entry<K,V>> {
+            private int index = nextIndex(0);
+
+            private int nextIndex(int from) {
+                while (from < table.length && table[from] == null) {
+                    from += 2;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return index < table.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Map.Entry<K,V> next() {
+                if (index >= table.length) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<K,V> e = new SimpleImmutableEntry<>(
+                        (K) table[index], (V) table[index + 1]);
+                index = nextIndex(index + 2);
+                return e;
+            }
+        }
+    }
+
+    /**
+     * The serialized form of the immutable collections.
+     *
+     * @serial include
+     */
+    static final class SerialForm implements Serializable {
+        private static final long serialVersionUID = 6309168927139932177L;
+
+        static final int LIST = 1;
+        static final int SET = 2;
+        static final int MAP = 3;
+
+        /**
+         * The kind of collection.
+         *
+         * @serial
+         */
+        private final int tag;
+
+        /**
+         * The elements of a list or set, or the keys of a map each
+         * followed by its value.
+         *
+         * @serial
+         */
+        private final Object[] array;
+
+        SerialForm(int tag, Object[] array) {
+            this.tag = tag;
+            this.array = array;
+        }
+
+        private Object readResolve() throws ObjectStreamException {
+            try {
+                if (array == null) {
+                    throw new InvalidObjectException("array == null");
+                }
+                switch (tag) {
+                    case LIST:
+                        return listFromArray(array);
+                    case SET:
+                        return setFromArray(array, false);
+                    case MAP:
+                        if (array.length % 2 != 0) {
+                            throw new InvalidObjectException("odd array length");
+                        }
+                        return mapFromArray(array);
+                    default:
+                        throw new InvalidObjectException("invalid tag: " + tag);
+                }
+            } catch (NullPointerException | IllegalArgumentException e) {
+                InvalidObjectException ioe = new InvalidObjectException("invalid object");
+                ioe.initCause(e);
+                throw ioe;
+            }
+        }
+    }
+}
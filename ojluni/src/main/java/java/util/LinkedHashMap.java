@@ -578,9 +578,8 @@ public class LinkedHashMap<K,V>
             return removeNode(hash(key), key, null, false, true) != null;
         }
         public final Spliterator<K> spliterator()  {
-            return Spliterators.spliterator(this, Spliterator.SIZED |
-                                            Spliterator.ORDERED |
-                                            Spliterator.DISTINCT);
+            // Android-changed: Use a spliterator that splits in halves.
+            return new LinkedKeySpliterator<>(LinkedHashMap.this, null, -1, 0);
         }
         public final void forEach(Consumer<? super K> action) {
             if (action == null)
@@ -625,8 +624,8 @@ public class LinkedHashMap<K,V>
         }
         public final boolean contains(Object o) { return containsValue(o); }
         public final Spliterator<V> spliterator() {
-            return Spliterators.spliterator(this, Spliterator.SIZED |
-                                            Spliterator.ORDERED);
+            // Android-changed: Use a spliterator that splits in halves.
+            return new LinkedValueSpliterator<>(LinkedHashMap.this, null, -1, 0);
         }
         public final void forEach(Consumer<? super V> action) {
             if (action == null)
@@ -688,9 +687,8 @@ public class LinkedHashMap<K,V>
             return false;
         }
         public final Spliterator<Map.Entry<K,V>> spliterator() {
-            return Spliterators.spliterator(this, Spliterator.SIZED |
-                                            Spliterator.ORDERED |
-                                            Spliterator.DISTINCT);
+            // Android-changed: Use a spliterator that splits in halves.
+            return new LinkedEntrySpliterator<>(LinkedHashMap.this, null, -1, 0);
         }
         public final void forEach(Consumer<? super Map.Entry<K,V>> action) {
             if (action == null)
@@ -784,5 +782,206 @@ public class LinkedHashMap<K,V>
         public final Map.Entry<K,V> next() { return nextNode(); }
     }
 
+    // spliterators
 
+    // Android-added: Spliterators that split the linked list of entries in halves.
+
+    static class LinkedHashMapSpliterator<K,V> {
+        final LinkedHashMap<K,V> map;
+        LinkedHashMapEntry<K,V> current; // next entry
+        int est;                         // remaining entries; -1 until first used
+        int expectedModCount;            // for comodification checks
+
+        LinkedHashMapSpliterator(LinkedHashMap<K,V> m, LinkedHashMapEntry<K,V> origin,
+                                 int est, int expectedModCount) {
+            this.map = m;
+            this.current = origin;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        final int getEstimate() {
+            int s; // initialize on first use
+            if ((s = est) < 0) {
+                LinkedHashMap<K,V> m = map;
+                current = m.head;
+                s = est = m.size;
+                expectedModCount = m.modCount;
+            }
+            return s;
+        }
+
+        public final long estimateSize() {
+            return (long) getEstimate();
+        }
+
+        /**
+         * Skips the first half of the remaining entries, which the
+         * caller splits off, and returns how many there were, or 0 if
+         * there are too few to split.
+         */
+        final int skipHalf() {
+            int s = getEstimate();
+            LinkedHashMapEntry<K,V> p = current;
+            if (s < 2 || p == null)
+                return 0;
+            int n = s >>> 1;
+            for (int j = n; j > 0 && p != null; j--)
+                p = p.after;
+            if (p == null) // map was modified; let traversal throw
+                return 0;
+            current = p;
+            est = s - n;
+            return n;
+        }
+    }
+
+    static final class LinkedKeySpliterator<K,V>
+        extends LinkedHashMapSpliterator<K,V>
+        implements Spliterator<K> {
+        LinkedKeySpliterator(LinkedHashMap<K,V> m, LinkedHashMapEntry<K,V> origin,
+                             int est, int expectedModCount) {
+            super(m, origin, est, expectedModCount);
+        }
+
+        public LinkedKeySpliterator<K,V> trySplit() {
+            getEstimate(); // force initialization
+            LinkedHashMapEntry<K,V> origin = current;
+            int n = skipHalf();
+            return (n == 0) ? null :
+                new LinkedKeySpliterator<>(map, origin, n, expectedModCount);
+        }
+
+        public void forEachRemaining(Consumer<? super K> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int n = getEstimate();
+            LinkedHashMapEntry<K,V> p = current;
+            current = null;
+            est = 0;
+            for (; n > 0 && p != null; n--, p = p.after)
+                action.accept(p.key);
+            if (map.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public boolean tryAdvance(Consumer<? super K> action) {
+            LinkedHashMapEntry<K,V> p;
+            if (action == null)
+                throw new NullPointerException();
+            if (getEstimate() > 0 && (p = current) != null) {
+                --est;
+                current = p.after;
+                action.accept(p.key);
+                if (map.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED |
+                Spliterator.DISTINCT;
+        }
+    }
+
+    static final class LinkedValueSpliterator<K,V>
+        extends LinkedHashMapSpliterator<K,V>
+        implements Spliterator<V> {
+        LinkedValueSpliterator(LinkedHashMap<K,V> m, LinkedHashMapEntry<K,V> origin,
+                               int est, int expectedModCount) {
+            super(m, origin, est, expectedModCount);
+        }
+
+        public LinkedValueSpliterator<K,V> trySplit() {
+            getEstimate(); // force initialization
+            LinkedHashMapEntry<K,V> origin = current;
+            int n = skipHalf();
+            return (n == 0) ? null :
+                new LinkedValueSpliterator<>(map, origin, n, expectedModCount);
+        }
+
+        public void forEachRemaining(Consumer<? super V> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int n = getEstimate();
+            LinkedHashMapEntry<K,V> p = current;
+            current = null;
+            est = 0;
+            for (; n > 0 && p != null; n--, p = p.after)
+                action.accept(p.value);
+            if (map.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public boolean tryAdvance(Consumer<? super V> action) {
+            LinkedHashMapEntry<K,V> p;
+            if (action == null)
+                throw new NullPointerException();
+            if (getEstimate() > 0 && (p = current) != null) {
+                --est;
+                current = p.after;
+                action.accept(p.value);
+                if (map.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED;
+        }
+    }
+
+    static final class LinkedEntrySpliterator<K,V>
+        extends LinkedHashMapSpliterator<K,V>
+        implements Spliterator<Map.Entry<K,V>> {
+        LinkedEntrySpliterator(LinkedHashMap<K,V> m, LinkedHashMapEntry<K,V> origin,
+                               int est, int expectedModCount) {
+            super(m, origin, est, expectedModCount);
+        }
+
+        public LinkedEntrySpliterator<K,V> trySplit() {
+            getEstimate(); // force initialization
+            LinkedHashMapEntry<K,V> origin = current;
+            int n = skipHalf();
+            return (n == 0) ? null :
+                new LinkedEntrySpliterator<>(map, origin, n, expectedModCount);
+        }
+
+        public void forEachRemaining(Consumer<? super Map.Entry<K,V>> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int n = getEstimate();
+            LinkedHashMapEntry<K,V> p = current;
+            current = null;
+            est = 0;
+            for (; n > 0 && p != null; n--, p = p.after)
+                action.accept(p);
+            if (map.modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public boolean tryAdvance(Consumer<? super Map.Entry<K,V>> action) {
+            LinkedHashMapEntry<K,V> p;
+            if (action == null)
+                throw new NullPointerException();
+            if (getEstimate() > 0 && (p = current) != null) {
+                --est;
+                current = p.after;
+                action.accept(p);
+                if (map.modCount != expectedModCount)
+                    throw new ConcurrentModificationException();
+                return true;
+            }
+            return false;
+        }
+
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED |
+                Spliterator.DISTINCT;
+        }
+    }
 }
@@ -180,9 +180,9 @@ public class LinkedHashSet<E>
      * @implNote
      * The implementation creates a
      * <em><a href="Spliterator.html#binding">late-binding</a></em> spliterator
-     * from the set's {@code Iterator}.  The spliterator inherits the
-     * <em>fail-fast</em> properties of the set's iterator.
-     * The created {@code Spliterator} additionally reports
+     * over the entries of the backing {@code LinkedHashMap}, which splits
+     * them in halves.  The spliterator is <em>fail-fast</em> like the set's
+     * iterator.  The created {@code Spliterator} additionally reports
      * {@link Spliterator#SUBSIZED}.
      *
      * @return a {@code Spliterator} over the elements in this set
@@ -190,6 +190,8 @@ public class LinkedHashSet<E>
      */
     @Override
     public Spliterator<E> spliterator() {
-        return Spliterators.spliterator(this, Spliterator.DISTINCT | Spliterator.ORDERED);
+        // Android-changed: Split the backing map's linked list of entries in halves.
+        return new LinkedHashMap.LinkedKeySpliterator<E,Object>(
+                (LinkedHashMap<E,Object>) map, null, -1, 0);
     }
 }
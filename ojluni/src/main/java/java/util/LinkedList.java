@@ -1170,15 +1170,14 @@ public class LinkedList<E>
         return new LLSpliterator<E>(this, -1, 0);
     }
 
-    /** A customized variant of Spliterators.IteratorSpliterator */
+    // Android-changed: Split off the first half of the remaining nodes, instead of
+    // copying a growing batch of elements into an array, so that splits are balanced.
+    /** A spliterator over a run of nodes, which splits it in halves */
     static final class LLSpliterator<E> implements Spliterator<E> {
-        static final int BATCH_UNIT = 1 << 10;  // batch array size increment
-        static final int MAX_BATCH = 1 << 25;  // max batch array size;
         final LinkedList<E> list; // null OK unless traversed
         Node<E> current;      // current node; null until initialized
-        int est;              // size estimate; -1 until first needed
+        int est;              // remaining nodes; -1 until first needed
         int expectedModCount; // initialized when est set
-        int batch;            // batch size for splits
 
         LLSpliterator(LinkedList<E> list, int est, int expectedModCount) {
             this.list = list;
@@ -1207,18 +1206,18 @@ public class LinkedList<E>
             Node<E> p;
             int s = getEst();
             if (s > 1 && (p = current) != null) {
-                int n = batch + BATCH_UNIT;
-                if (n > s)
-                    n = s;
-                if (n > MAX_BATCH)
-                    n = MAX_BATCH;
-                Object[] a = new Object[n];
-                int j = 0;
-                do { a[j++] = p.item; } while ((p = p.next) != null && j < n);
-                current = p;
-                batch = j;
-                est = s - j;
-                return Spliterators.spliterator(a, 0, j, Spliterator.ORDERED);
+                int n = s >>> 1;
+                Node<E> q = p;
+                for (int j = n; j > 0 && q != null; j--)
+                    q = q.next;
+                if (q == null) // list was modified; let traversal throw
+                    return null;
+                LLSpliterator<E> prefix =
+                    new LLSpliterator<E>(list, n, expectedModCount);
+                prefix.current = p;
+                current = q;
+                est = s - n;
+                return prefix;
             }
             return null;
         }
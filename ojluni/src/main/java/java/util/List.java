@@ -506,6 +506,49 @@ public interface List<E> extends Collection<E> {
         }
     }
 
+    // Android-added: parallelSort, for sorting large lists on several threads.
+    /**
+     * Sorts this list according to the order induced by the specified
+     * {@link Comparator}, like {@link #sort}, but using the parallel
+     * sort-merge of {@link Arrays#parallelSort(Object[], Comparator)
+     * Arrays.parallelSort}.  Large lists are sorted by several threads of
+     * the {@link java.util.concurrent.ForkJoinPool#commonPool() common pool},
+     * so the comparator may be called from threads other than the caller's,
+     * and from several threads at once.  {@link #sort} always sorts on the
+     * caller's thread.
+     *
+     * <p>This sort is guaranteed to be <i>stable</i>, and leaves the list in
+     * the same order as {@link #sort} would.
+     *
+     * @implSpec
+     * The default implementation obtains an array containing all elements in
+     * this list, sorts the array with {@code Arrays.parallelSort}, and
+     * iterates over this list resetting each element from the corresponding
+     * position in the array.
+     *
+     * @param c the {@code Comparator} used to compare list elements.
+     *          A {@code null} value indicates that the elements'
+     *          {@linkplain Comparable natural ordering} should be used
+     * @throws ClassCastException if the list contains elements that are not
+     *         <i>mutually comparable</i> using the specified comparator
+     * @throws UnsupportedOperationException if the list's list-iterator does
+     *         not support the {@code set} operation
+     * @throws IllegalArgumentException
+     *         (<a href="Collection.html#optional-restrictions">optional</a>)
+     *         if the comparator is found to violate the {@link Comparator}
+     *         contract
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    default void parallelSort(Comparator<? super E> c) {
+        Object[] a = this.toArray();
+        Arrays.parallelSort(a, (Comparator) c);
+        ListIterator<E> i = this.listIterator();
+        for (Object e : a) {
+            i.next();
+            i.set((E) e);
+        }
+    }
+
     /**
      * Removes all of the elements from this list (optional operation).
      * The list will be empty after this call returns.
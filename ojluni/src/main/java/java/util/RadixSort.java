@@ -0,0 +1,743 @@
+/*
+ * Copyright 2017 The Android Open Source Project
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package java.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Least-significant-digit radix sorts for large arrays of {@code int},
+ * {@code long}, {@code float} and {@code double}, used by
+ * {@link DualPivotQuicksort} for arrays that aren't highly structured and
+ * by {@link Arrays#parallelSort}.
+ *
+ * <p> Values are sorted one byte at a time, from the least significant,
+ * each byte with a counting pass and a stable scatter into a scratch array.
+ * The counts of all bytes are taken in a single pass first, so that bytes
+ * that are the same in all values are skipped.  Floating point values are
+ * sorted by the bytes of their raw bits, flipped as they are read so that
+ * they order like the values, with -0.0 before 0.0; no array of keys is
+ * made.  NaNs must already have been moved out of the range.
+ *
+ * <p> The sequential sorts only use the workspace they are given, and
+ * leave the range alone if it is too small, so that the caller can sort it
+ * some other way instead of allocating a scratch array.
+ *
+ * <p> The parallel sorts count and scatter the most significant byte that
+ * differs between values in parallel chunks, which splits the range into up
+ * to 256 buckets, and then sort the buckets in parallel.
+ */
+final class RadixSort {
+
+    private RadixSort() {}
+
+    /**
+     * If the length of an array to be sorted is at least this constant,
+     * and the array isn't highly structured, radix sort is used in
+     * preference to Quicksort.
+     */
+    static final int RADIX_SORT_THRESHOLD = 1 << 13;
+
+    /**
+     * If the length of an array to be sorted by {@link Arrays#parallelSort}
+     * is at least this constant, the parallel radix sort is used in
+     * preference to the parallel sort-merge.
+     */
+    static final int PARALLEL_RADIX_SORT_THRESHOLD = 1 << 16;
+
+    /**
+     * The minimum number of values counted and scattered by one task of a
+     * parallel sort.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 13;
+
+    private static final int RADIX = 1 << 8;
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    /*
+     * int and float
+     */
+
+    /**
+     * Sorts the specified range of the array, using the given workspace
+     * array slice, unless the workspace is too small.
+     *
+     * @param a the array to be sorted
+     * @param from the index of the first element, inclusive, to be sorted
+     * @param to the index of the last element, exclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     * @return whether the range was sorted, which it isn't if there is no
+     *         workspace slice as long as the range
+     */
+    static boolean sort(int[] a, int from, int to,
+                        int[] work, int workBase, int workLen) {
+        int n = to - from;
+        if (work == null || workLen < n || workBase + n > work.length) {
+            return false;
+        }
+        sortDigits(a, from, work, workBase, n, 4);
+        return true;
+    }
+
+    /**
+     * Sorts the specified range of the array, which must not contain NaNs,
+     * using the given workspace array slice, unless the workspace is too
+     * small.
+     *
+     * @param a the array to be sorted
+     * @param from the index of the first element, inclusive, to be sorted
+     * @param to the index of the last element, exclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     * @return whether the range was sorted, which it isn't if there is no
+     *         workspace slice as long as the range
+     */
+    static boolean sort(float[] a, int from, int to,
+                        float[] work, int workBase, int workLen) {
+        int n = to - from;
+        if (work == null || workLen < n || workBase + n > work.length) {
+            return false;
+        }
+        sortDigits(a, from, work, workBase, n, 4);
+        return true;
+    }
+
+    /**
+     * Sorts the specified range of the array on several threads.
+     *
+     * @param a the array to be sorted
+     * @param from the index of the first element, inclusive, to be sorted
+     * @param to the index of the last element, exclusive, to be sorted
+     */
+    static void parallelSort(int[] a, int from, int to) {
+        int n = to - from;
+        if (isSorted(a, from, to)) {
+            return;
+        }
+        int chunkCount = chunkCount(n);
+        int chunkSize = (n + chunkCount - 1) / chunkCount;
+
+        // Count all digits of each chunk.
+        int[][] counts = new int[chunkCount][];
+        invokeAll(chunkCount, c -> {
+            int lo = from + c * chunkSize, hi = Math.min(lo + chunkSize, to);
+            counts[c] = countDigits(a, lo, hi - lo, 4);
+        });
+
+        // Find the most significant digit that isn't the same in all values.
+        int digit = 3;
+        while (digit >= 0 && isTrivial(counts, digit, n)) {
+            --digit;
+        }
+        if (digit < 0) {
+            return; // all values are equal
+        }
+
+        // Turn the counts of the digit into the offsets at which each chunk
+        // scatters its values with that digit, bucket by bucket.
+        int[] bucketStarts = new int[RADIX + 1];
+        int base = digit * RADIX;
+        for (int k = 0, sum = 0; k < RADIX; k++) {
+            bucketStarts[k] = sum;
+            for (int c = 0; c < chunkCount; c++) {
+                int count = counts[c][base + k];
+                counts[c][base + k] = sum;
+                sum += count;
+            }
+        }
+        bucketStarts[RADIX] = n;
+
+        int[] b = new int[n];
+        final int d = digit;
+        invokeAll(chunkCount, c -> {
+            int lo = from + c * chunkSize, hi = Math.min(lo + chunkSize, to);
+            int[] offsets = counts[c];
+            for (int i = lo; i < hi; i++) {
+                int v = a[i];
+                b[offsets[base + digit(v, d)]++] = v;
+            }
+        });
+
+        // Sort each bucket by the less significant digits, and copy it back.
+        invokeAll(RADIX, k -> {
+            int lo = bucketStarts[k], len = bucketStarts[k + 1] - lo;
+            if (len > 0) {
+                sortDigits(b, lo, a, from + lo, len, d);
+                System.arraycopy(b, lo, a, from + lo, len);
+            }
+        });
+    }
+
+    /**
+     * Sorts the specified range of the array on several threads.  NaNs are
+     * moved to the end of the range, like {@link DualPivotQuicksort} does.
+     *
+     * @param a the array to be sorted
+     * @param from the index of the first element, inclusive, to be sorted
+     * @param to the index of the last element, exclusive, to be sorted
+     */
+    static void parallelSort(float[] a, int from, int to) {
+        int right = to - 1;
+        while (right >= from && Float.isNaN(a[right])) {
+            --right;
+        }
+        for (int k = right; --k >= from; ) {
+            float ak = a[k];
+            if (ak != ak) { // a[k] is NaN
+                a[k] = a[right];
+                a[right] = ak;
+                --right;
+            }
+        }
+
+        int n = right + 1 - from;
+        if (isSorted(a, from, from + n)) {
+            return;
+        }
+        int chunkCount = chunkCount(n);
+        int chunkSize = (n + chunkCount - 1) / chunkCount;
+        int end = from + n;
+
+        int[][] counts = new int[chunkCount][];
+        invokeAll(chunkCount, c -> {
+            int lo = from + c * chunkSize, hi = Math.min(lo + chunkSize, end);
+            counts[c] = countDigits(a, lo, hi - lo, 4);
+        });
+
+        int digit = 3;
+        while (digit >= 0 && isTrivial(counts, digit, n)) {
+            --digit;
+        }
+        if (digit < 0) {
+            return; // all values are equal
+        }
+
+        int[] bucketStarts = new int[RADIX + 1];
+        int base = digit * RADIX;
+        for (int k = 0, sum = 0; k < RADIX; k++) {
+            bucketStarts[k] = sum;
+            for (int c = 0; c < chunkCount; c++) {
+                int count = counts[c][base + k];
+                counts[c][base + k] = sum;
+                sum += count;
+            }
+        }
+        bucketStarts[RADIX] = n;
+
+        float[] b = new float[n];
+        final int d = digit;
+        invokeAll(chunkCount, c -> {
+            int lo = from + c * chunkSize, hi = Math.min(lo + chunkSize, end);
+            int[] offsets = counts[c];
+            for (int i = lo; i < hi; i++) {
+                float v = a[i];
+                b[offsets[base + digit(floatToKey(v), d)]++] = v;
+            }
+        });
+
+        invokeAll(RADIX, k -> {
+            int lo = bucketStarts[k], len = bucketStarts[k + 1] - lo;
+            if (len > 0) {
+                sortDigits(b, lo, a, from + lo, len, d);
+                System.arraycopy(b, lo, a, from + lo, len);
+            }
+        });
+    }
+
+    /**
+     * Sorts a[aFrom, aFrom + n) by its digitCount least significant bytes,
+     * using b[bFrom, bFrom + n) as scratch space.
+     */
+    private static void sortDigits(int[] a, int aFrom, int[] b, int bFrom,
+                                   int n, int digitCount) {
+        int[] counts = countDigits(a, aFrom, n, digitCount);
+        int[] src = a, dst = b;
+        int srcFrom = aFrom, dstFrom = bFrom;
+        for (int d = 0; d < digitCount; d++) {
+            int base = d * RADIX;
+            if (isTrivial(counts, base, n)) {
+                continue;
+            }
+            for (int k = 0, sum = dstFrom; k < RADIX; k++) {
+                int count = counts[base + k];
+                counts[base + k] = sum;
+                sum += count;
+            }
+            for (int i = srcFrom, end = srcFrom + n; i < end; i++) {
+                int v = src[i];
+                dst[counts[base + digit(v, d)]++] = v;
+            }
+            int[] t = src; src = dst; dst = t;
+            int o = srcFrom; srcFrom = dstFrom; dstFrom = o;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, aFrom, n);
+        }
+    }
+
+    private static int[] countDigits(int[] a, int from, int n, int digitCount) {
+        int[] counts = new int[digitCount * RADIX];
+        for (int i = from, end = from + n; i < end; i++) {
+            int v = a[i];
+            for (int d = 0; d < digitCount; d++) {
+                counts[d * RADIX + digit(v, d)]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the d-th least significant byte of v, with the sign bit of the
+     * most significant byte flipped so that negative values come first.
+     */
+    private static int digit(int v, int d) {
+        int digit = (v >>> (d << 3)) & DIGIT_MASK;
+        return d == 3 ? digit ^ 0x80 : digit;
+    }
+
+    private static void sortDigits(float[] a, int aFrom, float[] b, int bFrom,
+                                   int n, int digitCount) {
+        int[] counts = countDigits(a, aFrom, n, digitCount);
+        float[] src = a, dst = b;
+        int srcFrom = aFrom, dstFrom = bFrom;
+        for (int d = 0; d < digitCount; d++) {
+            int base = d * RADIX;
+            if (isTrivial(counts, base, n)) {
+                continue;
+            }
+            for (int k = 0, sum = dstFrom; k < RADIX; k++) {
+                int count = counts[base + k];
+                counts[base + k] = sum;
+                sum += count;
+            }
+            for (int i = srcFrom, end = srcFrom + n; i < end; i++) {
+                float v = src[i];
+                dst[counts[base + digit(floatToKey(v), d)]++] = v;
+            }
+            float[] t = src; src = dst; dst = t;
+            int o = srcFrom; srcFrom = dstFrom; dstFrom = o;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, aFrom, n);
+        }
+    }
+
+    private static int[] countDigits(float[] a, int from, int n, int digitCount) {
+        int[] counts = new int[digitCount * RADIX];
+        for (int i = from, end = from + n; i < end; i++) {
+            int v = floatToKey(a[i]);
+            for (int d = 0; d < digitCount; d++) {
+                counts[d * RADIX + digit(v, d)]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns an int that orders like the given float, except that -0.0
+     * is less than 0.0.
+     */
+    private static int floatToKey(float f) {
+        int bits = Float.floatToRawIntBits(f);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+
+    /*
+     * long and double
+     */
+
+    /**
+     * Sorts the specified range of the array, using the given workspace
+     * array slice, unless the workspace is too small.
+     *
+     * @param a the array to be sorted
+     * @param from the index of the first element, inclusive, to be sorted
+     * @param to the index of the last element, exclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     * @return whether the range was sorted, which it isn't if there is no
+     *         workspace slice as long as the range
+     */
+    static boolean sort(long[] a, int from, int to,
+                        long[] work, int workBase, int workLen) {
+        int n = to - from;
+        if (work == null || workLen < n || workBase + n > work.length) {
+            return false;
+        }
+        sortDigits(a, from, work, workBase, n, 8);
+        return true;
+    }
+
+    /**
+     * Sorts the specified range of the array, which must not contain NaNs,
+     * using the given workspace array slice, unless the workspace is too
+     * small.
+     *
+     * @param a the array to be sorted
+     * @param from the index of the first element, inclusive, to be sorted
+     * @param to the index of the last element, exclusive, to be sorted
+     * @param work a workspace array (slice)
+     * @param workBase origin of usable space in work array
+     * @param workLen usable size of work array
+     * @return whether the range was sorted, which it isn't if there is no
+     *         workspace slice as long as the range
+     */
+    static boolean sort(double[] a, int from, int to,
+                        double[] work, int workBase, int workLen) {
+        int n = to - from;
+        if (work == null || workLen < n || workBase + n > work.length) {
+            return false;
+        }
+        sortDigits(a, from, work, workBase, n, 8);
+        return true;
+    }
+
+    /**
+     * Sorts the specified range of the array on several threads.
+     *
+     * @param a the array to be sorted
+     * @param from the index of the first element, inclusive, to be sorted
+     * @param to the index of the last element, exclusive, to be sorted
+     */
+    static void parallelSort(long[] a, int from, int to) {
+        int n = to - from;
+        if (isSorted(a, from, to)) {
+            return;
+        }
+        int chunkCount = chunkCount(n);
+        int chunkSize = (n + chunkCount - 1) / chunkCount;
+
+        int[][] counts = new int[chunkCount][];
+        invokeAll(chunkCount, c -> {
+            int lo = from + c * chunkSize, hi = Math.min(lo + chunkSize, to);
+            counts[c] = countDigits(a, lo, hi - lo, 8);
+        });
+
+        int digit = 7;
+        while (digit >= 0 && isTrivial(counts, digit, n)) {
+            --digit;
+        }
+        if (digit < 0) {
+            return; // all values are equal
+        }
+
+        int[] bucketStarts = new int[RADIX + 1];
+        int base = digit * RADIX;
+        for (int k = 0, sum = 0; k < RADIX; k++) {
+            bucketStarts[k] = sum;
+            for (int c = 0; c < chunkCount; c++) {
+                int count = counts[c][base + k];
+                counts[c][base + k] = sum;
+                sum += count;
+            }
+        }
+        bucketStarts[RADIX] = n;
+
+        long[] b = new long[n];
+        final int d = digit;
+        invokeAll(chunkCount, c -> {
+            int lo = from + c * chunkSize, hi = Math.min(lo + chunkSize, to);
+            int[] offsets = counts[c];
+            for (int i = lo; i < hi; i++) {
+                long v = a[i];
+                b[offsets[base + digit(v, d)]++] = v;
+            }
+        });
+
+        invokeAll(RADIX, k -> {
+            int lo = bucketStarts[k], len = bucketStarts[k + 1] - lo;
+            if (len > 0) {
+                sortDigits(b, lo, a, from + lo, len, d);
+                System.arraycopy(b, lo, a, from + lo, len);
+            }
+        });
+    }
+
+    /**
+     * Sorts the specified range of the array on several threads.  NaNs are
+     * moved to the end of the range, like {@link DualPivotQuicksort} does.
+     *
+     * @param a the array to be sorted
+     * @param from the index of the first element, inclusive, to be sorted
+     * @param to the index of the last element, exclusive, to be sorted
+     */
+    static void parallelSort(double[] a, int from, int to) {
+        int right = to - 1;
+        while (right >= from && Double.isNaN(a[right])) {
+            --right;
+        }
+        for (int k = right; --k >= from; ) {
+            double ak = a[k];
+            if (ak != ak) { // a[k] is NaN
+                a[k] = a[right];
+                a[right] = ak;
+                --right;
+            }
+        }
+
+        int n = right + 1 - from;
+        if (isSorted(a, from, from + n)) {
+            return;
+        }
+        int chunkCount = chunkCount(n);
+        int chunkSize = (n + chunkCount - 1) / chunkCount;
+        int end = from + n;
+
+        int[][] counts = new int[chunkCount][];
+        invokeAll(chunkCount, c -> {
+            int lo = from + c * chunkSize, hi = Math.min(lo + chunkSize, end);
+            counts[c] = countDigits(a, lo, hi - lo, 8);
+        });
+
+        int digit = 7;
+        while (digit >= 0 && isTrivial(counts, digit, n)) {
+            --digit;
+        }
+        if (digit < 0) {
+            return; // all values are equal
+        }
+
+        int[] bucketStarts = new int[RADIX + 1];
+        int base = digit * RADIX;
+        for (int k = 0, sum = 0; k < RADIX; k++) {
+            bucketStarts[k] = sum;
+            for (int c = 0; c < chunkCount; c++) {
+                int count = counts[c][base + k];
+                counts[c][base + k] = sum;
+                sum += count;
+            }
+        }
+        bucketStarts[RADIX] = n;
+
+        double[] b = new double[n];
+        final int d = digit;
+        invokeAll(chunkCount, c -> {
+            int lo = from + c * chunkSize, hi = Math.min(lo + chunkSize, end);
+            int[] offsets = counts[c];
+            for (int i = lo; i < hi; i++) {
+                double v = a[i];
+                b[offsets[base + digit(doubleToKey(v), d)]++] = v;
+            }
+        });
+
+        invokeAll(RADIX, k -> {
+            int lo = bucketStarts[k], len = bucketStarts[k + 1] - lo;
+            if (len > 0) {
+                sortDigits(b, lo, a, from + lo, len, d);
+                System.arraycopy(b, lo, a, from + lo, len);
+            }
+        });
+    }
+
+    private static void sortDigits(long[] a, int aFrom, long[] b, int bFrom,
+                                   int n, int digitCount) {
+        int[] counts = countDigits(a, aFrom, n, digitCount);
+        long[] src = a, dst = b;
+        int srcFrom = aFrom, dstFrom = bFrom;
+        for (int d = 0; d < digitCount; d++) {
+            int base = d * RADIX;
+            if (isTrivial(counts, base, n)) {
+                continue;
+            }
+            for (int k = 0, sum = dstFrom; k < RADIX; k++) {
+                int count = counts[base + k];
+                counts[base + k] = sum;
+                sum += count;
+            }
+            for (int i = srcFrom, end = srcFrom + n; i < end; i++) {
+                long v = src[i];
+                dst[counts[base + digit(v, d)]++] = v;
+            }
+            long[] t = src; src = dst; dst = t;
+            int o = srcFrom; srcFrom = dstFrom; dstFrom = o;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, aFrom, n);
+        }
+    }
+
+    private static int[] countDigits(long[] a, int from, int n, int digitCount) {
+        int[] counts = new int[digitCount * RADIX];
+        for (int i = from, end = from + n; i < end; i++) {
+            long v = a[i];
+            for (int d = 0; d < digitCount; d++) {
+                counts[d * RADIX + digit(v, d)]++;
+            }
+        }
+        return counts;
+    }
+
+    private static int digit(long v, int d) {
+        int digit = (int) (v >>> (d << 3)) & DIGIT_MASK;
+        return d == 7 ? digit ^ 0x80 : digit;
+    }
+
+    private static void sortDigits(double[] a, int aFrom, double[] b, int bFrom,
+                                   int n, int digitCount) {
+        int[] counts = countDigits(a, aFrom, n, digitCount);
+        double[] src = a, dst = b;
+        int srcFrom = aFrom, dstFrom = bFrom;
+        for (int d = 0; d < digitCount; d++) {
+            int base = d * RADIX;
+            if (isTrivial(counts, base, n)) {
+                continue;
+            }
+            for (int k = 0, sum = dstFrom; k < RADIX; k++) {
+                int count = counts[base + k];
+                counts[base + k] = sum;
+                sum += count;
+            }
+            for (int i = srcFrom, end = srcFrom + n; i < end; i++) {
+                double v = src[i];
+                dst[counts[base + digit(doubleToKey(v), d)]++] = v;
+            }
+            double[] t = src; src = dst; dst = t;
+            int o = srcFrom; srcFrom = dstFrom; dstFrom = o;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, aFrom, n);
+        }
+    }
+
+    private static int[] countDigits(double[] a, int from, int n, int digitCount) {
+        int[] counts = new int[digitCount * RADIX];
+        for (int i = from, end = from + n; i < end; i++) {
+            long v = doubleToKey(a[i]);
+            for (int d = 0; d < digitCount; d++) {
+                counts[d * RADIX + digit(v, d)]++;
+            }
+        }
+        return counts;
+    }
+
+    private static long doubleToKey(double f) {
+        long bits = Double.doubleToRawLongBits(f);
+        return bits ^ ((bits >> 63) & 0x7fffffffffffffffL);
+    }
+
+    /*
+     * Common
+     */
+
+    /**
+     * Returns whether the range is already in ascending order, which the
+     * radix sort doesn't benefit from, unlike the merge sort it replaces.
+     * On unsorted ranges this usually stops after a few elements.
+     */
+    private static boolean isSorted(int[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (a[i - 1] > a[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSorted(long[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (a[i - 1] > a[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the range is in the order the radix sort puts it in,
+     * with -0.0 before 0.0.
+     */
+    private static boolean isSorted(float[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (floatToKey(a[i - 1]) > floatToKey(a[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSorted(double[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (doubleToKey(a[i - 1]) > doubleToKey(a[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether all n values have the same digit, according to the
+     * counts starting at base.
+     */
+    private static boolean isTrivial(int[] counts, int base, int n) {
+        for (int k = 0; k < RADIX; k++) {
+            int count = counts[base + k];
+            if (count != 0) {
+                return count == n;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether all n values have the same d-th digit, according to
+     * the counts of all chunks.
+     */
+    private static boolean isTrivial(int[][] counts, int d, int n) {
+        int base = d * RADIX;
+        for (int k = 0; k < RADIX; k++) {
+            int count = 0;
+            for (int[] chunkCounts : counts) {
+                count += chunkCounts[base + k];
+            }
+            if (count != 0) {
+                return count == n;
+            }
+        }
+        return true;
+    }
+
+    private static int chunkCount(int n) {
+        int maxChunks = ForkJoinPool.getCommonPoolParallelism() << 2;
+        return Math.max(1, Math.min(maxChunks, n / MIN_CHUNK_SIZE));
+    }
+
+    private interface IndexedTask {
+        void run(int index);
+    }
+
+    /**
+     * Runs task for each index from 0 to count - 1 in the common pool, and
+     * waits for them all.
+     */
+    private static void invokeAll(int count, IndexedTask task) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            tasks.add(ForkJoinTask.adapt(() -> task.run(index)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+}
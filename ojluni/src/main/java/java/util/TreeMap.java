@@ -1936,7 +1936,9 @@ public class TreeMap<K,V>
         }
 
         Spliterator<K> keySpliterator() {
-            return new SubMapKeyIterator(absLowest(), absHighFence());
+            // Android-changed: Use a KeySpliterator over the range, which can split.
+            return new KeySpliterator<K,V>(m, absLowest(), absHighFence(),
+                                           -1, m.size, m.modCount);
         }
 
         Iterator<K> descendingKeyIterator() {
@@ -1947,6 +1949,12 @@ public class TreeMap<K,V>
             public Iterator<Map.Entry<K,V>> iterator() {
                 return new SubMapEntryIterator(absLowest(), absHighFence());
             }
+
+            // Android-added: Use an EntrySpliterator over the range, which can split.
+            public Spliterator<Map.Entry<K,V>> spliterator() {
+                return new EntrySpliterator<K,V>(m, absLowest(), absHighFence(),
+                                                 -1, m.size, m.modCount);
+            }
         }
 
         public Set<Map.Entry<K,V>> entrySet() {
@@ -2031,7 +2039,9 @@ public class TreeMap<K,V>
         }
 
         Spliterator<K> keySpliterator() {
-            return new DescendingSubMapKeyIterator(absHighest(), absLowFence());
+            // Android-changed: Use a DescendingKeySpliterator over the range, which can split.
+            return new DescendingKeySpliterator<K,V>(m, absHighest(), absLowFence(),
+                                                     -1, m.size, m.modCount);
         }
 
         Iterator<K> descendingKeyIterator() {
@@ -2658,14 +2668,15 @@ public class TreeMap<K,V>
         return level;
     }
 
+    // Android-changed: Submaps have splitting spliterators too.
     /**
-     * Currently, we support Spliterator-based versions only for the
-     * full map, in either plain of descending form, otherwise relying
-     * on defaults because size estimation for submaps would dominate
-     * costs. The type tests needed to check these for key views are
-     * not very nice but avoid disrupting existing class
-     * structures. Callers must use plain default spliterators if this
-     * returns null.
+     * Returns a spliterator over the keys of the full map, in either
+     * plain or descending form, or of a submap.  Submap spliterators
+     * are bound to their range when created and don't report SIZED,
+     * because determining the size of a submap takes O(n) time; they
+     * estimate the size of the whole map. The type tests needed to
+     * check these for key views are not very nice but avoid disrupting
+     * existing class structures.
      */
     static <K> Spliterator<K> keySpliteratorFor(NavigableMap<K,?> m) {
         if (m instanceof TreeMap) {
@@ -2711,12 +2722,12 @@ public class TreeMap<K,V>
      * trySplit methods are identical (except for return types), but
      * not nicely factorable.
      *
-     * Currently, subclass versions exist only for the full map
-     * (including descending keys via its descendingMap).  Others are
-     * possible but currently not worthwhile because submaps require
-     * O(n) computations to determine size, which substantially limits
-     * potential speed-ups of using custom Spliterators versus default
-     * mechanics.
+     * Android-changed: Splits happen at the node nearest the root
+     * between the origin and the fence, which is the root of the
+     * smallest subtree spanning the remaining range; see
+     * ascendingSplit.  That also splits ranges after partial
+     * traversal, and those of submaps, whose spliterators start with a
+     * nonzero side and the size of the whole map as an estimate.
      *
      * To boostrap initialization, external constructors use
      * negative size estimates: -1 for ascend, -2 for descend.
@@ -2757,6 +2768,50 @@ public class TreeMap<K,V>
         public final long estimateSize() {
             return (long)getEstimate();
         }
+
+        // Android-added: Split at the highest node in range.
+        /**
+         * Returns the node nearest the root that is after e and before
+         * f (or any node after e, if f is null), or null if there is
+         * none.  That node is the root of the smallest subtree spanning
+         * the range, so splitting there keeps splitting along subtree
+         * boundaries however far traversal has advanced, and whether or
+         * not the range covers the whole tree.
+         */
+        final TreeMapEntry<K,V> ascendingSplit(TreeMapEntry<K,V> e,
+                                               TreeMapEntry<K,V> f) {
+            TreeMap<K,V> t = tree;
+            TreeMapEntry<K,V> s = t.root;
+            while (s != null) {
+                if (s == e || t.compare(s.key, e.key) < 0)
+                    s = s.right;
+                else if (f != null && (s == f || t.compare(s.key, f.key) > 0))
+                    s = s.left;
+                else
+                    return s;
+            }
+            return null;
+        }
+
+        /**
+         * Returns the node nearest the root that is before e and after
+         * f (or any node before e, if f is null), or null if there is
+         * none.
+         */
+        final TreeMapEntry<K,V> descendingSplit(TreeMapEntry<K,V> e,
+                                                TreeMapEntry<K,V> f) {
+            TreeMap<K,V> t = tree;
+            TreeMapEntry<K,V> s = t.root;
+            while (s != null) {
+                if (s == e || t.compare(s.key, e.key) > 0)
+                    s = s.left;
+                else if (f != null && (s == f || t.compare(s.key, f.key) < 0))
+                    s = s.right;
+                else
+                    return s;
+            }
+            return null;
+        }
     }
 
     static final class KeySpliterator<K,V>
@@ -2771,15 +2826,10 @@ public class TreeMap<K,V>
         public KeySpliterator<K,V> trySplit() {
             if (est < 0)
                 getEstimate(); // force initialization
-            int d = side;
+            // Android-changed: Split at the highest node in range.
             TreeMapEntry<K,V> e = current, f = fence,
-                s = ((e == null || e == f) ? null :      // empty
-                     (d == 0)              ? tree.root : // was top
-                     (d >  0)              ? e.right :   // was right
-                     (d <  0 && f != null) ? f.left :    // was left
-                     null);
-            if (s != null && s != e && s != f &&
-                tree.compare(e.key, s.key) < 0) {        // e not already past s
+                s = (e == null || e == f) ? null : ascendingSplit(e, f);
+            if (s != null) {
                 side = 1;
                 return new KeySpliterator<>
                     (tree, e, current = s, -1, est >>>= 1, expectedModCount);
@@ -2849,15 +2899,10 @@ public class TreeMap<K,V>
         public DescendingKeySpliterator<K,V> trySplit() {
             if (est < 0)
                 getEstimate(); // force initialization
-            int d = side;
+            // Android-changed: Split at the highest node in range.
             TreeMapEntry<K,V> e = current, f = fence,
-                    s = ((e == null || e == f) ? null :      // empty
-                         (d == 0)              ? tree.root : // was top
-                         (d <  0)              ? e.left :    // was left
-                         (d >  0 && f != null) ? f.right :   // was right
-                         null);
-            if (s != null && s != e && s != f &&
-                tree.compare(e.key, s.key) > 0) {       // e not already past s
+                s = (e == null || e == f) ? null : descendingSplit(e, f);
+            if (s != null) {
                 side = 1;
                 return new DescendingKeySpliterator<>
                         (tree, e, current = s, -1, est >>>= 1, expectedModCount);
@@ -2922,15 +2967,10 @@ public class TreeMap<K,V>
         public ValueSpliterator<K,V> trySplit() {
             if (est < 0)
                 getEstimate(); // force initialization
-            int d = side;
+            // Android-changed: Split at the highest node in range.
             TreeMapEntry<K,V> e = current, f = fence,
-                    s = ((e == null || e == f) ? null :      // empty
-                         (d == 0)              ? tree.root : // was top
-                         (d >  0)              ? e.right :   // was right
-                         (d <  0 && f != null) ? f.left :    // was left
-                         null);
-            if (s != null && s != e && s != f &&
-                tree.compare(e.key, s.key) < 0) {        // e not already past s
+                s = (e == null || e == f) ? null : ascendingSplit(e, f);
+            if (s != null) {
                 side = 1;
                 return new ValueSpliterator<>
                         (tree, e, current = s, -1, est >>>= 1, expectedModCount);
@@ -2994,15 +3034,10 @@ public class TreeMap<K,V>
         public EntrySpliterator<K,V> trySplit() {
             if (est < 0)
                 getEstimate(); // force initialization
-            int d = side;
+            // Android-changed: Split at the highest node in range.
             TreeMapEntry<K,V> e = current, f = fence,
-                    s = ((e == null || e == f) ? null :      // empty
-                         (d == 0)              ? tree.root : // was top
-                         (d >  0)              ? e.right :   // was right
-                         (d <  0 && f != null) ? f.left :    // was left
-                         null);
-            if (s != null && s != e && s != f &&
-                tree.compare(e.key, s.key) < 0) {        // e not already past s
+                s = (e == null || e == f) ? null : ascendingSplit(e, f);
+            if (s != null) {
                 side = 1;
                 return new EntrySpliterator<>
                         (tree, e, current = s, -1, est >>>= 1, expectedModCount);
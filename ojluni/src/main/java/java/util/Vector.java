@@ -1333,6 +1333,18 @@ public class Vector<E>
         modCount++;
     }
 
+    // Android-added: parallelSort, sorting elementData in place while synchronized.
+    @SuppressWarnings("unchecked")
+    @Override
+    public synchronized void parallelSort(Comparator<? super E> c) {
+        final int expectedModCount = modCount;
+        Arrays.parallelSort((E[]) elementData, 0, elementCount, c);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        modCount++;
+    }
+
     /**
      * Creates a <em><a href="Spliterator.html#binding">late-binding</a></em>
      * and <em>fail-fast</em> {@link Spliterator} over the elements in this
@@ -889,6 +889,17 @@ public class CopyOnWriteArrayList<E>
         }
     }
 
+    // Android-added: parallelSort, sorting a copy of the array under the lock.
+    public void parallelSort(Comparator<? super E> c) {
+        synchronized (lock) {
+            Object[] elements = getArray();
+            Object[] newElements = Arrays.copyOf(elements, elements.length);
+            @SuppressWarnings("unchecked") E[] es = (E[])newElements;
+            Arrays.parallelSort(es, c);
+            setArray(newElements);
+        }
+    }
+
     /**
      * Saves this list to a stream (that is, serializes it).
      *
@@ -1358,6 +1369,24 @@ public class CopyOnWriteArrayList<E>
             }
         }
 
+        // Android-added: parallelSort, sorting a copy of the array under the lock.
+        public void parallelSort(Comparator<? super E> c) {
+            synchronized (l.lock) {
+                int lo = offset;
+                int hi = offset + size;
+                Object[] elements = expectedArray;
+                if (l.getArray() != elements)
+                    throw new ConcurrentModificationException();
+                int len = elements.length;
+                if (lo < 0 || hi > len)
+                    throw new IndexOutOfBoundsException();
+                Object[] newElements = Arrays.copyOf(elements, len);
+                @SuppressWarnings("unchecked") E[] es = (E[])newElements;
+                Arrays.parallelSort(es, lo, hi, c);
+                l.setArray(expectedArray = newElements);
+            }
+        }
+
         public boolean removeAll(Collection<?> c) {
             if (c == null) throw new NullPointerException();
             boolean removed = false;
@@ -337,7 +337,10 @@ public abstract class DoublePipeline<E_IN>
     public final DoubleStream limit(long maxSize) {
         if (maxSize < 0)
             throw new IllegalArgumentException(Long.toString(maxSize));
-        return SliceOps.makeDouble(this, (long) 0, maxSize);
+        // Android-changed: Let a preceding sorted() keep only the first maxSize elements.
+        DoubleStream stream = SliceOps.makeDouble(this, (long) 0, maxSize);
+        SortedOps.limit(this, maxSize);
+        return stream;
     }
 
     @Override
@@ -494,6 +497,9 @@ public abstract class DoublePipeline<E_IN>
 
     @Override
     public final OptionalDouble findFirst() {
+        // Android-added: Find the least element of sorted() without sorting them all.
+        if (SortedOps.isSortedOp(this))
+            return limit(1).findFirst();
         return evaluate(FindOps.makeDouble(true));
     }
 
@@ -373,7 +373,10 @@ public abstract class IntPipeline<E_IN>
     public final IntStream limit(long maxSize) {
         if (maxSize < 0)
             throw new IllegalArgumentException(Long.toString(maxSize));
-        return SliceOps.makeInt(this, 0, maxSize);
+        // Android-changed: Let a preceding sorted() keep only the first maxSize elements.
+        IntStream stream = SliceOps.makeInt(this, 0, maxSize);
+        SortedOps.limit(this, maxSize);
+        return stream;
     }
 
     @Override
@@ -490,6 +493,9 @@ public abstract class IntPipeline<E_IN>
 
     @Override
     public final OptionalInt findFirst() {
+        // Android-added: Find the least element of sorted() without sorting them all.
+        if (SortedOps.isSortedOp(this))
+            return limit(1).findFirst();
         return evaluate(FindOps.makeInt(true));
     }
 
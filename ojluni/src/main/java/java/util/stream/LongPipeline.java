@@ -354,7 +354,10 @@ public abstract class LongPipeline<E_IN>
     public final LongStream limit(long maxSize) {
         if (maxSize < 0)
             throw new IllegalArgumentException(Long.toString(maxSize));
-        return SliceOps.makeLong(this, 0, maxSize);
+        // Android-changed: Let a preceding sorted() keep only the first maxSize elements.
+        LongStream stream = SliceOps.makeLong(this, 0, maxSize);
+        SortedOps.limit(this, maxSize);
+        return stream;
     }
 
     @Override
@@ -472,6 +475,9 @@ public abstract class LongPipeline<E_IN>
 
     @Override
     public final OptionalLong findFirst() {
+        // Android-added: Find the least element of sorted() without sorting them all.
+        if (SortedOps.isSortedOp(this))
+            return limit(1).findFirst();
         return evaluate(FindOps.makeLong(true));
     }
 
@@ -399,7 +399,10 @@ public abstract class ReferencePipeline<P_IN, P_OUT>
     public final Stream<P_OUT> limit(long maxSize) {
         if (maxSize < 0)
             throw new IllegalArgumentException(Long.toString(maxSize));
-        return SliceOps.makeRef(this, 0, maxSize);
+        // Android-changed: Let a preceding sorted() keep only the first maxSize elements.
+        Stream<P_OUT> stream = SliceOps.makeRef(this, 0, maxSize);
+        SortedOps.limit(this, maxSize);
+        return stream;
     }
 
     @Override
@@ -463,6 +466,9 @@ public abstract class ReferencePipeline<P_IN, P_OUT>
 
     @Override
     public final Optional<P_OUT> findFirst() {
+        // Android-added: Find the least element of sorted() without sorting them all.
+        if (SortedOps.isSortedOp(this))
+            return limit(1).findFirst();
         return evaluate(FindOps.makeRef(true));
     }
 
@@ -93,6 +93,47 @@ final class SortedOps {
         return new OfDouble(upstream);
     }
 
+    // Android-added: Fuse a "sorted" operation with a following "limit" operation.
+    /**
+     * Returns whether the provided stage is a "sorted" operation, whose output
+     * can be bounded with {@link #limit}.
+     *
+     * @param pipeline a pipeline stage
+     */
+    static boolean isSortedOp(AbstractPipeline<?, ?, ?> pipeline) {
+        return pipeline instanceof OfRef || pipeline instanceof OfInt
+               || pipeline instanceof OfLong || pipeline instanceof OfDouble;
+    }
+
+    // Android-added: Fuse a "sorted" operation with a following "limit" operation.
+    /**
+     * Makes the provided stage, if it is a "sorted" operation, push only the
+     * first {@code limit} elements of its sorted output downstream.  Rather
+     * than sorting all elements, it then keeps the least of them as they are
+     * accepted, in O(n log limit) time and O(limit) space.
+     * <p>
+     * This must only be called after an operation that needs no more than
+     * those elements has been appended to the stage, so that no other
+     * operation can be.
+     *
+     * @param upstream a pipeline stage
+     * @param limit the number of leading elements that are needed
+     */
+    static void limit(AbstractPipeline<?, ?, ?> upstream, long limit) {
+        // Nothing needs sorting for a limit of 0, and a buffer twice as large
+        // as a huge limit could not be allocated
+        if (limit <= 0 || limit > Nodes.MAX_ARRAY_SIZE / 2)
+            return;
+        if (upstream instanceof OfRef)
+            ((OfRef<?>) upstream).limit = (int) limit;
+        else if (upstream instanceof OfInt)
+            ((OfInt) upstream).limit = (int) limit;
+        else if (upstream instanceof OfLong)
+            ((OfLong) upstream).limit = (int) limit;
+        else if (upstream instanceof OfDouble)
+            ((OfDouble) upstream).limit = (int) limit;
+    }
+
     /**
      * Specialized subtype for sorting reference streams
      */
@@ -102,6 +143,8 @@ final class SortedOps {
          */
         private final boolean isNaturalSort;
         private final Comparator<? super T> comparator;
+        // Android-added: The number of leading elements needed, or -1 for all.
+        private int limit = -1;
 
         /**
          * Sort using natural order of {@literal <T>} which must be
@@ -137,6 +180,9 @@ final class SortedOps {
             // also naturally sorted then this is a no-op
             if (StreamOpFlag.SORTED.isKnown(flags) && isNaturalSort)
                 return sink;
+            // Android-added: Keep only the first elements if limited.
+            else if (limit >= 0)
+                return new LimitedRefSortingSink<>(sink, comparator, limit);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedRefSortingSink<>(sink, comparator);
             else
@@ -152,6 +198,18 @@ final class SortedOps {
             if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags()) && isNaturalSort) {
                 return helper.evaluate(spliterator, false, generator);
             }
+            // Android-added: Keep only the first elements of each leaf if limited.
+            else if (limit >= 0) {
+                int limit = this.limit;
+                LimitedRefBuffer<T> buffer = ReduceOps.<T, LimitedRefBuffer<T>>makeRef(
+                        () -> new LimitedRefBuffer<>(comparator, limit, -1),
+                        LimitedRefBuffer::accept, LimitedRefBuffer::combine)
+                        .evaluateParallel(helper, spliterator);
+                int size = buffer.sort();
+                T[] content = generator.apply(size);
+                System.arraycopy(buffer.array, 0, content, 0, size);
+                return Nodes.node(content);
+            }
             else {
                 // @@@ Weak two-pass parallel implementation; parallel collect, parallel sort
                 T[] flattenedData = helper.evaluate(spliterator, true, generator).asArray(generator);
@@ -165,6 +223,9 @@ final class SortedOps {
      * Specialized subtype for sorting int streams.
      */
     private static final class OfInt extends IntPipeline.StatefulOp<Integer> {
+        // Android-added: The number of leading elements needed, or -1 for all.
+        private int limit = -1;
+
         OfInt(AbstractPipeline<?, Integer, ?> upstream) {
             super(upstream, StreamShape.INT_VALUE,
                   StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
@@ -176,6 +237,9 @@ final class SortedOps {
 
             if (StreamOpFlag.SORTED.isKnown(flags))
                 return sink;
+            // Android-added: Keep only the first elements if limited.
+            else if (limit >= 0)
+                return new LimitedIntSortingSink(sink, limit);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedIntSortingSink(sink);
             else
@@ -189,6 +253,16 @@ final class SortedOps {
             if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags())) {
                 return helper.evaluate(spliterator, false, generator);
             }
+            // Android-added: Keep only the first elements of each leaf if limited.
+            else if (limit >= 0) {
+                int limit = this.limit;
+                LimitedIntBuffer buffer = ReduceOps.makeInt(
+                        () -> new LimitedIntBuffer(limit, -1),
+                        LimitedIntBuffer::accept, LimitedIntBuffer::combine)
+                        .evaluateParallel(helper, spliterator);
+                int size = buffer.sort();
+                return Nodes.node(Arrays.copyOf(buffer.array, size));
+            }
             else {
                 Node.OfInt n = (Node.OfInt) helper.evaluate(spliterator, true, generator);
 
@@ -204,6 +278,9 @@ final class SortedOps {
      * Specialized subtype for sorting long streams.
      */
     private static final class OfLong extends LongPipeline.StatefulOp<Long> {
+        // Android-added: The number of leading elements needed, or -1 for all.
+        private int limit = -1;
+
         OfLong(AbstractPipeline<?, Long, ?> upstream) {
             super(upstream, StreamShape.LONG_VALUE,
                   StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
@@ -215,6 +292,9 @@ final class SortedOps {
 
             if (StreamOpFlag.SORTED.isKnown(flags))
                 return sink;
+            // Android-added: Keep only the first elements if limited.
+            else if (limit >= 0)
+                return new LimitedLongSortingSink(sink, limit);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedLongSortingSink(sink);
             else
@@ -228,6 +308,16 @@ final class SortedOps {
             if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags())) {
                 return helper.evaluate(spliterator, false, generator);
             }
+            // Android-added: Keep only the first elements of each leaf if limited.
+            else if (limit >= 0) {
+                int limit = this.limit;
+                LimitedLongBuffer buffer = ReduceOps.makeLong(
+                        () -> new LimitedLongBuffer(limit, -1),
+                        LimitedLongBuffer::accept, LimitedLongBuffer::combine)
+                        .evaluateParallel(helper, spliterator);
+                int size = buffer.sort();
+                return Nodes.node(Arrays.copyOf(buffer.array, size));
+            }
             else {
                 Node.OfLong n = (Node.OfLong) helper.evaluate(spliterator, true, generator);
 
@@ -243,6 +333,9 @@ final class SortedOps {
      * Specialized subtype for sorting double streams.
      */
     private static final class OfDouble extends DoublePipeline.StatefulOp<Double> {
+        // Android-added: The number of leading elements needed, or -1 for all.
+        private int limit = -1;
+
         OfDouble(AbstractPipeline<?, Double, ?> upstream) {
             super(upstream, StreamShape.DOUBLE_VALUE,
                   StreamOpFlag.IS_ORDERED | StreamOpFlag.IS_SORTED);
@@ -254,6 +347,9 @@ final class SortedOps {
 
             if (StreamOpFlag.SORTED.isKnown(flags))
                 return sink;
+            // Android-added: Keep only the first elements if limited.
+            else if (limit >= 0)
+                return new LimitedDoubleSortingSink(sink, limit);
             else if (StreamOpFlag.SIZED.isKnown(flags))
                 return new SizedDoubleSortingSink(sink);
             else
@@ -267,6 +363,16 @@ final class SortedOps {
             if (StreamOpFlag.SORTED.isKnown(helper.getStreamAndOpFlags())) {
                 return helper.evaluate(spliterator, false, generator);
             }
+            // Android-added: Keep only the first elements of each leaf if limited.
+            else if (limit >= 0) {
+                int limit = this.limit;
+                LimitedDoubleBuffer buffer = ReduceOps.makeDouble(
+                        () -> new LimitedDoubleBuffer(limit, -1),
+                        LimitedDoubleBuffer::accept, LimitedDoubleBuffer::combine)
+                        .evaluateParallel(helper, spliterator);
+                int size = buffer.sort();
+                return Nodes.node(Arrays.copyOf(buffer.array, size));
+            }
             else {
                 Node.OfDouble n = (Node.OfDouble) helper.evaluate(spliterator, true, generator);
 
@@ -405,6 +511,145 @@ final class SortedOps {
         }
     }
 
+    // Android-added: Sizing of the buffers of a limited "sorted" operation.
+    /**
+     * Returns the initial capacity of a buffer for the first {@code limit}
+     * of {@code size} elements, or of an unknown number if {@code size} is
+     * negative.  Buffers grow to twice the limit only as needed, as a limit
+     * may be much larger than the stream.
+     */
+    private static int initialCapacity(int limit, long size) {
+        return (int) Math.min(2L * limit, size >= 0 ? size : 16);
+    }
+
+    // Android-added: Sizing of the buffers of a limited "sorted" operation.
+    /**
+     * Returns the capacity to grow a buffer for the first {@code limit}
+     * elements to from {@code capacity}.
+     */
+    private static int grownCapacity(int capacity, int limit) {
+        return (int) Math.min(2L * limit, Math.max(2L * capacity, 16));
+    }
+
+    // Android-added: Buffer for a limited "sorted" operation.
+    /**
+     * Buffer of the first {@code limit} elements of a reference stream in
+     * sorted order, for a "sorted" operation followed by a "limit" operation.
+     *
+     * <p>
+     * Note: documentation below applies to reference and all primitive buffers.
+     * <p>
+     * Elements are buffered in an array of up to twice the limit, which is
+     * sorted and cut back to the limit whenever it fills up, so that n
+     * elements are sorted in O(n log limit) time.  Once the array has been cut
+     * back, an element that does not sort before the last one kept cannot be
+     * among the first {@code limit}, and is dropped straight away.
+     * <p>
+     * The sort is stable, and a buffer is only given elements that come after
+     * those it already holds in encounter order, so that equal elements are
+     * pushed downstream in encounter order as when all elements are sorted.
+     * In parallel, each leaf task fills a buffer that is then combined with
+     * the buffers of the tasks to its right.
+     */
+    private static final class LimitedRefBuffer<T> {
+        private final Comparator<? super T> comparator;
+        private final int limit;
+        T[] array;
+        private int size;
+        // The last element kept when the array was cut back, if it was
+        private T last;
+        private boolean cutBack;
+
+        @SuppressWarnings("unchecked")
+        LimitedRefBuffer(Comparator<? super T> comparator, int limit, long size) {
+            this.comparator = comparator;
+            this.limit = limit;
+            this.array = (T[]) new Object[initialCapacity(limit, size)];
+        }
+
+        public void accept(T t) {
+            if (cutBack && comparator.compare(t, last) >= 0)
+                return;
+            if (size == array.length) {
+                if (size < 2 * limit)
+                    array = Arrays.copyOf(array, grownCapacity(size, limit));
+                else
+                    cutBack();
+            }
+            array[size++] = t;
+        }
+
+        private void cutBack() {
+            Arrays.sort(array, 0, size, comparator);
+            Arrays.fill(array, limit, size, null);
+            size = limit;
+            last = array[limit - 1];
+            cutBack = true;
+        }
+
+        /**
+         * Adds the elements of a buffer of the elements that come after those
+         * of this one.
+         */
+        public LimitedRefBuffer<T> combine(LimitedRefBuffer<T> other) {
+            for (int i = 0; i < other.size; i++)
+                accept(other.array[i]);
+            return this;
+        }
+
+        /**
+         * Sorts the buffered elements, and returns how many of them, from the
+         * start of {@link #array}, are the first elements of the stream.
+         */
+        public int sort() {
+            Arrays.sort(array, 0, size, comparator);
+            return Math.min(size, limit);
+        }
+    }
+
+    // Android-added: Sink for a limited "sorted" operation.
+    /**
+     * {@link Sink} for implementing sort on reference streams, of which only
+     * the first {@code limit} elements are pushed downstream.
+     */
+    private static final class LimitedRefSortingSink<T> extends AbstractRefSortingSink<T> {
+        private final int limit;
+        private LimitedRefBuffer<T> buffer;
+
+        LimitedRefSortingSink(Sink<? super T> sink, Comparator<? super T> comparator,
+                              int limit) {
+            super(sink, comparator);
+            this.limit = limit;
+        }
+
+        @Override
+        public void begin(long size) {
+            buffer = new LimitedRefBuffer<>(comparator, limit, size);
+        }
+
+        @Override
+        public void end() {
+            T[] array = buffer.array;
+            int size = buffer.sort();
+            downstream.begin(size);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < size; i++)
+                    downstream.accept(array[i]);
+            }
+            else {
+                for (int i = 0; i < size && !downstream.cancellationRequested(); i++)
+                    downstream.accept(array[i]);
+            }
+            downstream.end();
+            buffer = null;
+        }
+
+        @Override
+        public void accept(T t) {
+            buffer.accept(t);
+        }
+    }
+
     /**
      * Abstract {@link Sink} for implementing sort on int streams.
      */
@@ -503,6 +748,97 @@ final class SortedOps {
         }
     }
 
+    // Android-added: Buffer for a limited "sorted" operation.
+    /**
+     * Buffer of the first {@code limit} elements of a int stream in sorted
+     * order.
+     */
+    private static final class LimitedIntBuffer {
+        private final int limit;
+        int[] array;
+        private int size;
+        // The last element kept when the array was cut back, if it was
+        private int last;
+        private boolean cutBack;
+
+        LimitedIntBuffer(int limit, long size) {
+            this.limit = limit;
+            this.array = new int[initialCapacity(limit, size)];
+        }
+
+        public void accept(int t) {
+            if (cutBack && t >= last)
+                return;
+            if (size == array.length) {
+                if (size < 2 * limit)
+                    array = Arrays.copyOf(array, grownCapacity(size, limit));
+                else
+                    cutBack();
+            }
+            array[size++] = t;
+        }
+
+        private void cutBack() {
+            Arrays.sort(array, 0, size);
+            size = limit;
+            last = array[limit - 1];
+            cutBack = true;
+        }
+
+        public LimitedIntBuffer combine(LimitedIntBuffer other) {
+            for (int i = 0; i < other.size; i++)
+                accept(other.array[i]);
+            return this;
+        }
+
+        public int sort() {
+            Arrays.sort(array, 0, size);
+            return Math.min(size, limit);
+        }
+    }
+
+    // Android-added: Sink for a limited "sorted" operation.
+    /**
+     * {@link Sink} for implementing sort on int streams, of which only the
+     * first {@code limit} elements are pushed downstream.
+     */
+    private static final class LimitedIntSortingSink extends AbstractIntSortingSink {
+        private final int limit;
+        private LimitedIntBuffer buffer;
+
+        LimitedIntSortingSink(Sink<? super Integer> downstream, int limit) {
+            super(downstream);
+            this.limit = limit;
+        }
+
+        @Override
+        public void begin(long size) {
+            buffer = new LimitedIntBuffer(limit, size);
+        }
+
+        @Override
+        public void end() {
+            int[] array = buffer.array;
+            int size = buffer.sort();
+            downstream.begin(size);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < size; i++)
+                    downstream.accept(array[i]);
+            }
+            else {
+                for (int i = 0; i < size && !downstream.cancellationRequested(); i++)
+                    downstream.accept(array[i]);
+            }
+            downstream.end();
+            buffer = null;
+        }
+
+        @Override
+        public void accept(int t) {
+            buffer.accept(t);
+        }
+    }
+
     /**
      * Abstract {@link Sink} for implementing sort on long streams.
      */
@@ -601,6 +937,97 @@ final class SortedOps {
         }
     }
 
+    // Android-added: Buffer for a limited "sorted" operation.
+    /**
+     * Buffer of the first {@code limit} elements of a long stream in sorted
+     * order.
+     */
+    private static final class LimitedLongBuffer {
+        private final int limit;
+        long[] array;
+        private int size;
+        // The last element kept when the array was cut back, if it was
+        private long last;
+        private boolean cutBack;
+
+        LimitedLongBuffer(int limit, long size) {
+            this.limit = limit;
+            this.array = new long[initialCapacity(limit, size)];
+        }
+
+        public void accept(long t) {
+            if (cutBack && t >= last)
+                return;
+            if (size == array.length) {
+                if (size < 2 * limit)
+                    array = Arrays.copyOf(array, grownCapacity(size, limit));
+                else
+                    cutBack();
+            }
+            array[size++] = t;
+        }
+
+        private void cutBack() {
+            Arrays.sort(array, 0, size);
+            size = limit;
+            last = array[limit - 1];
+            cutBack = true;
+        }
+
+        public LimitedLongBuffer combine(LimitedLongBuffer other) {
+            for (int i = 0; i < other.size; i++)
+                accept(other.array[i]);
+            return this;
+        }
+
+        public int sort() {
+            Arrays.sort(array, 0, size);
+            return Math.min(size, limit);
+        }
+    }
+
+    // Android-added: Sink for a limited "sorted" operation.
+    /**
+     * {@link Sink} for implementing sort on long streams, of which only the
+     * first {@code limit} elements are pushed downstream.
+     */
+    private static final class LimitedLongSortingSink extends AbstractLongSortingSink {
+        private final int limit;
+        private LimitedLongBuffer buffer;
+
+        LimitedLongSortingSink(Sink<? super Long> downstream, int limit) {
+            super(downstream);
+            this.limit = limit;
+        }
+
+        @Override
+        public void begin(long size) {
+            buffer = new LimitedLongBuffer(limit, size);
+        }
+
+        @Override
+        public void end() {
+            long[] array = buffer.array;
+            int size = buffer.sort();
+            downstream.begin(size);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < size; i++)
+                    downstream.accept(array[i]);
+            }
+            else {
+                for (int i = 0; i < size && !downstream.cancellationRequested(); i++)
+                    downstream.accept(array[i]);
+            }
+            downstream.end();
+            buffer = null;
+        }
+
+        @Override
+        public void accept(long t) {
+            buffer.accept(t);
+        }
+    }
+
     /**
      * Abstract {@link Sink} for implementing sort on long streams.
      */
@@ -698,4 +1125,95 @@ final class SortedOps {
             b.accept(t);
         }
     }
+
+    // Android-added: Buffer for a limited "sorted" operation.
+    /**
+     * Buffer of the first {@code limit} elements of a double stream in sorted
+     * order.
+     */
+    private static final class LimitedDoubleBuffer {
+        private final int limit;
+        double[] array;
+        private int size;
+        // The last element kept when the array was cut back, if it was
+        private double last;
+        private boolean cutBack;
+
+        LimitedDoubleBuffer(int limit, long size) {
+            this.limit = limit;
+            this.array = new double[initialCapacity(limit, size)];
+        }
+
+        public void accept(double t) {
+            if (cutBack && Double.compare(t, last) >= 0)
+                return;
+            if (size == array.length) {
+                if (size < 2 * limit)
+                    array = Arrays.copyOf(array, grownCapacity(size, limit));
+                else
+                    cutBack();
+            }
+            array[size++] = t;
+        }
+
+        private void cutBack() {
+            Arrays.sort(array, 0, size);
+            size = limit;
+            last = array[limit - 1];
+            cutBack = true;
+        }
+
+        public LimitedDoubleBuffer combine(LimitedDoubleBuffer other) {
+            for (int i = 0; i < other.size; i++)
+                accept(other.array[i]);
+            return this;
+        }
+
+        public int sort() {
+            Arrays.sort(array, 0, size);
+            return Math.min(size, limit);
+        }
+    }
+
+    // Android-added: Sink for a limited "sorted" operation.
+    /**
+     * {@link Sink} for implementing sort on double streams, of which only the
+     * first {@code limit} elements are pushed downstream.
+     */
+    private static final class LimitedDoubleSortingSink extends AbstractDoubleSortingSink {
+        private final int limit;
+        private LimitedDoubleBuffer buffer;
+
+        LimitedDoubleSortingSink(Sink<? super Double> downstream, int limit) {
+            super(downstream);
+            this.limit = limit;
+        }
+
+        @Override
+        public void begin(long size) {
+            buffer = new LimitedDoubleBuffer(limit, size);
+        }
+
+        @Override
+        public void end() {
+            double[] array = buffer.array;
+            int size = buffer.sort();
+            downstream.begin(size);
+            if (!cancellationWasRequested) {
+                for (int i = 0; i < size; i++)
+                    downstream.accept(array[i]);
+            }
+            else {
+                for (int i = 0; i < size && !downstream.cancellationRequested(); i++)
+                    downstream.accept(array[i]);
+            }
+            downstream.end();
+            buffer = null;
+        }
+
+        @Override
+        public void accept(double t) {
+            buffer.accept(t);
+        }
+    }
 }
@@ -35,10 +35,15 @@ import java.nio.channels.spi.*;
 import java.util.*;
 import sun.net.ExtendedOptionsImpl;
 
+import android.system.ErrnoException;
 import dalvik.system.BlockGuard;
+import java.nio.NioUtils;
+import libcore.io.Libcore;
 import sun.net.ResourceManager;
 import sun.net.ExtendedOptionsImpl;
 
+import static android.system.OsConstants.*;
+
 /**
  * An implementation of DatagramChannels.
  */
@@ -543,6 +548,183 @@ class DatagramChannelImpl
         return written;
     }
 
+    // ----- BEGIN android -----
+    // Batched datagram I/O with recvmmsg(2) and sendmmsg(2), one system call
+    // for up to a whole batch of datagrams.
+
+    // Describes bufs in the (buffer, offset, byte count) form that libcore.io.Os
+    // takes for vectored I/O. Heap buffers are described by their backing arrays.
+    private static void describeBuffers(ByteBuffer[] bufs, Object[] buffers,
+                                        int[] offsets, int[] byteCounts)
+    {
+        for (int i = 0; i < buffers.length; i++) {
+            ByteBuffer bb = bufs[i];
+            if (bb.isDirect()) {
+                buffers[i] = bb;
+                offsets[i] = bb.position();
+            } else {
+                buffers[i] = NioUtils.unsafeArray(bb);
+                offsets[i] = NioUtils.unsafeArrayOffset(bb) + bb.position();
+            }
+            byteCounts[i] = bb.remaining();
+        }
+    }
+
+    @Override
+    public int receive(ByteBuffer[] dsts, SocketAddress[] senders)
+        throws IOException
+    {
+        if (senders.length < dsts.length)
+            throw new IllegalArgumentException("senders.length < dsts.length");
+        for (ByteBuffer dst : dsts) {
+            if (dst.isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+        }
+        // Android-changed : Do not attempt to bind to 0 (or 0.0.0.0) if there hasn't been
+        // an explicit call to bind() yet. Fail fast and return nothing.
+        if (localAddress == null || dsts.length == 0)
+            return 0;
+        // Every datagram has to be vetted individually by the security manager
+        if (!isConnected() && System.getSecurityManager() != null)
+            return super.receive(dsts, senders);
+
+        int count = dsts.length;
+        Object[] buffers = new Object[count];
+        int[] offsets = new int[count];
+        int[] byteCounts = new int[count];
+        InetSocketAddress[] addresses = new InetSocketAddress[count];
+        for (int i = 0; i < count; i++)
+            addresses[i] = new InetSocketAddress();
+
+        synchronized (readLock) {
+            ensureOpen();
+            describeBuffers(dsts, buffers, offsets, byteCounts);
+            // Only wait for the first datagram; take whatever else is queued
+            int flags = isBlocking() ? MSG_WAITFORONE : 0;
+            int n = 0;
+            try {
+                begin();
+                if (!isOpen())
+                    return 0;
+                readerThread = NativeThread.current();
+                for (;;) {
+                    try {
+                        n = Libcore.os.recvmmsg(fd, buffers, offsets, byteCounts, flags,
+                                                addresses);
+                        break;
+                    } catch (ErrnoException e) {
+                        if (e.errno == EAGAIN) {
+                            n = IOStatus.UNAVAILABLE;
+                            return 0;
+                        }
+                        if (e.errno == ECONNREFUSED) {
+                            if (isConnected())
+                                throw new PortUnreachableException();
+                            // An ICMP error from an earlier send; try again
+                            continue;
+                        }
+                        throw e.rethrowAsSocketException();
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    dsts[i].position(dsts[i].position() + byteCounts[i]);
+                    senders[i] = addresses[i];
+                }
+                return n;
+            } finally {
+                readerThread = 0;
+                end((n > 0) || (n == IOStatus.UNAVAILABLE));
+            }
+        }
+    }
+
+    @Override
+    public int send(ByteBuffer[] srcs, SocketAddress[] targets)
+        throws IOException
+    {
+        if (targets != null && targets.length < srcs.length)
+            throw new IllegalArgumentException("targets.length < srcs.length");
+        if (srcs.length == 0)
+            return 0;
+        for (ByteBuffer src : srcs) {
+            // The array behind a read-only heap buffer can't be handed out
+            if (src.isReadOnly() && !src.isDirect())
+                return super.send(srcs, targets);
+        }
+
+        int count = srcs.length;
+        InetSocketAddress[] addresses = null;
+        synchronized (writeLock) {
+            ensureOpen();
+            synchronized (stateLock) {
+                if (isConnected()) {
+                    // Connected case; check addresses then write
+                    for (int i = 0; targets != null && i < count; i++) {
+                        if (targets[i] != null && !targets[i].equals(remoteAddress)) {
+                            throw new IllegalArgumentException(
+                                "Connected address not equal to target address");
+                        }
+                    }
+                } else {
+                    if (targets == null)
+                        throw new NotYetConnectedException();
+                    // Every target has to be vetted individually by the security manager
+                    if (System.getSecurityManager() != null)
+                        return super.send(srcs, targets);
+                    addresses = new InetSocketAddress[count];
+                    for (int i = 0; i < count; i++) {
+                        if (targets[i] == null)
+                            throw new NotYetConnectedException();
+                        InetSocketAddress isa = Net.checkAddress(targets[i]);
+                        if (isa.getAddress() == null)
+                            throw new IOException("Target address not resolved");
+                        addresses[i] = isa;
+                    }
+                }
+            }
+
+            Object[] buffers = new Object[count];
+            int[] offsets = new int[count];
+            int[] byteCounts = new int[count];
+            describeBuffers(srcs, buffers, offsets, byteCounts);
+            int n = 0;
+            try {
+                begin();
+                if (!isOpen())
+                    return 0;
+                writerThread = NativeThread.current();
+                try {
+                    n = Libcore.os.sendmmsg(fd, buffers, offsets, byteCounts, 0, addresses);
+                } catch (ErrnoException e) {
+                    if (e.errno == EAGAIN) {
+                        n = IOStatus.UNAVAILABLE;
+                        return 0;
+                    }
+                    if (e.errno != ECONNREFUSED)
+                        throw e.rethrowAsSocketException();
+                    if (isConnected())
+                        throw new PortUnreachableException();
+                    // As in send(ByteBuffer, SocketAddress), an ICMP error from an
+                    // earlier datagram doesn't stop this one from counting as sent
+                    n = 1;
+                }
+                for (int i = 0; i < n; i++)
+                    srcs[i].position(srcs[i].limit());
+
+                synchronized (stateLock) {
+                    if (isOpen() && (localAddress == null)) {
+                        localAddress = Net.localAddress(fd);
+                    }
+                }
+                return n;
+            } finally {
+                writerThread = 0;
+                end((n > 0) || (n == IOStatus.UNAVAILABLE));
+            }
+        }
+    }
+    // ----- END android -----
+
     public int read(ByteBuffer buf) throws IOException {
         if (buf == null)
             throw new NullPointerException();
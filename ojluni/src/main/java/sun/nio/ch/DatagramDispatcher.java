@@ -26,6 +26,7 @@
 package sun.nio.ch;
 
 import dalvik.system.BlockGuard;
+import libcore.io.IoStats;
 
 import java.io.*;
 import java.net.*;
@@ -39,22 +40,54 @@ class DatagramDispatcher extends NativeDispatcher
 {
     int read(FileDescriptor fd, long address, int len) throws IOException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return read0(fd, address, len);
+        // Android-added: Record the call in IoStats.
+        final long startNanos = IoStats.begin();
+        int n = -1;
+        try {
+            n = read0(fd, address, len);
+            return n;
+        } finally {
+            IoStats.end(IoStats.Op.READ, IoStats.Kind.NETWORK, startNanos, n);
+        }
     }
 
     long readv(FileDescriptor fd, long address, int len) throws IOException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return readv0(fd, address, len);
+        // Android-added: Record the call in IoStats.
+        final long startNanos = IoStats.begin();
+        long n = -1;
+        try {
+            n = readv0(fd, address, len);
+            return n;
+        } finally {
+            IoStats.end(IoStats.Op.READ, IoStats.Kind.NETWORK, startNanos, n);
+        }
     }
 
     int write(FileDescriptor fd, long address, int len) throws IOException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return write0(fd, address, len);
+        // Android-added: Record the call in IoStats.
+        final long startNanos = IoStats.begin();
+        int n = -1;
+        try {
+            n = write0(fd, address, len);
+            return n;
+        } finally {
+            IoStats.end(IoStats.Op.WRITE, IoStats.Kind.NETWORK, startNanos, n);
+        }
     }
 
     long writev(FileDescriptor fd, long address, int len) throws IOException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return writev0(fd, address, len);
+        // Android-added: Record the call in IoStats.
+        final long startNanos = IoStats.begin();
+        long n = -1;
+        try {
+            n = writev0(fd, address, len);
+            return n;
+        } finally {
+            IoStats.end(IoStats.Op.WRITE, IoStats.Kind.NETWORK, startNanos, n);
+        }
     }
 
     void close(FileDescriptor fd) throws IOException {
@@ -28,8 +28,12 @@ package sun.nio.ch;
 import java.io.IOException;
 import java.security.AccessController;
 import java.util.BitSet;
-import java.util.HashMap;
-import java.util.Map;
+// ----- BEGIN android -----
+// import java.util.HashMap;
+// import java.util.Map;
+import libcore.util.IntIntMap;
+import sun.security.action.GetBooleanAction;
+// ----- END android -----
 import sun.security.action.GetIntegerAction;
 
 /**
@@ -54,11 +58,20 @@ import sun.security.action.GetIntegerAction;
  * this implementation we set data.fd to be the file descriptor that we
  * register. That way, we have the file descriptor available when we
  * process the events.
+ *
+ * If the system property sun.nio.ch.epollEdgeTriggered is true, channels are
+ * registered with EPOLLET, so that a channel is only selected again once new
+ * data or space arrives after it was last selected. This saves a wakeup per
+ * select for channels that stay ready, but a program that stops reading or
+ * writing before the operation would block will not see the channel again.
  */
 
 class EPollArrayWrapper {
     // EPOLL_EVENTS
     private static final int EPOLLIN      = 0x001;
+    // ----- BEGIN android -----
+    private static final int EPOLLET      = 0x80000000;
+    // ----- END android -----
 
     // opcodes
     private static final int EPOLL_CTL_ADD      = 1;
@@ -83,6 +96,12 @@ class EPollArrayWrapper {
     private static final int MAX_UPDATE_ARRAY_SIZE = AccessController.doPrivileged(
         new GetIntegerAction("sun.nio.ch.maxUpdateArraySize", Math.min(OPEN_MAX, 64*1024)));
 
+    // ----- BEGIN android -----
+    // Whether channels are registered edge-triggered; see the class comment
+    private static final boolean EDGE_TRIGGERED = AccessController.doPrivileged(
+        new GetBooleanAction("sun.nio.ch.epollEdgeTriggered"));
+    // ----- END android -----
+
     // The fd of the epoll driver
     private final int epfd;
 
@@ -101,6 +120,11 @@ class EPollArrayWrapper {
     // The index of the interrupt FD
     private int interruptedIndex;
 
+    // ----- BEGIN android -----
+    // Whether the interrupt line is a single eventfd rather than a pipe
+    private boolean interruptIsEventFD;
+    // ----- END android -----
+
     // Number of updated pollfd entries
     int updated;
 
@@ -118,7 +142,10 @@ class EPollArrayWrapper {
     // file descriptors higher than MAX_UPDATE_ARRAY_SIZE (unlimited case at
     // least) then the update is stored in a map.
     private final byte[] eventsLow = new byte[MAX_UPDATE_ARRAY_SIZE];
-    private Map<Integer,Byte> eventsHigh;
+    // ----- BEGIN android -----
+    // private Map<Integer,Byte> eventsHigh;
+    private IntIntMap eventsHigh;
+    // ----- END android -----
 
     // Used by release and updateRegistrations to track whether a file
     // descriptor is registered with epoll.
@@ -136,12 +163,18 @@ class EPollArrayWrapper {
 
         // eventHigh needed when using file descriptors > 64k
         if (OPEN_MAX > MAX_UPDATE_ARRAY_SIZE)
-            eventsHigh = new HashMap<>();
+            // ----- BEGIN android -----
+            // eventsHigh = new HashMap<>();
+            eventsHigh = new IntIntMap();
+            // ----- END android -----
     }
 
     void initInterrupt(int fd0, int fd1) {
         outgoingInterruptFD = fd1;
         incomingInterruptFD = fd0;
+        // ----- BEGIN android -----
+        interruptIsEventFD = (fd0 == fd1);
+        // ----- END android -----
         epollCtl(epfd, EPOLL_CTL_ADD, fd0, EPOLLIN);
     }
 
@@ -169,11 +202,17 @@ class EPollArrayWrapper {
      * Returns {@code true} if updates for the given key (file
      * descriptor) are killed.
      */
-    private boolean isEventsHighKilled(Integer key) {
+    // ----- BEGIN android -----
+    // private boolean isEventsHighKilled(Integer key) {
+    //     assert key >= MAX_UPDATE_ARRAY_SIZE;
+    //     Byte value = eventsHigh.get(key);
+    //     return (value != null && value == KILLED);
+    // }
+    private boolean isEventsHighKilled(int key) {
         assert key >= MAX_UPDATE_ARRAY_SIZE;
-        Byte value = eventsHigh.get(key);
-        return (value != null && value == KILLED);
+        return eventsHigh.get(key, 0) == KILLED;
     }
+    // ----- END android -----
 
     /**
      * Sets the pending update events for the given file descriptor. This
@@ -186,10 +225,15 @@ class EPollArrayWrapper {
                 eventsLow[fd] = events;
             }
         } else {
-            Integer key = Integer.valueOf(fd);
-            if (!isEventsHighKilled(key) || force) {
-                eventsHigh.put(key, Byte.valueOf(events));
+            // ----- BEGIN android -----
+            // Integer key = Integer.valueOf(fd);
+            // if (!isEventsHighKilled(key) || force) {
+            //     eventsHigh.put(key, Byte.valueOf(events));
+            // }
+            if (!isEventsHighKilled(fd) || force) {
+                eventsHigh.put(fd, events);
             }
+            // ----- END android -----
         }
     }
 
@@ -200,9 +244,12 @@ class EPollArrayWrapper {
         if (fd < MAX_UPDATE_ARRAY_SIZE) {
             return eventsLow[fd];
         } else {
-            Byte result = eventsHigh.get(Integer.valueOf(fd));
-            // result should never be null
-            return result.byteValue();
+            // ----- BEGIN android -----
+            // Byte result = eventsHigh.get(Integer.valueOf(fd));
+            // // result should never be null
+            // return result.byteValue();
+            return (byte) eventsHigh.get(fd, 0);
+            // ----- END android -----
         }
     }
 
@@ -296,7 +343,11 @@ class EPollArrayWrapper {
                         opcode = (events != 0) ? EPOLL_CTL_ADD : 0;
                     }
                     if (opcode != 0) {
-                        epollCtl(epfd, opcode, fd, events);
+                        // ----- BEGIN android -----
+                        // epollCtl(epfd, opcode, fd, events);
+                        epollCtl(epfd, opcode, fd,
+                                 (EDGE_TRIGGERED && events != 0) ? events | EPOLLET : events);
+                        // ----- END android -----
                         if (opcode == EPOLL_CTL_ADD) {
                             registered.set(fd);
                         } else if (opcode == EPOLL_CTL_DEL) {
@@ -314,7 +365,14 @@ class EPollArrayWrapper {
     private boolean interrupted = false;
 
     public void interrupt() {
-        interrupt(outgoingInterruptFD);
+        // ----- BEGIN android -----
+        // interrupt(outgoingInterruptFD);
+        if (interruptIsEventFD) {
+            interruptEventFD(outgoingInterruptFD);
+        } else {
+            interrupt(outgoingInterruptFD);
+        }
+        // ----- END android -----
     }
 
     public int interruptedIndex() {
@@ -336,4 +394,9 @@ class EPollArrayWrapper {
     private static native int sizeofEPollEvent();
     private static native int offsetofData();
     private static native void interrupt(int fd);
+    // ----- BEGIN android -----
+    // Returns a non-blocking eventfd, or -1 if the kernel doesn't support eventfd
+    static native int makeEventFD() throws IOException;
+    private static native void interruptEventFD(int fd);
+    // ----- END android -----
 }
@@ -29,6 +29,10 @@ import java.io.IOException;
 import java.nio.channels.*;
 import java.nio.channels.spi.*;
 import java.util.*;
+// ----- BEGIN android -----
+import java.util.function.Consumer;
+import libcore.util.IntObjectMap;
+// ----- END android -----
 import sun.misc.*;
 
 /**
@@ -39,7 +43,8 @@ class EPollSelectorImpl
     extends SelectorImpl
 {
 
-    // File descriptors used for interrupt
+    // File descriptors used for interrupt; both are the same eventfd when
+    // the kernel supports it
     protected int fd0;
     protected int fd1;
 
@@ -47,7 +52,10 @@ class EPollSelectorImpl
     EPollArrayWrapper pollWrapper;
 
     // Maps from file descriptors to keys
-    private Map<Integer,SelectionKeyImpl> fdToKey;
+    // ----- BEGIN android -----
+    // private Map<Integer,SelectionKeyImpl> fdToKey;
+    private IntObjectMap<SelectionKeyImpl> fdToKey;
+    // ----- END android -----
 
     // True if this Selector has been closed
     private volatile boolean closed = false;
@@ -62,15 +70,41 @@ class EPollSelectorImpl
      */
     EPollSelectorImpl(SelectorProvider sp) throws IOException {
         super(sp);
-        long pipeFds = IOUtil.makePipe(false);
-        fd0 = (int) (pipeFds >>> 32);
-        fd1 = (int) pipeFds;
+        // ----- BEGIN android -----
+        // An eventfd needs one fd rather than two, and repeated wakeups can
+        // never fill it up the way they can fill a pipe.
+        int eventFd = EPollArrayWrapper.makeEventFD();
+        if (eventFd >= 0) {
+            fd0 = eventFd;
+            fd1 = eventFd;
+        } else {
+            long pipeFds = IOUtil.makePipe(false);
+            fd0 = (int) (pipeFds >>> 32);
+            fd1 = (int) pipeFds;
+        }
+        // ----- END android -----
         pollWrapper = new EPollArrayWrapper();
         pollWrapper.initInterrupt(fd0, fd1);
-        fdToKey = new HashMap<>();
+        // ----- BEGIN android -----
+        // fdToKey = new HashMap<>();
+        fdToKey = new IntObjectMap<>();
+        // ----- END android -----
     }
 
     protected int doSelect(long timeout) throws IOException {
+        // ----- BEGIN android -----
+        return doSelect(null, timeout);
+    }
+
+    /**
+     * Selects, then adds the ready keys to the selected-key set if action is
+     * null, or passes them to action otherwise.
+     */
+    @Override
+    protected int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        // ----- END android -----
         if (closed)
             throw new ClosedSelectorException();
         processDeregisterQueue();
@@ -81,7 +115,10 @@ class EPollSelectorImpl
             end();
         }
         processDeregisterQueue();
-        int numKeysUpdated = updateSelectedKeys();
+        // ----- BEGIN android -----
+        // int numKeysUpdated = updateSelectedKeys();
+        int numKeysUpdated = updateSelectedKeys(action);
+        // ----- END android -----
         if (pollWrapper.interrupted()) {
             // Clear the wakeup pipe
             pollWrapper.putEventOps(pollWrapper.interruptedIndex(), 0);
@@ -96,17 +133,33 @@ class EPollSelectorImpl
 
     /**
      * Update the keys whose fd's have been selected by the epoll.
-     * Add the ready keys to the ready queue.
+     * Add the ready keys to the ready queue, or pass them to action if it
+     * is not null.
      */
-    private int updateSelectedKeys() {
+    private int updateSelectedKeys(Consumer<SelectionKey> action) {
         int entries = pollWrapper.updated;
         int numKeysUpdated = 0;
         for (int i=0; i<entries; i++) {
             int nextFD = pollWrapper.getDescriptor(i);
-            SelectionKeyImpl ski = fdToKey.get(Integer.valueOf(nextFD));
+            // ----- BEGIN android -----
+            // SelectionKeyImpl ski = fdToKey.get(Integer.valueOf(nextFD));
+            SelectionKeyImpl ski = fdToKey.get(nextFD);
+            // ----- END android -----
             // ski is null in the case of an interrupt
             if (ski != null) {
                 int rOps = pollWrapper.getEventOps(i);
+                // ----- BEGIN android -----
+                if (action != null) {
+                    ski.channel.translateAndSetReadyOps(rOps, ski);
+                    if ((ski.nioReadyOps() & ski.nioInterestOps()) != 0) {
+                        action.accept(ski);
+                        if (closed)
+                            throw new ClosedSelectorException();
+                        numKeysUpdated++;
+                    }
+                    continue;
+                }
+                // ----- END android -----
                 if (selectedKeys.contains(ski)) {
                     if (ski.channel.translateAndSetReadyOps(rOps, ski)) {
                         numKeysUpdated++;
@@ -134,7 +187,11 @@ class EPollSelectorImpl
         }
 
         FileDispatcherImpl.closeIntFD(fd0);
-        FileDispatcherImpl.closeIntFD(fd1);
+        // ----- BEGIN android -----
+        // FileDispatcherImpl.closeIntFD(fd1);
+        if (fd1 != fd0)
+            FileDispatcherImpl.closeIntFD(fd1);
+        // ----- END android -----
 
         pollWrapper.closeEPollFD();
         // it is possible
@@ -159,7 +216,10 @@ class EPollSelectorImpl
         if (closed)
             throw new ClosedSelectorException();
         SelChImpl ch = ski.channel;
-        Integer fd = Integer.valueOf(ch.getFDVal());
+        // ----- BEGIN android -----
+        // Integer fd = Integer.valueOf(ch.getFDVal());
+        int fd = ch.getFDVal();
+        // ----- END android -----
         fdToKey.put(fd, ski);
         pollWrapper.add(fd);
         keys.add(ski);
@@ -169,7 +229,10 @@ class EPollSelectorImpl
         assert (ski.getIndex() >= 0);
         SelChImpl ch = ski.channel;
         int fd = ch.getFDVal();
-        fdToKey.remove(Integer.valueOf(fd));
+        // ----- BEGIN android -----
+        // fdToKey.remove(Integer.valueOf(fd));
+        fdToKey.remove(fd);
+        // ----- END android -----
         pollWrapper.remove(fd);
         ski.setIndex(-1);
         keys.remove(ski);
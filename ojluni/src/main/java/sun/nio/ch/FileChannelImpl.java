@@ -42,7 +42,10 @@ import sun.security.action.GetPropertyAction;
 
 // ----- BEGIN android -----
 import android.system.ErrnoException;
+import android.util.MutableLong;
 import libcore.io.Libcore;
+
+import static android.system.OsConstants.*;
 // ----- END android -----
 
 public class FileChannelImpl
@@ -396,6 +399,74 @@ public class FileChannelImpl
         }
     }
 
+    // ----- BEGIN android -----
+    @Override
+    public FileChannel advise(long position, long size, int advice) throws IOException {
+        ensureOpen();
+        if ((position < 0) || (size < 0))
+            throw new IllegalArgumentException();
+        try {
+            Libcore.os.posix_fadvise(fd, position, size, advice);
+        } catch (ErrnoException e) {
+            if (e.errno == EINVAL)
+                throw new IllegalArgumentException("Invalid advice: " + advice);
+            // Advice is meaningless for pipes and FIFOs
+            if (e.errno != ESPIPE)
+                throw e.rethrowAsIOException();
+        }
+        return this;
+    }
+    // ----- END android -----
+
+    // ----- BEGIN android -----
+    // Assume at first that the underlying kernel supports fallocate();
+    // set this to false if we find out later that it doesn't
+    //
+    private static volatile boolean fallocateSupported = true;
+
+    // Whether the file system of this channel's file can reserve storage;
+    // set this to false if we find out that it can't
+    //
+    private volatile boolean preallocateSupported = true;
+
+    @Override
+    public FileChannel preallocate(long position, long size) throws IOException {
+        ensureOpen();
+        if ((position < 0) || (size <= 0))
+            throw new IllegalArgumentException();
+        if (!writable)
+            throw new NonWritableChannelException();
+        if (!fallocateSupported || !preallocateSupported)
+            return this;
+        boolean completed = false;
+        int ti = -1;
+        try {
+            begin();
+            ti = threads.add();
+            if (!isOpen())
+                return this;
+            try {
+                Libcore.os.fallocate(fd, FALLOC_FL_KEEP_SIZE, position, size);
+            } catch (ErrnoException e) {
+                // Not every file system can reserve space ahead of time, in
+                // which case this is a no-op
+                if (e.errno == ENOSYS) {
+                    fallocateSupported = false;
+                } else if (e.errno == EOPNOTSUPP) {
+                    preallocateSupported = false;
+                } else {
+                    throw e.rethrowAsIOException();
+                }
+            }
+            completed = true;
+            return this;
+        } finally {
+            threads.remove(ti);
+            end(completed);
+        }
+    }
+    // ----- END android -----
+
     // Assume at first that the underlying kernel supports sendfile();
     // set this to false if we find out later that it doesn't
     //
@@ -497,6 +568,125 @@ public class FileChannelImpl
         }
     }
 
+    // ----- BEGIN android -----
+    // Assume at first that the underlying kernel supports copy_file_range();
+    // set this to false if we find out later that it doesn't
+    //
+    private static volatile boolean copyFileRangeSupported = true;
+
+    // Assume at first that the underlying kernel supports splice();
+    // set this to false if we find out later that it doesn't
+    //
+    private static volatile boolean spliceSupported = true;
+
+    // Copies count bytes between srcFD and dstFD without passing them through
+    // user space, using copy_file_range() if both ends are regular files and
+    // splice() if one of them is a pipe. A null offset means the descriptor's
+    // own file offset is used and advanced.
+    private long spliceInternal(FileDescriptor srcFD, MutableLong srcOffset,
+                                FileDescriptor dstFD, MutableLong dstOffset,
+                                long count, boolean pipe)
+        throws IOException
+    {
+        long n = -1;
+        int ti = -1;
+        try {
+            begin();
+            ti = threads.add();
+            if (!isOpen())
+                return -1;
+            try {
+                if (pipe) {
+                    n = Libcore.os.splice(srcFD, srcOffset, dstFD, dstOffset, count,
+                                          SPLICE_F_MOVE);
+                } else {
+                    n = Libcore.os.copy_file_range(srcFD, srcOffset, dstFD, dstOffset,
+                                                   count, 0);
+                }
+            } catch (ErrnoException e) {
+                if (e.errno == ENOSYS) {
+                    // Don't bother trying again
+                    if (pipe)
+                        spliceSupported = false;
+                    else
+                        copyFileRangeSupported = false;
+                    return IOStatus.UNSUPPORTED;
+                }
+                if (e.errno == EAGAIN) {
+                    n = 0;
+                    return 0;
+                }
+                // EXDEV (different file systems on older kernels), EINVAL
+                // (file types or flags the syscall can't handle) and friends
+                // only rule out this particular pair of descriptors.
+                if (e.errno == EXDEV || e.errno == EINVAL || e.errno == EOPNOTSUPP
+                        || e.errno == EBADF)
+                    return IOStatus.UNSUPPORTED_CASE;
+                throw e.rethrowAsIOException();
+            }
+            return n;
+        } finally {
+            threads.remove(ti);
+            end(n > -1);
+        }
+    }
+
+    private long transferToBySplice(long position, int icount,
+                                    WritableByteChannel target)
+        throws IOException
+    {
+        if (target instanceof FileChannelImpl) {
+            FileChannelImpl fc = (FileChannelImpl)target;
+            // copy_file_range() rejects a target opened for appending
+            if (!copyFileRangeSupported || fc.append)
+                return IOStatus.UNSUPPORTED;
+            if (IOUtil.fdVal(fd) == IOUtil.fdVal(fc.fd))
+                return IOStatus.UNSUPPORTED;
+            synchronized (fc.positionLock) {
+                return spliceInternal(fd, new MutableLong(position), fc.fd, null,
+                                      icount, false);
+            }
+        }
+        if (target instanceof SinkChannelImpl) {
+            if (!spliceSupported)
+                return IOStatus.UNSUPPORTED;
+            SinkChannelImpl sink = (SinkChannelImpl)target;
+            if (!nd.canTransferToDirectly(sink))
+                return IOStatus.UNSUPPORTED_CASE;
+            return spliceInternal(fd, new MutableLong(position), sink.getFD(), null,
+                                  icount, true);
+        }
+        return IOStatus.UNSUPPORTED;
+    }
+
+    private long transferFromBySplice(ReadableByteChannel src,
+                                      long position, long count)
+        throws IOException
+    {
+        if (src instanceof FileChannelImpl) {
+            FileChannelImpl fc = (FileChannelImpl)src;
+            if (!copyFileRangeSupported || append)
+                return IOStatus.UNSUPPORTED;
+            if (!fc.readable)
+                throw new NonReadableChannelException();
+            if (IOUtil.fdVal(fd) == IOUtil.fdVal(fc.fd))
+                return IOStatus.UNSUPPORTED;
+            // The source's own file offset is consumed, as with read()
+            synchronized (fc.positionLock) {
+                return spliceInternal(fc.fd, null, fd, new MutableLong(position),
+                                      count, false);
+            }
+        }
+        if (src instanceof SourceChannelImpl) {
+            if (!spliceSupported || append)
+                return IOStatus.UNSUPPORTED;
+            return spliceInternal(((SourceChannelImpl)src).getFD(), null,
+                                  fd, new MutableLong(position), count, true);
+        }
+        return IOStatus.UNSUPPORTED;
+    }
+    // ----- END android -----
+
     // Maximum size to map when using a mapped buffer
     private static final long MAPPED_TRANSFER_SIZE = 8L*1024L*1024L;
 
@@ -607,6 +797,12 @@ public class FileChannelImpl
 
         long n;
 
+        // ----- BEGIN android -----
+        // Attempt an in-kernel copy to a file or pipe, if the kernel supports it
+        if ((n = transferToBySplice(position, icount, target)) >= 0)
+            return n;
+        // ----- END android -----
+
         // Attempt a direct transfer, if the kernel supports it
         if ((n = transferToDirectly(position, icount, target)) >= 0)
             return n;
@@ -707,6 +903,12 @@ public class FileChannelImpl
             throw new IllegalArgumentException();
         if (position > size())
             return 0;
+        // ----- BEGIN android -----
+        // Attempt an in-kernel copy from a file or pipe, if the kernel supports it
+        long n;
+        if ((n = transferFromBySplice(src, position, count)) >= 0)
+            return n;
+        // ----- END android -----
         if (src instanceof FileChannelImpl)
            return transferFromFileChannel((FileChannelImpl)src,
                                           position, count);
@@ -855,6 +1057,10 @@ public class FileChannelImpl
     private static final int MAP_RO = 0;
     private static final int MAP_RW = 1;
     private static final int MAP_PV = 2;
+    // ----- BEGIN android -----
+    private static final int MAP_POPULATE = MapMode.POPULATE;
+    private static final int MAP_HUGE_PAGES = MapMode.HUGE_PAGES;
+    // ----- END android -----
 
     public MappedByteBuffer map(MapMode mode, long position, long size)
         throws IOException
@@ -871,6 +1077,10 @@ public class FileChannelImpl
         if (size > Integer.MAX_VALUE)
             throw new IllegalArgumentException("Size exceeds Integer.MAX_VALUE");
 
+        // ----- BEGIN android -----
+        int options = mode.options();
+        mode = mode.baseMode();
+        // ----- END android -----
         int imode = -1;
         if (mode == MapMode.READ_ONLY)
             imode = MAP_RO;
@@ -945,7 +1155,10 @@ public class FileChannelImpl
             try {
                 // If no exception was thrown from map0, the address is valid
                 BlockGuard.getThreadPolicy().onReadFromDisk();
-                addr = map0(imode, mapPosition, mapSize);
+                // ----- BEGIN android -----
+                // addr = map0(imode, mapPosition, mapSize);
+                addr = map0(imode, mapPosition, mapSize, options);
+                // ----- END android -----
             } catch (OutOfMemoryError x) {
                 // An OutOfMemoryError may indicate that we've exhausted memory
                 // so force gc and re-attempt map
@@ -956,7 +1169,10 @@ public class FileChannelImpl
                     Thread.currentThread().interrupt();
                 }
                 try {
-                    addr = map0(imode, mapPosition, mapSize);
+                    // ----- BEGIN android -----
+                    // addr = map0(imode, mapPosition, mapSize);
+                    addr = map0(imode, mapPosition, mapSize, options);
+                    // ----- END android -----
                 } catch (OutOfMemoryError y) {
                     // After a second OOME, fail
                     throw new IOException("Map failed", y);
@@ -1188,7 +1404,10 @@ public class FileChannelImpl
     // -- Native methods --
 
     // Creates a new mapping
-    private native long map0(int prot, long position, long length)
+    // ----- BEGIN android -----
+    // private native long map0(int prot, long position, long length)
+    private native long map0(int prot, long position, long length, int options)
+    // ----- END android -----
         throws IOException;
 
     // Removes an existing mapping
@@ -30,6 +30,9 @@ import java.nio.channels.*;
 import java.nio.channels.spi.*;
 import java.net.SocketException;
 import java.util.*;
+// ----- BEGIN android -----
+import java.util.function.Consumer;
+// ----- END android -----
 
 
 /**
@@ -77,18 +80,66 @@ public abstract class SelectorImpl
 
     protected abstract int doSelect(long timeout) throws IOException;
 
+    // ----- BEGIN android -----
+    /**
+     * Selects and passes each ready key to the action instead of adding it to
+     * the selected-key set.  This implementation selects into the
+     * selected-key set and then consumes a copy of it; subclasses that can
+     * hand keys to the action as they are found should override it.
+     */
+    protected int doSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        selectedKeys.clear();
+        int numKeysSelected = doSelect(timeout);
+        SelectionKey[] keysToConsume =
+            selectedKeys.toArray(new SelectionKey[selectedKeys.size()]);
+        selectedKeys.clear();
+        for (SelectionKey key : keysToConsume) {
+            action.accept(key);
+            if (!isOpen())
+                throw new ClosedSelectorException();
+        }
+        return numKeysSelected;
+    }
+
     private int lockAndDoSelect(long timeout) throws IOException {
+        return lockAndDoSelect(null, timeout);
+    }
+
+    private int lockAndDoSelect(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
         synchronized (this) {
             if (!isOpen())
                 throw new ClosedSelectorException();
             synchronized (publicKeys) {
                 synchronized (publicSelectedKeys) {
-                    return doSelect(timeout);
+                    return (action == null)
+                        ? doSelect(timeout)
+                        : doSelect(action, timeout);
                 }
             }
         }
     }
 
+    @Override
+    public int select(Consumer<SelectionKey> action, long timeout)
+        throws IOException
+    {
+        Objects.requireNonNull(action);
+        if (timeout < 0)
+            throw new IllegalArgumentException("Negative timeout");
+        return lockAndDoSelect(action, (timeout == 0) ? -1 : timeout);
+    }
+
+    @Override
+    public int selectNow(Consumer<SelectionKey> action) throws IOException {
+        Objects.requireNonNull(action);
+        return lockAndDoSelect(action, 0);
+    }
+    // ----- END android -----
+
     public int select(long timeout)
         throws IOException
     {
@@ -26,6 +26,7 @@
 package sun.nio.ch;
 
 import dalvik.system.BlockGuard;
+import libcore.io.IoStats;
 import dalvik.system.SocketTagger;
 
 import java.io.*;
@@ -40,22 +41,54 @@ class SocketDispatcher extends NativeDispatcher
 
     int read(FileDescriptor fd, long address, int len) throws IOException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return FileDispatcherImpl.read0(fd, address, len);
+        // Android-added: Record the call in IoStats.
+        final long startNanos = IoStats.begin();
+        int n = -1;
+        try {
+            n = FileDispatcherImpl.read0(fd, address, len);
+            return n;
+        } finally {
+            IoStats.end(IoStats.Op.READ, IoStats.Kind.NETWORK, startNanos, n);
+        }
     }
 
     long readv(FileDescriptor fd, long address, int len) throws IOException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return FileDispatcherImpl.readv0(fd, address, len);
+        // Android-added: Record the call in IoStats.
+        final long startNanos = IoStats.begin();
+        long n = -1;
+        try {
+            n = FileDispatcherImpl.readv0(fd, address, len);
+            return n;
+        } finally {
+            IoStats.end(IoStats.Op.READ, IoStats.Kind.NETWORK, startNanos, n);
+        }
     }
 
     int write(FileDescriptor fd, long address, int len) throws IOException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return FileDispatcherImpl.write0(fd, address, len);
+        // Android-added: Record the call in IoStats.
+        final long startNanos = IoStats.begin();
+        int n = -1;
+        try {
+            n = FileDispatcherImpl.write0(fd, address, len);
+            return n;
+        } finally {
+            IoStats.end(IoStats.Op.WRITE, IoStats.Kind.NETWORK, startNanos, n);
+        }
     }
 
     long writev(FileDescriptor fd, long address, int len) throws IOException {
         BlockGuard.getThreadPolicy().onNetwork();
-        return FileDispatcherImpl.writev0(fd, address, len);
+        // Android-added: Record the call in IoStats.
+        final long startNanos = IoStats.begin();
+        long n = -1;
+        try {
+            n = FileDispatcherImpl.writev0(fd, address, len);
+            return n;
+        } finally {
+            IoStats.end(IoStats.Op.WRITE, IoStats.Kind.NETWORK, startNanos, n);
+        }
     }
 
     void close(FileDescriptor fd) throws IOException {
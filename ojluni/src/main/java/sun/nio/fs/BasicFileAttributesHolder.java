@@ -43,4 +43,13 @@ public interface BasicFileAttributesHolder {
      * Invalidates cached attributes
      */
     void invalidate();
+
+    // Android-added: Attributes of directory entries that only know the file type.
+    /**
+     * Returns whether the cached attributes only know the type of the file,
+     * so that their other values must not be used.
+     */
+    default boolean isFileTypeOnly() {
+        return false;
+    }
 }
@@ -30,6 +30,7 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.*;
 import java.io.IOException;
+import libcore.util.IntObjectMap;
 import sun.misc.Unsafe;
 
 import static sun.nio.fs.UnixNativeDispatcher.*;
@@ -181,7 +182,8 @@ class LinuxWatchService
         // socketpair used to shutdown polling thread
         private final int socketpair[];
         // maps watch descriptor to Key
-        private final Map<Integer,LinuxWatchKey> wdToKey;
+        // Android-changed: Use IntObjectMap to avoid boxing watch descriptors.
+        private final IntObjectMap<LinuxWatchKey> wdToKey;
         // address of read buffer
         private final long address;
 
@@ -190,7 +192,7 @@ class LinuxWatchService
             this.watcher = watcher;
             this.ifd = ifd;
             this.socketpair = sp;
-            this.wdToKey = new HashMap<Integer,LinuxWatchKey>();
+            this.wdToKey = new IntObjectMap<LinuxWatchKey>();
             this.address = unsafe.allocateMemory(BUFFER_SIZE);
         }
 
@@ -289,9 +291,7 @@ class LinuxWatchService
         @Override
         void implCloseAll() {
             // invalidate all keys
-            for (Map.Entry<Integer,LinuxWatchKey> entry: wdToKey.entrySet()) {
-                entry.getValue().invalidate(true);
-            }
+            wdToKey.forEach((descriptor, watchKey) -> watchKey.invalidate(true));
             wdToKey.clear();
 
             // free resources
@@ -407,10 +407,8 @@ class LinuxWatchService
         private void processEvent(int wd, int mask, final UnixPath name) {
             // overflow - signal all keys
             if ((mask & IN_Q_OVERFLOW) > 0) {
-                for (Map.Entry<Integer,LinuxWatchKey> entry: wdToKey.entrySet()) {
-                    entry.getValue()
-                        .signalEvent(StandardWatchEventKinds.OVERFLOW, null);
-                }
+                wdToKey.forEach((descriptor, watchKey) ->
+                    watchKey.signalEvent(StandardWatchEventKinds.OVERFLOW, null));
                 return;
             }
 
@@ -26,6 +26,8 @@
 package sun.nio.fs;
 
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.concurrent.locks.*;
@@ -150,59 +152,64 @@ class UnixDirectoryStream
         // next entry to return
         private Path nextEntry;
 
+        // Android-changed: Read entries in batches, with their types.
+        // names and types of the entries read but not yet returned
+        private final byte[][] names = new byte[READDIR_BATCH_SIZE][];
+        private final int[] types = new int[READDIR_BATCH_SIZE];
+        private int batchCount;
+        private int batchPos;
+
         UnixDirectoryIterator(DirectoryStream<Path> stream) {
             atEof = false;
             this.stream = stream;
         }
 
-        // Return true if file name is "." or ".."
-        private boolean isSelfOrParent(byte[] nameAsBytes) {
-            if (nameAsBytes[0] == '.') {
-                if ((nameAsBytes.length == 1) ||
-                    (nameAsBytes.length == 2 && nameAsBytes[1] == '.')) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
         // Returns next entry (or null)
         private Path readNextEntry() {
             assert Thread.holdsLock(this);
 
             for (;;) {
-                byte[] nameAsBytes = null;
+                // Android-changed: Read entries in batches, with their types.
+                // Behave as if at EOF once closed, even with entries left.
+                if (batchPos == batchCount || !isOpen()) {
+                    batchPos = 0;
+                    batchCount = 0;
+
+                    // prevent close while reading
+                    readLock().lock();
+                    try {
+                        if (isOpen()) {
+                            batchCount = readdirBatch(dp, names, types);
+                        }
+                    } catch (UnixException x) {
+                        IOException ioe = x.asIOException(dir);
+                        throw new DirectoryIteratorException(ioe);
+                    } finally {
+                        readLock().unlock();
+                    }
 
-                // prevent close while reading
-                readLock().lock();
-                try {
-                    if (isOpen()) {
-                        nameAsBytes = readdir(dp);
+                    // EOF
+                    if (batchCount == 0) {
+                        atEof = true;
+                        return null;
                     }
-                } catch (UnixException x) {
-                    IOException ioe = x.asIOException(dir);
-                    throw new DirectoryIteratorException(ioe);
-                } finally {
-                    readLock().unlock();
                 }
 
-                // EOF
-                if (nameAsBytes == null) {
-                    atEof = true;
-                    return null;
-                }
+                byte[] nameAsBytes = names[batchPos];
+                int type = types[batchPos];
+                names[batchPos++] = null;
 
-                // ignore "." and ".."
-                if (!isSelfOrParent(nameAsBytes)) {
-                    Path entry = dir.resolve(nameAsBytes);
+                // "." and ".." are already skipped
+                Path entry = (type != 0)
+                    ? new UnixPathWithType(dir.resolve(nameAsBytes), type)
+                    : dir.resolve(nameAsBytes);
 
-                    // return entry if no filter or filter accepts it
-                    try {
-                        if (filter == null || filter.accept(entry))
-                            return entry;
-                    } catch (IOException ioe) {
-                        throw new DirectoryIteratorException(ioe);
-                    }
+                // return entry if no filter or filter accepts it
+                try {
+                    if (filter == null || filter.accept(entry))
+                        return entry;
+                } catch (IOException ioe) {
+                    throw new DirectoryIteratorException(ioe);
                 }
             }
         }
@@ -234,6 +241,103 @@ class UnixDirectoryStream
         }
     }
 
+    // Android-added: Read entries in batches, with their types.
+    private static final int READDIR_BATCH_SIZE = 64;
+
+    /**
+     * A directory entry whose file type is known from the directory itself,
+     * so that FileTreeWalker can tell directories from files without an
+     * lstat per entry.  Its cached attributes only know the file type, so
+     * FileTreeWalker reads the attributes with lstat where it needs more.
+     */
+    private static final class UnixPathWithType
+        extends UnixPath implements BasicFileAttributesHolder
+    {
+        private volatile BasicFileAttributes attrs;
+
+        UnixPathWithType(UnixPath path, int type) {
+            super(path.getFileSystem(), path.asByteArray());
+            this.attrs = new DirentAttributes(type);
+        }
+
+        @Override
+        public BasicFileAttributes get() {
+            return attrs;
+        }
+
+        @Override
+        public void invalidate() {
+            attrs = null;
+        }
+
+        @Override
+        public boolean isFileTypeOnly() {
+            return true;
+        }
+    }
+
+    /**
+     * The attributes of a directory entry whose type came from d_type.  The
+     * other attributes aren't known, and must be read with lstat by whoever
+     * needs them, so that a failure is reported as an IOException.
+     */
+    private static final class DirentAttributes implements BasicFileAttributes {
+        private final int type;
+
+        DirentAttributes(int type) {
+            this.type = type;
+        }
+
+        private static UnsupportedOperationException typeOnly() {
+            return new UnsupportedOperationException("Only the file type is known");
+        }
+
+        @Override
+        public boolean isRegularFile() {
+            return type == UnixConstants.S_IFREG;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return type == UnixConstants.S_IFDIR;
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return type == UnixConstants.S_IFLNK;
+        }
+
+        @Override
+        public boolean isOther() {
+            return !isRegularFile() && !isDirectory() && !isSymbolicLink();
+        }
+
+        @Override
+        public FileTime lastModifiedTime() {
+            throw typeOnly();
+        }
+
+        @Override
+        public FileTime lastAccessTime() {
+            throw typeOnly();
+        }
+
+        @Override
+        public FileTime creationTime() {
+            throw typeOnly();
+        }
+
+        @Override
+        public long size() {
+            throw typeOnly();
+        }
+
+        @Override
+        public Object fileKey() {
+            throw typeOnly();
+        }
+    }
+
     /**
      * Cleans up if the user forgets to close it.
      */
@@ -430,6 +430,18 @@ class UnixNativeDispatcher {
      */
     static native byte[] readdir(long dir) throws UnixException;
 
+    // Android-added: Read directory entries in batches, with their types.
+    /**
+     * Reads up to names.length entries of the directory, skipping "." and
+     * "..".  Stores each entry's dirent->d_name in names and its file type
+     * (one of the S_IF* constants, or 0 if the file system doesn't report
+     * it) in types.
+     *
+     * @return  the number of entries read, 0 at the end of the directory
+     */
+    static native int readdirBatch(long dir, byte[][] names, int[] types)
+        throws UnixException;
+
     /**
      * size_t read(int fildes, void* buf, size_t nbyte)
      */
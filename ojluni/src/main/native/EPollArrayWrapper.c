@@ -32,6 +32,11 @@
 #include <unistd.h>
 #include <sys/time.h>
 #include <sys/epoll.h>
+// ----- BEGIN android -----
+#include <errno.h>
+#include <stdint.h>
+#include <sys/eventfd.h>
+// ----- END android -----
 
 #define RESTARTABLE(_cmd, _result) do { \
   do { \
@@ -158,6 +163,32 @@ Java_sun_nio_ch_EPollArrayWrapper_interrupt(JNIEnv *env, jobject this, jint fd)
     }
 }
 
+// ----- BEGIN android -----
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_EPollArrayWrapper_makeEventFD(JNIEnv *env, jclass this)
+{
+    int fd = eventfd(0, EFD_NONBLOCK | EFD_CLOEXEC);
+    if (fd < 0) {
+        if (errno == ENOSYS || errno == EINVAL) {
+            return -1;  /* Not supported; the caller falls back to a pipe */
+        }
+        JNU_ThrowIOExceptionWithLastError(env, "eventfd failed");
+    }
+    return fd;
+}
+
+JNIEXPORT void JNICALL
+Java_sun_nio_ch_EPollArrayWrapper_interruptEventFD(JNIEnv *env, jclass this, jint fd)
+{
+    uint64_t one = 1;
+    int res;
+    RESTARTABLE(write(fd, &one, sizeof(one)), res);
+    if (res < 0) {
+        JNU_ThrowIOExceptionWithLastError(env, "write to interrupt eventfd failed");
+    }
+}
+// ----- END android -----
+
 static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(EPollArrayWrapper, epollCreate, "()I"),
   NATIVE_METHOD(EPollArrayWrapper, epollCtl, "(IIII)V"),
@@ -165,6 +196,8 @@ static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(EPollArrayWrapper, sizeofEPollEvent, "()I"),
   NATIVE_METHOD(EPollArrayWrapper, offsetofData, "()I"),
   NATIVE_METHOD(EPollArrayWrapper, interrupt, "(I)V"),
+  NATIVE_METHOD(EPollArrayWrapper, makeEventFD, "()I"),
+  NATIVE_METHOD(EPollArrayWrapper, interruptEventFD, "(I)V"),
 };
 
 void register_sun_nio_ch_EPollArrayWrapper(JNIEnv* env) {
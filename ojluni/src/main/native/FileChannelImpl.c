@@ -77,7 +77,7 @@ handle(JNIEnv *env, jlong rv, char *msg)
 
 JNIEXPORT jlong JNICALL
 FileChannelImpl_map0(JNIEnv *env, jobject this,
-                                     jint prot, jlong off, jlong len)
+                                     jint prot, jlong off, jlong len, jint options)
 {
     void *mapAddress = 0;
     jobject fdo = (*env)->GetObjectField(env, this, chan_fd);
@@ -95,6 +95,11 @@ FileChannelImpl_map0(JNIEnv *env, jobject this,
         protections =  PROT_WRITE | PROT_READ;
         flags = MAP_PRIVATE;
     }
+#ifdef MAP_POPULATE
+    if (options & sun_nio_ch_FileChannelImpl_MAP_POPULATE) {
+        flags |= MAP_POPULATE;
+    }
+#endif
 
     mapAddress = mmap64(
         0,                    /* Let OS decide location */
@@ -111,6 +116,12 @@ FileChannelImpl_map0(JNIEnv *env, jobject this,
         }
         return handle(env, -1, "Map failed");
     }
+#ifdef MADV_HUGEPAGE
+    if (options & sun_nio_ch_FileChannelImpl_MAP_HUGE_PAGES) {
+        /* Only a hint: fails if the kernel has no huge pages for the file */
+        madvise(mapAddress, len, MADV_HUGEPAGE);
+    }
+#endif
 
     return ((jlong) (unsigned long) mapAddress);
 }
@@ -281,7 +292,7 @@ FileChannelImpl_transferTo0(JNIEnv *env, jobject this,
 
 static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(FileChannelImpl, initIDs, "()J"),
-  NATIVE_METHOD(FileChannelImpl, map0, "(IJJ)J"),
+  NATIVE_METHOD(FileChannelImpl, map0, "(IJJI)J"),
   NATIVE_METHOD(FileChannelImpl, unmap0, "(JJ)I"),
   NATIVE_METHOD(FileChannelImpl, position0, "(Ljava/io/FileDescriptor;J)J"),
   NATIVE_METHOD(FileChannelImpl, transferTo0, "(Ljava/io/FileDescriptor;JJLjava/io/FileDescriptor;)J"),
@@ -27,6 +27,7 @@
 #include "jni_util.h"
 #include "jvm.h"
 #include "jlong.h"
+#include <errno.h>
 #include <sys/mman.h>
 #include <stddef.h>
 #include <stdlib.h>
@@ -97,10 +98,26 @@ Java_java_nio_MappedByteBuffer_force0(JNIEnv *env, jobject obj, jobject fdo,
 }
 
 
+JNIEXPORT void JNICALL
+Java_java_nio_MappedByteBuffer_advise0(JNIEnv *env, jobject obj, jlong address,
+                                       jlong len, jint advice)
+{
+    char *a = (char *)jlong_to_ptr(address);
+    int result = madvise((caddr_t)a, (size_t)len, advice);
+    // The advice is only a hint, so failures other than an invalid advice
+    // value are ignored.
+    if (result == -1 && errno == EINVAL) {
+        jniThrowExceptionFmt(env, "java/lang/IllegalArgumentException",
+                             "Invalid advice: %d", advice);
+    }
+}
+
+
 static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(MappedByteBuffer, isLoaded0, "(JJI)Z"),
   NATIVE_METHOD(MappedByteBuffer, load0, "(JJ)V"),
   NATIVE_METHOD(MappedByteBuffer, force0, "(Ljava/io/FileDescriptor;JJ)V"),
+  NATIVE_METHOD(MappedByteBuffer, advise0, "(JJI)V"),
 };
 
 void register_java_nio_MappedByteBuffer(JNIEnv* env) {
@@ -30,6 +30,10 @@
 #include <unistd.h>
 #include <errno.h>
 
+#if defined(__linux__)
+#include <sys/syscall.h>
+#endif
+
 #include "sun_nio_fs_UnixCopyFile.h"
 
 #define RESTARTABLE(_cmd, _result) do { \
@@ -46,8 +50,53 @@ static void throwUnixException(JNIEnv* env, int errnum) {
     }
 }
 
+#if defined(__linux__) && defined(__NR_copy_file_range)
+
+// Size of each copy_file_range request, small enough that cancellation is
+// still noticed promptly
+#define COPY_CHUNK_SIZE (16 * 1024 * 1024)
+
 /**
- * Transfer all bytes from src to dst via user-space buffers
+ * Transfer bytes from src to dst inside the kernel with copy_file_range.
+ * Returns 0 if all bytes were transferred or an exception was thrown, and -1
+ * if the caller should fall back to copying through user-space buffers. As
+ * the file offsets of both descriptors are used and advanced, the fallback
+ * carries on from where this left off.
+ */
+static int
+transferInKernel(JNIEnv* env, jint dst, jint src, volatile jint* cancel)
+{
+    jboolean first = JNI_TRUE;
+    for (;;) {
+        ssize_t n;
+        RESTARTABLE(syscall(__NR_copy_file_range, (int)src, NULL, (int)dst, NULL,
+                            (size_t)COPY_CHUNK_SIZE, 0u), n);
+        if (n == 0) {
+            // Some pseudo file systems report a size of zero and make
+            // copy_file_range return 0 without reaching end of file, so only
+            // trust a 0 after something has been transferred.
+            return first ? -1 : 0;
+        }
+        if (n < 0) {
+            if (errno == ENOSYS || errno == EXDEV || errno == EINVAL ||
+                errno == EOPNOTSUPP || errno == EBADF)
+                return -1;
+            throwUnixException(env, errno);
+            return 0;
+        }
+        if (cancel != NULL && *cancel != 0) {
+            throwUnixException(env, ECANCELED);
+            return 0;
+        }
+        first = JNI_FALSE;
+    }
+}
+
+#endif
+
+/**
+ * Transfer all bytes from src to dst, inside the kernel where possible and
+ * via user-space buffers otherwise
  */
 JNIEXPORT void JNICALL
 Java_sun_nio_fs_UnixCopyFile_transfer
@@ -56,6 +105,11 @@ Java_sun_nio_fs_UnixCopyFile_transfer
     char buf[8192];
     volatile jint* cancel = (jint*)jlong_to_ptr(cancelAddress);
 
+#if defined(__linux__) && defined(__NR_copy_file_range)
+    if (transferInKernel(env, dst, src, cancel) == 0)
+        return;
+#endif
+
     for (;;) {
         ssize_t n, pos, len;
         RESTARTABLE(read((int)src, &buf, sizeof(buf)), n);
@@ -57,6 +57,7 @@
 #define lstat64 lstat
 #define dirent64 dirent
 #define readdir64_r readdir_r
+#define readdir64 readdir
 #endif
 
 #include "jni.h"
@@ -723,6 +724,74 @@ Java_sun_nio_fs_UnixNativeDispatcher_readdir(JNIEnv* env, jclass this, jlong val
     }
 }
 
+// Android-added: Read directory entries in batches, with their types.
+/**
+ * Returns the S_IF* file type for a dirent d_type, or 0 if the file system
+ * doesn't report it.
+ */
+static jint direntType(const struct dirent64* entry) {
+#if defined(DT_UNKNOWN)
+    switch (entry->d_type) {
+        case DT_REG:  return S_IFREG;
+        case DT_DIR:  return S_IFDIR;
+        case DT_LNK:  return S_IFLNK;
+        case DT_CHR:  return S_IFCHR;
+        case DT_BLK:  return S_IFBLK;
+        case DT_FIFO: return S_IFIFO;
+        case DT_SOCK: return S_IFSOCK;
+    }
+#endif
+    return 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_fs_UnixNativeDispatcher_readdirBatch(JNIEnv* env, jclass this,
+    jlong value, jobjectArray names, jintArray types)
+{
+    DIR* dirp = jlong_to_ptr(value);
+    jsize max = (*env)->GetArrayLength(env, names);
+    jint count = 0;
+
+    /*
+     * readdir already fills its buffer with one getdents64 call for many
+     * entries, so the cost being saved here is one JNI call per entry.
+     */
+    while (count < max) {
+        struct dirent64* entry;
+        jsize len;
+        jbyteArray bytes;
+        jint type;
+
+        /* EINTR not listed as a possible error */
+        errno = 0;
+        entry = readdir64(dirp);
+        if (entry == NULL) {
+            if (errno != 0) {
+                throwUnixException(env, errno);
+                return -1;
+            }
+            break;
+        }
+        if (entry->d_name[0] == '.' && (entry->d_name[1] == '\0' ||
+            (entry->d_name[1] == '.' && entry->d_name[2] == '\0'))) {
+            continue;
+        }
+
+        len = strlen(entry->d_name);
+        bytes = (*env)->NewByteArray(env, len);
+        if (bytes == NULL) {
+            return -1;
+        }
+        (*env)->SetByteArrayRegion(env, bytes, 0, len, (jbyte*)(entry->d_name));
+        (*env)->SetObjectArrayElement(env, names, count, bytes);
+        (*env)->DeleteLocalRef(env, bytes);
+        type = direntType(entry);
+        (*env)->SetIntArrayRegion(env, types, count, 1, &type);
+        count++;
+    }
+    return count;
+}
+
 JNIEXPORT void JNICALL
 Java_sun_nio_fs_UnixNativeDispatcher_mkdir0(JNIEnv* env, jclass this,
     jlong pathAddress, jint mode)
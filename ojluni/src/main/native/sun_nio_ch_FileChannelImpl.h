@@ -44,13 +44,17 @@ extern "C" {
 #define sun_nio_ch_FileChannelImpl_MAP_RW 1L
 #undef sun_nio_ch_FileChannelImpl_MAP_PV
 #define sun_nio_ch_FileChannelImpl_MAP_PV 2L
+#undef sun_nio_ch_FileChannelImpl_MAP_POPULATE
+#define sun_nio_ch_FileChannelImpl_MAP_POPULATE 1L
+#undef sun_nio_ch_FileChannelImpl_MAP_HUGE_PAGES
+#define sun_nio_ch_FileChannelImpl_MAP_HUGE_PAGES 2L
 /*
  * Class:     sun_nio_ch_FileChannelImpl
  * Method:    map0
- * Signature: (IJJ)J
+ * Signature: (IJJI)J
  */
 JNIEXPORT jlong JNICALL Java_sun_nio_ch_FileChannelImpl_map0
-  (JNIEnv *, jobject, jint, jlong, jlong);
+  (JNIEnv *, jobject, jint, jlong, jlong, jint);
 
 /*
  * Class:     sun_nio_ch_FileChannelImpl
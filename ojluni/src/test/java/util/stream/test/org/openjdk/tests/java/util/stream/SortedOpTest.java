@@ -38,6 +38,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.BaseStream;
+import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -216,6 +217,51 @@ public class SortedOpTest extends OpTestCase {
         assertContentsUnordered(data, result);
     }
 
+    @Test(dataProvider = "StreamTestData<Integer>", dataProviderClass = StreamTestDataProvider.class)
+    public void testSortedLimit(String name, TestData.OfRef<Integer> data) {
+        List<Integer> sorted = data.into(new ArrayList<Integer>());
+        Collections.sort(sorted);
+        for (int limit : new int[] { 0, 1, 10, sorted.size(), sorted.size() + 1 }) {
+            Collection<Integer> result = exerciseOps(data, s -> s.sorted().limit(limit));
+            assertEquals(new ArrayList<>(result), sorted.subList(0, Math.min(limit, sorted.size())));
+
+            result = exerciseOps(data, s -> s.sorted(cInteger.reversed()).limit(limit));
+            assertSorted(result, cInteger.reversed());
+            assertEquals(result.size(), Math.min(limit, sorted.size()));
+        }
+        Optional<Integer> first = sorted.isEmpty() ? Optional.empty() : Optional.of(sorted.get(0));
+        assertEquals(data.stream().sorted().findFirst(), first);
+        assertEquals(data.parallelStream().sorted().findFirst(), first);
+    }
+
+    @Test
+    public void testSortedLimitStable() {
+        // Create instances of Integer with a few distinct values
+        List<Integer> input = IntStream.range(0, 1000)
+                .mapToObj(i -> new Integer(i % 10)) // explicit construction
+                .collect(Collectors.toList());
+        List<Integer> sorted = new ArrayList<>(input);
+        Collections.sort(sorted);
+        TestData<Integer, Stream<Integer>> data = TestData.Factory.ofCollection(
+                "1000 instances of Integer with 10 values", input);
+
+        withData(data)
+                .stream(s -> s.sorted().limit(250))
+                .resultAsserter((actual, expected, isOrdered, isParallel) -> {
+                    List<Integer> l = new ArrayList<>();
+                    actual.forEach(l::add);
+
+                    // Assert stability
+                    // Equal elements should be in encounter order, as for a
+                    // stable sort of all elements
+                    assertEquals(l.size(), 250);
+                    for (int i = 0; i < l.size(); i++) {
+                        assertSame(l.get(i), sorted.get(i));
+                    }
+                })
+                .exercise();
+    }
+
     //
 
     @Test(groups = { "serialization-hostile" })
@@ -264,6 +310,16 @@ public class SortedOpTest extends OpTestCase {
         assertContentsUnordered(data, result);
     }
 
+    @Test(dataProvider = "IntStreamTestData", dataProviderClass = IntStreamTestDataProvider.class)
+    public void testIntSortedLimit(String name, TestData.OfInt data) {
+        List<Integer> sorted = data.into(new ArrayList<Integer>());
+        Collections.sort(sorted);
+        for (int limit : new int[] { 0, 1, 10, sorted.size(), sorted.size() + 1 }) {
+            Collection<Integer> result = exerciseOps(data, s -> s.sorted().limit(limit));
+            assertEquals(new ArrayList<>(result), sorted.subList(0, Math.min(limit, sorted.size())));
+        }
+    }
+
     //
 
     @Test(groups = { "serialization-hostile" })
@@ -312,6 +368,16 @@ public class SortedOpTest extends OpTestCase {
         assertContentsUnordered(data, result);
     }
 
+    @Test(dataProvider = "LongStreamTestData", dataProviderClass = LongStreamTestDataProvider.class)
+    public void testLongSortedLimit(String name, TestData.OfLong data) {
+        List<Long> sorted = data.into(new ArrayList<Long>());
+        Collections.sort(sorted);
+        for (int limit : new int[] { 0, 1, 10, sorted.size(), sorted.size() + 1 }) {
+            Collection<Long> result = exerciseOps(data, s -> s.sorted().limit(limit));
+            assertEquals(new ArrayList<>(result), sorted.subList(0, Math.min(limit, sorted.size())));
+        }
+    }
+
     //
 
     @Test(groups = { "serialization-hostile" })
@@ -360,6 +426,16 @@ public class SortedOpTest extends OpTestCase {
         assertContentsUnordered(data, result);
     }
 
+    @Test(dataProvider = "DoubleStreamTestData", dataProviderClass = DoubleStreamTestDataProvider.class)
+    public void testDoubleSortedLimit(String name, TestData.OfDouble data) {
+        List<Double> sorted = data.into(new ArrayList<Double>());
+        Collections.sort(sorted);
+        for (int limit : new int[] { 0, 1, 10, sorted.size(), sorted.size() + 1 }) {
+            Collection<Double> result = exerciseOps(data, s -> s.sorted().limit(limit));
+            assertEquals(new ArrayList<>(result), sorted.subList(0, Math.min(limit, sorted.size())));
+        }
+    }
+
     /**
      * Interpose a consumer that asserts it is called at most N times.
      */
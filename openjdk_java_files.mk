@@ -453,6 +453,7 @@ openjdk_javadoc_files := \
     ojluni/src/main/java/java/nio/file/FileSystemNotFoundException.java \
     ojluni/src/main/java/java/nio/file/FileSystems.java \
     ojluni/src/main/java/java/nio/file/FileTreeIterator.java \
+    ojluni/src/main/java/java/nio/file/FileTreeSpliterator.java \
     ojluni/src/main/java/java/nio/file/FileTreeWalker.java \
     ojluni/src/main/java/java/nio/file/FileVisitOption.java \
     ojluni/src/main/java/java/nio/file/FileVisitResult.java \
@@ -892,6 +893,7 @@ openjdk_javadoc_files := \
     ojluni/src/main/java/java/util/HashSet.java \
     ojluni/src/main/java/java/util/Hashtable.java \
     ojluni/src/main/java/java/util/IdentityHashMap.java \
+    ojluni/src/main/java/java/util/ImmutableCollections.java \
     ojluni/src/main/java/java/util/IllegalFormatCodePointException.java \
     ojluni/src/main/java/java/util/IllegalFormatConversionException.java \
     ojluni/src/main/java/java/util/IllegalFormatException.java \
@@ -1147,6 +1149,7 @@ openjdk_javadoc_files := \
     ojluni/src/main/java/java/util/Queue.java \
     ojluni/src/main/java/java/util/RandomAccess.java \
     ojluni/src/main/java/java/util/Random.java \
+    ojluni/src/main/java/java/util/RadixSort.java \
     ojluni/src/main/java/java/util/RegularEnumSet.java \
     ojluni/src/main/java/java/util/ResourceBundle.java \
     ojluni/src/main/java/java/util/Scanner.java \